@@ -940,6 +940,20 @@ public class Const {
    */
   public static final String KETTLE_PLUGIN_PACKAGES = "KETTLE_PLUGIN_PACKAGES";
 
+  /**
+   * Name of the environment variable to enable (Y, default) or disable (N) the persisted index of plugin annotations
+   * kept in the plugin-index folder of the Kettle home directory
+   */
+  public static final String KETTLE_PLUGIN_INDEX_CACHE = "KETTLE_PLUGIN_INDEX_CACHE";
+
+  public static final String KETTLE_PLUGIN_INDEX_CACHE_DEFAULT = "Y";
+
+  /**
+   * Name of the environment variable with the number of threads used to scan plugin jar files for annotations. The
+   * default is the number of available processors.
+   */
+  public static final String KETTLE_PLUGIN_SCAN_THREADS = "KETTLE_PLUGIN_SCAN_THREADS";
+
   /**
    * Name of the environment variable that contains the size of the transformation rowset size. This overwrites values
    * that you set transformation settings.
@@ -1261,6 +1275,22 @@ public class Const {
    */
   public static final String KETTLE_LOG_MARK_MAPPINGS = "KETTLE_LOG_MARK_MAPPINGS";
 
+  /**
+   * Set this variable to Y to write log lines to files, the console and SLF4J on a background thread. Default is N.
+   */
+  public static final String KETTLE_LOG_ASYNC = "KETTLE_LOG_ASYNC";
+
+  /**
+   * The maximum number of log lines waiting to be written when asynchronous logging is enabled.
+   */
+  public static final String KETTLE_LOG_ASYNC_QUEUE_SIZE = "KETTLE_LOG_ASYNC_QUEUE_SIZE";
+
+  /**
+   * What to do when the asynchronous logging queue is full: BLOCK (default) waits for room, DROP discards the log line.
+   * Errors are never discarded.
+   */
+  public static final String KETTLE_LOG_ASYNC_OVERFLOW_POLICY = "KETTLE_LOG_ASYNC_OVERFLOW_POLICY";
+
   /**
    * A variable to configure jetty option: acceptors for Carte
    */
@@ -1433,6 +1463,123 @@ public class Const {
    */
   public static final String SHARED_STREAMING_BATCH_POOL_SIZE = "SHARED_STREAMING_BATCH_POOL_SIZE";
 
+  /**
+   * <p>This environment variable is used by streaming consumer steps to pass every record on to the sub-transformation
+   * as it arrives instead of once its batch is complete (Y/N). Every batch runs a sub-transformation that is prepared
+   * ahead and is committed once that run finished.</p>
+   */
+  public static final String KETTLE_STREAMING_CONTINUOUS = "KETTLE_STREAMING_CONTINUOUS";
+
+  /**
+   * <p>This environment variable is used by the Parallel gzip CSV input step to decompress plain gzip files once to find
+   * their members and keep them in a sidecar index (Y/N). BGZF files are always indexed.</p>
+   */
+  public static final String KETTLE_PARGZIP_SCAN_MEMBERS = "KETTLE_PARGZIP_SCAN_MEMBERS";
+
+  /**
+   * <p>The number of threads the Parallel GZip, LZ4 and Zstd compression providers compress on. Defaults to the number
+   * of processors.</p>
+   */
+  public static final String KETTLE_COMPRESSION_THREADS = "KETTLE_COMPRESSION_THREADS";
+
+  /**
+   * <p>The number of bytes the Parallel GZip and LZ4 compression providers compress as one unit.</p>
+   */
+  public static final String KETTLE_COMPRESSION_BLOCK_SIZE = "KETTLE_COMPRESSION_BLOCK_SIZE";
+
+  /**
+   * <p>The compression level of the Zstd compression provider.</p>
+   */
+  public static final String KETTLE_COMPRESSION_ZSTD_LEVEL = "KETTLE_COMPRESSION_ZSTD_LEVEL";
+
+  /**
+   * <p>Set this variable to N to make CSV Input read local files through a buffer instead of memory mapping them.</p>
+   */
+  public static final String KETTLE_CSV_INPUT_MEMORY_MAPPED = "KETTLE_CSV_INPUT_MEMORY_MAPPED";
+
+  /**
+   * <p>The number of MB of shared strings the streaming XLSX reader keeps in memory, the strings beyond it are kept in a
+   * temporary file.</p>
+   */
+  public static final String KETTLE_XLSX_SHARED_STRINGS_MEMORY_LIMIT = "KETTLE_XLSX_SHARED_STRINGS_MEMORY_LIMIT";
+
+  /**
+   * <p>Set this variable to Y to make JSON Input stream a document and return the rows while reading it, when the paths
+   * of all fields iterate over the same array.</p>
+   */
+  public static final String KETTLE_JSON_INPUT_STREAMING = "KETTLE_JSON_INPUT_STREAMING";
+
+  /**
+   * <p>Set this variable to Y to make Get Data From XML stream files with StAX instead of reading them into a document,
+   * when the loop and field paths only use child and attribute steps.</p>
+   */
+  public static final String KETTLE_GET_XML_DATA_STREAMING = "KETTLE_GET_XML_DATA_STREAMING";
+
+  /**
+   * <p>The number of rows Insert/Update and Update look up in one query when the keys are compared with = or = ~NULL
+   * and error handling is off. Insert/Update and Delete then also write their rows in JDBC batches. 0 or 1 looks up
+   * and writes the rows one by one.</p>
+   */
+  public static final String KETTLE_UPSERT_BATCH_SIZE = "KETTLE_UPSERT_BATCH_SIZE";
+
+  /**
+   * <p>The memory in MB the cache of Dimension Lookup/Update may use when it doesn't pre-load the table, next to the
+   * cache size in rows. The natural keys used the longest time ago are removed first. 0 means no limit.</p>
+   */
+  public static final String KETTLE_DIMENSION_CACHE_MEMORY_LIMIT = "KETTLE_DIMENSION_CACHE_MEMORY_LIMIT";
+
+  /**
+   * <p>Set this variable to Y to make Table Output stream its rows through the bulk load API of the database: COPY on
+   * PostgreSQL and Greenplum, LOAD DATA LOCAL on MySQL and MariaDB, CSVREAD on H2. Other databases, error handling,
+   * ignored errors, returned keys and table names from fields or partitioning keep inserting rows one by one.</p>
+   */
+  public static final String KETTLE_TABLE_OUTPUT_BULK_LOAD = "KETTLE_TABLE_OUTPUT_BULK_LOAD";
+
+  /**
+   * <p>The number of prepared statements each pooled database connection keeps open for reuse, when the pooling
+   * parameters of the connection don't set poolPreparedStatements. 0 means no statement cache.</p>
+   */
+  public static final String KETTLE_POOL_STATEMENT_CACHE_SIZE = "KETTLE_POOL_STATEMENT_CACHE_SIZE";
+
+  /**
+   * <p>The maximum number of connections of a connection pool one running transformation or job can use at the same
+   * time. The other step copies wait for a connection of their transformation to be closed, at most the maximum wait
+   * time of the pool or 30 seconds, and then fail. Steps keep their connection from initialization until they are done,
+   * so the limit has to be at least the number of step copies of a transformation using the connection. 0 means no
+   * limit.</p>
+   */
+  public static final String KETTLE_POOL_MAX_CONNECTIONS_PER_TRANS = "KETTLE_POOL_MAX_CONNECTIONS_PER_TRANS";
+
+  /**
+   * <p>The number of transformations and jobs of a database repository whose rows are kept in memory after loading
+   * them. They are read again when their modification date changes. 0 means no cache.</p>
+   */
+  public static final String KETTLE_REPOSITORY_ROW_CACHE_SIZE = "KETTLE_REPOSITORY_ROW_CACHE_SIZE";
+
+  /**
+   * <p>The time in seconds after which the entries of the database cache are read from the database again. When set,
+   * table names, primary keys and existing tables are cached as well. 0 means the entries don't expire.</p>
+   */
+  public static final String KETTLE_DB_CACHE_TTL = "KETTLE_DB_CACHE_TTL";
+
+  /**
+   * <p>The maximum size in bytes of the entries of the database cache. The least recently used entries are removed
+   * when it's exceeded. 0 means no limit.</p>
+   */
+  public static final String KETTLE_DB_CACHE_MAX_SIZE = "KETTLE_DB_CACHE_MAX_SIZE";
+
+  /**
+   * <p>The number of rows Merge Join reads ahead at a time from each of its inputs, on a thread per input. 0 means the
+   * rows are read one at a time when they're joined.</p>
+   */
+  public static final String KETTLE_MERGE_JOIN_PREFETCH_ROWS = "KETTLE_MERGE_JOIN_PREFETCH_ROWS";
+
+  /**
+   * <p>The number of rows with the same key of the second input Merge Join keeps in memory, the rows beyond it are kept
+   * in a temporary file in the temp directory of the step. 0 means no limit.</p>
+   */
+  public static final String KETTLE_MERGE_JOIN_MAX_GROUP_ROWS_IN_MEMORY = "KETTLE_MERGE_JOIN_MAX_GROUP_ROWS_IN_MEMORY";
+
   /**
    * <p>This environment variable is used by the Kinesis consumer to control the number of records retrieved
    * by the PollingConfig, if used.  Ignored with Enhanced Fan Out./p>
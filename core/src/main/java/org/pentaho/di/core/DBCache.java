@@ -19,9 +19,15 @@ import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.OutputStream;
 import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
 
 import com.google.common.annotations.VisibleForTesting;
@@ -31,11 +37,17 @@ import org.pentaho.di.core.logging.LogChannel;
 import org.pentaho.di.core.logging.LogChannelInterface;
 import org.pentaho.di.core.row.RowMeta;
 import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaString;
 import org.pentaho.di.version.BuildVersion;
 
 /**
  * This class caches database queries so that the same query doesn't get called twice. Queries are often launched to the
  * databases to get information on tables etc.
+ * <p>
+ * Entries expire after the time to live set with {@link Const#KETTLE_DB_CACHE_TTL}. When the entries take more than the
+ * size set with {@link Const#KETTLE_DB_CACHE_MAX_SIZE}, the least recently used ones are removed. Lists of names, like
+ * the tables of a schema, are only cached when entries expire.
  *
  * @author Matt
  * @since 15-01-04
@@ -45,9 +57,13 @@ public class DBCache {
   @VisibleForTesting
   static DBCache dbCache;
 
-  private Map<DBCacheEntry, RowMetaInterface> cache;
+  private Map<DBCacheEntry, CachedFields> cache;
   private boolean useCache;
 
+  private long timeToLiveMillis;
+  private long maxSize;
+  private final AtomicLong cacheSize = new AtomicLong();
+
   private LogChannelInterface log;
 
   @VisibleForTesting
@@ -69,13 +85,148 @@ public class DBCache {
     return useCache;
   }
 
+  /**
+   * @return the time in ms after which entries expire, 0 means never
+   */
+  public long getTimeToLiveMillis() {
+    return timeToLiveMillis;
+  }
+
+  /**
+   * @param timeToLiveMillis the time in ms after which entries expire, 0 means never
+   */
+  public void setTimeToLiveMillis( long timeToLiveMillis ) {
+    this.timeToLiveMillis = timeToLiveMillis;
+  }
+
+  /**
+   * @return the maximum size in bytes of the entries, as written to the cache file. 0 means no limit.
+   */
+  public long getMaxSize() {
+    return maxSize;
+  }
+
+  /**
+   * @param maxSize the maximum size in bytes of the entries, as written to the cache file. 0 means no limit.
+   */
+  public void setMaxSize( long maxSize ) {
+    this.maxSize = maxSize;
+    evict();
+  }
+
+  /**
+   * @return the size in bytes of the entries, as written to the cache file
+   */
+  public long getSizeInBytes() {
+    return cacheSize.get();
+  }
+
   public void put( DBCacheEntry entry, RowMetaInterface fields ) {
     if ( !useCache ) {
       return;
     }
 
     RowMetaInterface copy = fields.clone();
-    cache.put( entry, copy );
+    store( entry, copy, System.currentTimeMillis() );
+    evict();
+  }
+
+  private void store( DBCacheEntry entry, RowMetaInterface fields, long created ) {
+    CachedFields cachedFields = new CachedFields( fields, created, getSize( entry, fields ) );
+    cacheSize.addAndGet( cachedFields.size );
+    CachedFields previous = cache.put( entry, cachedFields );
+    if ( previous != null ) {
+      cacheSize.addAndGet( -previous.size );
+    }
+  }
+
+  private void remove( DBCacheEntry entry, CachedFields cachedFields ) {
+    if ( cache.remove( entry, cachedFields ) ) {
+      cacheSize.addAndGet( -cachedFields.size );
+    }
+  }
+
+  /**
+   * Removes the expired entries and then the least recently used ones until the entries fit in the maximum size.
+   */
+  private synchronized void evict() {
+    if ( maxSize <= 0 || cacheSize.get() <= maxSize ) {
+      return;
+    }
+    List<Map.Entry<DBCacheEntry, CachedFields>> entries = new ArrayList<>( cache.entrySet() );
+    long now = System.currentTimeMillis();
+    entries.sort( Comparator.comparing( ( Map.Entry<DBCacheEntry, CachedFields> e ) -> !isExpired( e.getValue(), now ) )
+      .thenComparingLong( e -> e.getValue().lastUsed ) );
+    for ( Map.Entry<DBCacheEntry, CachedFields> e : entries ) {
+      if ( cacheSize.get() <= maxSize ) {
+        break;
+      }
+      remove( e.getKey(), e.getValue() );
+    }
+  }
+
+  private boolean isExpired( CachedFields cachedFields, long now ) {
+    return timeToLiveMillis > 0 && now - cachedFields.created > timeToLiveMillis;
+  }
+
+  /**
+   * @return the number of bytes the entry takes in the cache file
+   */
+  private static long getSize( DBCacheEntry entry, RowMetaInterface fields ) {
+    DataOutputStream dos = new DataOutputStream( new OutputStream() {
+      @Override
+      public void write( int b ) {
+        // only counted
+      }
+
+      @Override
+      public void write( byte[] b, int off, int len ) {
+        // only counted
+      }
+    } );
+    try {
+      entry.write( dos );
+      fields.writeMeta( dos );
+    } catch ( Exception e ) {
+      // The size of what was written so far will do
+    }
+    return dos.size();
+  }
+
+  /**
+   * Caches a list of names, like the tables of a schema or the primary key columns of a table. These can change outside
+   * of Kettle, so they are only cached when entries expire.
+   *
+   * @param entry the entry to store the names with
+   * @param names the names
+   */
+  public void putNames( DBCacheEntry entry, String[] names ) {
+    if ( timeToLiveMillis <= 0 ) {
+      return;
+    }
+    ValueMetaInterface valueMeta = new ValueMetaString( "names" );
+    valueMeta.setStorageType( ValueMetaInterface.STORAGE_TYPE_INDEXED );
+    valueMeta.setIndex( names.clone() );
+    RowMetaInterface fields = new RowMeta();
+    fields.addValueMeta( valueMeta );
+    put( entry, fields );
+  }
+
+  /**
+   * @param entry the entry the names were stored with
+   * @return the names cached with {@link #putNames(DBCacheEntry, String[])} or null if they're not in the cache
+   */
+  public String[] getNames( DBCacheEntry entry ) {
+    RowMetaInterface fields = get( entry );
+    if ( fields == null || fields.size() != 1 || !fields.getValueMeta( 0 ).isStorageIndexed() ) {
+      return null;
+    }
+    Object[] index = fields.getValueMeta( 0 ).getIndex();
+    String[] names = new String[ index == null ? 0 : index.length ];
+    for ( int i = 0; i < names.length; i++ ) {
+      names[ i ] = (String) index[ i ];
+    }
+    return names;
   }
 
   /**
@@ -90,12 +241,18 @@ public class DBCache {
       return null;
     }
 
-    RowMetaInterface fields = cache.get( entry );
-    if ( fields != null ) {
-      fields = fields.clone(); // Copy it again!
+    CachedFields cachedFields = cache.get( entry );
+    if ( cachedFields == null ) {
+      return null;
     }
+    long now = System.currentTimeMillis();
+    if ( isExpired( cachedFields, now ) ) {
+      remove( entry, cachedFields );
+      return null;
+    }
+    cachedFields.lastUsed = now;
 
-    return fields;
+    return cachedFields.fields.clone(); // Copy it again!
   }
 
   public int size() {
@@ -111,11 +268,12 @@ public class DBCache {
   public void clear( String dbname ) {
     if ( dbname == null ) {
       cache = new ConcurrentHashMap<>();
+      cacheSize.set( 0L );
       setActive();
     } else {
-      for ( DBCacheEntry entry : cache.keySet() ) {
-        if ( entry.sameDB( dbname ) ) {
-          cache.remove( entry );
+      for ( Map.Entry<DBCacheEntry, CachedFields> entry : cache.entrySet() ) {
+        if ( entry.getKey().sameDB( dbname ) ) {
+          remove( entry.getKey(), entry.getValue() );
         }
       }
     }
@@ -129,6 +287,9 @@ public class DBCache {
   private DBCache() throws KettleFileException {
     try {
       clear( null );
+      timeToLiveMillis =
+        TimeUnit.SECONDS.toMillis( Const.toLong( System.getProperty( Const.KETTLE_DB_CACHE_TTL ), 0L ) );
+      maxSize = Const.toLong( System.getProperty( Const.KETTLE_DB_CACHE_MAX_SIZE ), 0L );
 
       // Serialization support for the DB cache
       //
@@ -140,8 +301,9 @@ public class DBCache {
         log.logDetailed( "Loading database cache from file: [" + filename + "]" );
 
         try ( DataInputStream dis = new DataInputStream( new FileInputStream( file ) ) ) {
-          loadFileToCache( dis );
+          loadFileToCache( dis, file.lastModified() );
         }
+        evict();
       } else {
         log.logDetailed( "The database cache doesn't exist yet." );
       }
@@ -151,14 +313,14 @@ public class DBCache {
   }
 
   @SuppressWarnings( { "squid:S2189", "squid:S1451" } )
-  private void loadFileToCache( DataInputStream dis ) throws KettleFileException, SocketTimeoutException {
+  private void loadFileToCache( DataInputStream dis, long created ) throws KettleFileException, SocketTimeoutException {
     int counter = 0;
     try {
       //noinspection InfiniteLoopStatement Only way to detect EOF on DataInputStream is with exception
       while ( true ) {
         DBCacheEntry entry = new DBCacheEntry( dis );
         RowMetaInterface row = new RowMeta( dis );
-        cache.put( entry, row );
+        store( entry, row, created );
         counter++;
       }
     } catch ( KettleEOFException eof ) {
@@ -179,17 +341,17 @@ public class DBCache {
 
           int counter = 0;
 
-          for ( DBCacheEntry entry : cache.keySet() ) {
-            entry.write( dos );
+          long now = System.currentTimeMillis();
+          for ( Map.Entry<DBCacheEntry, CachedFields> entry : cache.entrySet() ) {
+            // Expired entries are left out
+            if ( isExpired( entry.getValue(), now ) ) {
+              continue;
+            }
+            entry.getKey().write( dos );
 
             // Save the corresponding row as well.
-            RowMetaInterface rowMeta = get( entry );
-            if ( rowMeta != null ) {
-              rowMeta.writeMeta( dos );
-              counter++;
-            } else {
-              throw new KettleFileException( "The database cache contains an empty row. We can't save this!" );
-            }
+            entry.getValue().fields.writeMeta( dos );
+            counter++;
           }
           log.logDetailed( "We wrote " + counter + " cached rows to the database cache!" );
         }
@@ -219,4 +381,20 @@ public class DBCache {
     return dbCache;
   }
 
+  /**
+   * The fields of a cache entry, with the time they were cached and last used.
+   */
+  private static class CachedFields {
+    private final RowMetaInterface fields;
+    private final long created;
+    private final long size;
+    private volatile long lastUsed;
+
+    CachedFields( RowMetaInterface fields, long created, long size ) {
+      this.fields = fields;
+      this.created = created;
+      this.size = size;
+      this.lastUsed = created;
+    }
+  }
 }
@@ -73,7 +73,7 @@ public class DBCacheEntry {
     if ( ( null != o ) && ( o instanceof DBCacheEntry ) ) {
       DBCacheEntry obj = (DBCacheEntry) o;
 
-      boolean retval = dbname.equalsIgnoreCase( obj.dbname ) && sql.equalsIgnoreCase( obj.sql );
+      boolean retval = sameDB( obj.dbname ) && sql != null && sql.equalsIgnoreCase( obj.sql );
 
       return retval;
     }
@@ -18,6 +18,7 @@ import org.pentaho.di.core.encryption.TwoWayPasswordEncoderPluginType;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.exception.KettlePluginException;
 import org.pentaho.di.core.extension.ExtensionPointPluginType;
+import org.pentaho.di.core.logging.AsyncLoggingEventListener;
 import org.pentaho.di.core.logging.ConsoleLoggingEventListener;
 import org.pentaho.di.core.logging.KettleLogStore;
 import org.pentaho.di.core.logging.LoggingPluginInterface;
@@ -99,9 +100,11 @@ public class KettleClientEnvironment {
     // TODO: make this configurable...
     //
     if ( !"Y".equalsIgnoreCase( System.getProperty( Const.KETTLE_DISABLE_CONSOLE_LOGGING, "N" ) ) ) {
-      KettleLogStore.getAppender().addLoggingEventListener( new ConsoleLoggingEventListener() );
+      KettleLogStore.getAppender().addLoggingEventListener(
+        AsyncLoggingEventListener.wrap( new ConsoleLoggingEventListener() ) );
     }
-    KettleLogStore.getAppender().addLoggingEventListener( new Slf4jLoggingEventListener() );
+    KettleLogStore.getAppender().addLoggingEventListener(
+      AsyncLoggingEventListener.wrap( new Slf4jLoggingEventListener() ) );
 
     // Load plugins
     //
@@ -0,0 +1,232 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.database;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.pentaho.di.core.Const;
+import org.pentaho.di.core.exception.KettleDatabaseException;
+import org.pentaho.di.core.exception.KettleValueException;
+import org.pentaho.di.core.row.RowDataUtil;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.ValueMetaInterface;
+
+/**
+ * Looks up the rows of a lookup query for a batch of parameter rows in one query.<br>
+ * The query is repeated for every row of the batch with UNION ALL, every part returning the number of its row first,
+ * so the database compares the keys like it does for a single lookup. Like {@link Database#getLookup(
+ * PreparedStatement)}, the first row found is returned for every parameter row.<br>
+ * The lookup is meant for keys compared with equality: a row is not added if the batch holds a row with the same
+ * parameters, so that the caller can write the rows of a batch before looking up the same keys again. Strings are
+ * compared without case and trailing spaces for this, comparing more keys as the same only gives smaller batches.
+ */
+public class BatchLookup {
+  public static final String ROW_NUMBER_FIELD = "batch_row";
+
+  private final Database db;
+  private final String sql;
+  private final RowMetaInterface parametersMeta;
+  private final int size;
+
+  private final List<Object[]> rows;
+  private final Set<List<Object>> keys;
+  private final Map<Integer, PreparedStatement> statements;
+  private final Map<Integer, RowMetaInterface> statementsParametersMeta;
+  private RowMetaInterface returnRowMeta;
+
+  /**
+   * @param db             the connected database
+   * @param sql            the lookup query of one row, starting with SELECT
+   * @param parametersMeta the metadata of the parameters of the lookup query
+   * @param size           the maximum number of rows in a batch
+   */
+  public BatchLookup( Database db, String sql, RowMetaInterface parametersMeta, int size ) {
+    this.db = db;
+    this.sql = sql;
+    this.parametersMeta = parametersMeta;
+    this.size = size;
+    rows = new ArrayList<>( size );
+    keys = new HashSet<>();
+    statements = new HashMap<>();
+    statementsParametersMeta = new HashMap<>();
+  }
+
+  /**
+   * @return the lookup query for a number of rows
+   */
+  public static String getBatchSQL( String sql, int rows ) {
+    String select = sql.trim();
+    if ( !select.regionMatches( true, 0, "SELECT ", 0, 7 ) ) {
+      throw new IllegalArgumentException( "The lookup query doesn't start with SELECT: " + sql );
+    }
+    StringBuilder batchSql = new StringBuilder();
+    for ( int i = 0; i < rows; i++ ) {
+      if ( i > 0 ) {
+        batchSql.append( Const.CR ).append( "UNION ALL" ).append( Const.CR );
+      }
+      batchSql.append( "SELECT " ).append( i ).append( " AS " ).append( ROW_NUMBER_FIELD ).append( ", " )
+        .append( select.substring( 7 ) );
+    }
+    return batchSql.toString();
+  }
+
+  /**
+   * @return true if the parameters can be added: the batch is not full and has no row with the same parameters
+   */
+  public boolean canAdd( Object[] parameters ) throws KettleValueException {
+    return rows.size() < size && !keys.contains( getKey( parameters ) );
+  }
+
+  /**
+   * Adds the parameters of a row to the batch, {@link #canAdd(Object[])} must be checked first.
+   */
+  public void add( Object[] parameters ) throws KettleValueException {
+    rows.add( parameters );
+    keys.add( getKey( parameters ) );
+  }
+
+  /**
+   * @return the number of rows in the batch
+   */
+  public int size() {
+    return rows.size();
+  }
+
+  /**
+   * Looks up the rows of the batch and empties it.
+   *
+   * @return the first row found for every row of the batch in the order they were added, null if none was found
+   */
+  public Object[][] lookup() throws KettleDatabaseException {
+    int count = rows.size();
+    Object[][] results = new Object[ count ][];
+    if ( count == 0 ) {
+      return results;
+    }
+    // Only prepare the statements of a few sizes, the last rows are repeated to fill them
+    int statementRows = Math.min( Integer.highestOneBit( count - 1 ) << 1, size );
+    if ( count == 1 ) {
+      statementRows = 1;
+    }
+    PreparedStatement ps = getStatement( statementRows );
+    Object[] parameters = new Object[ statementRows * parametersMeta.size() ];
+    for ( int i = 0; i < statementRows; i++ ) {
+      Object[] row = rows.get( Math.min( i, count - 1 ) );
+      System.arraycopy( row, 0, parameters, i * parametersMeta.size(), parametersMeta.size() );
+    }
+
+    try ( ResultSet rs = db.openQuery( ps, statementsParametersMeta.get( statementRows ), parameters ) ) {
+      RowMetaInterface batchRowMeta = db.getReturnRowMeta();
+      ValueMetaInterface rowNumberMeta = batchRowMeta.getValueMeta( 0 );
+      int returnSize = batchRowMeta.size() - 1;
+      returnRowMeta = batchRowMeta.clone();
+      returnRowMeta.removeValueMeta( 0 );
+      Object[] row;
+      while ( ( row = db.getRow( rs ) ) != null ) {
+        int rowNumber = rowNumberMeta.getInteger( row[ 0 ] ).intValue();
+        if ( rowNumber < count && results[ rowNumber ] == null ) {
+          results[ rowNumber ] = RowDataUtil.allocateRowData( returnSize );
+          System.arraycopy( row, 1, results[ rowNumber ], 0, returnSize );
+        }
+      }
+    } catch ( SQLException e ) {
+      throw new KettleDatabaseException( "Unable to close the result set of a batch lookup", e );
+    } catch ( KettleValueException e ) {
+      throw new KettleDatabaseException( "Unable to read the row number of a batch lookup", e );
+    } finally {
+      rows.clear();
+      keys.clear();
+    }
+    return results;
+  }
+
+  /**
+   * @return the metadata of the rows returned by the last lookup
+   */
+  public RowMetaInterface getReturnRowMeta() {
+    return returnRowMeta;
+  }
+
+  /**
+   * Closes the prepared statements.
+   */
+  public void close() throws KettleDatabaseException {
+    for ( PreparedStatement ps : statements.values() ) {
+      db.closePreparedStatement( ps );
+    }
+    statements.clear();
+  }
+
+  private PreparedStatement getStatement( int statementRows ) throws KettleDatabaseException {
+    PreparedStatement ps = statements.get( statementRows );
+    if ( ps == null ) {
+      String batchSql = getBatchSQL( sql, statementRows );
+      try {
+        ps = db.getConnection().prepareStatement( db.getDatabaseMeta().stripCR( batchSql ) );
+      } catch ( SQLException e ) {
+        throw new KettleDatabaseException( "Unable to prepare statement for SQL statement [" + batchSql + "]", e );
+      }
+      RowMetaInterface statementParametersMeta = new RowMeta();
+      for ( int i = 0; i < statementRows; i++ ) {
+        for ( ValueMetaInterface valueMeta : parametersMeta.getValueMetaList() ) {
+          statementParametersMeta.addValueMeta( valueMeta.clone() );
+        }
+      }
+      statements.put( statementRows, ps );
+      statementsParametersMeta.put( statementRows, statementParametersMeta );
+    }
+    return ps;
+  }
+
+  private List<Object> getKey( Object[] parameters ) throws KettleValueException {
+    Object[] key = new Object[ parametersMeta.size() ];
+    for ( int i = 0; i < key.length; i++ ) {
+      ValueMetaInterface valueMeta = parametersMeta.getValueMeta( i );
+      Object value = parameters[ i ];
+      if ( value == null ) {
+        continue;
+      }
+      if ( valueMeta.isString() ) {
+        value = Const.rtrim( valueMeta.getString( value ) ).toLowerCase( Locale.ROOT );
+      } else {
+        value = valueMeta.convertToNormalStorageType( value );
+        if ( value instanceof BigDecimal ) {
+          value = ( (BigDecimal) value ).stripTrailingZeros();
+        } else if ( value instanceof Number ) {
+          value = ( (Number) value ).doubleValue() + 0.0;
+        } else if ( value instanceof Date ) {
+          value = ( (Date) value ).getTime();
+        } else if ( value instanceof byte[] ) {
+          value = ByteBuffer.wrap( (byte[]) value );
+        }
+      }
+      key[ i ] = value;
+    }
+    return Arrays.asList( key );
+  }
+}
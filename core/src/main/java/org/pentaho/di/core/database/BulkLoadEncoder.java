@@ -0,0 +1,251 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.database;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Date;
+
+import org.pentaho.di.core.exception.KettleValueException;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.ValueMetaInterface;
+
+/**
+ * Encodes rows as UTF-8 text in memory for a {@link DatabaseBulkLoader}, one row per line.<br>
+ * Null values are written like a prepared statement sets them: empty strings are null unless Kettle is told they
+ * differ. Booleans are written as 1 and 0, or as Y and N for databases without a boolean data type, and dates as JDBC
+ * timestamps in the local time zone, which most databases read for booleans, integers, dates and timestamps alike.
+ */
+public class BulkLoadEncoder {
+
+  public enum Format {
+    /**
+     * Values separated by tabs, backslash escapes for backslashes, tabs and line breaks, \N for null. This is the text
+     * format of PostgreSQL COPY and the default format of MySQL LOAD DATA.
+     */
+    TEXT,
+    /**
+     * Values separated by commas, strings enclosed in double quotes, null as an empty value that isn't enclosed.
+     */
+    CSV
+  }
+
+  private static final char LINE_SEPARATOR = '\n';
+
+  private final Format format;
+  private final RowMetaInterface rowMeta;
+  private final boolean booleanDataType;
+  private final StringBuilder line;
+  private byte[] buffer;
+  private int size;
+  private int rowCount;
+
+  /**
+   * @param format  the text format to write
+   * @param rowMeta the metadata of the rows to encode, all its values must be supported by {@link
+   *                #canEncode(ValueMetaInterface)}
+   */
+  public BulkLoadEncoder( Format format, RowMetaInterface rowMeta ) {
+    this( format, rowMeta, true );
+  }
+
+  /**
+   * @param format          the text format to write
+   * @param rowMeta         the metadata of the rows to encode, all its values must be supported by {@link
+   *                        #canEncode(ValueMetaInterface)}
+   * @param booleanDataType false to write booleans as Y and N, like a prepared statement sets them when the database
+   *                        has no boolean data type, see {@link DatabaseMeta#supportsBooleanDataType()}
+   */
+  public BulkLoadEncoder( Format format, RowMetaInterface rowMeta, boolean booleanDataType ) {
+    this.format = format;
+    this.rowMeta = rowMeta;
+    this.booleanDataType = booleanDataType;
+    line = new StringBuilder();
+    buffer = new byte[ 8192 ];
+  }
+
+  /**
+   * @return true if values of this metadata can be encoded
+   */
+  public static boolean canEncode( ValueMetaInterface valueMeta ) {
+    switch ( valueMeta.getType() ) {
+      case ValueMetaInterface.TYPE_STRING:
+      case ValueMetaInterface.TYPE_INTEGER:
+      case ValueMetaInterface.TYPE_NUMBER:
+      case ValueMetaInterface.TYPE_BIGNUMBER:
+      case ValueMetaInterface.TYPE_BOOLEAN:
+      case ValueMetaInterface.TYPE_DATE:
+      case ValueMetaInterface.TYPE_TIMESTAMP:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Encodes a row after the rows encoded before.
+   *
+   * @param row the row, only the values of the row metadata are encoded
+   */
+  public void addRow( Object[] row ) throws KettleValueException {
+    line.setLength( 0 );
+    for ( int i = 0; i < rowMeta.size(); i++ ) {
+      if ( i > 0 ) {
+        line.append( format == Format.TEXT ? '\t' : ',' );
+      }
+      appendValue( rowMeta.getValueMeta( i ), row[ i ] );
+    }
+    line.append( LINE_SEPARATOR );
+
+    byte[] bytes = line.toString().getBytes( StandardCharsets.UTF_8 );
+    if ( size + bytes.length > buffer.length ) {
+      buffer = Arrays.copyOf( buffer, Math.max( buffer.length * 2, size + bytes.length ) );
+    }
+    System.arraycopy( bytes, 0, buffer, size, bytes.length );
+    size += bytes.length;
+    rowCount++;
+  }
+
+  /**
+   * @return the number of rows encoded
+   */
+  public int getRowCount() {
+    return rowCount;
+  }
+
+  /**
+   * @return the number of bytes of the encoded rows
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return a stream reading the encoded rows, valid until the encoder is cleared
+   */
+  public InputStream getInputStream() {
+    return new ByteArrayInputStream( buffer, 0, size );
+  }
+
+  /**
+   * Removes the encoded rows, keeping the buffer for the next rows.
+   */
+  public void clear() {
+    size = 0;
+    rowCount = 0;
+  }
+
+  private void appendValue( ValueMetaInterface valueMeta, Object value ) throws KettleValueException {
+    if ( valueMeta.isNull( value ) ) {
+      appendNull();
+      return;
+    }
+    switch ( valueMeta.getType() ) {
+      case ValueMetaInterface.TYPE_STRING:
+        appendString( valueMeta.getString( value ) );
+        break;
+      case ValueMetaInterface.TYPE_INTEGER:
+        Long integer = valueMeta.getInteger( value );
+        if ( integer == null ) {
+          appendNull();
+        } else {
+          line.append( integer.longValue() );
+        }
+        break;
+      case ValueMetaInterface.TYPE_NUMBER:
+        Double number = valueMeta.getNumber( value );
+        if ( number == null ) {
+          appendNull();
+        } else {
+          line.append( number.doubleValue() );
+        }
+        break;
+      case ValueMetaInterface.TYPE_BIGNUMBER:
+        BigDecimal bigNumber = valueMeta.getBigNumber( value );
+        if ( bigNumber == null ) {
+          appendNull();
+        } else {
+          line.append( bigNumber.toPlainString() );
+        }
+        break;
+      case ValueMetaInterface.TYPE_BOOLEAN:
+        Boolean bool = valueMeta.getBoolean( value );
+        if ( bool == null ) {
+          appendNull();
+        } else if ( booleanDataType ) {
+          line.append( bool.booleanValue() ? '1' : '0' );
+        } else {
+          line.append( bool.booleanValue() ? 'Y' : 'N' );
+        }
+        break;
+      case ValueMetaInterface.TYPE_DATE:
+      case ValueMetaInterface.TYPE_TIMESTAMP:
+        Date date = valueMeta.getDate( value );
+        if ( date == null ) {
+          appendNull();
+        } else {
+          line.append( date instanceof Timestamp ? date : new Timestamp( date.getTime() ) );
+        }
+        break;
+      default:
+        throw new KettleValueException( "Unable to bulk load value " + valueMeta.toStringMeta() );
+    }
+  }
+
+  private void appendNull() {
+    if ( format == Format.TEXT ) {
+      line.append( "\\N" );
+    }
+  }
+
+  private void appendString( String string ) {
+    if ( string == null ) {
+      appendNull();
+    } else if ( format == Format.TEXT ) {
+      for ( int i = 0; i < string.length(); i++ ) {
+        char c = string.charAt( i );
+        switch ( c ) {
+          case '\\':
+            line.append( "\\\\" );
+            break;
+          case '\t':
+            line.append( "\\t" );
+            break;
+          case '\n':
+            line.append( "\\n" );
+            break;
+          case '\r':
+            line.append( "\\r" );
+            break;
+          default:
+            line.append( c );
+        }
+      }
+    } else {
+      line.append( '"' );
+      for ( int i = 0; i < string.length(); i++ ) {
+        char c = string.charAt( i );
+        if ( c == '"' ) {
+          line.append( '"' );
+        }
+        line.append( c );
+      }
+      line.append( '"' );
+    }
+  }
+}
@@ -156,6 +156,7 @@ public class ConnectionPoolUtil {
       ds.setDriverClassLoader( databaseMeta.getDatabaseInterface().getClass().getClassLoader() );
     }
     ds.setDriverClassName( clazz );
+    setPoolVariables( ds, databaseMeta, connectionPoolProperties );
     dataSourcesAttributesMap.put( getDataSourceName( databaseMeta, partitionId ), databaseMeta.getAttributes() );
   }
 
@@ -277,6 +278,22 @@ public class ConnectionPoolUtil {
 
   }
 
+  /**
+   * Applies the statement cache size and the connection limit per transformation set with Kettle variables. The
+   * pooling properties of the connection take precedence over the statement cache size.
+   */
+  private static void setPoolVariables( BasicDataSource ds, DatabaseMeta databaseMeta, Properties properties ) {
+    int statementCacheSize = Const.toInt( databaseMeta.getVariable( Const.KETTLE_POOL_STATEMENT_CACHE_SIZE ), 0 );
+    if ( statementCacheSize > 0 && Utils.isEmpty( properties.getProperty( POOL_PREPARED_STATEMENTS ) ) ) {
+      ds.setPoolPreparedStatements( true );
+      ds.setMaxOpenPreparedStatements( statementCacheSize );
+    }
+    if ( ds instanceof KettlePooledDataSource ) {
+      ( (KettlePooledDataSource) ds ).setMaxConnectionsPerOwner(
+        Const.toInt( databaseMeta.getVariable( Const.KETTLE_POOL_MAX_CONNECTIONS_PER_TRANS ), 0 ) );
+    }
+  }
+
   /**
    * This method verifies that it's possible to get connection fron a datasource
    *
@@ -311,7 +328,7 @@ public class ConnectionPoolUtil {
       log.logBasic( BaseMessages.getString( PKG, "Database.CreatingConnectionPool", databaseMeta.getName() ) );
     }
 
-    BasicDataSource ds = new BasicDataSource();
+    BasicDataSource ds = new KettlePooledDataSource();
     configureDataSource( ds, databaseMeta, partitionId, initialSize, maximumSize );
     // check if datasource is valid
     testDataSource( ds );
@@ -44,6 +44,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.regex.Pattern;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.vfs2.FileObject;
@@ -82,7 +83,6 @@ import org.pentaho.di.core.logging.Metrics;
 import org.pentaho.di.core.plugins.DatabasePluginType;
 import org.pentaho.di.core.plugins.PluginInterface;
 import org.pentaho.di.core.plugins.PluginRegistry;
-import org.pentaho.di.core.row.RowDataUtil;
 import org.pentaho.di.core.row.RowMeta;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.core.row.ValueMeta;
@@ -146,6 +146,9 @@ public class Database implements VariableSpace, LoggingObjectInterface, Closeabl
 
   private RowMetaInterface rowMeta;
 
+  /** Reads the rows of the last row metadata given to getRow() */
+  private ResultSetRowReader rowReader;
+
   private int written;
 
   private LogChannelInterface log;
@@ -153,6 +156,23 @@ public class Database implements VariableSpace, LoggingObjectInterface, Closeabl
   private static final String[] TABLE_TYPES_TO_GET = { "TABLE", "VIEW" };
   private static final String TABLES_META_DATA_TABLE_NAME = "TABLE_NAME";
 
+  /**
+   * The statements after which the database cache of the connection is cleared
+   */
+  private static final Pattern DDL_PATTERN = Pattern.compile( "(ALTER|CREATE|DROP|RENAME)\\s.*", Pattern.DOTALL );
+
+  /**
+   * Separates the parts of the keys of cached metadata and stands for a missing part. Neither can appear in
+   * identifiers, so different schema and table names never share a key.
+   */
+  private static final char CACHE_KEY_SEPARATOR = '\u0000';
+  private static final char CACHE_KEY_NULL = '\u0001';
+  /**
+   * The cache compares its keys ignoring case while table names can differ only in case: letters with a case are
+   * written as this character followed by the hexadecimal code of the letter.
+   */
+  private static final char CACHE_KEY_CASED = '\u0002';
+
   /**
    * Number of times a connection was opened using this object. Only used in the context of a database connection map
    */
@@ -445,7 +465,7 @@ public class Database implements VariableSpace, LoggingObjectInterface, Closeabl
       if ( databaseMeta.getAccessType() == DatabaseMeta.TYPE_ACCESS_JNDI ) {
         this.connection = getDataSource( partitionId ).getConnection();
       } else if ( databaseMeta.isUsingConnectionPool() ) {
-        this.connection = getDataSource( partitionId ).getConnection();
+        this.connection = getPooledConnection( getDataSource( partitionId ) );
         if ( getConnection().getAutoCommit() != isAutoCommit() ) {
           setAutoCommit( isAutoCommit() );
         }
@@ -470,6 +490,28 @@ public class Database implements VariableSpace, LoggingObjectInterface, Closeabl
     }
   }
 
+  /**
+   * Borrows a connection from the pool. The connections of Kettle pools are borrowed on behalf of the transformation
+   * or job, so that the limit of connections per transformation applies.
+   */
+  private Connection getPooledConnection( DataSource pool ) throws SQLException {
+    if ( !( pool instanceof KettlePooledDataSource ) ) {
+      return pool.getConnection();
+    }
+    KettlePooledDataSource kettlePool = (KettlePooledDataSource) pool;
+    long startTime = System.currentTimeMillis();
+    Connection pooledConnection = kettlePool.getConnection( containerObjectId );
+    if ( log.isGatheringMetrics() ) {
+      long time = System.currentTimeMillis() - startTime;
+      log.snap( Metrics.METRIC_DATABASE_POOL_WAIT_COUNT, databaseMeta.getName() );
+      log.snap( Metrics.METRIC_DATABASE_POOL_WAIT_SUM_TIME, databaseMeta.getName(), time );
+      log.snap( Metrics.METRIC_DATABASE_POOL_WAIT_MAX_TIME, databaseMeta.getName(), time );
+      log.snap( Metrics.METRIC_DATABASE_POOL_ACTIVE_MAX, databaseMeta.getName(), kettlePool.getNumActive() );
+      log.snap( Metrics.METRIC_DATABASE_POOL_IDLE_MIN, databaseMeta.getName(), kettlePool.getNumIdle() );
+    }
+    return pooledConnection;
+  }
+
   public void initializeConnectionDataSource( String partitionId ) throws KettleDatabaseException {
 
     try {
@@ -685,6 +727,9 @@ public class Database implements VariableSpace, LoggingObjectInterface, Closeabl
         if ( dataSource instanceof CachedManagedDataSourceInterface ) {
           ((CachedManagedDataSourceInterface) dataSource).removeInUseBy( ownerName );
         }
+        if ( dataSource instanceof KettlePooledDataSource && log.isDetailed() ) {
+          logPoolStatistics( (KettlePooledDataSource) dataSource );
+        }
         dataSource = null;
         closeConnectionOnly();
       } catch ( KettleDatabaseException ignoredKde ) { // The only exception thrown from closeConnectionOnly()
@@ -701,6 +746,14 @@ public class Database implements VariableSpace, LoggingObjectInterface, Closeabl
     disconnect();
   }
 
+  private void logPoolStatistics( KettlePooledDataSource pool ) {
+    log.logDetailed( BaseMessages.getString( PKG, "Database.Log.ConnectionPoolStatistics", databaseMeta.getName(),
+      String.valueOf( pool.getNumActive() ), String.valueOf( pool.getNumIdle() ),
+      String.valueOf( pool.getConnectionsBorrowed() ), String.valueOf( pool.getConnectionWaitTimeMillis() ),
+      String.valueOf( pool.getLongestConnectionWaitMillis() ),
+      String.valueOf( Math.round( pool.getStatementCacheHitRatio() * 100 ) ) ) );
+  }
+
   /**
    * Only for unique connections usage, typically you use disconnect() to disconnect() from the database.
    *
@@ -1563,8 +1616,7 @@ public class Database implements VariableSpace, LoggingObjectInterface, Closeabl
       }
 
       // See if a cache needs to be cleared...
-      if ( upperSql.startsWith( "ALTER TABLE" )
-        || upperSql.startsWith( "DROP TABLE" ) || upperSql.startsWith( "CREATE TABLE" ) ) {
+      if ( DDL_PATTERN.matcher( upperSql ).matches() ) {
         DBCache.getInstance().clear( databaseMeta.getName() );
       }
     } catch ( SQLException ex ) {
@@ -1895,6 +1947,38 @@ public class Database implements VariableSpace, LoggingObjectInterface, Closeabl
     }
   }
 
+  /**
+   * @param salt  distinguishes the kind of metadata that is cached
+   * @param parts the schema, table or other names the metadata is cached for, null when missing
+   * @return the key of the metadata in the database cache
+   */
+  static String cacheKey( String salt, String... parts ) {
+    StringBuilder key = new StringBuilder( salt );
+    for ( String part : parts ) {
+      key.append( CACHE_KEY_SEPARATOR );
+      if ( part == null ) {
+        key.append( CACHE_KEY_NULL );
+      } else {
+        appendCaseSensitive( key, part );
+      }
+    }
+    return key.toString();
+  }
+
+  private static void appendCaseSensitive( StringBuilder key, String part ) {
+    for ( int i = 0; i < part.length(); i++ ) {
+      char c = part.charAt( i );
+      if ( c == CACHE_KEY_CASED || Character.toLowerCase( c ) != c || Character.toUpperCase( c ) != c ) {
+        key.append( CACHE_KEY_CASED );
+        for ( int shift = 12; shift >= 0; shift -= 4 ) {
+          key.append( Character.forDigit( ( c >> shift ) & 0xf, 16 ) );
+        }
+      } else {
+        key.append( c );
+      }
+    }
+  }
+
   /**
    * See if the table specified exists.
    *
@@ -1910,12 +1994,23 @@ public class Database implements VariableSpace, LoggingObjectInterface, Closeabl
    * @return true if the table exists, false if it doesn't.
    */
   public boolean checkTableExists( String schema, String tablename ) throws KettleDatabaseException {
+    // Only tables that exist are cached, DDL statements clear the cache
+    DBCache dbcache = DBCache.getInstance();
+    DBCacheEntry entry = new DBCacheEntry( databaseMeta.getName(), cacheKey( "TABLE_EXISTS_SALT", schema, tablename ) );
+    if ( dbcache.getNames( entry ) != null ) {
+      return true;
+    }
 
+    boolean exists;
     if ( useJdbcMeta() ) {
-      return checkTableExistsByDbMeta( schema, tablename );
+      exists = checkTableExistsByDbMeta( schema, tablename );
     } else {
-      return checkTableExists( databaseMeta.getQuotedSchemaTableCombination( schema, tablename ) );
+      exists = checkTableExists( databaseMeta.getQuotedSchemaTableCombination( schema, tablename ) );
     }
+    if ( exists ) {
+      dbcache.putNames( entry, new String[] { tablename } );
+    }
+    return exists;
   }
 
   /**
@@ -2731,20 +2826,15 @@ public class Database implements VariableSpace, LoggingObjectInterface, Closeabl
       // PDI-19750 - synchronize on the connection to prevent data inconsistency
       // when multiple Database objects share the same connection and access ResultSets concurrently
       synchronized ( connection ) {
-        int nrcols = rowInfo.size();
-        Object[] data = RowDataUtil.allocateRowData( nrcols );
-
         if ( rs.next() ) {
-          for ( int i = 0; i < nrcols; i++ ) {
-            ValueMetaInterface val = rowInfo.getValueMeta( i );
-
-            data[ i ] = databaseMeta.getValueFromResultSet( rs, val, i );
+          // The readers of the columns are chosen once for the metadata of the query
+          if ( rowReader == null || !rowReader.isReaderOf( rowInfo ) ) {
+            rowReader = new ResultSetRowReader( databaseMeta, rowInfo );
           }
+          return rowReader.readRow( rs );
         } else {
-          data = null;
+          return null;
         }
-
-        return data;
       }
     } catch ( Exception ex ) {
       throw new KettleDatabaseException( "Couldn't get row from result set", ex );
@@ -3905,7 +3995,21 @@ public class Database implements VariableSpace, LoggingObjectInterface, Closeabl
 
   public String[] getTablenames( String schemanamein, boolean includeSchema, Map<String, String> props )
     throws KettleDatabaseException {
-    Map<String, Collection<String>> tableMap = getTableMap( schemanamein, props );
+    DBCache dbcache = DBCache.getInstance();
+    DBCacheEntry cacheEntry = null;
+    if ( props == null || props.isEmpty() ) {
+      cacheEntry = new DBCacheEntry( databaseMeta.getName(),
+        cacheKey( "TABLE_NAMES_SALT", schemanamein, String.valueOf( includeSchema ) ) );
+      String[] tablenames = dbcache.getNames( cacheEntry );
+      if ( tablenames != null ) {
+        return tablenames;
+      }
+    }
+
+    Map<String, Collection<String>> tableMap = new HashMap<>();
+    if ( !fillTableMap( schemanamein, props, tableMap ) ) {
+      cacheEntry = null; // don't cache an incomplete list
+    }
     List<String> res = new ArrayList<>();
     for ( Map.Entry<String, Collection<String>> entry : tableMap.entrySet() ) {
       String schema = entry.getKey();
@@ -3918,7 +4022,11 @@ public class Database implements VariableSpace, LoggingObjectInterface, Closeabl
         }
       }
     }
-    return res.toArray( new String[ res.size() ] );
+    String[] tablenames = res.toArray( new String[ res.size() ] );
+    if ( cacheEntry != null ) {
+      dbcache.putNames( cacheEntry, tablenames );
+    }
+    return tablenames;
   }
 
   public Map<String, Collection<String>> getTableMap() throws KettleDatabaseException {
@@ -3931,11 +4039,21 @@ public class Database implements VariableSpace, LoggingObjectInterface, Closeabl
 
   public Map<String, Collection<String>> getTableMap( String schemanamein, Map<String, String> props )
     throws KettleDatabaseException {
+    Map<String, Collection<String>> tableMap = new HashMap<>();
+    fillTableMap( schemanamein, props, tableMap );
+    return tableMap;
+  }
+
+  /**
+   * @return false if the tables couldn't all be read
+   */
+  private boolean fillTableMap( String schemanamein, Map<String, String> props,
+                                Map<String, Collection<String>> tableMap ) throws KettleDatabaseException {
+    boolean complete = true;
     String schemaname = schemanamein;
     if ( schemaname == null && databaseMeta.useSchemaNameForTableList() ) {
       schemaname = environmentSubstitute( databaseMeta.getUsername() ).toUpperCase();
     }
-    Map<String, Collection<String>> tableMap = new HashMap<>();
     ResultSet alltables = null;
     try {
       alltables = databaseMeta.getTables( getDatabaseMetaData(), schemaname, null, databaseMeta.getTableTypes() );
@@ -3993,6 +4111,7 @@ public class Database implements VariableSpace, LoggingObjectInterface, Closeabl
       }
     } catch ( SQLException e ) {
       log.logError( "Error getting tablenames from schema [" + schemaname + "]" );
+      complete = false;
     } finally {
       try {
         if ( alltables != null ) {
@@ -4008,7 +4127,7 @@ public class Database implements VariableSpace, LoggingObjectInterface, Closeabl
       log.logDetailed( "read :" + multimapSize( tableMap ) + " table names from db meta-data." );
     }
 
-    return tableMap;
+    return complete;
   }
 
   public String[] getViews() throws KettleDatabaseException {
@@ -4842,6 +4961,13 @@ public class Database implements VariableSpace, LoggingObjectInterface, Closeabl
    * @throws KettleDatabaseException
    */
   public String[] getPrimaryKeyColumnNames( String tablename ) throws KettleDatabaseException {
+    DBCache dbcache = DBCache.getInstance();
+    DBCacheEntry entry = new DBCacheEntry( databaseMeta.getName(), cacheKey( "PRIMARY_KEY_SALT", tablename ) );
+    String[] cachedNames = dbcache.getNames( entry );
+    if ( cachedNames != null ) {
+      return cachedNames;
+    }
+
     List<String> names = new ArrayList<>();
     ResultSet allkeys = null;
     try {
@@ -4858,6 +4984,7 @@ public class Database implements VariableSpace, LoggingObjectInterface, Closeabl
       }
     } catch ( SQLException e ) {
       log.logError( toString(), "Error getting primary keys columns from table [" + tablename + "]" );
+      entry = null; // don't cache an incomplete list
     } finally {
       try {
         if ( allkeys != null ) {
@@ -4868,7 +4995,11 @@ public class Database implements VariableSpace, LoggingObjectInterface, Closeabl
           + tablename + "]", e );
       }
     }
-    return names.toArray( new String[ names.size() ] );
+    String[] keyNames = names.toArray( new String[ names.size() ] );
+    if ( entry != null ) {
+      dbcache.putNames( entry, keyNames );
+    }
+    return keyNames;
   }
 
   /**
@@ -0,0 +1,53 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.database;
+
+import java.io.InputStream;
+import java.sql.Connection;
+
+import org.pentaho.di.core.exception.KettleDatabaseException;
+
+/**
+ * Loads rows encoded as text by a {@link BulkLoadEncoder} into a table with the bulk load API of a database, instead of
+ * inserting them one by one with a prepared statement. The rows are loaded in the current transaction of the
+ * connection.
+ *
+ * @see DatabaseInterface#getBulkLoader()
+ */
+public interface DatabaseBulkLoader {
+
+  /**
+   * @return the text format the database reads the rows in
+   */
+  BulkLoadEncoder.Format getFormat();
+
+  /**
+   * @param connection the connection to load the rows with
+   * @return true if the JDBC driver of the connection offers the bulk load API
+   */
+  boolean canLoad( Connection connection );
+
+  /**
+   * Loads rows in a table.
+   *
+   * @param connection  the connection to load the rows with
+   * @param schemaTable the quoted schema and table name
+   * @param columns     the quoted names of the columns, in the order of the values of the rows
+   * @param data        the encoded rows
+   * @return the number of rows loaded, -1 if the driver doesn't report it
+   * @throws KettleDatabaseException in case the rows couldn't be loaded
+   */
+  long load( Connection connection, String schemaTable, String[] columns, InputStream data )
+    throws KettleDatabaseException;
+}
@@ -1253,6 +1253,14 @@ public interface DatabaseInterface extends Cloneable {
     return "";
   }
 
+  /**
+   * @return the bulk loader Table Output can stream its rows through when bulk loading is enabled, null if the database
+   *         has none and the rows are inserted with prepared statements
+   */
+  default DatabaseBulkLoader getBulkLoader() {
+    return null;
+  }
+
   /**
    * Allows to get the column name for JDBC drivers with different behavior for aliases depending on the connector version.
    *
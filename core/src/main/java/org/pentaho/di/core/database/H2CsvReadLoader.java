@@ -0,0 +1,80 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.database;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.pentaho.di.core.exception.KettleDatabaseException;
+
+/**
+ * Loads rows with INSERT ... SELECT FROM CSVREAD(...). H2 reads CSV from files only, so the rows are written to a
+ * temporary file first, which the database has to be able to read: this is meant for embedded databases.
+ */
+public class H2CsvReadLoader implements DatabaseBulkLoader {
+
+  @Override
+  public BulkLoadEncoder.Format getFormat() {
+    return BulkLoadEncoder.Format.CSV;
+  }
+
+  @Override
+  public boolean canLoad( Connection connection ) {
+    return true;
+  }
+
+  /**
+   * @return the INSERT statement reading the rows from a CSV file without header
+   */
+  public static String getInsertSQL( String schemaTable, String[] columns, String fileName ) {
+    StringBuilder csvColumns = new StringBuilder();
+    for ( int i = 0; i < columns.length; i++ ) {
+      if ( i > 0 ) {
+        csvColumns.append( ',' );
+      }
+      csvColumns.append( 'C' ).append( i );
+    }
+    return "INSERT INTO " + schemaTable + " (" + String.join( ", ", columns ) + ") SELECT * FROM CSVREAD('"
+      + fileName.replace( "'", "''" ) + "', '" + csvColumns + "', 'charset=UTF-8')";
+  }
+
+  @Override
+  public long load( Connection connection, String schemaTable, String[] columns, InputStream data )
+    throws KettleDatabaseException {
+    File file = null;
+    String sql = null;
+    try {
+      file = File.createTempFile( "kettle-bulk-load-", ".csv" );
+      Files.copy( data, file.toPath(), StandardCopyOption.REPLACE_EXISTING );
+      sql = getInsertSQL( schemaTable, columns, file.getAbsolutePath() );
+      try ( Statement statement = connection.createStatement() ) {
+        return statement.executeUpdate( sql );
+      }
+    } catch ( IOException e ) {
+      throw new KettleDatabaseException( "Unable to write the rows to load in a temporary file", e );
+    } catch ( SQLException e ) {
+      throw new KettleDatabaseException( "Error loading rows with [" + sql + "]", e );
+    } finally {
+      if ( file != null ) {
+        file.delete();
+      }
+    }
+  }
+}
@@ -267,4 +267,9 @@ public class H2DatabaseMeta extends BaseDatabaseMeta implements DatabaseInterfac
     return false;
   }
 
+  @Override
+  public DatabaseBulkLoader getBulkLoader() {
+    return new H2CsvReadLoader();
+  }
+
 }
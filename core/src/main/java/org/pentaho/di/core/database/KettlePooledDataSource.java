@@ -0,0 +1,324 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.database;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.apache.commons.dbcp2.ConnectionFactory;
+import org.apache.commons.dbcp2.DelegatingConnection;
+import org.pentaho.di.i18n.BaseMessages;
+
+/**
+ * The connection pool of a database connection. Next to the DBCP pool it keeps the time spent waiting for connections
+ * and the hits of the prepared statement cache, and it can limit the connections a single owner, typically a running
+ * transformation, borrows at the same time. The owners waiting for a connection of their own are served first come,
+ * first served.
+ */
+public class KettlePooledDataSource extends BasicDataSource {
+  private static final Class<?> PKG = Database.class; // for i18n purposes, needed by Translator2!!
+
+  /**
+   * How long an owner waits for one of its connections to be closed when the pool waits for connections without a
+   * limit. Steps keep their connection until they are disposed of, so an owner with more step copies than connections
+   * would otherwise wait forever.
+   */
+  static final long DEFAULT_OWNER_MAX_WAIT_MILLIS = TimeUnit.SECONDS.toMillis( 30 );
+
+  private int maxConnectionsPerOwner;
+
+  private final ConcurrentMap<String, OwnerPermits> ownerPermits = new ConcurrentHashMap<>();
+
+  private final LongAdder connectionsBorrowed = new LongAdder();
+  private final LongAdder connectionWaitNanos = new LongAdder();
+  private final LongAccumulator longestConnectionWaitNanos = new LongAccumulator( Math::max, 0L );
+  private final LongAdder statementsRequested = new LongAdder();
+  private final LongAdder statementsPrepared = new LongAdder();
+
+  /**
+   * @return the maximum number of connections one owner can borrow at the same time, 0 means no limit
+   */
+  public int getMaxConnectionsPerOwner() {
+    return maxConnectionsPerOwner;
+  }
+
+  /**
+   * @param maxConnectionsPerOwner the maximum number of connections one owner can borrow at the same time, 0 means no
+   *                               limit. Set it before the first connection is borrowed.
+   */
+  public void setMaxConnectionsPerOwner( int maxConnectionsPerOwner ) {
+    this.maxConnectionsPerOwner = maxConnectionsPerOwner;
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    return getConnection( null );
+  }
+
+  /**
+   * Borrows a connection on behalf of an owner. When the owner already has the maximum number of connections per
+   * owner, this waits for one of them to be closed, at most {@link #getOwnerMaxWaitMillis()}.
+   *
+   * @param owner the owner of the connection, typically the container object ID of the transformation. No limit
+   *              applies when it is null.
+   * @return the connection, to close when it's no longer used
+   */
+  public Connection getConnection( String owner ) throws SQLException {
+    long start = System.nanoTime();
+    OwnerPermits permits = acquirePermit( owner );
+    Connection connection;
+    try {
+      connection = super.getConnection();
+    } catch ( SQLException | RuntimeException e ) {
+      releasePermit( owner, permits );
+      throw e;
+    }
+    long waitNanos = System.nanoTime() - start;
+    connectionsBorrowed.increment();
+    connectionWaitNanos.add( waitNanos );
+    longestConnectionWaitNanos.accumulate( waitNanos );
+
+    AtomicBoolean released = new AtomicBoolean();
+    return new MeteredConnection( connection, statementsRequested, () -> {
+      if ( released.compareAndSet( false, true ) ) {
+        releasePermit( owner, permits );
+      }
+    } );
+  }
+
+  private OwnerPermits acquirePermit( String owner ) throws SQLException {
+    if ( owner == null || maxConnectionsPerOwner <= 0 ) {
+      return null;
+    }
+    OwnerPermits permits = ownerPermits.compute( owner, ( key, current ) -> {
+      OwnerPermits users = current == null ? new OwnerPermits( maxConnectionsPerOwner ) : current;
+      users.users++;
+      return users;
+    } );
+    boolean acquired;
+    try {
+      acquired = permits.semaphore.tryAcquire( getOwnerMaxWaitMillis(), TimeUnit.MILLISECONDS );
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+      acquired = false;
+    }
+    if ( !acquired ) {
+      removeUser( owner );
+      throw new SQLException( BaseMessages.getString( PKG, "Database.Exception.MaxConnectionsPerOwnerReached",
+        String.valueOf( maxConnectionsPerOwner ), String.valueOf( getOwnerMaxWaitMillis() ) ) );
+    }
+    return permits;
+  }
+
+  /**
+   * @return the time in ms an owner waits for one of its connections to be closed: the maximum wait time of the pool,
+   *         or {@link #DEFAULT_OWNER_MAX_WAIT_MILLIS} when the pool waits without a limit
+   */
+  public long getOwnerMaxWaitMillis() {
+    long maxWait = getMaxWaitMillis();
+    return maxWait < 0 ? DEFAULT_OWNER_MAX_WAIT_MILLIS : maxWait;
+  }
+
+  private void releasePermit( String owner, OwnerPermits permits ) {
+    if ( permits != null ) {
+      permits.semaphore.release();
+      removeUser( owner );
+    }
+  }
+
+  private void removeUser( String owner ) {
+    ownerPermits.computeIfPresent( owner, ( key, permits ) -> --permits.users == 0 ? null : permits );
+  }
+
+  /**
+   * @return the number of connections of the owner in use or waited for
+   */
+  public int getOwnerConnections( String owner ) {
+    OwnerPermits permits = ownerPermits.get( owner );
+    return permits == null ? 0 : permits.users;
+  }
+
+  /**
+   * Counts the statements the database really prepares, the others come from the statement cache of the connection.
+   */
+  @Override
+  protected ConnectionFactory createConnectionFactory() throws SQLException {
+    ConnectionFactory connectionFactory = super.createConnectionFactory();
+    if ( !isPoolPreparedStatements() ) {
+      return connectionFactory;
+    }
+    return () -> new MeteredConnection( connectionFactory.createConnection(), statementsPrepared, null );
+  }
+
+  /**
+   * @return the number of connections borrowed from the pool
+   */
+  public long getConnectionsBorrowed() {
+    return connectionsBorrowed.sum();
+  }
+
+  /**
+   * @return the total time in ms spent waiting for connections
+   */
+  public long getConnectionWaitTimeMillis() {
+    return TimeUnit.NANOSECONDS.toMillis( connectionWaitNanos.sum() );
+  }
+
+  /**
+   * @return the longest time in ms spent waiting for a connection
+   */
+  public long getLongestConnectionWaitMillis() {
+    return TimeUnit.NANOSECONDS.toMillis( longestConnectionWaitNanos.get() );
+  }
+
+  /**
+   * @return the number of statements prepared on the borrowed connections
+   */
+  public long getStatementsRequested() {
+    return statementsRequested.sum();
+  }
+
+  /**
+   * @return the number of statements the database prepared because they weren't in the statement cache
+   */
+  public long getStatementsPrepared() {
+    return isPoolPreparedStatements() ? statementsPrepared.sum() : statementsRequested.sum();
+  }
+
+  /**
+   * @return the fraction of the requested statements found in the statement cache, between 0 and 1
+   */
+  public double getStatementCacheHitRatio() {
+    long requested = getStatementsRequested();
+    if ( requested == 0 ) {
+      return 0.0;
+    }
+    return Math.max( 0L, requested - getStatementsPrepared() ) / (double) requested;
+  }
+
+  private static class OwnerPermits {
+    private final Semaphore semaphore;
+    private int users;
+
+    OwnerPermits( int maxConnections ) {
+      semaphore = new Semaphore( maxConnections, true );
+    }
+  }
+
+  /**
+   * Counts the statements prepared on a connection and tells when it's closed.
+   */
+  static class MeteredConnection extends DelegatingConnection<Connection> {
+    private final LongAdder statements;
+    private final Runnable onClose;
+
+    MeteredConnection( Connection connection, LongAdder statements, Runnable onClose ) {
+      super( connection );
+      this.statements = statements;
+      this.onClose = onClose;
+      setCacheState( false );
+    }
+
+    @Override
+    public PreparedStatement prepareStatement( String sql ) throws SQLException {
+      statements.increment();
+      return super.prepareStatement( sql );
+    }
+
+    @Override
+    public PreparedStatement prepareStatement( String sql, int autoGeneratedKeys ) throws SQLException {
+      statements.increment();
+      return super.prepareStatement( sql, autoGeneratedKeys );
+    }
+
+    @Override
+    public PreparedStatement prepareStatement( String sql, int[] columnIndexes ) throws SQLException {
+      statements.increment();
+      return super.prepareStatement( sql, columnIndexes );
+    }
+
+    @Override
+    public PreparedStatement prepareStatement( String sql, String[] columnNames ) throws SQLException {
+      statements.increment();
+      return super.prepareStatement( sql, columnNames );
+    }
+
+    @Override
+    public PreparedStatement prepareStatement( String sql, int resultSetType, int resultSetConcurrency )
+      throws SQLException {
+      statements.increment();
+      return super.prepareStatement( sql, resultSetType, resultSetConcurrency );
+    }
+
+    @Override
+    public PreparedStatement prepareStatement( String sql, int resultSetType, int resultSetConcurrency,
+                                               int resultSetHoldability ) throws SQLException {
+      statements.increment();
+      return super.prepareStatement( sql, resultSetType, resultSetConcurrency, resultSetHoldability );
+    }
+
+    @Override
+    public CallableStatement prepareCall( String sql ) throws SQLException {
+      statements.increment();
+      return super.prepareCall( sql );
+    }
+
+    @Override
+    public CallableStatement prepareCall( String sql, int resultSetType, int resultSetConcurrency )
+      throws SQLException {
+      statements.increment();
+      return super.prepareCall( sql, resultSetType, resultSetConcurrency );
+    }
+
+    @Override
+    public CallableStatement prepareCall( String sql, int resultSetType, int resultSetConcurrency,
+                                          int resultSetHoldability ) throws SQLException {
+      statements.increment();
+      return super.prepareCall( sql, resultSetType, resultSetConcurrency, resultSetHoldability );
+    }
+
+    /**
+     * Leaves it to the pool to decide if the underlying connection can be accessed.
+     */
+    @Override
+    public Connection getInnermostDelegate() {
+      Connection delegate = getDelegateInternal();
+      if ( delegate instanceof DelegatingConnection ) {
+        return ( (DelegatingConnection<?>) delegate ).getInnermostDelegate();
+      }
+      return delegate;
+    }
+
+    @Override
+    public void close() throws SQLException {
+      try {
+        super.close();
+      } finally {
+        if ( onClose != null ) {
+          onClose.run();
+        }
+      }
+    }
+  }
+}
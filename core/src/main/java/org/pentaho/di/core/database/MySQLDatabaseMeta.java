@@ -466,6 +466,10 @@ public class MySQLDatabaseMeta extends BaseDatabaseMeta implements DatabaseInter
     return true;
   }
 
+  @Override public DatabaseBulkLoader getBulkLoader() {
+    return new MySQLLoadDataLoader();
+  }
+
   @Override public boolean isRequiringTransactionsOnQueries() {
     return false;
   }
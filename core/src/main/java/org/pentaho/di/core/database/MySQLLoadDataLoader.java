@@ -0,0 +1,116 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.database;
+
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.Statement;
+
+import org.pentaho.di.core.Const;
+import org.pentaho.di.core.exception.KettleDatabaseException;
+
+/**
+ * Loads rows with LOAD DATA LOCAL INFILE, handing the rows to the statement of the MySQL or MariaDB JDBC driver as a
+ * stream instead of a file. The driver is used with reflection, and the connection needs the option
+ * allowLoadLocalInfile=true. LOAD DATA LOCAL turns errors like duplicate keys and values that can't be converted into
+ * warnings and skips or changes the rows, so the load fails when the server reports a warning.
+ */
+public class MySQLLoadDataLoader implements DatabaseBulkLoader {
+  /**
+   * The statement classes of the drivers with a setLocalInfileInputStream(InputStream) method.
+   */
+  private static final String[] STATEMENT_CLASSES = {
+    "com.mysql.cj.jdbc.JdbcStatement", "com.mysql.jdbc.Statement", "org.mariadb.jdbc.MariaDbStatement",
+    "org.mariadb.jdbc.Statement" };
+
+  private static final String SET_STREAM_METHOD = "setLocalInfileInputStream";
+
+  /**
+   * The number of warnings reported when the rows were loaded with warnings
+   */
+  private static final int MAX_WARNINGS = 10;
+
+  @Override
+  public BulkLoadEncoder.Format getFormat() {
+    return BulkLoadEncoder.Format.TEXT;
+  }
+
+  @Override
+  public boolean canLoad( Connection connection ) {
+    try ( Statement statement = connection.createStatement() ) {
+      return getStatementClass( statement ) != null;
+    } catch ( SQLException e ) {
+      return false;
+    }
+  }
+
+  /**
+   * @return the LOAD DATA statement reading the rows in the text format from the client
+   */
+  public static String getLoadDataSQL( String schemaTable, String[] columns ) {
+    return "LOAD DATA LOCAL INFILE 'stream' INTO TABLE " + schemaTable + " CHARACTER SET utf8mb4"
+      + " FIELDS TERMINATED BY '\\t' ESCAPED BY '\\\\' LINES TERMINATED BY '\\n'"
+      + " (" + String.join( ", ", columns ) + ")";
+  }
+
+  @Override
+  public long load( Connection connection, String schemaTable, String[] columns, InputStream data )
+    throws KettleDatabaseException {
+    String sql = getLoadDataSQL( schemaTable, columns );
+    try ( Statement statement = connection.createStatement() ) {
+      Class<?> statementClass = getStatementClass( statement );
+      if ( statementClass == null ) {
+        throw new KettleDatabaseException( "The JDBC driver can't load data from a stream with [" + sql + "]" );
+      }
+      statementClass.getMethod( SET_STREAM_METHOD, InputStream.class )
+        .invoke( statement.unwrap( statementClass ), data );
+      long rows = statement.executeUpdate( sql );
+      SQLWarning warning = statement.getWarnings();
+      if ( warning != null ) {
+        StringBuilder message = new StringBuilder( "Rows loaded with warnings by [" + sql + "]:" );
+        for ( int i = 0; warning != null && i < MAX_WARNINGS; i++ ) {
+          message.append( Const.CR ).append( warning.getMessage() );
+          warning = warning.getNextWarning();
+        }
+        throw new KettleDatabaseException( message.toString() );
+      }
+      return rows;
+    } catch ( SQLException e ) {
+      throw new KettleDatabaseException( "Error loading rows with [" + sql + "]", e );
+    } catch ( InvocationTargetException e ) {
+      throw new KettleDatabaseException( "Error loading rows with [" + sql + "]", e.getCause() );
+    } catch ( ReflectiveOperationException e ) {
+      throw new KettleDatabaseException( "Unable to hand the rows to the JDBC driver for [" + sql + "]", e );
+    }
+  }
+
+  private static Class<?> getStatementClass( Statement statement ) throws SQLException {
+    ClassLoader classLoader = statement.getClass().getClassLoader();
+    for ( String className : STATEMENT_CLASSES ) {
+      try {
+        Class<?> statementClass = Class.forName( className, true, classLoader );
+        if ( statement.isWrapperFor( statementClass ) ) {
+          statementClass.getMethod( SET_STREAM_METHOD, InputStream.class );
+          return statementClass;
+        }
+      } catch ( ClassNotFoundException | NoSuchMethodException e ) {
+        // Not this driver or version
+      }
+    }
+    return null;
+  }
+}
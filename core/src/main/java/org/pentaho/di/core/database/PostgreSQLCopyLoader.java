@@ -0,0 +1,70 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.database;
+
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.sql.Connection;
+
+import org.pentaho.di.core.exception.KettleDatabaseException;
+
+/**
+ * Loads rows with COPY ... FROM STDIN through the copy API of the PostgreSQL JDBC driver. The driver is used with
+ * reflection, so that it only has to be on the class path of the connection.
+ */
+public class PostgreSQLCopyLoader implements DatabaseBulkLoader {
+  private static final String PG_CONNECTION_CLASS = "org.postgresql.PGConnection";
+
+  @Override
+  public BulkLoadEncoder.Format getFormat() {
+    return BulkLoadEncoder.Format.TEXT;
+  }
+
+  @Override
+  public boolean canLoad( Connection connection ) {
+    try {
+      return connection.isWrapperFor( getPGConnectionClass( connection ) );
+    } catch ( Exception e ) {
+      return false;
+    }
+  }
+
+  /**
+   * @return the COPY statement reading the rows from the client
+   */
+  public static String getCopySQL( String schemaTable, String[] columns ) {
+    return "COPY " + schemaTable + " (" + String.join( ", ", columns ) + ") FROM STDIN";
+  }
+
+  @Override
+  public long load( Connection connection, String schemaTable, String[] columns, InputStream data )
+    throws KettleDatabaseException {
+    String sql = getCopySQL( schemaTable, columns );
+    try {
+      Class<?> pgConnectionClass = getPGConnectionClass( connection );
+      Object copyManager = pgConnectionClass.getMethod( "getCopyAPI" ).invoke( connection.unwrap( pgConnectionClass ) );
+      Object rows = copyManager.getClass().getMethod( "copyIn", String.class, InputStream.class )
+        .invoke( copyManager, sql, data );
+      return ( (Number) rows ).longValue();
+    } catch ( InvocationTargetException e ) {
+      throw new KettleDatabaseException( "Error loading rows with [" + sql + "]", e.getCause() );
+    } catch ( Exception e ) {
+      throw new KettleDatabaseException( "Unable to use the copy API of the PostgreSQL driver for [" + sql + "]", e );
+    }
+  }
+
+  private static Class<?> getPGConnectionClass( Connection connection ) throws ClassNotFoundException {
+    return Class.forName( PG_CONNECTION_CLASS, true, connection.getClass().getClassLoader() );
+  }
+}
@@ -546,6 +546,11 @@ public class PostgreSQLDatabaseMeta extends BaseDatabaseMeta implements Database
     return true;
   }
 
+  @Override
+  public DatabaseBulkLoader getBulkLoader() {
+    return new PostgreSQLCopyLoader();
+  }
+
   @Override
   public int getMaxVARCHARLength() {
     return GB_LIMIT;
@@ -132,6 +132,14 @@ public class RedshiftDatabaseMeta extends PostgreSQLDatabaseMeta {
     return "redshift";
   }
 
+  /**
+   * Redshift only copies from files in cloud storage, not from the client.
+   */
+  @Override
+  public DatabaseBulkLoader getBulkLoader() {
+    return null;
+  }
+
   private String getParamIfSet( String param, String val ) {
     if ( !isEmpty( val ) ) {
       return "&" + param + "=" + val;
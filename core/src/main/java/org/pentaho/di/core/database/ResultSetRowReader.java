@@ -0,0 +1,290 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.database;
+
+import java.sql.Blob;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Objects;
+
+import org.pentaho.di.core.exception.KettleDatabaseException;
+import org.pentaho.di.core.row.RowDataUtil;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaBase;
+
+/**
+ * Reads the rows of a result set with a reader for every column, chosen once for the metadata of the rows.<br>
+ * The readers do what {@link ValueMetaBase#getValueFromResultSet(DatabaseInterface, ResultSet, int)} does for the
+ * type of the column, with the database flags it looks at resolved up front. Columns of databases or value metadata
+ * that read values their own way are read by {@link DatabaseMeta#getValueFromResultSet(ResultSet, ValueMetaInterface,
+ * int)} like before.
+ */
+public class ResultSetRowReader {
+
+  /**
+   * Whether a database interface class reads values its own way, looked up once per class
+   */
+  private static final ClassValue<Boolean> DATABASE_READS_VALUES = new ClassValue<Boolean>() {
+    @Override
+    protected Boolean computeValue( Class<?> type ) {
+      return isOverridden( type, BaseDatabaseMeta.class, ResultSet.class, ValueMetaInterface.class, int.class );
+    }
+  };
+
+  /**
+   * Whether a value metadata class reads values its own way, looked up once per class
+   */
+  private static final ClassValue<Boolean> VALUE_META_READS_VALUES = new ClassValue<Boolean>() {
+    @Override
+    protected Boolean computeValue( Class<?> type ) {
+      return isOverridden( type, ValueMetaBase.class, DatabaseInterface.class, ResultSet.class, int.class );
+    }
+  };
+
+  private final RowMetaInterface rowMeta;
+  private final ColumnReader[] readers;
+
+  /**
+   * @param databaseMeta the database of the result set
+   * @param rowMeta      the metadata of the rows
+   */
+  public ResultSetRowReader( DatabaseMeta databaseMeta, RowMetaInterface rowMeta ) {
+    this.rowMeta = rowMeta;
+    readers = new ColumnReader[ rowMeta.size() ];
+    DatabaseInterface databaseInterface = getDefaultDatabaseInterface( databaseMeta );
+    for ( int i = 0; i < readers.length; i++ ) {
+      readers[ i ] = createReader( databaseMeta, databaseInterface, rowMeta.getValueMeta( i ), i );
+    }
+  }
+
+  /**
+   * @return true if the reader was created for this metadata or for metadata with the same columns, as the metadata of
+   * a query that is looked up again for every row
+   */
+  public boolean isReaderOf( RowMetaInterface rowMeta ) {
+    if ( rowMeta == null || readers.length != rowMeta.size() ) {
+      return false;
+    }
+    if ( this.rowMeta == rowMeta ) {
+      return true;
+    }
+    for ( int i = 0; i < readers.length; i++ ) {
+      if ( !isSameColumn( readers[ i ].valueMeta, rowMeta.getValueMeta( i ) ) ) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return true if the readers of both columns read the same values, the reader only looks at these properties
+   */
+  private static boolean isSameColumn( ValueMetaInterface one, ValueMetaInterface other ) {
+    return one.getClass() == other.getClass()
+      && one.getType() == other.getType()
+      && one.getStorageType() == other.getStorageType()
+      && one.getPrecision() == other.getPrecision()
+      && one.getLength() == other.getLength()
+      && Objects.equals( one.getName(), other.getName() );
+  }
+
+  /**
+   * Reads the current row of the result set.
+   *
+   * @param rs the result set, positioned on a row
+   * @return the row
+   */
+  public Object[] readRow( ResultSet rs ) throws KettleDatabaseException {
+    Object[] data = RowDataUtil.allocateRowData( readers.length );
+    for ( int i = 0; i < readers.length; i++ ) {
+      data[ i ] = readers[ i ].read( rs );
+    }
+    return data;
+  }
+
+  /**
+   * @return the database interface if neither it nor the database metadata read values their own way, otherwise null
+   */
+  private static DatabaseInterface getDefaultDatabaseInterface( DatabaseMeta databaseMeta ) {
+    if ( databaseMeta.getClass() != DatabaseMeta.class ) {
+      return null;
+    }
+    DatabaseInterface databaseInterface = databaseMeta.getDatabaseInterface();
+    if ( databaseInterface == null || DATABASE_READS_VALUES.get( databaseInterface.getClass() ) ) {
+      return null;
+    }
+    return databaseInterface;
+  }
+
+  private static boolean isOverridden( Class<?> clazz, Class<?> base, Class<?>... parameterTypes ) {
+    try {
+      return clazz.getMethod( "getValueFromResultSet", parameterTypes ).getDeclaringClass() != base;
+    } catch ( NoSuchMethodException e ) {
+      return true;
+    }
+  }
+
+  private static ColumnReader createReader( DatabaseMeta databaseMeta, DatabaseInterface databaseInterface,
+                                            ValueMetaInterface valueMeta, int index ) {
+    if ( databaseInterface == null || VALUE_META_READS_VALUES.get( valueMeta.getClass() ) ) {
+      return new GenericReader( databaseMeta, valueMeta, index );
+    }
+    switch ( valueMeta.getType() ) {
+      case ValueMetaInterface.TYPE_BOOLEAN:
+        return new JdbcColumnReader( valueMeta, index ) {
+          @Override
+          Object readValue( ResultSet rs ) throws SQLException {
+            boolean value = rs.getBoolean( column );
+            return rs.wasNull() ? null : Boolean.valueOf( value );
+          }
+        };
+      case ValueMetaInterface.TYPE_NUMBER:
+        return new JdbcColumnReader( valueMeta, index ) {
+          @Override
+          Object readValue( ResultSet rs ) throws SQLException {
+            double value = rs.getDouble( column );
+            return rs.wasNull() ? null : Double.valueOf( value );
+          }
+        };
+      case ValueMetaInterface.TYPE_INTEGER:
+        return new JdbcColumnReader( valueMeta, index ) {
+          @Override
+          Object readValue( ResultSet rs ) throws SQLException {
+            long value = rs.getLong( column );
+            return rs.wasNull() ? null : Long.valueOf( value );
+          }
+        };
+      case ValueMetaInterface.TYPE_BIGNUMBER:
+        return new JdbcColumnReader( valueMeta, index ) {
+          @Override
+          Object readValue( ResultSet rs ) throws SQLException {
+            return rs.getBigDecimal( column );
+          }
+        };
+      case ValueMetaInterface.TYPE_STRING:
+        if ( valueMeta.isStorageBinaryString() ) {
+          return new BytesReader( valueMeta, index );
+        }
+        return new JdbcColumnReader( valueMeta, index ) {
+          @Override
+          Object readValue( ResultSet rs ) throws SQLException {
+            return rs.getString( column );
+          }
+        };
+      case ValueMetaInterface.TYPE_BINARY:
+        if ( !databaseInterface.supportsGetBlob() ) {
+          return new BytesReader( valueMeta, index );
+        }
+        return new JdbcColumnReader( valueMeta, index ) {
+          @Override
+          Object readValue( ResultSet rs ) throws SQLException {
+            Blob blob = rs.getBlob( column );
+            return blob == null ? null : blob.getBytes( 1L, (int) blob.length() );
+          }
+        };
+      case ValueMetaInterface.TYPE_DATE:
+        if ( valueMeta.getPrecision() != 1 && databaseInterface.supportsTimeStampToDateConversion() ) {
+          return new JdbcColumnReader( valueMeta, index ) {
+            @Override
+            Object readValue( ResultSet rs ) throws SQLException {
+              return rs.getTimestamp( column );
+            }
+          };
+        }
+        if ( databaseInterface instanceof NetezzaDatabaseMeta ) {
+          // The work around for the Netezza driver looks at the column type
+          return new GenericReader( databaseMeta, valueMeta, index );
+        }
+        return new JdbcColumnReader( valueMeta, index ) {
+          @Override
+          Object readValue( ResultSet rs ) throws SQLException {
+            return rs.getDate( column );
+          }
+        };
+      default:
+        return new JdbcColumnReader( valueMeta, index ) {
+          @Override
+          Object readValue( ResultSet rs ) {
+            return null;
+          }
+        };
+    }
+  }
+
+  /**
+   * Reads a column of the current row.
+   */
+  abstract static class ColumnReader {
+    final ValueMetaInterface valueMeta;
+    final int index;
+
+    ColumnReader( ValueMetaInterface valueMeta, int index ) {
+      this.valueMeta = valueMeta;
+      this.index = index;
+    }
+
+    abstract Object read( ResultSet rs ) throws KettleDatabaseException;
+  }
+
+  /**
+   * Reads a column with a getter of the result set. The getters returning objects return null for SQL nulls, so only
+   * the getters of primitive values need to check if the value was null.
+   */
+  abstract static class JdbcColumnReader extends ColumnReader {
+    final int column;
+
+    JdbcColumnReader( ValueMetaInterface valueMeta, int index ) {
+      super( valueMeta, index );
+      column = index + 1;
+    }
+
+    @Override
+    Object read( ResultSet rs ) throws KettleDatabaseException {
+      try {
+        return readValue( rs );
+      } catch ( SQLException e ) {
+        throw new KettleDatabaseException( "Unable to get value '" + valueMeta.toStringMeta()
+          + "' from database resultset, index " + index, e );
+      }
+    }
+
+    abstract Object readValue( ResultSet rs ) throws SQLException;
+  }
+
+  private static class BytesReader extends JdbcColumnReader {
+    BytesReader( ValueMetaInterface valueMeta, int index ) {
+      super( valueMeta, index );
+    }
+
+    @Override
+    Object readValue( ResultSet rs ) throws SQLException {
+      return rs.getBytes( column );
+    }
+  }
+
+  private static class GenericReader extends ColumnReader {
+    private final DatabaseMeta databaseMeta;
+
+    GenericReader( DatabaseMeta databaseMeta, ValueMetaInterface valueMeta, int index ) {
+      super( valueMeta, index );
+      this.databaseMeta = databaseMeta;
+    }
+
+    @Override
+    Object read( ResultSet rs ) throws KettleDatabaseException {
+      return databaseMeta.getValueFromResultSet( rs, valueMeta, index );
+    }
+  }
+}
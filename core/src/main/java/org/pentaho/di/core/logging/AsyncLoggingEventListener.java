@@ -0,0 +1,277 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.logging;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.pentaho.di.core.Const;
+import org.pentaho.di.core.util.EnvUtil;
+
+/**
+ * Hands logging events over to a background thread that passes them on to the wrapped listener. The thread that logs
+ * only pays for putting the event in a bounded queue, slow listeners (files, SLF4J appenders, the console) no longer
+ * hold up the steps.<br>
+ * All open listeners share one writer thread and one JVM shutdown hook. The thread runs while listeners are open, the
+ * hook passes on the events still queued when the JVM exits. Closing a listener deregisters it.<br>
+ * When the queue is full the event is either dropped or the logging thread waits for room, see {@link OverflowPolicy}.
+ * Errors are never dropped.
+ */
+public class AsyncLoggingEventListener implements KettleLoggingEventListener {
+
+  public enum OverflowPolicy {
+    /** Wait until the writer thread made room in the queue */
+    BLOCK,
+    /** Throw away the event, errors excepted */
+    DROP;
+
+    public static OverflowPolicy getPolicy( String code ) {
+      for ( OverflowPolicy policy : values() ) {
+        if ( policy.name().equalsIgnoreCase( code ) ) {
+          return policy;
+        }
+      }
+      return BLOCK;
+    }
+  }
+
+  public static final int DEFAULT_QUEUE_SIZE = 10000;
+
+  private static final int DRAIN_BATCH_SIZE = 256;
+
+  private static final long IDLE_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos( 100 );
+
+  /**
+   * The open listeners, served by the writer thread
+   */
+  private static final List<AsyncLoggingEventListener> listeners = new CopyOnWriteArrayList<>();
+
+  /**
+   * The writer thread, null while no listener is open
+   */
+  private static volatile Thread writer;
+
+  /**
+   * Closes the open listeners when the JVM exits (Pan, Kitchen), null while no listener is open
+   */
+  private static Thread shutdownHook;
+
+  private final KettleLoggingEventListener listener;
+  private final BlockingQueue<KettleLoggingEvent> queue;
+  private final OverflowPolicy policy;
+  private final AtomicLong droppedEvents;
+  private final List<KettleLoggingEvent> batch;
+
+  private volatile boolean closed;
+
+  public AsyncLoggingEventListener( KettleLoggingEventListener listener, int queueSize, OverflowPolicy policy ) {
+    this.listener = listener;
+    this.queue = new ArrayBlockingQueue<>( queueSize > 0 ? queueSize : DEFAULT_QUEUE_SIZE );
+    this.policy = policy;
+    this.droppedEvents = new AtomicLong();
+    this.batch = new ArrayList<>( DRAIN_BATCH_SIZE );
+
+    register( this );
+  }
+
+  private static synchronized void register( AsyncLoggingEventListener listener ) {
+    listeners.add( listener );
+    if ( writer == null ) {
+      writer = new Thread( AsyncLoggingEventListener::drainLoop, "Kettle async log writer" );
+      writer.setDaemon( true );
+      writer.start();
+    }
+    if ( shutdownHook == null ) {
+      // Make sure the last lines make it to their destination when the JVM exits
+      //
+      Thread hook = new Thread( AsyncLoggingEventListener::closeAll, "Kettle async log shutdown" );
+      try {
+        Runtime.getRuntime().addShutdownHook( hook );
+        shutdownHook = hook;
+      } catch ( IllegalStateException e ) {
+        // Already shutting down
+      }
+    }
+  }
+
+  private static synchronized void deregister( AsyncLoggingEventListener listener ) {
+    listeners.remove( listener );
+    if ( !listeners.isEmpty() ) {
+      return;
+    }
+    Thread stopped = writer;
+    writer = null;
+    if ( stopped != null ) {
+      LockSupport.unpark( stopped );
+    }
+    if ( shutdownHook != null && Thread.currentThread() != shutdownHook ) {
+      try {
+        Runtime.getRuntime().removeShutdownHook( shutdownHook );
+      } catch ( IllegalStateException e ) {
+        // Already shutting down
+      }
+      shutdownHook = null;
+    }
+  }
+
+  private static void closeAll() {
+    for ( AsyncLoggingEventListener listener : listeners ) {
+      listener.close();
+    }
+  }
+
+  /**
+   * @return the number of listeners that are open
+   */
+  static int getOpenListenerCount() {
+    return listeners.size();
+  }
+
+  /**
+   * Wraps the given listener in an asynchronous listener if {@link Const#KETTLE_LOG_ASYNC} is enabled.
+   *
+   * @param listener the listener to wrap
+   * @return the asynchronous listener or the given listener if asynchronous logging is disabled
+   */
+  public static KettleLoggingEventListener wrap( KettleLoggingEventListener listener ) {
+    if ( !isEnabled() ) {
+      return listener;
+    }
+    return new AsyncLoggingEventListener( listener,
+      Const.toInt( EnvUtil.getSystemProperty( Const.KETTLE_LOG_ASYNC_QUEUE_SIZE ), DEFAULT_QUEUE_SIZE ),
+      OverflowPolicy.getPolicy( EnvUtil.getSystemProperty( Const.KETTLE_LOG_ASYNC_OVERFLOW_POLICY ) ) );
+  }
+
+  public static boolean isEnabled() {
+    return "Y".equalsIgnoreCase( EnvUtil.getSystemProperty( Const.KETTLE_LOG_ASYNC, "N" ) );
+  }
+
+  @Override
+  public void eventAdded( KettleLoggingEvent event ) {
+    if ( closed ) {
+      listener.eventAdded( event );
+      return;
+    }
+    if ( queue.offer( event ) ) {
+      if ( closed ) {
+        // Closed in the meantime, don't leave the event behind
+        drain( Integer.MAX_VALUE );
+      } else {
+        wakeUpWriter();
+      }
+      return;
+    }
+    if ( policy == OverflowPolicy.DROP && !isError( event ) ) {
+      droppedEvents.incrementAndGet();
+      return;
+    }
+    try {
+      wakeUpWriter();
+      while ( !queue.offer( event, 100, TimeUnit.MILLISECONDS ) ) {
+        if ( closed ) {
+          listener.eventAdded( event );
+          return;
+        }
+      }
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+      listener.eventAdded( event );
+    }
+  }
+
+  private static boolean isError( KettleLoggingEvent event ) {
+    return event.getLevel() != null && event.getLevel().isError();
+  }
+
+  private static void wakeUpWriter() {
+    Thread thread = writer;
+    if ( thread != null ) {
+      LockSupport.unpark( thread );
+    }
+  }
+
+  private static void drainLoop() {
+    Thread current = Thread.currentThread();
+    while ( writer == current ) {
+      boolean delivered = false;
+      for ( AsyncLoggingEventListener listener : listeners ) {
+        delivered |= listener.drain( DRAIN_BATCH_SIZE );
+      }
+      if ( !delivered ) {
+        LockSupport.parkNanos( IDLE_WAIT_NANOS );
+      }
+    }
+  }
+
+  /**
+   * Passes on queued events. The writer thread and a closing thread both drain the queue, taking the events and
+   * passing them on under the same lock keeps them in order.
+   *
+   * @param maxEvents the maximum number of events to pass on
+   * @return true if any events were passed on
+   */
+  private synchronized boolean drain( int maxEvents ) {
+    queue.drainTo( batch, maxEvents );
+    if ( batch.isEmpty() ) {
+      return false;
+    }
+    for ( KettleLoggingEvent event : batch ) {
+      try {
+        listener.eventAdded( event );
+      } catch ( Exception e ) {
+        // A broken listener should not stop the writer thread
+      }
+    }
+    batch.clear();
+    return true;
+  }
+
+  /**
+   * Deregisters the listener after passing on the events that are still queued. Events logged after this call are
+   * passed on directly by the logging thread.
+   */
+  public void close() {
+    if ( closed ) {
+      return;
+    }
+    closed = true;
+    deregister( this );
+    drain( Integer.MAX_VALUE );
+  }
+
+  public KettleLoggingEventListener getListener() {
+    return listener;
+  }
+
+  public OverflowPolicy getPolicy() {
+    return policy;
+  }
+
+  /**
+   * @return the number of events thrown away because the queue was full
+   */
+  public long getDroppedEvents() {
+    return droppedEvents.get();
+  }
+
+  public boolean isClosed() {
+    return closed;
+  }
+}
@@ -37,6 +37,11 @@ public class FileLoggingEventListener implements KettleLoggingEventListener {
   private KettleException exception;
   private String logChannelId;
 
+  /**
+   * Writes the events on a background thread when asynchronous logging is enabled, null otherwise
+   */
+  private AsyncLoggingEventListener asyncWriter;
+
   /**
    * Log all log lines to the specified file
    *
@@ -71,10 +76,23 @@ public class FileLoggingEventListener implements KettleLoggingEventListener {
       throw new KettleException(
         "Unable to create a logging event listener to write to file '" + filename + "'", e );
     }
+
+    KettleLoggingEventListener writer = AsyncLoggingEventListener.wrap( this::writeEvent );
+    if ( writer instanceof AsyncLoggingEventListener ) {
+      asyncWriter = (AsyncLoggingEventListener) writer;
+    }
   }
 
   @Override
   public void eventAdded( KettleLoggingEvent event ) {
+    if ( asyncWriter != null ) {
+      asyncWriter.eventAdded( event );
+    } else {
+      writeEvent( event );
+    }
+  }
+
+  private void writeEvent( KettleLoggingEvent event ) {
 
     try {
       Object messageObject = event.getMessage();
@@ -103,6 +121,10 @@ public class FileLoggingEventListener implements KettleLoggingEventListener {
   }
 
   public void close() throws KettleException {
+    if ( asyncWriter != null ) {
+      // Write out whatever is still queued
+      asyncWriter.close();
+    }
     try {
       if ( outputStream != null ) {
         outputStream.close();
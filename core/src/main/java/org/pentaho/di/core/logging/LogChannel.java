@@ -150,69 +150,116 @@ public class LogChannel implements LogChannelInterface {
 
   @Override
   public void logMinimal( String s ) {
+    if ( !isVisible( LogLevel.MINIMAL ) ) {
+      return;
+    }
     println( new LogMessage( s, logChannelId, LogLevel.MINIMAL ), logLevel );
   }
 
   @Override
   public void logBasic( String s ) {
+    if ( !isVisible( LogLevel.BASIC ) ) {
+      return;
+    }
     println( new LogMessage( s, logChannelId, LogLevel.BASIC ), logLevel );
   }
 
   @Override
   public void logError( String s ) {
+    if ( !isVisible( LogLevel.ERROR ) ) {
+      return;
+    }
     println( new LogMessage( s, logChannelId, LogLevel.ERROR ), logLevel );
   }
 
   @Override
   public void logError( String s, Throwable e ) {
+    if ( !isVisible( LogLevel.ERROR ) ) {
+      return;
+    }
     println( new LogMessage( s, logChannelId, LogLevel.ERROR ), e, logLevel );
   }
 
   @Override
   public void logBasic( String s, Object... arguments ) {
+    if ( !isVisible( LogLevel.BASIC ) ) {
+      return;
+    }
     println( new LogMessage( s, logChannelId, arguments, LogLevel.BASIC ), logLevel );
   }
 
   @Override
   public void logDetailed( String s, Object... arguments ) {
+    if ( !isVisible( LogLevel.DETAILED ) ) {
+      return;
+    }
     println( new LogMessage( s, logChannelId, arguments, LogLevel.DETAILED ), logLevel );
   }
 
   @Override
   public void logError( String s, Object... arguments ) {
+    if ( !isVisible( LogLevel.ERROR ) ) {
+      return;
+    }
     println( new LogMessage( s, logChannelId, arguments, LogLevel.ERROR ), logLevel );
   }
 
   @Override
   public void logDetailed( String s ) {
+    if ( !isVisible( LogLevel.DETAILED ) ) {
+      return;
+    }
     println( new LogMessage( s, logChannelId, LogLevel.DETAILED ), logLevel );
   }
 
   @Override
   public void logDebug( String s ) {
+    if ( !isVisible( LogLevel.DEBUG ) ) {
+      return;
+    }
     println( new LogMessage( s, logChannelId, LogLevel.DEBUG ), logLevel );
   }
 
   @Override
   public void logDebug( String message, Object... arguments ) {
+    if ( !isVisible( LogLevel.DEBUG ) ) {
+      return;
+    }
     println( new LogMessage( message, logChannelId, arguments, LogLevel.DEBUG ), logLevel );
   }
 
   @Override
   public void logRowlevel( String s ) {
+    if ( !isVisible( LogLevel.ROWLEVEL ) ) {
+      return;
+    }
     println( new LogMessage( s, logChannelId, LogLevel.ROWLEVEL ), logLevel );
   }
 
   @Override
   public void logMinimal( String message, Object... arguments ) {
+    if ( !isVisible( LogLevel.MINIMAL ) ) {
+      return;
+    }
     println( new LogMessage( message, logChannelId, arguments, LogLevel.MINIMAL ), logLevel );
   }
 
   @Override
   public void logRowlevel( String message, Object... arguments ) {
+    if ( !isVisible( LogLevel.ROWLEVEL ) ) {
+      return;
+    }
     println( new LogMessage( message, logChannelId, arguments, LogLevel.ROWLEVEL ), logLevel );
   }
 
+  /**
+   * Checks the level before a message is built: a LogMessage looks up its subject in the logging registry, there is
+   * no point in doing that for lines that are thrown away anyway.
+   */
+  private boolean isVisible( LogLevel messageLevel ) {
+    return messageLevel.isVisible( logLevel );
+  }
+
   @Override
   public boolean isBasic() {
     return logLevel.isBasic();
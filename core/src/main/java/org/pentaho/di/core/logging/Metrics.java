@@ -85,6 +85,17 @@ public class Metrics implements MetricsInterface {
   public static Metrics METRIC_DATABASE_GET_ROW_MAX_TIME = new Metrics(
     MetricsSnapshotType.MAX, "METRIC_DATABASE_GET_ROW_MAX_TIME", "Get row from DB (max time)" );
 
+  public static Metrics METRIC_DATABASE_POOL_WAIT_COUNT = new Metrics(
+    MetricsSnapshotType.COUNT, "METRIC_DATABASE_POOL_WAIT_COUNT", "Get connection from pool (count)" );
+  public static Metrics METRIC_DATABASE_POOL_WAIT_SUM_TIME = new Metrics(
+    MetricsSnapshotType.SUM, "METRIC_DATABASE_POOL_WAIT_SUM_TIME", "Get connection from pool (total wait time)" );
+  public static Metrics METRIC_DATABASE_POOL_WAIT_MAX_TIME = new Metrics(
+    MetricsSnapshotType.MAX, "METRIC_DATABASE_POOL_WAIT_MAX_TIME", "Get connection from pool (max wait time)" );
+  public static Metrics METRIC_DATABASE_POOL_ACTIVE_MAX = new Metrics(
+    MetricsSnapshotType.MAX, "METRIC_DATABASE_POOL_ACTIVE_MAX", "Active pooled connections (max)" );
+  public static Metrics METRIC_DATABASE_POOL_IDLE_MIN = new Metrics(
+    MetricsSnapshotType.MIN, "METRIC_DATABASE_POOL_IDLE_MIN", "Idle pooled connections (min)" );
+
   // Plugin registry...
   //
   public static Metrics METRIC_PLUGIN_REGISTRY_REGISTER_EXTENSIONS_START = new Metrics(
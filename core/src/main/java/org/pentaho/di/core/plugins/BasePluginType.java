@@ -403,6 +403,10 @@ public abstract class BasePluginType implements PluginTypeInterface {
         }
 
         if ( fileObjects != null ) {
+          // Scan the jar files that are not indexed yet in parallel
+          //
+          jarFileCache.scanAnnotationDBs( fileObjects );
+
           for ( FileObject fileObject : fileObjects ) {
             // These are the jar files : find annotations in it...
             //
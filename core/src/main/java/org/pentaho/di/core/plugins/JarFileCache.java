@@ -14,13 +14,31 @@
 package org.pentaho.di.core.plugins;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import org.apache.commons.vfs2.FileContent;
 import org.apache.commons.vfs2.FileObject;
+import org.pentaho.di.core.Const;
 import org.pentaho.di.core.exception.KettleFileException;
+import org.pentaho.di.core.logging.LogChannel;
+import org.pentaho.di.core.util.EnvUtil;
 import org.scannotation.AnnotationDB;
 
+/**
+ * Caches the jar files found in the plugin folders and the annotations found in those jar files.<br>
+ * When {@link Const#KETTLE_PLUGIN_INDEX_CACHE} is enabled the annotations of every plugin folder are persisted in a
+ * {@link PluginIndex} so that the next JVM doesn't need to scan the jar files that didn't change. Jar files that do
+ * need a scan are scanned in parallel.
+ */
 public class JarFileCache {
 
   private static JarFileCache cache;
@@ -29,9 +47,18 @@ public class JarFileCache {
 
   private final Map<FileObject, AnnotationDB> annotationMap;
 
+  private final Map<PluginFolderInterface, PluginIndex> indexMap;
+
+  private final Map<FileObject, PluginIndex> jarIndexMap;
+
+  private final Set<PluginIndex> changedIndexes;
+
   private JarFileCache() {
-    annotationMap = new HashMap<>();
+    annotationMap = new ConcurrentHashMap<>();
     folderMap = new HashMap<>();
+    indexMap = new HashMap<>();
+    jarIndexMap = new ConcurrentHashMap<>();
+    changedIndexes = ConcurrentHashMap.newKeySet();
   }
 
   public static JarFileCache getInstance() {
@@ -44,24 +71,166 @@ public class JarFileCache {
   public AnnotationDB getAnnotationDB( FileObject fileObject ) throws IOException {
     AnnotationDB result = annotationMap.get( fileObject );
     if ( result == null ) {
-      result = new AnnotationDB();
-      result.scanArchives( fileObject.getURL() );
+      result = loadAnnotationDB( fileObject );
       annotationMap.put( fileObject, result );
     }
     return result;
   }
 
+  /**
+   * Makes sure the annotations of all the given jar files are available, scanning the jar files that are not in the
+   * cache or in the persisted index on several threads. Errors are ignored here: the jar file is simply scanned again
+   * (and the error reported) by {@link #getAnnotationDB(FileObject)}.
+   *
+   * @param fileObjects the jar files to scan
+   */
+  public void scanAnnotationDBs( FileObject[] fileObjects ) {
+    List<FileObject> toScan = new ArrayList<>();
+    for ( FileObject fileObject : fileObjects ) {
+      if ( !annotationMap.containsKey( fileObject ) ) {
+        toScan.add( fileObject );
+      }
+    }
+    int threads = Math.min( getScanThreads(), toScan.size() );
+    if ( threads <= 1 ) {
+      return;
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool( threads, r -> {
+      Thread thread = Executors.defaultThreadFactory().newThread( r );
+      thread.setDaemon( true );
+      thread.setName( "Kettle plugin scanner" );
+      return thread;
+    } );
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for ( FileObject fileObject : toScan ) {
+        futures.add( executor.submit( () -> {
+          try {
+            annotationMap.put( fileObject, loadAnnotationDB( fileObject ) );
+          } catch ( Exception e ) {
+            // Reported when this file is looked up again
+          }
+        } ) );
+      }
+      for ( Future<?> future : futures ) {
+        future.get();
+      }
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+    } catch ( Exception e ) {
+      // Ignore, whatever isn't scanned yet is scanned sequentially afterwards
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private AnnotationDB loadAnnotationDB( FileObject fileObject ) throws IOException {
+    PluginIndex index = jarIndexMap.get( fileObject );
+    if ( index == null ) {
+      return scanArchive( fileObject );
+    }
+
+    String url = fileObject.getURL().toString();
+    FileContent content = fileObject.getContent();
+    long size = content.getSize();
+    long lastModified = content.getLastModifiedTime();
+
+    PluginIndex.Entry entry;
+    synchronized ( index ) {
+      entry = index.get( url );
+    }
+    if ( entry != null && entry.matches( size, lastModified ) ) {
+      AnnotationDB result = new AnnotationDB();
+      result.getAnnotationIndex().putAll( entry.getAnnotationIndex() );
+      return result;
+    }
+
+    AnnotationDB result = scanArchive( fileObject );
+    synchronized ( index ) {
+      index.put( url, new PluginIndex.Entry( size, lastModified, result.getAnnotationIndex() ) );
+    }
+    changedIndexes.add( index );
+    return result;
+  }
+
+  private AnnotationDB scanArchive( FileObject fileObject ) throws IOException {
+    AnnotationDB result = new AnnotationDB();
+    result.scanArchives( fileObject.getURL() );
+    return result;
+  }
+
   public FileObject[] getFileObjects( PluginFolderInterface pluginFolderInterface ) throws KettleFileException {
     FileObject[] result = folderMap.get( pluginFolderInterface );
     if ( result == null ) {
       result = pluginFolderInterface.findJarFiles();
       folderMap.put( pluginFolderInterface, result );
+      if ( isIndexEnabled() ) {
+        PluginIndex index = new PluginIndex( PluginIndex.getIndexFile( pluginFolderInterface.getFolder() ) );
+        if ( !index.load() ) {
+          changedIndexes.add( index );
+        }
+        indexMap.put( pluginFolderInterface, index );
+        for ( FileObject fileObject : result ) {
+          jarIndexMap.put( fileObject, index );
+        }
+      }
     }
     return result;
   }
 
+  /**
+   * Writes the plugin indexes that changed during this scan. Jar files that were removed from a plugin folder are
+   * dropped from its index.
+   */
+  public void saveIndexes() {
+    for ( Map.Entry<PluginFolderInterface, PluginIndex> folder : indexMap.entrySet() ) {
+      PluginIndex index = folder.getValue();
+      FileObject[] fileObjects = folderMap.get( folder.getKey() );
+      if ( fileObjects == null ) {
+        continue;
+      }
+      synchronized ( index ) {
+        if ( index.getEntries().size() != fileObjects.length ) {
+          changedIndexes.add( index );
+        }
+        if ( !changedIndexes.contains( index ) ) {
+          continue;
+        }
+        Set<String> urls = new HashSet<>();
+        for ( FileObject fileObject : fileObjects ) {
+          try {
+            urls.add( fileObject.getURL().toString() );
+          } catch ( Exception e ) {
+            // Not indexed
+          }
+        }
+        index.getEntries().keySet().retainAll( urls );
+        try {
+          index.save();
+        } catch ( IOException e ) {
+          LogChannel.GENERAL.logDebug( "Unable to save the plugin index " + index.getFile(), e );
+        }
+      }
+    }
+    changedIndexes.clear();
+  }
+
   public void clear() {
     annotationMap.clear();
     folderMap.clear();
+    indexMap.clear();
+    jarIndexMap.clear();
+    changedIndexes.clear();
+  }
+
+  private static boolean isIndexEnabled() {
+    return "Y".equalsIgnoreCase(
+      EnvUtil.getSystemProperty( Const.KETTLE_PLUGIN_INDEX_CACHE, Const.KETTLE_PLUGIN_INDEX_CACHE_DEFAULT ) );
+  }
+
+  private static int getScanThreads() {
+    return Const.toInt( EnvUtil.getSystemProperty( Const.KETTLE_PLUGIN_SCAN_THREADS ),
+      Runtime.getRuntime().availableProcessors() );
   }
 }
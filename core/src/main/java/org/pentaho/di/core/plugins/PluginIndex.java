@@ -0,0 +1,197 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.plugins;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.pentaho.di.core.Const;
+
+/**
+ * The persisted annotation index of the jar files in one plugin folder.<br>
+ * Every jar is stored with its size and last modification time, the annotations found in it are only re-used as long
+ * as both are unchanged. The file is a simple tab separated text file:
+ *
+ * <pre>
+ * jar  &lt;url&gt;  &lt;size&gt;  &lt;last modified&gt;
+ * ann  &lt;annotation class&gt;  &lt;class&gt;,&lt;class&gt;,...
+ * </pre>
+ *
+ * Annotation lines belong to the jar line above them.
+ */
+public class PluginIndex {
+
+  private static final String HEADER = "# Kettle plugin annotation index v1";
+  private static final String JAR = "jar";
+  private static final String ANNOTATION = "ann";
+  private static final String SEPARATOR = "\t";
+
+  public static final String INDEX_FOLDER = "plugin-index";
+
+  /**
+   * The indexed content of one jar file
+   */
+  public static class Entry {
+    private final long size;
+    private final long lastModified;
+    private final Map<String, Set<String>> annotationIndex;
+
+    public Entry( long size, long lastModified, Map<String, Set<String>> annotationIndex ) {
+      this.size = size;
+      this.lastModified = lastModified;
+      this.annotationIndex = annotationIndex;
+    }
+
+    public long getSize() {
+      return size;
+    }
+
+    public long getLastModified() {
+      return lastModified;
+    }
+
+    public Map<String, Set<String>> getAnnotationIndex() {
+      return annotationIndex;
+    }
+
+    public boolean matches( long size, long lastModified ) {
+      return this.size == size && this.lastModified == lastModified;
+    }
+  }
+
+  private final File file;
+  private final Map<String, Entry> entries;
+
+  public PluginIndex( File file ) {
+    this.file = file;
+    this.entries = new LinkedHashMap<>();
+  }
+
+  /**
+   * @param pluginFolder the plugin folder location
+   * @return the index file for the given plugin folder in the Kettle home directory
+   */
+  public static File getIndexFile( String pluginFolder ) {
+    String name = UUID.nameUUIDFromBytes( pluginFolder.getBytes( StandardCharsets.UTF_8 ) ).toString();
+    return new File( Const.getKettleDirectory() + Const.FILE_SEPARATOR + INDEX_FOLDER
+      + Const.FILE_SEPARATOR + name + ".idx" );
+  }
+
+  public File getFile() {
+    return file;
+  }
+
+  public Entry get( String jarUrl ) {
+    return entries.get( jarUrl );
+  }
+
+  public void put( String jarUrl, Entry entry ) {
+    entries.put( jarUrl, entry );
+  }
+
+  public Map<String, Entry> getEntries() {
+    return entries;
+  }
+
+  /**
+   * Reads the index file. A missing or unreadable file simply leaves the index empty.
+   *
+   * @return true if the file could be read
+   */
+  public boolean load() {
+    entries.clear();
+    if ( !file.exists() ) {
+      return false;
+    }
+    try ( BufferedReader reader = new BufferedReader(
+      new InputStreamReader( Files.newInputStream( file.toPath() ), StandardCharsets.UTF_8 ) ) ) {
+      if ( !HEADER.equals( reader.readLine() ) ) {
+        return false;
+      }
+      Map<String, Set<String>> current = null;
+      String line;
+      while ( ( line = reader.readLine() ) != null ) {
+        String[] parts = line.split( SEPARATOR, -1 );
+        if ( JAR.equals( parts[0] ) && parts.length == 4 ) {
+          current = new HashMap<>();
+          entries.put( parts[1], new Entry( Long.parseLong( parts[2] ), Long.parseLong( parts[3] ), current ) );
+        } else if ( ANNOTATION.equals( parts[0] ) && parts.length == 3 && current != null ) {
+          Set<String> classes = new HashSet<>();
+          for ( String className : parts[2].split( "," ) ) {
+            if ( !className.isEmpty() ) {
+              classes.add( className );
+            }
+          }
+          current.put( parts[1], classes );
+        } else {
+          // Corrupt file: start from scratch
+          entries.clear();
+          return false;
+        }
+      }
+      return true;
+    } catch ( IOException | RuntimeException e ) {
+      entries.clear();
+      return false;
+    }
+  }
+
+  /**
+   * Writes the index to a temporary file first and then moves it in place, concurrent readers (Kitchen and Pan
+   * processes starting at the same time) either see the old or the new index.
+   *
+   * @throws IOException in case the file can't be written
+   */
+  public void save() throws IOException {
+    File folder = file.getParentFile();
+    if ( folder != null && !folder.exists() && !folder.mkdirs() && !folder.exists() ) {
+      throw new IOException( "Unable to create plugin index folder " + folder );
+    }
+    File tempFile = File.createTempFile( "plugin-index", ".tmp", folder );
+    try {
+      try ( BufferedWriter writer = new BufferedWriter(
+        new OutputStreamWriter( Files.newOutputStream( tempFile.toPath() ), StandardCharsets.UTF_8 ) ) ) {
+        writer.write( HEADER );
+        writer.newLine();
+        for ( Map.Entry<String, Entry> jar : entries.entrySet() ) {
+          Entry entry = jar.getValue();
+          writer.write( JAR + SEPARATOR + jar.getKey() + SEPARATOR + entry.getSize() + SEPARATOR
+            + entry.getLastModified() );
+          writer.newLine();
+          for ( Map.Entry<String, Set<String>> annotation : entry.getAnnotationIndex().entrySet() ) {
+            writer.write( ANNOTATION + SEPARATOR + annotation.getKey() + SEPARATOR
+              + String.join( ",", annotation.getValue() ) );
+            writer.newLine();
+          }
+        }
+      }
+      Files.move( tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING );
+    } finally {
+      Files.deleteIfExists( tempFile.toPath() );
+    }
+  }
+}
@@ -602,6 +602,10 @@ public class PluginRegistry {
      * System.out.println("   - "+duration.toString()+"          Total="+total); }
      */
 
+    // Persist the annotations found in new or modified plugin jar files for the next start-up
+    //
+    JarFileCache.getInstance().saveIndexes();
+
     // Clear the jar file cache so that we don't waste memory...
     //
     if ( !keepCache ) {
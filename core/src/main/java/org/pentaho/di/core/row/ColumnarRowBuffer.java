@@ -0,0 +1,621 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.row;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.pentaho.di.core.exception.KettleFileException;
+import org.pentaho.di.core.exception.KettleValueException;
+import org.pentaho.di.core.row.value.ValueMetaBoolean;
+import org.pentaho.di.core.row.value.ValueMetaDate;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaNumber;
+
+/**
+ * Keeps rows in memory column by column instead of as a list of Object[] rows.<br>
+ * Integers, numbers and dates are kept in primitive arrays, booleans and nulls in bitmaps and strings are dictionary
+ * encoded as long as they repeat enough. All other types (and values stored in binary string or indexed storage) are
+ * kept as plain objects. A buffered row takes a fraction of the heap of a boxed Object[] row, which lets blocking steps
+ * keep more rows in memory before they need to spill to disk.<br>
+ * Rows are materialized again with {@link #getRow(int)}, single values can be read without building the row with
+ * {@link #getValue(int, int)}, {@link #getLong(int, int)} and {@link #getDouble(int, int)}.<br>
+ * This class is not thread safe.
+ */
+public class ColumnarRowBuffer {
+
+  private static final int INITIAL_CAPACITY = 1024;
+
+  /**
+   * Strings stop being dictionary encoded once there are more than this many distinct values and they make up more
+   * than half of the rows.
+   */
+  private static final int MAX_DICTIONARY_SIZE = 1 << 16;
+
+  /**
+   * The value metadata that compare and serialize integers, numbers, dates and booleans like the columns do on their
+   * primitive values. Other classes can have their own comparator or format, their values are boxed.
+   */
+  private static final Set<Class<?>> PRIMITIVE_VALUE_METAS = new HashSet<>( Arrays.asList( ValueMetaInteger.class,
+    ValueMetaNumber.class, ValueMetaDate.class, ValueMetaBoolean.class ) );
+
+  private final RowMetaInterface rowMeta;
+  private final Column[] columns;
+  private int size;
+  private int capacity;
+
+  public ColumnarRowBuffer( RowMetaInterface rowMeta ) {
+    this.rowMeta = rowMeta;
+    this.capacity = INITIAL_CAPACITY;
+    this.columns = new Column[ rowMeta.size() ];
+    for ( int i = 0; i < columns.length; i++ ) {
+      columns[ i ] = createColumn( rowMeta.getValueMeta( i ), capacity );
+    }
+  }
+
+  private static Column createColumn( ValueMetaInterface valueMeta, int capacity ) {
+    if ( valueMeta.getStorageType() != ValueMetaInterface.STORAGE_TYPE_NORMAL ) {
+      return new ObjectColumn( capacity );
+    }
+    Column column;
+    switch ( valueMeta.getType() ) {
+      case ValueMetaInterface.TYPE_INTEGER:
+        column = new LongColumn( capacity, false );
+        break;
+      case ValueMetaInterface.TYPE_DATE:
+        column = new LongColumn( capacity, true );
+        break;
+      case ValueMetaInterface.TYPE_NUMBER:
+        column = new DoubleColumn( capacity );
+        break;
+      case ValueMetaInterface.TYPE_BOOLEAN:
+        column = new BooleanColumn( capacity );
+        break;
+      case ValueMetaInterface.TYPE_STRING:
+        return new StringColumn( capacity );
+      default:
+        return new ObjectColumn( capacity );
+    }
+    column.primitive = PRIMITIVE_VALUE_METAS.contains( valueMeta.getClass() );
+    return column;
+  }
+
+  /**
+   * Adds a row at the end of the buffer. Only the first {@link RowMetaInterface#size()} values of the row are kept.
+   *
+   * @param row the row to add
+   */
+  public void addRow( Object[] row ) {
+    if ( size == capacity ) {
+      capacity = capacity * 2;
+      for ( Column column : columns ) {
+        column.ensureCapacity( capacity );
+      }
+    }
+    for ( int i = 0; i < columns.length; i++ ) {
+      Object value = i < row.length ? row[ i ] : null;
+      if ( !columns[ i ].set( size, value ) ) {
+        // The value doesn't fit the specialized column: fall back to plain objects for this field
+        //
+        columns[ i ] = columns[ i ].toObjectColumn( size, capacity );
+        columns[ i ].set( size, value );
+      }
+    }
+    size++;
+  }
+
+  /**
+   * @param index the row index
+   * @return a newly allocated row with the values of the buffered row
+   */
+  public Object[] getRow( int index ) {
+    checkIndex( index );
+    Object[] row = RowDataUtil.allocateRowData( columns.length );
+    for ( int i = 0; i < columns.length; i++ ) {
+      row[ i ] = columns[ i ].get( index );
+    }
+    return row;
+  }
+
+  /**
+   * @param index      the row index
+   * @param fieldIndex the field index
+   * @return the value of the field in the buffered row, boxed if needed
+   */
+  public Object getValue( int index, int fieldIndex ) {
+    checkIndex( index );
+    return columns[ fieldIndex ].get( index );
+  }
+
+  public boolean isNull( int index, int fieldIndex ) {
+    checkIndex( index );
+    return columns[ fieldIndex ].isNull( index );
+  }
+
+  /**
+   * Reads an Integer value (or a Date in milliseconds) without boxing.
+   *
+   * @return the value or 0 if the value is null, check with {@link #isNull(int, int)}
+   * @throws IllegalStateException if the field is not kept as primitive longs
+   */
+  public long getLong( int index, int fieldIndex ) {
+    checkIndex( index );
+    Column column = columns[ fieldIndex ];
+    if ( !( column instanceof LongColumn ) ) {
+      throw new IllegalStateException( "Field #" + fieldIndex + " is not kept as a long" );
+    }
+    return ( (LongColumn) column ).values[ index ];
+  }
+
+  /**
+   * Reads a Number value without boxing.
+   *
+   * @return the value or 0 if the value is null, check with {@link #isNull(int, int)}
+   * @throws IllegalStateException if the field is not kept as primitive doubles
+   */
+  public double getDouble( int index, int fieldIndex ) {
+    checkIndex( index );
+    Column column = columns[ fieldIndex ];
+    if ( !( column instanceof DoubleColumn ) ) {
+      throw new IllegalStateException( "Field #" + fieldIndex + " is not kept as a double" );
+    }
+    return ( (DoubleColumn) column ).values[ index ];
+  }
+
+  /**
+   * Compares two buffered rows on the given fields, with the same semantics as
+   * {@link RowMetaInterface#compare(Object[], Object[], int[])}, without materializing the rows.
+   */
+  public int compare( int index1, int index2, int[] fieldIndexes ) throws KettleValueException {
+    checkIndex( index1 );
+    checkIndex( index2 );
+    for ( int fieldIndex : fieldIndexes ) {
+      int cmp = columns[ fieldIndex ].compare( rowMeta.getValueMeta( fieldIndex ), index1, index2 );
+      if ( cmp != 0 ) {
+        return cmp;
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Writes a buffered row in the format of {@link RowMetaInterface#writeData(DataOutputStream, Object[])}.
+   */
+  public void writeRow( DataOutputStream outputStream, int index ) throws KettleFileException {
+    checkIndex( index );
+    if ( columns.length == 0 ) {
+      rowMeta.writeData( outputStream, new Object[ 0 ] );
+      return;
+    }
+    for ( int i = 0; i < columns.length; i++ ) {
+      columns[ i ].write( rowMeta.getValueMeta( i ), outputStream, index );
+    }
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public RowMetaInterface getRowMeta() {
+    return rowMeta;
+  }
+
+  /**
+   * Removes all rows, the memory allocated for the columns is released as well.
+   */
+  public void clear() {
+    size = 0;
+    capacity = INITIAL_CAPACITY;
+    for ( int i = 0; i < columns.length; i++ ) {
+      columns[ i ] = createColumn( rowMeta.getValueMeta( i ), capacity );
+    }
+  }
+
+  /**
+   * @return a rough estimate of the heap used by the buffered data in bytes
+   */
+  public long getEstimatedSize() {
+    long total = 0L;
+    for ( Column column : columns ) {
+      total += column.getEstimatedSize( size, capacity );
+    }
+    return total;
+  }
+
+  private void checkIndex( int index ) {
+    if ( index < 0 || index >= size ) {
+      throw new IndexOutOfBoundsException( "Row index " + index + ", size " + size );
+    }
+  }
+
+  /**
+   * The values of one field.
+   */
+  private abstract static class Column {
+    private long[] nulls;
+    /** true if the value metadata of the field compares and writes the primitive values like the column does */
+    boolean primitive;
+
+    Column( int capacity ) {
+      nulls = new long[ words( capacity ) ];
+    }
+
+    static int words( int capacity ) {
+      return ( capacity + 63 ) >>> 6;
+    }
+
+    void ensureCapacity( int capacity ) {
+      nulls = Arrays.copyOf( nulls, words( capacity ) );
+    }
+
+    void setNull( int index, boolean isNull ) {
+      if ( isNull ) {
+        nulls[ index >>> 6 ] |= 1L << index;
+      } else {
+        nulls[ index >>> 6 ] &= ~( 1L << index );
+      }
+    }
+
+    boolean isNull( int index ) {
+      return ( nulls[ index >>> 6 ] & ( 1L << index ) ) != 0;
+    }
+
+    long getNullsSize() {
+      return 8L * nulls.length;
+    }
+
+    /**
+     * @return false if the value can't be kept in this column
+     */
+    abstract boolean set( int index, Object value );
+
+    abstract Object get( int index );
+
+    abstract long getEstimatedSize( int size, int capacity );
+
+    int compare( ValueMetaInterface valueMeta, int index1, int index2 ) throws KettleValueException {
+      if ( !primitive ) {
+        return valueMeta.compare( get( index1 ), get( index2 ) );
+      }
+      boolean null1 = isNull( index1 );
+      boolean null2 = isNull( index2 );
+      int cmp;
+      if ( null1 || null2 ) {
+        // Like the value metadata: null is the lowest value
+        cmp = null1 == null2 ? 0 : ( null1 ? -1 : 1 );
+      } else {
+        cmp = compareValues( index1, index2 );
+      }
+      return valueMeta.isSortedDescending() ? -cmp : cmp;
+    }
+
+    /**
+     * Compares two values that are not null, only called when the column keeps primitive values.
+     */
+    int compareValues( int index1, int index2 ) {
+      throw new IllegalStateException( "Values are not kept as primitives" );
+    }
+
+    void write( ValueMetaInterface valueMeta, DataOutputStream outputStream, int index ) throws KettleFileException {
+      if ( !primitive ) {
+        valueMeta.writeData( outputStream, get( index ) );
+        return;
+      }
+      try {
+        boolean isNull = isNull( index );
+        outputStream.writeBoolean( isNull );
+        if ( !isNull ) {
+          writeValue( outputStream, index );
+        }
+      } catch ( IOException e ) {
+        throw new KettleFileException( valueMeta.toString() + " : Unable to write value data to output stream", e );
+      }
+    }
+
+    /**
+     * Writes a value that is not null, only called when the column keeps primitive values.
+     */
+    void writeValue( DataOutputStream outputStream, int index ) throws IOException {
+      throw new IllegalStateException( "Values are not kept as primitives" );
+    }
+
+    Column toObjectColumn( int size, int capacity ) {
+      ObjectColumn column = new ObjectColumn( capacity );
+      for ( int i = 0; i < size; i++ ) {
+        column.set( i, get( i ) );
+      }
+      return column;
+    }
+  }
+
+  private static class ObjectColumn extends Column {
+    private Object[] values;
+
+    ObjectColumn( int capacity ) {
+      super( 0 );
+      values = new Object[ capacity ];
+    }
+
+    @Override
+    void ensureCapacity( int capacity ) {
+      values = Arrays.copyOf( values, capacity );
+    }
+
+    @Override
+    boolean isNull( int index ) {
+      return values[ index ] == null;
+    }
+
+    @Override
+    boolean set( int index, Object value ) {
+      values[ index ] = value;
+      return true;
+    }
+
+    @Override
+    Object get( int index ) {
+      return values[ index ];
+    }
+
+    @Override
+    long getEstimatedSize( int size, int capacity ) {
+      // reference plus a guess of 32 bytes per object
+      return 8L * capacity + 32L * size;
+    }
+
+    @Override
+    Column toObjectColumn( int size, int capacity ) {
+      return this;
+    }
+  }
+
+  private static class LongColumn extends Column {
+    private final boolean dates;
+    private long[] values;
+
+    LongColumn( int capacity, boolean dates ) {
+      super( capacity );
+      this.dates = dates;
+      values = new long[ capacity ];
+    }
+
+    @Override
+    void ensureCapacity( int capacity ) {
+      super.ensureCapacity( capacity );
+      values = Arrays.copyOf( values, capacity );
+    }
+
+    @Override
+    boolean set( int index, Object value ) {
+      if ( value == null ) {
+        setNull( index, true );
+        values[ index ] = 0L;
+        return true;
+      }
+      if ( dates ) {
+        // Subclasses like java.sql.Timestamp carry more than the milliseconds
+        if ( value.getClass() != Date.class ) {
+          return false;
+        }
+        values[ index ] = ( (Date) value ).getTime();
+      } else {
+        if ( !( value instanceof Long ) ) {
+          return false;
+        }
+        values[ index ] = (Long) value;
+      }
+      setNull( index, false );
+      return true;
+    }
+
+    @Override
+    Object get( int index ) {
+      if ( isNull( index ) ) {
+        return null;
+      }
+      return dates ? new Date( values[ index ] ) : Long.valueOf( values[ index ] );
+    }
+
+    @Override
+    int compareValues( int index1, int index2 ) {
+      return Long.compare( values[ index1 ], values[ index2 ] );
+    }
+
+    @Override
+    void writeValue( DataOutputStream outputStream, int index ) throws IOException {
+      outputStream.writeLong( values[ index ] );
+    }
+
+    @Override
+    long getEstimatedSize( int size, int capacity ) {
+      return 8L * capacity + getNullsSize();
+    }
+  }
+
+  private static class DoubleColumn extends Column {
+    private double[] values;
+
+    DoubleColumn( int capacity ) {
+      super( capacity );
+      values = new double[ capacity ];
+    }
+
+    @Override
+    void ensureCapacity( int capacity ) {
+      super.ensureCapacity( capacity );
+      values = Arrays.copyOf( values, capacity );
+    }
+
+    @Override
+    boolean set( int index, Object value ) {
+      if ( value == null ) {
+        setNull( index, true );
+        values[ index ] = 0.0;
+        return true;
+      }
+      if ( !( value instanceof Double ) ) {
+        return false;
+      }
+      values[ index ] = (Double) value;
+      setNull( index, false );
+      return true;
+    }
+
+    @Override
+    Object get( int index ) {
+      return isNull( index ) ? null : Double.valueOf( values[ index ] );
+    }
+
+    @Override
+    int compareValues( int index1, int index2 ) {
+      return Double.compare( values[ index1 ], values[ index2 ] );
+    }
+
+    @Override
+    void writeValue( DataOutputStream outputStream, int index ) throws IOException {
+      outputStream.writeDouble( values[ index ] );
+    }
+
+    @Override
+    long getEstimatedSize( int size, int capacity ) {
+      return 8L * capacity + getNullsSize();
+    }
+  }
+
+  private static class BooleanColumn extends Column {
+    private long[] values;
+
+    BooleanColumn( int capacity ) {
+      super( capacity );
+      values = new long[ words( capacity ) ];
+    }
+
+    @Override
+    void ensureCapacity( int capacity ) {
+      super.ensureCapacity( capacity );
+      values = Arrays.copyOf( values, words( capacity ) );
+    }
+
+    @Override
+    boolean set( int index, Object value ) {
+      if ( value != null && !( value instanceof Boolean ) ) {
+        return false;
+      }
+      setNull( index, value == null );
+      if ( value != null && (Boolean) value ) {
+        values[ index >>> 6 ] |= 1L << index;
+      } else {
+        values[ index >>> 6 ] &= ~( 1L << index );
+      }
+      return true;
+    }
+
+    @Override
+    Object get( int index ) {
+      if ( isNull( index ) ) {
+        return null;
+      }
+      return getBoolean( index ) ? Boolean.TRUE : Boolean.FALSE;
+    }
+
+    private boolean getBoolean( int index ) {
+      return ( values[ index >>> 6 ] & ( 1L << index ) ) != 0;
+    }
+
+    @Override
+    int compareValues( int index1, int index2 ) {
+      return Boolean.compare( getBoolean( index1 ), getBoolean( index2 ) );
+    }
+
+    @Override
+    void writeValue( DataOutputStream outputStream, int index ) throws IOException {
+      outputStream.writeBoolean( getBoolean( index ) );
+    }
+
+    @Override
+    long getEstimatedSize( int size, int capacity ) {
+      return 8L * values.length + getNullsSize();
+    }
+  }
+
+  private static class StringColumn extends Column {
+    private int[] codes;
+    private final List<String> dictionary;
+    private final Map<String, Integer> lookup;
+    private long dictionaryChars;
+
+    StringColumn( int capacity ) {
+      super( capacity );
+      codes = new int[ capacity ];
+      dictionary = new ArrayList<>();
+      lookup = new HashMap<>();
+    }
+
+    @Override
+    void ensureCapacity( int capacity ) {
+      super.ensureCapacity( capacity );
+      codes = Arrays.copyOf( codes, capacity );
+    }
+
+    @Override
+    boolean set( int index, Object value ) {
+      if ( value == null ) {
+        setNull( index, true );
+        codes[ index ] = -1;
+        return true;
+      }
+      if ( !( value instanceof String ) ) {
+        return false;
+      }
+      Integer code = lookup.get( value );
+      if ( code == null ) {
+        if ( dictionary.size() >= MAX_DICTIONARY_SIZE && dictionary.size() > index / 2 ) {
+          // Mostly unique values: the dictionary costs more than it saves
+          return false;
+        }
+        code = dictionary.size();
+        dictionary.add( (String) value );
+        lookup.put( (String) value, code );
+        dictionaryChars += ( (String) value ).length();
+      }
+      codes[ index ] = code;
+      setNull( index, false );
+      return true;
+    }
+
+    @Override
+    Object get( int index ) {
+      int code = codes[ index ];
+      return code < 0 ? null : dictionary.get( code );
+    }
+
+    @Override
+    long getEstimatedSize( int size, int capacity ) {
+      // codes, plus per distinct value the string itself and a map entry
+      return 4L * capacity + getNullsSize() + 2L * dictionaryChars + 96L * dictionary.size();
+    }
+  }
+}
@@ -29,7 +29,10 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 public class DBCacheTest {
@@ -71,4 +74,56 @@ public class DBCacheTest {
     dbCache.saveCache();
     assertTrue( FileUtils.readFileToString( tempFile.toFile() ).contains( select ) );
   }
+
+  @Test
+  public void expiresEntries() throws Exception {
+    DBCache.fileNameSupplier = () -> "nonExistingFile";
+    DBCache dbCache = DBCache.getInstance();
+    dbCache.setTimeToLiveMillis( 1L );
+    RowMeta fields = new RowMeta();
+    fields.addValueMeta( new ValueMetaInteger( "int1" ) );
+    DBCacheEntry entry = new DBCacheEntry( "warehouse", "select id from warehouse" );
+    dbCache.put( entry, fields );
+    Thread.sleep( 10L );
+
+    assertNull( dbCache.get( entry ) );
+    assertEquals( 0, dbCache.size() );
+    assertEquals( 0L, dbCache.getSizeInBytes() );
+  }
+
+  @Test
+  public void removesLeastRecentlyUsedEntries() throws Exception {
+    DBCache.fileNameSupplier = () -> "nonExistingFile";
+    DBCache dbCache = DBCache.getInstance();
+    RowMeta fields = new RowMeta();
+    fields.addValueMeta( new ValueMetaInteger( "int1" ) );
+    DBCacheEntry first = new DBCacheEntry( "warehouse", "select id from warehouse" );
+    DBCacheEntry second = new DBCacheEntry( "warehouse", "select id from store" );
+    dbCache.put( first, fields );
+    long entrySize = dbCache.getSizeInBytes();
+    Thread.sleep( 10L );
+    dbCache.put( second, fields );
+    Thread.sleep( 10L );
+    dbCache.get( first );
+
+    dbCache.setMaxSize( entrySize );
+    assertEquals( 1, dbCache.size() );
+    assertNotNull( dbCache.get( first ) );
+    assertNull( dbCache.get( second ) );
+  }
+
+  @Test
+  public void cachesNamesWhenEntriesExpire() {
+    DBCache.fileNameSupplier = () -> "nonExistingFile";
+    DBCache dbCache = DBCache.getInstance();
+    DBCacheEntry entry = new DBCacheEntry( "warehouse", "PRIMARY_KEY_SALTsales" );
+    dbCache.putNames( entry, new String[] { "id", "id" } );
+    assertNull( dbCache.getNames( entry ) );
+
+    dbCache.setTimeToLiveMillis( 60000L );
+    dbCache.putNames( entry, new String[] { "id", "id" } );
+    assertArrayEquals( new String[] { "id", "id" }, dbCache.getNames( entry ) );
+    dbCache.clear( "WAREHOUSE" );
+    assertNull( dbCache.getNames( entry ) );
+  }
 }
@@ -0,0 +1,124 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.database;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.pentaho.di.core.Const;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaString;
+
+public class BatchLookupTest {
+
+  private static final String SQL = "SELECT name FROM customers WHERE id = ? AND code = ?";
+
+  private Database db;
+  private Connection connection;
+  private PreparedStatement ps;
+  private RowMetaInterface parametersMeta;
+
+  @Before
+  public void setUp() throws Exception {
+    db = mock( Database.class );
+    connection = mock( Connection.class );
+    ps = mock( PreparedStatement.class );
+    DatabaseMeta databaseMeta = mock( DatabaseMeta.class );
+    when( db.getConnection() ).thenReturn( connection );
+    when( db.getDatabaseMeta() ).thenReturn( databaseMeta );
+    when( databaseMeta.stripCR( anyString() ) ).thenAnswer( invocation -> invocation.getArgument( 0 ) );
+    when( connection.prepareStatement( anyString() ) ).thenReturn( ps );
+
+    parametersMeta = new RowMeta();
+    parametersMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+    parametersMeta.addValueMeta( new ValueMetaString( "code" ) );
+  }
+
+  @Test
+  public void testBatchSQL() {
+    assertEquals( "SELECT 0 AS batch_row, name FROM t WHERE id = ?" + Const.CR + "UNION ALL" + Const.CR
+      + "SELECT 1 AS batch_row, name FROM t WHERE id = ?", BatchLookup.getBatchSQL( "select name FROM t WHERE id = ?",
+      2 ) );
+  }
+
+  @Test
+  public void testCanAdd() throws Exception {
+    BatchLookup lookup = new BatchLookup( db, SQL, parametersMeta, 3 );
+    lookup.add( new Object[] { 1L, "Abc" } );
+
+    // The database may compare strings without case or trailing spaces
+    assertFalse( lookup.canAdd( new Object[] { 1L, "aBC  " } ) );
+    assertTrue( lookup.canAdd( new Object[] { 2L, "abc" } ) );
+    assertTrue( lookup.canAdd( new Object[] { 1L, null } ) );
+
+    lookup.add( new Object[] { 2L, "abc" } );
+    lookup.add( new Object[] { 1L, null } );
+    assertEquals( 3, lookup.size() );
+    // full
+    assertFalse( lookup.canAdd( new Object[] { 3L, "abc" } ) );
+  }
+
+  @Test
+  public void testLookup() throws Exception {
+    ResultSet rs = mock( ResultSet.class );
+    RowMetaInterface batchRowMeta = new RowMeta();
+    batchRowMeta.addValueMeta( new ValueMetaInteger( BatchLookup.ROW_NUMBER_FIELD ) );
+    batchRowMeta.addValueMeta( new ValueMetaString( "name" ) );
+    when( db.openQuery( eq( ps ), any( RowMetaInterface.class ), any( Object[].class ) ) ).thenReturn( rs );
+    when( db.getReturnRowMeta() ).thenReturn( batchRowMeta );
+    when( db.getRow( rs ) ).thenReturn( new Object[] { 2L, "third" }, new Object[] { 0L, "first" },
+      new Object[] { 0L, "again" }, new Object[] { 3L, "padding" }, null );
+
+    BatchLookup lookup = new BatchLookup( db, SQL, parametersMeta, 10 );
+    lookup.add( new Object[] { 1L, "a" } );
+    lookup.add( new Object[] { 2L, "b" } );
+    lookup.add( new Object[] { 3L, "c" } );
+    Object[][] found = lookup.lookup();
+
+    assertEquals( 3, found.length );
+    assertEquals( "first", found[ 0 ][ 0 ] );
+    assertNull( found[ 1 ] );
+    assertEquals( "third", found[ 2 ][ 0 ] );
+    assertEquals( 1, lookup.getReturnRowMeta().size() );
+    assertEquals( "name", lookup.getReturnRowMeta().getValueMeta( 0 ).getName() );
+    assertEquals( 0, lookup.size() );
+
+    // 3 rows are looked up with the statement of 4 rows, the last row is repeated
+    verify( connection ).prepareStatement( BatchLookup.getBatchSQL( SQL, 4 ) );
+    ArgumentCaptor<RowMetaInterface> metaCaptor = ArgumentCaptor.forClass( RowMetaInterface.class );
+    ArgumentCaptor<Object[]> parametersCaptor = ArgumentCaptor.forClass( Object[].class );
+    verify( db ).openQuery( eq( ps ), metaCaptor.capture(), parametersCaptor.capture() );
+    assertEquals( 8, metaCaptor.getValue().size() );
+    assertArrayEquals( new Object[] { 1L, "a", 2L, "b", 3L, "c", 3L, "c" }, parametersCaptor.getValue() );
+    verify( rs ).close();
+  }
+}
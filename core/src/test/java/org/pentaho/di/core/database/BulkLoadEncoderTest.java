@@ -0,0 +1,121 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+
+import org.junit.Test;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaBigNumber;
+import org.pentaho.di.core.row.value.ValueMetaBinary;
+import org.pentaho.di.core.row.value.ValueMetaBoolean;
+import org.pentaho.di.core.row.value.ValueMetaDate;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaNumber;
+import org.pentaho.di.core.row.value.ValueMetaString;
+
+public class BulkLoadEncoderTest {
+
+  private static String read( BulkLoadEncoder encoder ) throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try ( InputStream in = encoder.getInputStream() ) {
+      byte[] buffer = new byte[ 1024 ];
+      int read;
+      while ( ( read = in.read( buffer ) ) > 0 ) {
+        bytes.write( buffer, 0, read );
+      }
+    }
+    return new String( bytes.toByteArray(), StandardCharsets.UTF_8 );
+  }
+
+  private static RowMetaInterface stringAndInteger() {
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaString( "s" ) );
+    rowMeta.addValueMeta( new ValueMetaInteger( "i" ) );
+    return rowMeta;
+  }
+
+  @Test
+  public void testTextFormat() throws Exception {
+    BulkLoadEncoder encoder = new BulkLoadEncoder( BulkLoadEncoder.Format.TEXT, stringAndInteger() );
+    encoder.addRow( new Object[] { "a\tb\\c\nd\u00e9", 1L } );
+    encoder.addRow( new Object[] { null, null } );
+
+    assertEquals( "a\\tb\\\\c\\nd\u00e9\t1\n\\N\t\\N\n", read( encoder ) );
+    assertEquals( 2, encoder.getRowCount() );
+    // the e with an accent takes 2 bytes
+    assertEquals( 21, encoder.size() );
+  }
+
+  @Test
+  public void testCsvFormat() throws Exception {
+    BulkLoadEncoder encoder = new BulkLoadEncoder( BulkLoadEncoder.Format.CSV, stringAndInteger() );
+    encoder.addRow( new Object[] { "say \"hi\", bye", 2L } );
+    encoder.addRow( new Object[] { null, null } );
+
+    assertEquals( "\"say \"\"hi\"\", bye\",2\n,\n", read( encoder ) );
+  }
+
+  @Test
+  public void testValues() throws Exception {
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaNumber( "n" ) );
+    rowMeta.addValueMeta( new ValueMetaBigNumber( "b" ) );
+    rowMeta.addValueMeta( new ValueMetaBoolean( "f" ) );
+    rowMeta.addValueMeta( new ValueMetaDate( "d" ) );
+    BulkLoadEncoder encoder = new BulkLoadEncoder( BulkLoadEncoder.Format.TEXT, rowMeta );
+    Timestamp timestamp = Timestamp.valueOf( "2024-03-01 12:30:00.5" );
+    encoder.addRow( new Object[] { 1.5, new BigDecimal( "1E+3" ), true, timestamp } );
+
+    assertEquals( "1.5\t1000\t1\t2024-03-01 12:30:00.5\n", read( encoder ) );
+  }
+
+  @Test
+  public void testBooleansWithoutBooleanDataType() throws Exception {
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaBoolean( "f" ) );
+    BulkLoadEncoder encoder = new BulkLoadEncoder( BulkLoadEncoder.Format.CSV, rowMeta, false );
+    encoder.addRow( new Object[] { true } );
+    encoder.addRow( new Object[] { false } );
+    encoder.addRow( new Object[] { null } );
+
+    assertEquals( "Y\nN\n\n", read( encoder ) );
+  }
+
+  @Test
+  public void testClear() throws Exception {
+    BulkLoadEncoder encoder = new BulkLoadEncoder( BulkLoadEncoder.Format.TEXT, stringAndInteger() );
+    encoder.addRow( new Object[] { "a", 1L } );
+    encoder.clear();
+    encoder.addRow( new Object[] { "b", 2L } );
+
+    assertEquals( "b\t2\n", read( encoder ) );
+    assertEquals( 1, encoder.getRowCount() );
+  }
+
+  @Test
+  public void testCanEncode() {
+    assertTrue( BulkLoadEncoder.canEncode( new ValueMetaDate( "d" ) ) );
+    assertFalse( BulkLoadEncoder.canEncode( new ValueMetaBinary( "b" ) ) );
+  }
+}
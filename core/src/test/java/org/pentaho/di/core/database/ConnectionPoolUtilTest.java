@@ -21,6 +21,7 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.pentaho.di.core.Const;
 import org.pentaho.di.core.KettleClientEnvironment;
 import org.pentaho.di.core.exception.KettleDatabaseException;
 import org.pentaho.di.core.exception.KettleException;
@@ -200,6 +201,27 @@ public class ConnectionPoolUtilTest implements Driver {
     verify( dataSource ).setMaxTotal( MAX_SIZE );
   }
 
+  @Test
+  public void testConfigureDataSourceStatementCacheSize() throws KettleDatabaseException {
+    when( dbMeta.getVariable( Const.KETTLE_POOL_STATEMENT_CACHE_SIZE ) ).thenReturn( "20" );
+
+    ConnectionPoolUtil.configureDataSource(
+      dataSource, dbMeta, "partId", INITIAL_SIZE, MAX_SIZE );
+
+    verify( dataSource ).setPoolPreparedStatements( true );
+    verify( dataSource ).setMaxOpenPreparedStatements( 20 );
+  }
+
+  @Test
+  public void testConfigureDataSourceMaxConnectionsPerTrans() throws KettleDatabaseException {
+    when( dbMeta.getVariable( Const.KETTLE_POOL_MAX_CONNECTIONS_PER_TRANS ) ).thenReturn( "4" );
+    KettlePooledDataSource pool = new KettlePooledDataSource();
+
+    ConnectionPoolUtil.configureDataSource( pool, dbMeta, "partId", INITIAL_SIZE, MAX_SIZE );
+
+    assertEquals( 4, pool.getMaxConnectionsPerOwner() );
+  }
+
   @Test
   public void testConfigureDataSourceWhenNoDatabaseInterface() throws KettleDatabaseException {
     when( dbMeta.getDatabaseInterface() ).thenReturn( null );
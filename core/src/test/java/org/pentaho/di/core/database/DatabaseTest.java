@@ -67,6 +67,7 @@ import org.junit.BeforeClass;
 import org.junit.ClassRule;
 import org.junit.Test;
 import org.pentaho.di.core.Const;
+import org.pentaho.di.core.DBCacheEntry;
 import org.pentaho.di.core.KettleClientEnvironment;
 import org.pentaho.di.core.database.DataSourceProviderInterface.DatasourceType;
 import org.pentaho.di.core.exception.KettleDatabaseBatchException;
@@ -956,6 +957,34 @@ public class DatabaseTest {
     verify( db, times( 1 ) ).getTableFieldsMetaByDbMeta( any(), any() );
   }
 
+  @Test
+  public void testCacheKeySeparatesNames() {
+    assertFalse( Database.cacheKey( "TABLE_EXISTS_SALT", "ab", "c" )
+      .equals( Database.cacheKey( "TABLE_EXISTS_SALT", "a", "bc" ) ) );
+    assertFalse( Database.cacheKey( "TABLE_NAMES_SALT", "atrue", "false" )
+      .equals( Database.cacheKey( "TABLE_NAMES_SALT", "a", "truefalse" ) ) );
+    assertFalse( Database.cacheKey( "TABLE_EXISTS_SALT", null, "t" )
+      .equals( Database.cacheKey( "TABLE_EXISTS_SALT", "nullSchema", "t" ) ) );
+    assertFalse( Database.cacheKey( "TABLE_EXISTS_SALT", null, "t" )
+      .equals( Database.cacheKey( "TABLE_EXISTS_SALT", "", "t" ) ) );
+    assertEquals( Database.cacheKey( "PRIMARY_KEY_SALT", "t" ), Database.cacheKey( "PRIMARY_KEY_SALT", "t" ) );
+  }
+
+  @Test
+  public void testCacheKeySeparatesNamesDifferingInCase() {
+    // the cache compares its entries ignoring case
+    DBCacheEntry orders = new DBCacheEntry( "db", Database.cacheKey( "TABLE_EXISTS_SALT", "s", "Orders" ) );
+    assertFalse( orders.equals( new DBCacheEntry( "db", Database.cacheKey( "TABLE_EXISTS_SALT", "s", "ORDERS" ) ) ) );
+    assertFalse( orders.equals( new DBCacheEntry( "db", Database.cacheKey( "TABLE_EXISTS_SALT", "S", "Orders" ) ) ) );
+    assertFalse( new DBCacheEntry( "db", Database.cacheKey( "TABLE_NAMES_SALT", "Sales", "true" ) )
+      .equals( new DBCacheEntry( "db", Database.cacheKey( "TABLE_NAMES_SALT", "sales", "true" ) ) ) );
+    assertFalse( new DBCacheEntry( "db", Database.cacheKey( "PRIMARY_KEY_SALT", "\u00c9t\u00e9" ) )
+      .equals( new DBCacheEntry( "db", Database.cacheKey( "PRIMARY_KEY_SALT", "\u00e9t\u00e9" ) ) ) );
+    assertTrue( orders.equals( new DBCacheEntry( "db", Database.cacheKey( "TABLE_EXISTS_SALT", "s", "Orders" ) ) ) );
+    assertEquals( orders.hashCode(),
+      new DBCacheEntry( "db", Database.cacheKey( "TABLE_EXISTS_SALT", "s", "Orders" ) ).hashCode() );
+  }
+
   public static class MockDriver implements Driver {
     public static Connection conn;
 
@@ -0,0 +1,135 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Properties;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class KettlePooledDataSourceTest {
+
+  private Connection physicalConnection;
+  private KettlePooledDataSource dataSource;
+
+  @Before
+  public void setUp() throws Exception {
+    physicalConnection = mock( Connection.class );
+    when( physicalConnection.isValid( anyInt() ) ).thenReturn( true );
+    when( physicalConnection.prepareStatement( anyString(), anyInt(), anyInt() ) )
+      .thenAnswer( invocation -> mock( PreparedStatement.class ) );
+    when( physicalConnection.prepareStatement( anyString() ) )
+      .thenAnswer( invocation -> mock( PreparedStatement.class ) );
+    Driver driver = mock( Driver.class );
+    when( driver.acceptsURL( anyString() ) ).thenReturn( true );
+    when( driver.connect( anyString(), any( Properties.class ) ) ).thenReturn( physicalConnection );
+
+    dataSource = new KettlePooledDataSource();
+    dataSource.setDriver( driver );
+    dataSource.setUrl( "jdbc:mock" );
+    dataSource.setMaxTotal( 5 );
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    dataSource.close();
+  }
+
+  @Test
+  public void testMaxConnectionsPerOwner() throws Exception {
+    dataSource.setMaxConnectionsPerOwner( 1 );
+    dataSource.setMaxWaitMillis( 50 );
+
+    Connection first = dataSource.getConnection( "trans1" );
+    try {
+      dataSource.getConnection( "trans1" );
+      fail( "The second connection of the transformation should time out" );
+    } catch ( SQLException e ) {
+      // expected
+    }
+    Connection other = dataSource.getConnection( "trans2" );
+    assertEquals( 1, dataSource.getOwnerConnections( "trans1" ) );
+
+    first.close();
+    first.close();
+    assertEquals( 0, dataSource.getOwnerConnections( "trans1" ) );
+    Connection second = dataSource.getConnection( "trans1" );
+    assertNotNull( second );
+    assertEquals( 2, dataSource.getNumActive() );
+
+    second.close();
+    other.close();
+    assertEquals( 3, dataSource.getConnectionsBorrowed() );
+  }
+
+  @Test
+  public void testOwnerWaitIsBounded() throws Exception {
+    dataSource.setMaxWaitMillis( -1 );
+    assertEquals( KettlePooledDataSource.DEFAULT_OWNER_MAX_WAIT_MILLIS, dataSource.getOwnerMaxWaitMillis() );
+    dataSource.setMaxWaitMillis( 50 );
+    assertEquals( 50, dataSource.getOwnerMaxWaitMillis() );
+  }
+
+  @Test
+  public void testNoLimitWithoutOwner() throws Exception {
+    dataSource.setMaxConnectionsPerOwner( 1 );
+
+    Connection first = dataSource.getConnection();
+    Connection second = dataSource.getConnection( null );
+    assertEquals( 2, dataSource.getNumActive() );
+    first.close();
+    second.close();
+  }
+
+  @Test
+  public void testStatementCacheHitRatio() throws Exception {
+    dataSource.setPoolPreparedStatements( true );
+    dataSource.setMaxOpenPreparedStatements( 10 );
+
+    for ( int i = 0; i < 2; i++ ) {
+      try ( Connection connection = dataSource.getConnection( "trans1" );
+            PreparedStatement statement = connection.prepareStatement( "SELECT 1" ) ) {
+        assertNotNull( statement );
+      }
+    }
+
+    assertEquals( 2, dataSource.getStatementsRequested() );
+    assertEquals( 1, dataSource.getStatementsPrepared() );
+    assertEquals( 0.5, dataSource.getStatementCacheHitRatio(), 0.0 );
+  }
+
+  @Test
+  public void testStatementsWithoutCache() throws Exception {
+    try ( Connection connection = dataSource.getConnection() ) {
+      connection.prepareStatement( "SELECT 1" ).close();
+    }
+
+    assertEquals( 1, dataSource.getStatementsPrepared() );
+    assertEquals( 0.0, dataSource.getStatementCacheHitRatio(), 0.0 );
+  }
+}
@@ -0,0 +1,176 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.database;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.pentaho.di.core.KettleClientEnvironment;
+import org.pentaho.di.core.exception.KettleDatabaseException;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.plugins.DatabasePluginType;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaBigNumber;
+import org.pentaho.di.core.row.value.ValueMetaBoolean;
+import org.pentaho.di.core.row.value.ValueMetaDate;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaNumber;
+import org.pentaho.di.core.row.value.ValueMetaString;
+import org.pentaho.di.junit.rules.RestorePDIEnvironment;
+
+public class ResultSetRowReaderTest {
+  @ClassRule public static RestorePDIEnvironment env = new RestorePDIEnvironment();
+
+  private DatabaseMeta databaseMeta;
+  private ResultSet rs;
+
+  @BeforeClass
+  public static void setUpOnce() throws KettleException {
+    DatabasePluginType.getInstance().searchPlugins();
+    KettleClientEnvironment.init();
+  }
+
+  @Before
+  public void setUp() {
+    databaseMeta = new DatabaseMeta();
+    databaseMeta.setDatabaseInterface( new ConcreteBaseDatabaseMeta() );
+    rs = mock( ResultSet.class );
+  }
+
+  private static RowMetaInterface rowMeta( ValueMetaInterface... valueMetas ) {
+    RowMetaInterface rowMeta = new RowMeta();
+    for ( ValueMetaInterface valueMeta : valueMetas ) {
+      rowMeta.addValueMeta( valueMeta );
+    }
+    return rowMeta;
+  }
+
+  @Test
+  public void testValues() throws Exception {
+    RowMetaInterface rowMeta = rowMeta( new ValueMetaInteger( "i" ), new ValueMetaNumber( "n" ),
+      new ValueMetaString( "s" ), new ValueMetaBigNumber( "b" ), new ValueMetaBoolean( "f" ),
+      new ValueMetaDate( "d" ) );
+    Timestamp timestamp = new Timestamp( 1000L );
+    when( rs.getLong( 1 ) ).thenReturn( 42L );
+    when( rs.getDouble( 2 ) ).thenReturn( 1.5 );
+    when( rs.getString( 3 ) ).thenReturn( "a" );
+    when( rs.getBigDecimal( 4 ) ).thenReturn( BigDecimal.TEN );
+    when( rs.getBoolean( 5 ) ).thenReturn( true );
+    when( rs.getTimestamp( 6 ) ).thenReturn( timestamp );
+
+    Object[] row = new ResultSetRowReader( databaseMeta, rowMeta ).readRow( rs );
+
+    assertArrayEquals( new Object[] { 42L, 1.5, "a", BigDecimal.TEN, true, timestamp },
+      Arrays.copyOf( row, rowMeta.size() ) );
+  }
+
+  @Test
+  public void testNulls() throws Exception {
+    RowMetaInterface rowMeta = rowMeta( new ValueMetaInteger( "i" ), new ValueMetaString( "s" ) );
+    when( rs.getLong( 1 ) ).thenReturn( 0L );
+    when( rs.wasNull() ).thenReturn( true );
+
+    Object[] row = new ResultSetRowReader( databaseMeta, rowMeta ).readRow( rs );
+
+    assertNull( row[ 0 ] );
+    assertNull( row[ 1 ] );
+    // only the primitive getter needs the null check
+    verify( rs, times( 1 ) ).wasNull();
+  }
+
+  @Test
+  public void testLazyConversionReadsBytes() throws Exception {
+    ValueMetaInterface valueMeta = new ValueMetaString( "s" );
+    valueMeta.setStorageType( ValueMetaInterface.STORAGE_TYPE_BINARY_STRING );
+    byte[] bytes = { 1, 2 };
+    when( rs.getBytes( 1 ) ).thenReturn( bytes );
+
+    Object[] row = new ResultSetRowReader( databaseMeta, rowMeta( valueMeta ) ).readRow( rs );
+
+    assertArrayEquals( bytes, (byte[]) row[ 0 ] );
+  }
+
+  @Test
+  public void testDatabaseReadingValuesItsOwnWay() throws Exception {
+    databaseMeta.setDatabaseInterface( new ConcreteBaseDatabaseMeta() {
+      @Override
+      public Object getValueFromResultSet( ResultSet rs, ValueMetaInterface val, int i ) {
+        return "own";
+      }
+    } );
+
+    Object[] row = new ResultSetRowReader( databaseMeta, rowMeta( new ValueMetaInteger( "i" ) ) ).readRow( rs );
+
+    assertEquals( "own", row[ 0 ] );
+  }
+
+  @Test
+  public void testValueMetaReadingValuesItsOwnWay() throws Exception {
+    ValueMetaInterface valueMeta = new ValueMetaInteger( "i" ) {
+      @Override
+      public Object getValueFromResultSet( DatabaseInterface databaseInterface, ResultSet resultSet, int index ) {
+        return "own";
+      }
+    };
+
+    Object[] row = new ResultSetRowReader( databaseMeta, rowMeta( valueMeta ) ).readRow( rs );
+
+    assertEquals( "own", row[ 0 ] );
+  }
+
+  @Test( expected = KettleDatabaseException.class )
+  public void testReadError() throws Exception {
+    when( rs.getLong( 1 ) ).thenThrow( new SQLException( "closed" ) );
+
+    new ResultSetRowReader( databaseMeta, rowMeta( new ValueMetaInteger( "i" ) ) ).readRow( rs );
+  }
+
+  @Test
+  public void testIsReaderOf() {
+    RowMetaInterface rowMeta = rowMeta( new ValueMetaInteger( "i" ) );
+    ResultSetRowReader reader = new ResultSetRowReader( databaseMeta, rowMeta );
+
+    assertTrue( reader.isReaderOf( rowMeta ) );
+    // the metadata of a lookup is built again for every row
+    assertTrue( reader.isReaderOf( rowMeta.clone() ) );
+    assertTrue( reader.isReaderOf( rowMeta( new ValueMetaInteger( "i" ) ) ) );
+    assertFalse( reader.isReaderOf( rowMeta( new ValueMetaNumber( "i" ) ) ) );
+    assertFalse( reader.isReaderOf( rowMeta( new ValueMetaInteger( "j" ) ) ) );
+    ValueMetaInterface lazy = new ValueMetaInteger( "i" );
+    lazy.setStorageType( ValueMetaInterface.STORAGE_TYPE_BINARY_STRING );
+    assertFalse( reader.isReaderOf( rowMeta( lazy ) ) );
+    assertFalse( reader.isReaderOf( null ) );
+    rowMeta.addValueMeta( new ValueMetaString( "s" ) );
+    assertFalse( reader.isReaderOf( rowMeta ) );
+  }
+}
@@ -0,0 +1,133 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.logging;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class AsyncLoggingEventListenerTest {
+
+  private static KettleLoggingEvent event( String text, LogLevel level ) {
+    return new KettleLoggingEvent( new LogMessage( text, level ), System.currentTimeMillis(), level );
+  }
+
+  @Test
+  public void testEventsArePassedOnInOrder() {
+    List<KettleLoggingEvent> received = new CopyOnWriteArrayList<>();
+    AsyncLoggingEventListener listener =
+      new AsyncLoggingEventListener( received::add, 100, AsyncLoggingEventListener.OverflowPolicy.BLOCK );
+
+    KettleLoggingEvent[] events = new KettleLoggingEvent[ 1000 ];
+    for ( int i = 0; i < events.length; i++ ) {
+      events[ i ] = event( "line " + i, LogLevel.BASIC );
+      listener.eventAdded( events[ i ] );
+    }
+    listener.close();
+
+    assertEquals( events.length, received.size() );
+    for ( int i = 0; i < events.length; i++ ) {
+      assertSame( events[ i ], received.get( i ) );
+    }
+    assertEquals( 0, listener.getDroppedEvents() );
+  }
+
+  @Test
+  public void testDropPolicyKeepsErrors() throws Exception {
+    CountDownLatch writing = new CountDownLatch( 1 );
+    CountDownLatch release = new CountDownLatch( 1 );
+    List<KettleLoggingEvent> received = new CopyOnWriteArrayList<>();
+    AsyncLoggingEventListener listener = new AsyncLoggingEventListener( event -> {
+      writing.countDown();
+      try {
+        release.await();
+      } catch ( InterruptedException e ) {
+        Thread.currentThread().interrupt();
+      }
+      received.add( event );
+    }, 1, AsyncLoggingEventListener.OverflowPolicy.DROP );
+
+    // The writer thread picks up the first event and hangs in the listener
+    listener.eventAdded( event( "first", LogLevel.BASIC ) );
+    assertTrue( writing.await( 10, TimeUnit.SECONDS ) );
+
+    listener.eventAdded( event( "queued", LogLevel.BASIC ) );
+    listener.eventAdded( event( "dropped", LogLevel.BASIC ) );
+    assertEquals( 1, listener.getDroppedEvents() );
+
+    release.countDown();
+    // Errors wait for room instead of being dropped
+    listener.eventAdded( event( "error", LogLevel.ERROR ) );
+    listener.close();
+
+    assertEquals( 3, received.size() );
+    assertEquals( LogLevel.ERROR, received.get( 2 ).getLevel() );
+  }
+
+  @Test
+  public void testEventsAfterCloseArePassedOnDirectly() {
+    List<KettleLoggingEvent> received = new CopyOnWriteArrayList<>();
+    AsyncLoggingEventListener listener =
+      new AsyncLoggingEventListener( received::add, 10, AsyncLoggingEventListener.OverflowPolicy.BLOCK );
+    listener.close();
+
+    listener.eventAdded( event( "late", LogLevel.BASIC ) );
+    assertEquals( 1, received.size() );
+  }
+
+  @Test
+  public void testListenersShareOneWriterThread() {
+    // Writer threads of earlier tests may still be stopping
+    Set<Thread> earlierWriters = writerThreads();
+    List<KettleLoggingEvent> received = new CopyOnWriteArrayList<>();
+    AsyncLoggingEventListener first =
+      new AsyncLoggingEventListener( received::add, 10, AsyncLoggingEventListener.OverflowPolicy.BLOCK );
+    AsyncLoggingEventListener second =
+      new AsyncLoggingEventListener( received::add, 10, AsyncLoggingEventListener.OverflowPolicy.BLOCK );
+    assertEquals( 2, AsyncLoggingEventListener.getOpenListenerCount() );
+    Set<Thread> writers = writerThreads();
+    writers.removeAll( earlierWriters );
+    assertEquals( 1, writers.size() );
+
+    first.eventAdded( event( "first", LogLevel.BASIC ) );
+    second.eventAdded( event( "second", LogLevel.BASIC ) );
+    first.close();
+    assertEquals( 1, AsyncLoggingEventListener.getOpenListenerCount() );
+    second.close();
+    assertEquals( 0, AsyncLoggingEventListener.getOpenListenerCount() );
+    assertEquals( 2, received.size() );
+  }
+
+  private static Set<Thread> writerThreads() {
+    return Thread.getAllStackTraces().keySet().stream()
+      .filter( thread -> "Kettle async log writer".equals( thread.getName() ) ).collect( Collectors.toSet() );
+  }
+
+  @Test
+  public void testPolicyCodes() {
+    assertEquals( AsyncLoggingEventListener.OverflowPolicy.DROP,
+      AsyncLoggingEventListener.OverflowPolicy.getPolicy( "drop" ) );
+    assertEquals( AsyncLoggingEventListener.OverflowPolicy.BLOCK,
+      AsyncLoggingEventListener.OverflowPolicy.getPolicy( null ) );
+  }
+}
@@ -0,0 +1,91 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.plugins;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PluginIndexTest {
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void testSaveAndLoad() throws Exception {
+    File file = new File( temporaryFolder.getRoot(), "sub/index.idx" );
+
+    Map<String, Set<String>> annotations = new HashMap<>();
+    annotations.put( "org.pentaho.di.core.annotations.Step",
+      new HashSet<>( Arrays.asList( "org.acme.StepOne", "org.acme.StepTwo" ) ) );
+    annotations.put( "org.pentaho.di.core.annotations.JobEntry", Collections.singleton( "org.acme.JobEntry" ) );
+
+    PluginIndex index = new PluginIndex( file );
+    index.put( "file:///plugins/acme.jar", new PluginIndex.Entry( 1234L, 5678L, annotations ) );
+    index.put( "file:///plugins/empty.jar", new PluginIndex.Entry( 1L, 2L, new HashMap<>() ) );
+    index.save();
+
+    PluginIndex loaded = new PluginIndex( file );
+    assertTrue( loaded.load() );
+    assertEquals( 2, loaded.getEntries().size() );
+
+    PluginIndex.Entry entry = loaded.get( "file:///plugins/acme.jar" );
+    assertNotNull( entry );
+    assertTrue( entry.matches( 1234L, 5678L ) );
+    assertFalse( entry.matches( 1234L, 5679L ) );
+    assertEquals( annotations, entry.getAnnotationIndex() );
+
+    assertTrue( loaded.get( "file:///plugins/empty.jar" ).getAnnotationIndex().isEmpty() );
+  }
+
+  @Test
+  public void testMissingFile() {
+    PluginIndex index = new PluginIndex( new File( temporaryFolder.getRoot(), "missing.idx" ) );
+    assertFalse( index.load() );
+    assertTrue( index.getEntries().isEmpty() );
+  }
+
+  @Test
+  public void testCorruptFileIsIgnored() throws Exception {
+    File file = temporaryFolder.newFile( "corrupt.idx" );
+    Files.write( file.toPath(), "something else\njar\tbroken".getBytes( StandardCharsets.UTF_8 ) );
+
+    PluginIndex index = new PluginIndex( file );
+    assertFalse( index.load() );
+    assertNull( index.get( "broken" ) );
+  }
+
+  @Test
+  public void testIndexFilePerFolder() {
+    assertEquals( PluginIndex.getIndexFile( "plugins" ), PluginIndex.getIndexFile( "plugins" ) );
+    assertNotEquals( PluginIndex.getIndexFile( "plugins" ), PluginIndex.getIndexFile( "other/plugins" ) );
+  }
+}
@@ -0,0 +1,216 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.row;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.pentaho.di.core.exception.KettleValueException;
+import org.pentaho.di.core.row.value.ValueMetaBigNumber;
+import org.pentaho.di.core.row.value.ValueMetaBoolean;
+import org.pentaho.di.core.row.value.ValueMetaDate;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaNumber;
+import org.pentaho.di.core.row.value.ValueMetaString;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.Date;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ColumnarRowBufferTest {
+
+  private RowMetaInterface rowMeta;
+
+  @Before
+  public void setUp() {
+    rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaString( "string" ) );
+    rowMeta.addValueMeta( new ValueMetaInteger( "integer" ) );
+    rowMeta.addValueMeta( new ValueMetaNumber( "number" ) );
+    rowMeta.addValueMeta( new ValueMetaDate( "date" ) );
+    rowMeta.addValueMeta( new ValueMetaBoolean( "boolean" ) );
+    rowMeta.addValueMeta( new ValueMetaBigNumber( "bignumber" ) );
+  }
+
+  private Object[] row( int i ) {
+    return new Object[] { "value" + ( i % 10 ), (long) i, i / 2.0, new Date( 1000L * i ), i % 2 == 0,
+      BigDecimal.valueOf( i ) };
+  }
+
+  private static Object[] trim( Object[] row, int size ) {
+    Object[] result = new Object[ size ];
+    System.arraycopy( row, 0, result, 0, size );
+    return result;
+  }
+
+  @Test
+  public void testRowsComeBackUnchanged() {
+    ColumnarRowBuffer buffer = new ColumnarRowBuffer( rowMeta );
+    int nrRows = 5000; // more than the initial capacity
+    for ( int i = 0; i < nrRows; i++ ) {
+      buffer.addRow( row( i ) );
+    }
+    buffer.addRow( new Object[] { null, null, null, null, null, null } );
+
+    assertEquals( nrRows + 1, buffer.size() );
+    for ( int i = 0; i < nrRows; i++ ) {
+      assertArrayEquals( row( i ), trim( buffer.getRow( i ), rowMeta.size() ) );
+    }
+    for ( int f = 0; f < rowMeta.size(); f++ ) {
+      assertTrue( buffer.isNull( nrRows, f ) );
+      assertNull( buffer.getValue( nrRows, f ) );
+    }
+  }
+
+  @Test
+  public void testPrimitiveAccess() {
+    ColumnarRowBuffer buffer = new ColumnarRowBuffer( rowMeta );
+    buffer.addRow( row( 7 ) );
+
+    assertEquals( 7L, buffer.getLong( 0, 1 ) );
+    assertEquals( 3.5, buffer.getDouble( 0, 2 ), 0.0 );
+    assertEquals( 7000L, buffer.getLong( 0, 3 ) );
+    assertFalse( buffer.isNull( 0, 1 ) );
+  }
+
+  @Test( expected = IllegalStateException.class )
+  public void testPrimitiveAccessOnObjectColumn() {
+    ColumnarRowBuffer buffer = new ColumnarRowBuffer( rowMeta );
+    buffer.addRow( row( 1 ) );
+    buffer.getLong( 0, 5 );
+  }
+
+  @Test
+  public void testUnexpectedValuesFallBackToObjects() {
+    ColumnarRowBuffer buffer = new ColumnarRowBuffer( rowMeta );
+    buffer.addRow( row( 1 ) );
+    Timestamp timestamp = new Timestamp( 1234L );
+    timestamp.setNanos( 5678 );
+    Object[] odd = row( 2 );
+    odd[ 3 ] = timestamp;
+    buffer.addRow( odd );
+
+    assertEquals( new Date( 1000L ), buffer.getValue( 0, 3 ) );
+    assertEquals( timestamp, buffer.getValue( 1, 3 ) );
+  }
+
+  @Test
+  public void testUniqueStringsAreKept() {
+    RowMetaInterface stringMeta = new RowMeta();
+    stringMeta.addValueMeta( new ValueMetaString( "unique" ) );
+    ColumnarRowBuffer buffer = new ColumnarRowBuffer( stringMeta );
+    int nrRows = 100000;
+    for ( int i = 0; i < nrRows; i++ ) {
+      buffer.addRow( new Object[] { "unique-" + i } );
+    }
+    for ( int i = 0; i < nrRows; i += 997 ) {
+      assertEquals( "unique-" + i, buffer.getValue( i, 0 ) );
+    }
+  }
+
+  @Test
+  public void testCompare() throws Exception {
+    ColumnarRowBuffer buffer = new ColumnarRowBuffer( rowMeta );
+    buffer.addRow( row( 1 ) );
+    buffer.addRow( row( 2 ) );
+    buffer.addRow( row( 11 ) );
+
+    int[] keys = { 0, 1 };
+    assertTrue( buffer.compare( 0, 1, keys ) < 0 );
+    assertTrue( buffer.compare( 2, 0, keys ) > 0 );
+    assertEquals( 0, buffer.compare( 1, 1, keys ) );
+    assertEquals( rowMeta.compare( row( 11 ), row( 2 ), keys ) > 0, buffer.compare( 2, 1, keys ) > 0 );
+  }
+
+  @Test
+  public void testCompareLikeTheValueMetadata() throws Exception {
+    rowMeta.getValueMeta( 2 ).setSortedDescending( true );
+    Object[][] rows = { row( 1 ), row( 2 ), row( 3 ), { null, null, null, null, null, null } };
+    rows[ 2 ][ 2 ] = 1.0; // same number as row 2
+    ColumnarRowBuffer buffer = new ColumnarRowBuffer( rowMeta );
+    for ( Object[] row : rows ) {
+      buffer.addRow( row );
+    }
+
+    for ( int[] keys : new int[][] { { 1 }, { 2 }, { 3 }, { 4 }, { 2, 1 } } ) {
+      for ( int i = 0; i < rows.length; i++ ) {
+        for ( int j = 0; j < rows.length; j++ ) {
+          assertEquals( Integer.signum( rowMeta.compare( rows[ i ], rows[ j ], keys ) ),
+            Integer.signum( buffer.compare( i, j, keys ) ) );
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testValueMetadataWithItsOwnComparison() throws Exception {
+    RowMetaInterface reversed = new RowMeta();
+    reversed.addValueMeta( new ValueMetaInteger( "integer" ) {
+      @Override
+      public int compare( Object data1, Object data2 ) throws KettleValueException {
+        return -super.compare( data1, data2 );
+      }
+    } );
+    ColumnarRowBuffer buffer = new ColumnarRowBuffer( reversed );
+    buffer.addRow( new Object[] { 1L } );
+    buffer.addRow( new Object[] { 2L } );
+
+    assertTrue( buffer.compare( 0, 1, new int[] { 0 } ) > 0 );
+  }
+
+  @Test
+  public void testWriteRowWithNulls() throws Exception {
+    ColumnarRowBuffer buffer = new ColumnarRowBuffer( rowMeta );
+    Object[] nulls = new Object[ rowMeta.size() ];
+    buffer.addRow( nulls );
+    buffer.addRow( row( 4 ) );
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream outputStream = new DataOutputStream( bytes );
+    buffer.writeRow( outputStream, 0 );
+    buffer.writeRow( outputStream, 1 );
+    DataInputStream inputStream = new DataInputStream( new ByteArrayInputStream( bytes.toByteArray() ) );
+    assertArrayEquals( nulls, trim( rowMeta.readData( inputStream ), rowMeta.size() ) );
+    assertArrayEquals( row( 4 ), trim( rowMeta.readData( inputStream ), rowMeta.size() ) );
+  }
+
+  @Test
+  public void testWriteRowAndClear() throws Exception {
+    ColumnarRowBuffer buffer = new ColumnarRowBuffer( rowMeta );
+    buffer.addRow( row( 3 ) );
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    buffer.writeRow( new DataOutputStream( bytes ), 0 );
+    Object[] read = rowMeta.readData( new DataInputStream( new ByteArrayInputStream( bytes.toByteArray() ) ) );
+    assertArrayEquals( row( 3 ), trim( read, rowMeta.size() ) );
+
+    assertTrue( buffer.getEstimatedSize() > 0 );
+    buffer.clear();
+    assertTrue( buffer.isEmpty() );
+  }
+
+  @Test( expected = IndexOutOfBoundsException.class )
+  public void testIndexOutOfBounds() {
+    new ColumnarRowBuffer( rowMeta ).getRow( 0 );
+  }
+}
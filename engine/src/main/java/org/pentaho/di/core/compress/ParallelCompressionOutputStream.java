@@ -0,0 +1,189 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.compress;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.pentaho.di.core.Const;
+import org.pentaho.di.core.util.EnvUtil;
+
+/**
+ * Compresses the data in blocks of {@link Const#KETTLE_COMPRESSION_BLOCK_SIZE} bytes on a pool of
+ * {@link Const#KETTLE_COMPRESSION_THREADS} worker threads. Every block is compressed on its own into a self-contained
+ * unit (a gzip member, an LZ4 frame) and the units are written in order, so the result can be read by any reader that
+ * supports concatenated units. At most two blocks per worker are kept in memory.
+ */
+public abstract class ParallelCompressionOutputStream extends CompressionOutputStream {
+
+  public static final int DEFAULT_BLOCK_SIZE = 1024 * 1024;
+
+  private static ExecutorService workers;
+  private static int nrWorkers;
+
+  private final int blockSize;
+  private final int maxPending;
+  private final Deque<Future<byte[]>> pending = new ArrayDeque<>();
+  private byte[] block;
+  private int blockLength;
+  private boolean closed;
+
+  public ParallelCompressionOutputStream( OutputStream out, CompressionProvider provider ) {
+    super( out, provider );
+    this.blockSize = Math.max( 1024, Const.toInt(
+      EnvUtil.getSystemProperty( Const.KETTLE_COMPRESSION_BLOCK_SIZE ), DEFAULT_BLOCK_SIZE ) );
+    this.maxPending = 2 * getNrWorkers();
+    this.block = new byte[ blockSize ];
+  }
+
+  /**
+   * @return the number of threads compressing blocks, the number of processors unless configured otherwise
+   */
+  public static int getNrWorkers() {
+    int threads = Const.toInt( EnvUtil.getSystemProperty( Const.KETTLE_COMPRESSION_THREADS ), 0 );
+    return threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+  }
+
+  private static synchronized ExecutorService getWorkers() {
+    int threads = getNrWorkers();
+    if ( workers == null || nrWorkers != threads ) {
+      if ( workers != null ) {
+        workers.shutdown();
+      }
+      AtomicInteger threadNr = new AtomicInteger();
+      workers = Executors.newFixedThreadPool( threads, runnable -> {
+        Thread thread = new Thread( runnable, "Kettle compression worker " + threadNr.incrementAndGet() );
+        thread.setDaemon( true );
+        return thread;
+      } );
+      nrWorkers = threads;
+    }
+    return workers;
+  }
+
+  /**
+   * Compresses a block of data into a self-contained unit. Called from several threads at the same time.
+   *
+   * @param data   the data to compress, owned by the caller
+   * @param length the number of bytes to compress
+   * @return the compressed unit
+   * @throws IOException in case the data can't be compressed
+   */
+  protected abstract byte[] compress( byte[] data, int length ) throws IOException;
+
+  @Override
+  public void write( int b ) throws IOException {
+    ensureOpen();
+    block[ blockLength++ ] = (byte) b;
+    if ( blockLength == blockSize ) {
+      submitBlock();
+    }
+  }
+
+  @Override
+  public void write( byte[] b ) throws IOException {
+    write( b, 0, b.length );
+  }
+
+  @Override
+  public void write( byte[] b, int off, int len ) throws IOException {
+    ensureOpen();
+    while ( len > 0 ) {
+      int n = Math.min( len, blockSize - blockLength );
+      System.arraycopy( b, off, block, blockLength, n );
+      blockLength += n;
+      off += n;
+      len -= n;
+      if ( blockLength == blockSize ) {
+        submitBlock();
+      }
+    }
+  }
+
+  /**
+   * Writes out the blocks compressed so far. Like {@link java.util.zip.GZIPOutputStream} the data of the current block
+   * stays behind until the block is full or the stream is closed, this keeps the compressed units large.
+   */
+  @Override
+  public void flush() throws IOException {
+    ensureOpen();
+    writePending();
+    delegate.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if ( closed ) {
+      return;
+    }
+    try {
+      if ( blockLength > 0 ) {
+        submitBlock();
+      }
+      writePending();
+    } finally {
+      closed = true;
+      for ( Future<byte[]> future : pending ) {
+        future.cancel( true );
+      }
+      pending.clear();
+      delegate.close();
+    }
+  }
+
+  private void writePending() throws IOException {
+    while ( !pending.isEmpty() ) {
+      writeNext();
+    }
+  }
+
+  private void submitBlock() throws IOException {
+    final byte[] data = block;
+    final int length = blockLength;
+    while ( pending.size() >= maxPending ) {
+      writeNext();
+    }
+    pending.add( getWorkers().submit( () -> compress( data, length ) ) );
+    block = new byte[ blockSize ];
+    blockLength = 0;
+  }
+
+  private void writeNext() throws IOException {
+    try {
+      delegate.write( pending.removeFirst().get() );
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException( "Interrupted while compressing" );
+    } catch ( ExecutionException e ) {
+      if ( e.getCause() instanceof IOException ) {
+        throw (IOException) e.getCause();
+      }
+      throw new IOException( e.getCause() );
+    }
+  }
+
+  private void ensureOpen() throws IOException {
+    if ( closed ) {
+      throw new IOException( "Stream closed" );
+    }
+  }
+}
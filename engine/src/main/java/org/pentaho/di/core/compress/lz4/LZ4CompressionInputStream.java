@@ -0,0 +1,38 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.di.core.compress.lz4;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.commons.compress.compressors.lz4.FramedLZ4CompressorInputStream;
+import org.pentaho.di.core.compress.CompressionInputStream;
+import org.pentaho.di.core.compress.CompressionProvider;
+
+public class LZ4CompressionInputStream extends CompressionInputStream {
+
+  public LZ4CompressionInputStream( InputStream in, CompressionProvider provider ) throws IOException {
+    super( getDelegate( in ), provider );
+  }
+
+  protected static FramedLZ4CompressorInputStream getDelegate( InputStream in ) throws IOException {
+    FramedLZ4CompressorInputStream delegate = null;
+    if ( in instanceof FramedLZ4CompressorInputStream ) {
+      delegate = (FramedLZ4CompressorInputStream) in;
+    } else {
+      // Files written by the LZ4 provider hold one frame per block
+      delegate = new FramedLZ4CompressorInputStream( in, true );
+    }
+    return delegate;
+  }
+}
@@ -0,0 +1,40 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.di.core.compress.lz4;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.apache.commons.compress.compressors.lz4.FramedLZ4CompressorOutputStream;
+import org.pentaho.di.core.compress.CompressionProvider;
+import org.pentaho.di.core.compress.ParallelCompressionOutputStream;
+
+/**
+ * Writes every block as a separate LZ4 frame. The lz4 command line tool reads concatenated frames as one file.
+ */
+public class LZ4CompressionOutputStream extends ParallelCompressionOutputStream {
+
+  public LZ4CompressionOutputStream( OutputStream out, CompressionProvider provider ) {
+    super( out, provider );
+  }
+
+  @Override
+  protected byte[] compress( byte[] data, int length ) throws IOException {
+    ByteArrayOutputStream frame = new ByteArrayOutputStream( length / 2 + 64 );
+    try ( FramedLZ4CompressorOutputStream lz4 = new FramedLZ4CompressorOutputStream( frame ) ) {
+      lz4.write( data, 0, length );
+    }
+    return frame.toByteArray();
+  }
+}
@@ -0,0 +1,57 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.di.core.compress.lz4;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.pentaho.di.core.compress.CompressionProvider;
+
+public class LZ4CompressionProvider implements CompressionProvider {
+
+  @Override
+  public LZ4CompressionInputStream createInputStream( InputStream in ) throws IOException {
+    return new LZ4CompressionInputStream( in, this );
+  }
+
+  @Override
+  public boolean supportsInput() {
+    return true;
+  }
+
+  @Override
+  public LZ4CompressionOutputStream createOutputStream( OutputStream out ) throws IOException {
+    return new LZ4CompressionOutputStream( out, this );
+  }
+
+  @Override
+  public boolean supportsOutput() {
+    return true;
+  }
+
+  @Override
+  public String getDescription() {
+    return "LZ4 frame compression";
+  }
+
+  @Override
+  public String getName() {
+    return "LZ4";
+  }
+
+  @Override
+  public String getDefaultExtension() {
+    return "lz4";
+  }
+}
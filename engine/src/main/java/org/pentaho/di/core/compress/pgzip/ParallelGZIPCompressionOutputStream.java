@@ -0,0 +1,41 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.di.core.compress.pgzip;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.pentaho.di.core.compress.CompressionProvider;
+import org.pentaho.di.core.compress.ParallelCompressionOutputStream;
+
+/**
+ * Writes every block as a separate gzip member. Concatenated gzip members are a valid gzip file (RFC 1952), gunzip and
+ * {@link java.util.zip.GZIPInputStream} read them as one.
+ */
+public class ParallelGZIPCompressionOutputStream extends ParallelCompressionOutputStream {
+
+  public ParallelGZIPCompressionOutputStream( OutputStream out, CompressionProvider provider ) {
+    super( out, provider );
+  }
+
+  @Override
+  protected byte[] compress( byte[] data, int length ) throws IOException {
+    ByteArrayOutputStream member = new ByteArrayOutputStream( length / 2 + 64 );
+    try ( GZIPOutputStream gzip = new GZIPOutputStream( member, 65536 ) ) {
+      gzip.write( data, 0, length );
+    }
+    return member.toByteArray();
+  }
+}
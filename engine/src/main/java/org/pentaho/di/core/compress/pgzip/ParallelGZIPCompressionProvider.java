@@ -0,0 +1,58 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.di.core.compress.pgzip;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.pentaho.di.core.compress.CompressionProvider;
+import org.pentaho.di.core.compress.gzip.GZIPCompressionInputStream;
+
+public class ParallelGZIPCompressionProvider implements CompressionProvider {
+
+  @Override
+  public GZIPCompressionInputStream createInputStream( InputStream in ) throws IOException {
+    return new GZIPCompressionInputStream( in, this );
+  }
+
+  @Override
+  public boolean supportsInput() {
+    return true;
+  }
+
+  @Override
+  public ParallelGZIPCompressionOutputStream createOutputStream( OutputStream out ) throws IOException {
+    return new ParallelGZIPCompressionOutputStream( out, this );
+  }
+
+  @Override
+  public boolean supportsOutput() {
+    return true;
+  }
+
+  @Override
+  public String getDescription() {
+    return "Parallel GZIP compression";
+  }
+
+  @Override
+  public String getName() {
+    return "Parallel GZip";
+  }
+
+  @Override
+  public String getDefaultExtension() {
+    return "gz";
+  }
+}
@@ -0,0 +1,51 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.di.core.compress.zstd;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.github.luben.zstd.ZstdOutputStream;
+import org.pentaho.di.core.Const;
+import org.pentaho.di.core.compress.CompressionOutputStream;
+import org.pentaho.di.core.compress.CompressionProvider;
+import org.pentaho.di.core.compress.ParallelCompressionOutputStream;
+import org.pentaho.di.core.util.EnvUtil;
+
+/**
+ * Zstandard compression. The native library compresses on {@link Const#KETTLE_COMPRESSION_THREADS} worker threads and
+ * writes a single frame.
+ */
+public class ZstdCompressionOutputStream extends CompressionOutputStream {
+
+  public static final int DEFAULT_LEVEL = 3;
+
+  public ZstdCompressionOutputStream( OutputStream out, CompressionProvider provider ) throws IOException {
+    super( getDelegate( out ), provider );
+  }
+
+  protected static ZstdOutputStream getDelegate( OutputStream out ) throws IOException {
+    ZstdOutputStream delegate = null;
+    if ( out instanceof ZstdOutputStream ) {
+      delegate = (ZstdOutputStream) out;
+    } else {
+      int level = Const.toInt( EnvUtil.getSystemProperty( Const.KETTLE_COMPRESSION_ZSTD_LEVEL ), DEFAULT_LEVEL );
+      delegate = new ZstdOutputStream( out, level );
+      int workers = ParallelCompressionOutputStream.getNrWorkers();
+      if ( workers > 1 ) {
+        delegate.setWorkers( workers );
+      }
+    }
+    return delegate;
+  }
+}
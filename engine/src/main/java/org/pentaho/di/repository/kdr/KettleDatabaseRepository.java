@@ -493,6 +493,7 @@ public class KettleDatabaseRepository extends KettleDatabaseRepositoryBase {
       //
       commit();
     } finally {
+      connectionDelegate.clearRowCache();
       unlockRepository();
     }
   }
@@ -1474,6 +1475,7 @@ public class KettleDatabaseRepository extends KettleDatabaseRepositoryBase {
     delTransformationClusters( id_transformation );
     delTransformationSlaves( id_transformation );
     delTrans( id_transformation );
+    connectionDelegate.clearRowCache();
 
     commit();
   }
@@ -1489,6 +1491,7 @@ public class KettleDatabaseRepository extends KettleDatabaseRepositoryBase {
     delJobEntryCopies( id_job );
     delJobHops( id_job );
     delJob( id_job );
+    connectionDelegate.clearRowCache();
     commit();
 
     // logBasic("All deleted on job with ID_JOB: "+id_job);
@@ -21,7 +21,9 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
@@ -91,6 +93,40 @@ public class KettleDatabaseRepositoryConnectionDelegate extends KettleDatabaseRe
 
   protected ConcurrentHashMap<String, PreparedStatement> sqlMap;
 
+  /**
+   * The rows read in one go while loading a transformation or job, by quoted table and key field.
+   */
+  protected Map<String, KettleDatabaseRepositoryRowBuffer> rowBuffers;
+  protected ObjectId transAttributesBufferId;
+  protected KettleDatabaseRepositoryRowBuffer transAttributesBuffer;
+
+  /**
+   * The rows of the transformations and jobs loaded last, kept as long as their modification date doesn't change.
+   */
+  protected int rowCacheSize;
+  protected Map<String, CachedRows> rowCache;
+
+  /**
+   * The buffers filled for a transformation or job, with the modification date they were read at.
+   */
+  protected static class CachedRows {
+    private final Date modifiedDate;
+    private final List<Object[]> stepAttributes;
+    private final RowMetaInterface stepAttributesRowMeta;
+    private final Map<String, KettleDatabaseRepositoryRowBuffer> rowBuffers;
+    private final KettleDatabaseRepositoryRowBuffer transAttributes;
+
+    CachedRows( Date modifiedDate, List<Object[]> stepAttributes, RowMetaInterface stepAttributesRowMeta,
+                Map<String, KettleDatabaseRepositoryRowBuffer> rowBuffers,
+                KettleDatabaseRepositoryRowBuffer transAttributes ) {
+      this.modifiedDate = modifiedDate;
+      this.stepAttributes = stepAttributes;
+      this.stepAttributesRowMeta = stepAttributesRowMeta;
+      this.rowBuffers = new HashMap<>( rowBuffers );
+      this.transAttributes = transAttributes;
+    }
+  }
+
   private class StepAttributeComparator implements Comparator<Object[]> {
 
     @Override
@@ -110,6 +146,15 @@ public class KettleDatabaseRepositoryConnectionDelegate extends KettleDatabaseRe
     this.database = new Database( loggingObject, databaseMeta );
 
     sqlMap = new ConcurrentHashMap<>();
+    rowBuffers = new ConcurrentHashMap<>();
+
+    rowCacheSize = Const.toInt( System.getProperty( Const.KETTLE_REPOSITORY_ROW_CACHE_SIZE ), 0 );
+    rowCache = new LinkedHashMap<String, CachedRows>( 16, 0.75f, true ) {
+      @Override
+      protected boolean removeEldestEntry( Map.Entry<String, CachedRows> eldest ) {
+        return size() > rowCacheSize;
+      }
+    };
 
     useBatchProcessing = true; // defaults to true;
 
@@ -407,6 +452,181 @@ public class KettleDatabaseRepositoryConnectionDelegate extends KettleDatabaseRe
     this.stepAttributesBuffer = stepAttributesBuffer;
   }
 
+  /**
+   * @return the attributes of a step in the step attributes buffer, ordered by code and number
+   */
+  public synchronized List<Object[]> getStepAttributesInBuffer( ObjectId id_step ) throws KettleValueException {
+    long id = new LongObjectId( id_step ).longValue();
+    int from = searchFirstStepAttributeIndex( id );
+    int to = searchFirstStepAttributeIndex( id + 1 );
+    return stepAttributesBuffer.subList( from, to );
+  }
+
+  private int searchFirstStepAttributeIndex( long id_step ) throws KettleValueException {
+    int low = 0;
+    int high = stepAttributesBuffer.size();
+    while ( low < high ) {
+      int middle = ( low + high ) >>> 1;
+      if ( stepAttributesRowMeta.getInteger( stepAttributesBuffer.get( middle ), 0 ) < id_step ) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Reads the rows of a table in one query, so that {@link #getOneRow(String, String, ObjectId)} finds them in memory.
+   *
+   * @param tableName the name of the table
+   * @param keyField  the name of the field the rows are looked up with
+   * @param condition the SQL condition selecting the rows, with a parameter for each ID, or null to read all rows
+   * @param ids       the parameters of the condition
+   */
+  public synchronized void fillRowBuffer( String tableName, String keyField, String condition, ObjectId... ids )
+    throws KettleException {
+    String schemaAndTable = databaseMeta.getQuotedSchemaTableCombination( null, tableName );
+    String sql = "SELECT * FROM " + schemaAndTable + ( condition == null ? "" : " WHERE " + condition );
+    RowMetaAndData parameters = getParameterMetaData( ids );
+    List<Object[]> rows = callRead( () -> database.getRows(
+      sql, parameters.getRowMeta(), parameters.getData(), ResultSet.FETCH_FORWARD, false, 0, null ) );
+    rowBuffers.put( schemaAndTable + " " + quote( keyField ),
+      new KettleDatabaseRepositoryRowBuffer( database.getReturnRowMeta(), rows, keyField ) );
+  }
+
+  /**
+   * Reads the steps, step attributes, hops, notes, dependencies and attributes of a transformation with a query per
+   * table, or takes them from the row cache when the transformation wasn't modified since.
+   */
+  public synchronized void fillTransformationBuffers( ObjectId id_transformation ) throws KettleException {
+    String cacheKey = KettleDatabaseRepository.TABLE_R_TRANSFORMATION + id_transformation;
+    Date modifiedDate = getModifiedDate( KettleDatabaseRepository.TABLE_R_TRANSFORMATION,
+      KettleDatabaseRepository.FIELD_TRANSFORMATION_ID_TRANSFORMATION,
+      KettleDatabaseRepository.FIELD_TRANSFORMATION_MODIFIED_DATE, id_transformation );
+    if ( restoreCachedRows( cacheKey, modifiedDate ) ) {
+      transAttributesBufferId = id_transformation;
+      return;
+    }
+
+    fillStepAttributesBuffer( id_transformation );
+    String byTransformation = quote( KettleDatabaseRepository.FIELD_STEP_ID_TRANSFORMATION ) + " = ?";
+    fillRowBuffer( KettleDatabaseRepository.TABLE_R_STEP, KettleDatabaseRepository.FIELD_STEP_ID_STEP,
+      byTransformation, id_transformation );
+    fillRowBuffer( KettleDatabaseRepository.TABLE_R_STEP_TYPE, KettleDatabaseRepository.FIELD_STEP_TYPE_ID_STEP_TYPE,
+      null );
+    fillRowBuffer( KettleDatabaseRepository.TABLE_R_TRANS_HOP, KettleDatabaseRepository.FIELD_TRANS_HOP_ID_TRANS_HOP,
+      byTransformation, id_transformation );
+    fillRowBuffer( KettleDatabaseRepository.TABLE_R_DEPENDENCY,
+      KettleDatabaseRepository.FIELD_DEPENDENCY_ID_DEPENDENCY, byTransformation, id_transformation );
+    fillRowBuffer( KettleDatabaseRepository.TABLE_R_NOTE, KettleDatabaseRepository.FIELD_NOTE_ID_NOTE,
+      quote( KettleDatabaseRepository.FIELD_NOTE_ID_NOTE ) + " IN ( SELECT "
+        + quote( KettleDatabaseRepository.FIELD_TRANS_NOTE_ID_NOTE ) + " FROM "
+        + databaseMeta.getQuotedSchemaTableCombination( null, KettleDatabaseRepository.TABLE_R_TRANS_NOTE )
+        + " WHERE " + quote( KettleDatabaseRepository.FIELD_TRANS_NOTE_ID_TRANSFORMATION ) + " = ? )",
+      id_transformation );
+
+    String sql = "SELECT * FROM "
+      + databaseMeta.getQuotedSchemaTableCombination( null, KettleDatabaseRepository.TABLE_R_TRANS_ATTRIBUTE )
+      + " WHERE " + quote( KettleDatabaseRepository.FIELD_TRANS_ATTRIBUTE_ID_TRANSFORMATION ) + " = ?";
+    RowMetaAndData parameters = getParameterMetaData( id_transformation );
+    List<Object[]> rows = callRead( () -> database.getRows(
+      sql, parameters.getRowMeta(), parameters.getData(), ResultSet.FETCH_FORWARD, false, 0, null ) );
+    transAttributesBuffer = new KettleDatabaseRepositoryRowBuffer( database.getReturnRowMeta(), rows,
+      KettleDatabaseRepository.FIELD_TRANS_ATTRIBUTE_CODE, KettleDatabaseRepository.FIELD_TRANS_ATTRIBUTE_NR );
+    transAttributesBufferId = id_transformation;
+
+    cacheRows( cacheKey, modifiedDate );
+  }
+
+  /**
+   * Reads the job entries, their copies and types, the hops and the notes of a job with a query per table, or takes
+   * them from the row cache when the job wasn't modified since.
+   */
+  public synchronized void fillJobBuffers( ObjectId id_job ) throws KettleException {
+    String cacheKey = KettleDatabaseRepository.TABLE_R_JOB + id_job;
+    Date modifiedDate = getModifiedDate( KettleDatabaseRepository.TABLE_R_JOB,
+      KettleDatabaseRepository.FIELD_JOB_ID_JOB, KettleDatabaseRepository.FIELD_JOB_MODIFIED_DATE, id_job );
+    if ( restoreCachedRows( cacheKey, modifiedDate ) ) {
+      return;
+    }
+
+    String byJob = quote( KettleDatabaseRepository.FIELD_JOBENTRY_ID_JOB ) + " = ?";
+    fillRowBuffer( KettleDatabaseRepository.TABLE_R_JOBENTRY, KettleDatabaseRepository.FIELD_JOBENTRY_ID_JOBENTRY,
+      byJob, id_job );
+    fillRowBuffer( KettleDatabaseRepository.TABLE_R_JOBENTRY_COPY,
+      KettleDatabaseRepository.FIELD_JOBENTRY_COPY_ID_JOBENTRY_COPY, byJob, id_job );
+    fillRowBuffer( KettleDatabaseRepository.TABLE_R_JOBENTRY_TYPE,
+      KettleDatabaseRepository.FIELD_JOBENTRY_TYPE_ID_JOBENTRY_TYPE, null );
+    fillRowBuffer( KettleDatabaseRepository.TABLE_R_JOB_HOP, KettleDatabaseRepository.FIELD_JOB_HOP_ID_JOB_HOP,
+      byJob, id_job );
+    fillRowBuffer( KettleDatabaseRepository.TABLE_R_NOTE, KettleDatabaseRepository.FIELD_NOTE_ID_NOTE,
+      quote( KettleDatabaseRepository.FIELD_NOTE_ID_NOTE ) + " IN ( SELECT "
+        + quote( KettleDatabaseRepository.FIELD_JOB_NOTE_ID_NOTE ) + " FROM "
+        + databaseMeta.getQuotedSchemaTableCombination( null, KettleDatabaseRepository.TABLE_R_JOB_NOTE )
+        + " WHERE " + quote( KettleDatabaseRepository.FIELD_JOB_NOTE_ID_JOB ) + " = ? )", id_job );
+
+    cacheRows( cacheKey, modifiedDate );
+  }
+
+  /**
+   * Clears the buffers filled for a transformation or job. The rows stay in the row cache.
+   */
+  public synchronized void clearBuffers() {
+    stepAttributesBuffer = null;
+    rowBuffers.clear();
+    transAttributesBuffer = null;
+    transAttributesBufferId = null;
+  }
+
+  /**
+   * Forgets the rows of all transformations and jobs, for example because one of them is saved or deleted.
+   */
+  public synchronized void clearRowCache() {
+    rowCache.clear();
+  }
+
+  /**
+   * @return the modification date of the transformation or job, or null if it's unknown or no rows are cached
+   */
+  private Date getModifiedDate( String tableName, String idField, String dateField, ObjectId id )
+    throws KettleException {
+    if ( rowCacheSize <= 0 ) {
+      return null;
+    }
+    String sql = "SELECT " + quote( dateField ) + " FROM "
+      + databaseMeta.getQuotedSchemaTableCombination( null, tableName ) + " WHERE " + quote( idField ) + " = ?";
+    RowMetaAndData parameters = getParameterMetaData( id );
+    RowMetaAndData r = getOneRow( sql, parameters.getRowMeta(), parameters.getData() );
+    if ( r == null || r.getData() == null ) {
+      return null;
+    }
+    return r.getDate( 0, null );
+  }
+
+  private boolean restoreCachedRows( String cacheKey, Date modifiedDate ) {
+    clearBuffers();
+    if ( modifiedDate == null ) {
+      return false;
+    }
+    CachedRows cachedRows = rowCache.get( cacheKey );
+    if ( cachedRows == null || !modifiedDate.equals( cachedRows.modifiedDate ) ) {
+      return false;
+    }
+    stepAttributesBuffer = cachedRows.stepAttributes;
+    stepAttributesRowMeta = cachedRows.stepAttributesRowMeta;
+    rowBuffers.putAll( cachedRows.rowBuffers );
+    transAttributesBuffer = cachedRows.transAttributes;
+    return true;
+  }
+
+  private void cacheRows( String cacheKey, Date modifiedDate ) {
+    if ( modifiedDate != null ) {
+      rowCache.put( cacheKey, new CachedRows(
+        modifiedDate, stepAttributesBuffer, stepAttributesRowMeta, rowBuffers, transAttributesBuffer ) );
+    }
+  }
+
   private synchronized RowMetaAndData searchStepAttributeInBuffer( ObjectId id_step, String code, long nr )
     throws KettleValueException {
     int index = searchStepAttributeIndexInBuffer( id_step, code, nr );
@@ -596,6 +816,10 @@ public class KettleDatabaseRepositoryConnectionDelegate extends KettleDatabaseRe
   }
 
   public RowMetaAndData getTransAttributeRow( ObjectId id_transformation, int nr, String code ) throws KettleException {
+    if ( transAttributesBuffer != null && id_transformation != null && transAttributesBufferId != null
+      && id_transformation.getId().equals( transAttributesBufferId.getId() ) ) {
+      return transAttributesBuffer.getRow( code, Long.valueOf( nr ) );
+    }
     RowMetaAndData par = new RowMetaAndData();
     par.addValue(
       new ValueMetaInteger(
@@ -800,6 +1024,10 @@ public class KettleDatabaseRepositoryConnectionDelegate extends KettleDatabaseRe
   }
 
   public synchronized int countNrTransAttributes( ObjectId id_transformation, String code ) throws KettleException {
+    if ( transAttributesBuffer != null && id_transformation != null && transAttributesBufferId != null
+      && id_transformation.getId().equals( transAttributesBufferId.getId() ) ) {
+      return transAttributesBuffer.countRows( KettleDatabaseRepository.FIELD_TRANS_ATTRIBUTE_CODE, code );
+    }
     String sql =
       "SELECT COUNT(*) FROM "
         + databaseMeta
@@ -1845,6 +2073,14 @@ public class KettleDatabaseRepositoryConnectionDelegate extends KettleDatabaseRe
    * This method should be called WITH AN ALREADY QUOTED schema and table
    */
   public RowMetaAndData getOneRow( String schemaAndTable, String keyfield, ObjectId id ) throws KettleException {
+    KettleDatabaseRepositoryRowBuffer rowBuffer = rowBuffers.get( schemaAndTable + " " + keyfield );
+    if ( rowBuffer != null && id != null ) {
+      RowMetaAndData row = rowBuffer.getRow( Long.valueOf( id.getId() ) );
+      if ( row != null ) {
+        return row;
+      }
+    }
+
     String sql = "SELECT * FROM " + schemaAndTable + " WHERE " + keyfield + " = ?";
 
     // Get the prepared statement
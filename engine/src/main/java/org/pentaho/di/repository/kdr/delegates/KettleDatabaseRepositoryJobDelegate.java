@@ -324,6 +324,9 @@ public class KettleDatabaseRepositoryJobDelegate extends KettleDatabaseRepositor
 
         // If no valid id is available in the database, then give error...
         if ( jobMeta.getObjectId() != null ) {
+          // read the job entries, hops and notes with a query per table
+          repository.connectionDelegate.fillJobBuffers( jobMeta.getObjectId() );
+
           // Load the notes...
           ObjectId[] noteids = repository.getJobNoteIDs( jobMeta.getObjectId() );
           ObjectId[] jecids = repository.getJobEntryCopyIDs( jobMeta.getObjectId() );
@@ -506,6 +509,7 @@ public class KettleDatabaseRepositoryJobDelegate extends KettleDatabaseRepositor
         throw new KettleException( BaseMessages.getString(
           PKG, "JobMeta.Exception.AnErrorOccuredReadingJob", jobname ), dbe );
       } finally {
+        repository.connectionDelegate.clearBuffers();
         jobMeta.initializeVariablesFrom( jobMeta.getParentVariableSpace() );
         jobMeta.setInternalKettleVariables();
       }
@@ -0,0 +1,109 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.repository.kdr.delegates;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.pentaho.di.core.RowMetaAndData;
+import org.pentaho.di.core.exception.KettleValueException;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.ValueMetaInterface;
+
+/**
+ * The rows of a repository table read in one query, looked up on key fields. Numeric keys are compared as long values,
+ * the others as strings, whatever the data types the database returns.
+ */
+public class KettleDatabaseRepositoryRowBuffer {
+  private final RowMetaInterface rowMeta;
+  private final int[] keyIndexes;
+  private final Map<List<Object>, Object[]> rows;
+
+  /**
+   * @param rowMeta   the layout of the rows
+   * @param rows      the rows to look up
+   * @param keyFields the names of the fields to look up the rows with
+   */
+  public KettleDatabaseRepositoryRowBuffer( RowMetaInterface rowMeta, List<Object[]> rows, String... keyFields )
+    throws KettleValueException {
+    this.rowMeta = rowMeta;
+    this.keyIndexes = new int[ keyFields.length ];
+    for ( int i = 0; i < keyFields.length; i++ ) {
+      keyIndexes[ i ] = rowMeta.indexOfValue( keyFields[ i ] );
+      if ( keyIndexes[ i ] < 0 ) {
+        throw new KettleValueException( "Unable to find key field [" + keyFields[ i ] + "] in the repository rows" );
+      }
+    }
+    this.rows = new HashMap<>( rows.size() * 2 );
+    for ( Object[] row : rows ) {
+      Object[] keyValues = new Object[ keyIndexes.length ];
+      for ( int i = 0; i < keyIndexes.length; i++ ) {
+        keyValues[ i ] = row[ keyIndexes[ i ] ];
+      }
+      this.rows.put( getKey( keyValues ), row );
+    }
+  }
+
+  /**
+   * @param keyValues the values of the key fields, in the order they were given
+   * @return the row with these key values or null if there is none
+   */
+  public RowMetaAndData getRow( Object... keyValues ) throws KettleValueException {
+    Object[] row = rows.get( getKey( keyValues ) );
+    return row == null ? null : new RowMetaAndData( rowMeta, row );
+  }
+
+  /**
+   * @param fieldName the name of a field
+   * @param value     the value to look for
+   * @return the number of rows with the value in the field
+   */
+  public int countRows( String fieldName, Object value ) throws KettleValueException {
+    int index = rowMeta.indexOfValue( fieldName );
+    Object key = normalize( index, value );
+    int count = 0;
+    for ( Object[] row : rows.values() ) {
+      if ( Objects.equals( key, normalize( index, row[ index ] ) ) ) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  public int size() {
+    return rows.size();
+  }
+
+  private List<Object> getKey( Object[] keyValues ) throws KettleValueException {
+    List<Object> key = new ArrayList<>( keyValues.length );
+    for ( int i = 0; i < keyValues.length; i++ ) {
+      key.add( normalize( keyIndexes[ i ], keyValues[ i ] ) );
+    }
+    return key;
+  }
+
+  private Object normalize( int index, Object value ) throws KettleValueException {
+    if ( value == null ) {
+      return null;
+    }
+    ValueMetaInterface valueMeta = rowMeta.getValueMeta( index );
+    if ( valueMeta.isNumeric() ) {
+      return value instanceof Number ? ( (Number) value ).longValue() : valueMeta.getInteger( value );
+    }
+    return value instanceof String ? value : valueMeta.getString( value );
+  }
+}
@@ -430,7 +430,7 @@ public class KettleDatabaseRepositoryStepDelegate extends KettleDatabaseReposito
   private Map<String, Map<String, String>> loadStepAttributesMap( ObjectId stepId ) throws KettleException {
     Map<String, Map<String, String>> attributesMap = new HashMap<String, Map<String, String>>();
 
-    List<Object[]> attributeRows = repository.connectionDelegate.getStepAttributesBuffer();
+    List<Object[]> attributeRows = repository.connectionDelegate.getStepAttributesInBuffer( stepId );
     RowMetaInterface rowMeta = repository.connectionDelegate.getStepAttributesRowMeta();
     for ( Object[] attributeRow : attributeRows ) {
       String code = rowMeta.getString( attributeRow, KettleDatabaseRepository.FIELD_STEP_ATTRIBUTE_CODE, null );
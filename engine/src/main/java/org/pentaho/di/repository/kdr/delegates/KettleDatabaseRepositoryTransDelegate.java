@@ -466,6 +466,9 @@ public class KettleDatabaseRepositoryTransDelegate extends KettleDatabaseReposit
 
         // If no valid id is available in the database, then give error...
         if ( transMeta.getObjectId() != null ) {
+          // read the steps, attributes, hops and notes with a query per table
+          repository.connectionDelegate.fillTransformationBuffers( transMeta.getObjectId() );
+
           ObjectId[] noteids = repository.getTransNoteIDs( transMeta.getObjectId() );
           ObjectId[] stepids = repository.getStepIDs( transMeta.getObjectId() );
           ObjectId[] hopids = getTransHopIDs( transMeta.getObjectId() );
@@ -509,8 +512,6 @@ public class KettleDatabaseRepositoryTransDelegate extends KettleDatabaseReposit
           if ( monitor != null ) {
             monitor.subTask( BaseMessages.getString( PKG, "TransMeta.Monitor.ReadingStepsTask.Title" ) );
           }
-          repository.connectionDelegate.fillStepAttributesBuffer( transMeta.getObjectId() ); // read all the attributes
-                                                                                             // on one go!
           for ( int i = 0; i < stepids.length; i++ ) {
             if ( log.isDetailed() ) {
               log.logDetailed( BaseMessages.getString( PKG, "TransMeta.Log.LoadingStepWithID" ) + stepids[i] );
@@ -536,7 +537,6 @@ public class KettleDatabaseRepositoryTransDelegate extends KettleDatabaseReposit
           if ( monitor != null ) {
             monitor.worked( 1 );
           }
-          repository.connectionDelegate.setStepAttributesBuffer( null ); // clear the buffer (should be empty anyway)
 
           // Have all StreamValueLookups, etc. reference the correct source steps...
           for ( int i = 0; i < transMeta.nrSteps(); i++ ) {
@@ -617,6 +617,7 @@ public class KettleDatabaseRepositoryTransDelegate extends KettleDatabaseReposit
           for ( LogTableInterface logTable : transMeta.getLogTables() ) {
             logTable.loadFromRepository( attributeInterface );
           }
+          repository.connectionDelegate.clearBuffers();
 
           if ( monitor != null ) {
             monitor.subTask( BaseMessages.getString( PKG, "TransMeta.Monitor.SortingStepsTask.Title" ) );
@@ -657,6 +658,7 @@ public class KettleDatabaseRepositoryTransDelegate extends KettleDatabaseReposit
         throw new KettleException( BaseMessages.getString(
           PKG, "TransMeta.Exception.DatabaseErrorOccuredReadingTransformation2" ), e );
       } finally {
+        repository.connectionDelegate.clearBuffers();
         transMeta.initializeVariablesFrom( null );
         if ( setInternalVariables ) {
           transMeta.setInternalKettleVariables();
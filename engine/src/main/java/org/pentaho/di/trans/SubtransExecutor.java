@@ -12,6 +12,7 @@
 
 package org.pentaho.di.trans;
 
+import io.reactivex.schedulers.Schedulers;
 import org.pentaho.di.core.Const;
 import org.pentaho.di.core.Result;
 import org.pentaho.di.core.RowMetaAndData;
@@ -21,9 +22,11 @@ import org.pentaho.di.core.util.Utils;
 import org.pentaho.di.i18n.BaseMessages;
 import org.pentaho.di.trans.step.BaseStepData.StepExecutionStatus;
 import org.pentaho.di.trans.step.RowAdapter;
+import org.pentaho.di.trans.step.StepMeta;
 import org.pentaho.di.trans.step.StepMetaDataCombi;
 import org.pentaho.di.trans.step.StepStatus;
 import org.pentaho.di.trans.steps.TransStepUtil;
+import org.pentaho.di.trans.steps.recordsfromstream.RecordsFromStreamMeta;
 import org.pentaho.di.trans.steps.transexecutor.TransExecutorParameters;
 
 import java.util.concurrent.ConcurrentHashMap;
@@ -33,7 +36,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Will run the given sub-transformation with the rows passed to execute
@@ -52,6 +59,10 @@ public class SubtransExecutor {
   private Semaphore semaphore;
   private final int prefetchCount;
 
+  // Streaming runs: the sub-transformation of the next window, prepared ahead
+  //
+  private CompletableFuture<PreparedSubtrans> nextPrepared;
+
   public SubtransExecutor( String subTransName, Trans parentTrans, TransMeta subtransMeta, boolean shareVariables,
                            TransExecutorParameters parameters, String subStep, int prefetchCount ) {
     this.subTransName = subTransName;
@@ -104,6 +115,190 @@ public class SubtransExecutor {
     return Optional.of( subtransResult );
   }
 
+  /**
+   * Starts a run of the sub-transformation for one window of a stream, see {@link StreamingRun}.
+   *
+   * @return the run, the sub-transformation starts with the first row
+   */
+  public StreamingRun startStreamingRun() {
+    return new StreamingRun();
+  }
+
+  /**
+   * A run of the sub-transformation for one window of a stream. The rows of the window are injected in the "Get records
+   * from stream" step as they arrive, instead of once the window is complete. The end of the window is the end of that
+   * step's input: it flows through every row set of the sub-transformation, so steps that hold on to rows (sorts,
+   * aggregates, joins) pass them on, and the sub-transformation only finishes once every row of the window is done
+   * with. Only then are the rows of the window committed or acknowledged.<br>
+   * The sub-transformation of the next window is prepared while this one runs, unless parameters take their value from
+   * a field of the first row. Parameters that take their value from a field are set from the first row only.
+   */
+  public class StreamingRun {
+    private PreparedSubtrans prepared;
+    private int rows;
+
+    /**
+     * Passes a row on to the sub-transformation, starting it for the first row.
+     *
+     * @param row the row to inject
+     * @throws KettleException in case the sub-transformation can't be started
+     */
+    public void putRow( RowMetaAndData row ) throws KettleException {
+      rows++;
+      if ( stopped ) {
+        return;
+      }
+      if ( prepared == null ) {
+        prepared = startPrepared( row );
+      }
+      while ( !prepared.rowProducer.putRowWait( row.getRowMeta(), row.getData(), 100, TimeUnit.MILLISECONDS ) ) {
+        if ( stopped || prepared.trans.isFinishedOrStopped() ) {
+          return;
+        }
+      }
+    }
+
+    /**
+     * Ends the window and waits until the sub-transformation finished with its rows.
+     *
+     * @return the result with the rows the result step wrote or empty if there were no rows or the sub-transformation
+     * was stopped
+     */
+    public Optional<Result> finish() {
+      try {
+        if ( prepared == null ) {
+          return Optional.empty();
+        }
+        Trans subtrans = prepared.trans;
+        prepared.rowProducer.finished();
+        subtrans.waitUntilFinished();
+        updateStatuses( subtrans );
+        deregister( subtrans );
+        if ( stopped ) {
+          return Optional.empty();
+        }
+        Result result = subtrans.getResult();
+        synchronized ( prepared.output ) {
+          result.setRows( new ArrayList<>( prepared.output ) );
+        }
+        return Optional.of( result );
+      } finally {
+        releaseBufferPermits( rows );
+      }
+    }
+  }
+
+  /**
+   * A sub-transformation that is prepared for the rows of a window, but not started yet
+   */
+  private static final class PreparedSubtrans {
+    private final Trans trans;
+    private final RowProducer rowProducer;
+    private final List<RowMetaAndData> output = new ArrayList<>();
+
+    private PreparedSubtrans( Trans trans, RowProducer rowProducer ) {
+      this.trans = trans;
+      this.rowProducer = rowProducer;
+    }
+  }
+
+  private synchronized PreparedSubtrans startPrepared( RowMetaAndData firstRow ) throws KettleException {
+    PreparedSubtrans prepared = takeNextPrepared();
+    if ( prepared == null ) {
+      prepared = prepareStreaming( firstRow );
+    }
+    running.add( prepared.trans );
+    parentTrans.addActiveSubTransformation( subTransName, prepared.trans );
+    prepared.trans.startThreads();
+
+    // Get the sub-transformation of the next window ready while this one runs
+    //
+    if ( !hasFieldParameters() ) {
+      nextPrepared = CompletableFuture.supplyAsync( () -> {
+        try {
+          return prepareStreaming( null );
+        } catch ( KettleException e ) {
+          throw new CompletionException( e );
+        }
+      }, runnable -> Schedulers.io().scheduleDirect( runnable ) );
+    }
+    return prepared;
+  }
+
+  private PreparedSubtrans takeNextPrepared() {
+    CompletableFuture<PreparedSubtrans> future = nextPrepared;
+    nextPrepared = null;
+    if ( future == null ) {
+      return null;
+    }
+    try {
+      return future.join();
+    } catch ( CompletionException | CancellationException e ) {
+      // Prepared again for the first row, which reports the error
+      return null;
+    }
+  }
+
+  /**
+   * @param firstRow the row parameters take their value from, null if no parameter takes its value from a field
+   */
+  private PreparedSubtrans prepareStreaming( RowMetaAndData firstRow ) throws KettleException {
+    StepMeta injectStepMeta = subtransMeta.getSteps().stream()
+      .filter( stepMeta -> stepMeta.getStepMetaInterface() instanceof RecordsFromStreamMeta )
+      .findFirst()
+      .orElseThrow( () -> new KettleException(
+        BaseMessages.getString( PKG, "SubtransExecutor.Exception.NoRecordsFromStreamStep" ) ) );
+
+    Trans subtrans = this.createSubtrans();
+    passParametersToTrans( subtrans, firstRow );
+    subtrans.setPreviousResult( new Result() );
+    subtrans.prepareExecution( this.parentTrans.getArguments() );
+
+    PreparedSubtrans prepared =
+      new PreparedSubtrans( subtrans, subtrans.addRowProducer( injectStepMeta.getName(), 0 ) );
+    subtrans.getSteps().stream()
+      .filter( c -> c.step.getStepname().equalsIgnoreCase( subStep ) )
+      .findFirst()
+      .ifPresent( c -> c.step.addRowListener( new RowAdapter() {
+        @Override public void rowWrittenEvent( RowMetaInterface rowMeta, Object[] row ) {
+          synchronized ( prepared.output ) {
+            prepared.output.add( new RowMetaAndData( rowMeta, row ) );
+          }
+        }
+      } ) );
+    return prepared;
+  }
+
+  private boolean hasFieldParameters() {
+    for ( String field : this.parameters.getField() ) {
+      if ( !Utils.isEmpty( field ) ) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private synchronized void deregister( Trans subtrans ) {
+    running.remove( subtrans );
+    if ( parentTrans.getActiveSubTransformation( subTransName ) == subtrans ) {
+      parentTrans.removeActiveSubTransformation( subTransName );
+    }
+  }
+
+  /**
+   * Throws away the sub-transformation prepared for the next window of a stream, once the stream ended.
+   */
+  public void finishContinuous() {
+    CompletableFuture<PreparedSubtrans> future;
+    synchronized ( this ) {
+      future = nextPrepared;
+      nextPrepared = null;
+    }
+    if ( future != null ) {
+      future.thenAccept( prepared -> prepared.trans.cleanup() );
+    }
+  }
+
   private synchronized void updateStatuses( Trans subtrans ) {
     List<StepMetaDataCombi> steps = subtrans.getSteps();
     for ( StepMetaDataCombi combi : steps ) {
@@ -170,6 +365,7 @@ public class SubtransExecutor {
 
   public void stop() {
     stopped = true;
+    finishContinuous();
     for ( Trans subTrans : running ) {
       subTrans.stopAll();
     }
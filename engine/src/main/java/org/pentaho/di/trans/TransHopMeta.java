@@ -14,6 +14,7 @@
 package org.pentaho.di.trans;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 import org.pentaho.di.base.BaseHopMeta;
@@ -71,6 +72,30 @@ public class TransHopMeta extends BaseHopMeta<StepMeta> implements Comparable<Tr
     }
   }
 
+  /**
+   * Loads a hop, looking up the source and target steps in a map of steps by name. The map needs to be case
+   * insensitive, e.g. a TreeMap using {@link String#CASE_INSENSITIVE_ORDER}.
+   *
+   * @param hopnode the hop XML node
+   * @param stepsByName the steps of the transformation by name
+   * @throws KettleXMLException in case the hop can't be loaded
+   */
+  public TransHopMeta( Node hopnode, Map<String, StepMeta> stepsByName ) throws KettleXMLException {
+    try {
+      this.from = searchStep( stepsByName, XMLHandler.getTagValue( hopnode, TransHopMeta.XML_FROM_TAG ) );
+      this.to = searchStep( stepsByName, XMLHandler.getTagValue( hopnode, TransHopMeta.XML_TO_TAG ) );
+      String en = XMLHandler.getTagValue( hopnode, "enabled" );
+
+      if ( en == null ) {
+        enabled = true;
+      } else {
+        enabled = en.equalsIgnoreCase( "Y" );
+      }
+    } catch ( Exception e ) {
+      throw new KettleXMLException( BaseMessages.getString( PKG, "TransHopMeta.Exception.UnableToLoadHopInfo" ), e );
+    }
+  }
+
   public void setFromStep( StepMeta from ) {
     this.from = from;
   }
@@ -87,6 +112,10 @@ public class TransHopMeta extends BaseHopMeta<StepMeta> implements Comparable<Tr
     return this.to;
   }
 
+  private StepMeta searchStep( Map<String, StepMeta> stepsByName, String name ) {
+    return name == null ? null : stepsByName.get( name );
+  }
+
   private StepMeta searchStep( List<StepMeta> steps, String name ) {
     for ( StepMeta stepMeta : steps ) {
       if ( stepMeta.getName().equalsIgnoreCase( name ) ) {
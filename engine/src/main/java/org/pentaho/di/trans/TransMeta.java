@@ -127,6 +127,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.builder.HashCodeBuilder;
@@ -135,7 +136,6 @@ import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileSystemException;
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
 
 /**
  * This class defines information about a transformation and offers methods to save and load it from XML or a PDI
@@ -3385,13 +3385,24 @@ public class TransMeta extends AbstractMeta
         }
 
         // Handle Steps
-        int s = XMLHandler.countNodes( transnode, StepMeta.XML_TAG );
+        // The steps are indexed by name so that duplicates and hops can be resolved without scanning the list of
+        // steps over and over again: that gets quadratic for transformations with thousands of steps.
+        //
+        Map<String, StepMeta> stepsByName = new TreeMap<>( String.CASE_INSENSITIVE_ORDER );
+        for ( StepMeta stepMeta : steps ) {
+          if ( stepMeta.getName() != null ) {
+            stepsByName.putIfAbsent( stepMeta.getName(), stepMeta );
+          }
+        }
+
+        List<Node> stepnodes = XMLHandler.getNodes( transnode, StepMeta.XML_TAG );
+        int s = stepnodes.size();
 
         if ( log.isDebug() ) {
           log.logDebug( BaseMessages.getString( PKG, "TransMeta.Log.ReadingSteps" ) + s + " steps..." );
         }
         for ( int i = 0; i < s; i++ ) {
-          Node stepnode = XMLHandler.getSubNodeByNr( transnode, StepMeta.XML_TAG, i );
+          Node stepnode = stepnodes.get( i );
 
           if ( log.isDebug() ) {
             log.logDebug( BaseMessages.getString( PKG, "TransMeta.Log.LookingAtStep" ) + i );
@@ -3407,7 +3418,7 @@ public class TransMeta extends AbstractMeta
           // If so, then we will keep the shared version, not this one.
           // The stored XML is only for backup purposes.
           //
-          StepMeta check = findStep( stepMeta.getName() );
+          StepMeta check = stepMeta.getName() == null ? null : stepsByName.get( stepMeta.getName() );
           if ( check != null ) {
             if ( !check.isShared() ) {
               // Don't overwrite shared objects
@@ -3419,6 +3430,9 @@ public class TransMeta extends AbstractMeta
             }
           } else {
             addStep( stepMeta ); // simply add it.
+            if ( stepMeta.getName() != null ) {
+              stepsByName.put( stepMeta.getName(), stepMeta );
+            }
           }
         }
 
@@ -3447,7 +3461,9 @@ public class TransMeta extends AbstractMeta
         // Handle Hops
         //
         Node ordernode = XMLHandler.getSubNode( transnode, XML_TAG_ORDER );
-        n = XMLHandler.countNodes( ordernode, TransHopMeta.XML_HOP_TAG );
+        List<Node> hopnodes = XMLHandler.getNodes( ordernode, TransHopMeta.XML_HOP_TAG );
+        n = hopnodes.size();
+        Set<String> errorHops = getErrorHops( errorHandlingNode );
 
         if ( log.isDebug() ) {
           log.logDebug( BaseMessages.getString( PKG, "TransMeta.Log.WeHaveHops" ) + n + " hops..." );
@@ -3456,10 +3472,12 @@ public class TransMeta extends AbstractMeta
           if ( log.isDebug() ) {
             log.logDebug( BaseMessages.getString( PKG, "TransMeta.Log.LookingAtHop" ) + i );
           }
-          Node hopnode = XMLHandler.getSubNodeByNr( ordernode, TransHopMeta.XML_HOP_TAG, i );
+          Node hopnode = hopnodes.get( i );
 
-          TransHopMeta hopinf = new TransHopMeta( hopnode, steps );
-          hopinf.setErrorHop( isErrorNode( errorHandlingNode, hopnode ) );
+          TransHopMeta hopinf = new TransHopMeta( hopnode, stepsByName );
+          hopinf.setErrorHop( errorHops.contains( getErrorHopKey(
+            XMLHandler.getSubNode( hopnode, TransHopMeta.XML_FROM_TAG ),
+            XMLHandler.getSubNode( hopnode, TransHopMeta.XML_TO_TAG ) ) ) );
           addTransHop( hopinf );
         }
 
@@ -3967,37 +3985,29 @@ public class TransMeta extends AbstractMeta
 
   }
 
-  private boolean isErrorNode( Node errorHandingNode, Node checkNode ) {
-    if ( errorHandingNode != null ) {
-      NodeList errors = errorHandingNode.getChildNodes();
-
-      Node nodeHopFrom = XMLHandler.getSubNode( checkNode, TransHopMeta.XML_FROM_TAG );
-      Node nodeHopTo = XMLHandler.getSubNode( checkNode, TransHopMeta.XML_TO_TAG );
-
-      int i = 0;
-      while ( i < errors.getLength() ) {
-
-        Node errorNode = errors.item( i );
-
-        if ( !StepErrorMeta.XML_ERROR_TAG.equals( errorNode.getNodeName() ) ) {
-          i++;
-          continue;
-        }
-
-        Node errorSourceNode = XMLHandler.getSubNode( errorNode, StepErrorMeta.XML_SOURCE_STEP_TAG );
-        Node errorTagetNode = XMLHandler.getSubNode( errorNode, StepErrorMeta.XML_TARGET_STEP_TAG );
-
-        String sourceContent = errorSourceNode.getTextContent().trim();
-        String tagetContent = errorTagetNode.getTextContent().trim();
-
-        if ( sourceContent.equals( nodeHopFrom.getTextContent().trim() )
-            && tagetContent.equals( nodeHopTo.getTextContent().trim() ) ) {
-          return true;
-        }
-        i++;
+  /**
+   * Collects the source and target step names of all the error handling definitions so that every hop can be checked
+   * with a single lookup.
+   *
+   * @param errorHandingNode the step error handling node, can be null
+   * @return the keys of the error hops, see {@link #getErrorHopKey(Node, Node)}
+   */
+  private Set<String> getErrorHops( Node errorHandingNode ) {
+    Set<String> errorHops = new HashSet<>();
+    for ( Node errorNode : XMLHandler.getNodes( errorHandingNode, StepErrorMeta.XML_ERROR_TAG ) ) {
+      if ( StepErrorMeta.XML_ERROR_TAG.equals( errorNode.getNodeName() ) ) {
+        errorHops.add( getErrorHopKey(
+          XMLHandler.getSubNode( errorNode, StepErrorMeta.XML_SOURCE_STEP_TAG ),
+          XMLHandler.getSubNode( errorNode, StepErrorMeta.XML_TARGET_STEP_TAG ) ) );
       }
     }
-    return false;
+    return errorHops;
+  }
+
+  private static String getErrorHopKey( Node fromNode, Node toNode ) {
+    String from = fromNode == null ? "" : fromNode.getTextContent().trim();
+    String to = toNode == null ? "" : toNode.getTextContent().trim();
+    return from + '\u0000' + to;
   }
 
   /**
@@ -144,6 +144,10 @@ public class Calculator extends BaseStep implements StepInterface {
       for ( int i = 0; i < data.getTempIndexes().length; i++ ) {
         data.getTempIndexes()[i] = tempIndexes.get( i );
       }
+
+      // Compile the calculations for the metadata of the rows
+      data.setPlan( CalculatorPlan.compile( meta.getCalculation(), data.getCalcRowMeta(), getInputRowMeta().size(),
+        data.getFieldIndexes(), data.getTempIndexes() ) );
     }
 
     if ( log.isRowLevel() ) {
@@ -189,10 +193,15 @@ public class Calculator extends BaseStep implements StepInterface {
           KettleFileNotFoundException {
     // First copy the input data to the new result...
     Object[] calcData = RowDataUtil.resizeArray( r, data.getCalcRowMeta().size() );
+    CalculatorPlan plan = data.getPlan();
 
     for ( int i = 0, index = inputRowMeta.size() + i; i < meta.getCalculation().length; i++, index++ ) {
       CalculatorMetaFunction fn = meta.getCalculation()[i];
-      if ( !Utils.isEmpty( fn.getFieldName() ) ) {
+      CalculatorPlan.Operation operation = plan.getOperation( i );
+      if ( operation != null ) {
+        // arithmetic on primitive values, of the type of the target field
+        operation.evaluate( calcData );
+      } else if ( !Utils.isEmpty( fn.getFieldName() ) ) {
         ValueMetaInterface targetMeta = data.getCalcRowMeta().getValueMeta( index );
 
         // Get the metadata & the data...
@@ -204,10 +213,7 @@ public class Calculator extends BaseStep implements StepInterface {
           metaA = data.getCalcRowMeta().getValueMeta( data.getFieldIndexes()[ i ].indexA );
           dataA = metaA.convertToNormalStorageType( calcData[ data.getFieldIndexes()[i].indexA] );
           // We changed the storage type of the data and, thus, we need meta to have that information
-          // We can't change the original meta as it refers to the original data!
-          // So we clone and change the new one.
-          metaA = metaA.clone();
-          metaA.setStorageType( ValueMetaInterface.STORAGE_TYPE_NORMAL );
+          metaA = plan.getNormalMeta( data.getFieldIndexes()[ i ].indexA );
         }
 
         ValueMetaInterface metaB = null;
@@ -217,10 +223,7 @@ public class Calculator extends BaseStep implements StepInterface {
           metaB = data.getCalcRowMeta().getValueMeta( data.getFieldIndexes()[ i ].indexB );
           dataB = metaB.convertToNormalStorageType( calcData[ data.getFieldIndexes()[i].indexB] );
           // We changed the storage type of the data and, thus, we need meta to have that information
-          // We can't change the original meta as it refers to the original data!
-          // So we clone and change the new one.
-          metaB = metaB.clone();
-          metaB.setStorageType( ValueMetaInterface.STORAGE_TYPE_NORMAL );
+          metaB = plan.getNormalMeta( data.getFieldIndexes()[ i ].indexB );
         }
 
         ValueMetaInterface metaC = null;
@@ -0,0 +1,317 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.calculator;
+
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.core.util.Utils;
+
+/**
+ * The calculations of a Calculator step compiled once for the metadata of the rows.<br>
+ * Arithmetic on Integer or Number fields of a single type is evaluated by operations on primitive values, which don't
+ * need to look at the metadata again. A temporary field that is only used by such operations after it's calculated is
+ * kept unboxed and never stored in the row. The other calculations are evaluated by {@link Calculator}, with the
+ * normal storage metadata of the fields prepared here.
+ */
+public class CalculatorPlan {
+
+  private final ValueMetaInterface[] normalMetas;
+  private final Operation[] operations;
+
+  private final long[] longs;
+  private final double[] doubles;
+  private final boolean[] nulls;
+
+  private CalculatorPlan( RowMetaInterface calcRowMeta, int functions ) {
+    int size = calcRowMeta.size();
+    normalMetas = new ValueMetaInterface[ size ];
+    for ( int i = 0; i < size; i++ ) {
+      // We can't change the original meta as it refers to the original data, so we clone and change the new one.
+      normalMetas[ i ] = calcRowMeta.getValueMeta( i ).clone();
+      normalMetas[ i ].setStorageType( ValueMetaInterface.STORAGE_TYPE_NORMAL );
+    }
+    operations = new Operation[ functions ];
+    longs = new long[ size ];
+    doubles = new double[ size ];
+    nulls = new boolean[ size ];
+  }
+
+  /**
+   * @param functions    the calculations
+   * @param calcRowMeta  the metadata of the input fields followed by the calculated fields
+   * @param inputSize    the number of input fields
+   * @param indexes      the indexes of the arguments of the calculations
+   * @param tempIndexes  the indexes of the calculated fields that are removed from the result
+   */
+  public static CalculatorPlan compile( CalculatorMetaFunction[] functions, RowMetaInterface calcRowMeta,
+                                        int inputSize, Calculator.FieldIndexes[] indexes, int[] tempIndexes ) {
+    CalculatorPlan plan = new CalculatorPlan( calcRowMeta, functions.length );
+    int[] types = new int[ functions.length ];
+    for ( int i = 0; i < functions.length; i++ ) {
+      types[ i ] = getPrimitiveType( functions[ i ], calcRowMeta, inputSize + i, indexes[ i ] );
+    }
+
+    // a temporary field stays unboxed when only later primitive operations use it
+    boolean[] unboxed = new boolean[ calcRowMeta.size() ];
+    for ( int tempIndex : tempIndexes ) {
+      int producer = tempIndex - inputSize;
+      if ( types[ producer ] == ValueMetaInterface.TYPE_NONE ) {
+        continue;
+      }
+      boolean primitiveUsesOnly = true;
+      for ( int i = 0; i < functions.length && primitiveUsesOnly; i++ ) {
+        if ( uses( indexes[ i ], tempIndex ) ) {
+          primitiveUsesOnly = i > producer && types[ i ] != ValueMetaInterface.TYPE_NONE;
+        }
+      }
+      unboxed[ tempIndex ] = primitiveUsesOnly;
+    }
+
+    for ( int i = 0; i < functions.length; i++ ) {
+      if ( types[ i ] != ValueMetaInterface.TYPE_NONE ) {
+        Calculator.FieldIndexes fieldIndexes = indexes[ i ];
+        int target = inputSize + i;
+        int calcType = functions[ i ].getCalcType();
+        int a = fieldIndexes.indexA;
+        // the square is A * A
+        int b = calcType == CalculatorMetaFunction.CALC_SQUARE ? a : fieldIndexes.indexB;
+        int c = fieldIndexes.indexC;
+        if ( types[ i ] == ValueMetaInterface.TYPE_INTEGER ) {
+          plan.operations[ i ] = plan.new LongOperation( calcType, target, !unboxed[ target ], a, b, c, unboxed );
+        } else {
+          plan.operations[ i ] = plan.new DoubleOperation( calcType, target, !unboxed[ target ], a, b, c, unboxed );
+        }
+      }
+    }
+    return plan;
+  }
+
+  /**
+   * @return the type of the primitive operation for the calculation, {@link ValueMetaInterface#TYPE_NONE} if it can't
+   * be evaluated on primitive values
+   */
+  private static int getPrimitiveType( CalculatorMetaFunction function, RowMetaInterface calcRowMeta, int target,
+                                       Calculator.FieldIndexes indexes ) {
+    if ( Utils.isEmpty( function.getFieldName() ) ) {
+      return ValueMetaInterface.TYPE_NONE;
+    }
+    int arguments;
+    switch ( function.getCalcType() ) {
+      case CalculatorMetaFunction.CALC_SQUARE:
+        arguments = 1;
+        break;
+      case CalculatorMetaFunction.CALC_ADD:
+      case CalculatorMetaFunction.CALC_SUBTRACT:
+      case CalculatorMetaFunction.CALC_MULTIPLY:
+      case CalculatorMetaFunction.CALC_DIVIDE:
+        arguments = 2;
+        break;
+      case CalculatorMetaFunction.CALC_COMBINATION_1:
+        arguments = 3;
+        break;
+      default:
+        return ValueMetaInterface.TYPE_NONE;
+    }
+    int[] argumentIndexes = { indexes.indexA, indexes.indexB, indexes.indexC };
+    int type = calcRowMeta.getValueMeta( target ).getType();
+    if ( type != ValueMetaInterface.TYPE_INTEGER && type != ValueMetaInterface.TYPE_NUMBER ) {
+      return ValueMetaInterface.TYPE_NONE;
+    }
+    for ( int i = 0; i < arguments; i++ ) {
+      if ( argumentIndexes[ i ] < 0 ) {
+        return ValueMetaInterface.TYPE_NONE;
+      }
+      // the arguments need the type of the result, otherwise they are converted
+      ValueMetaInterface argumentMeta = calcRowMeta.getValueMeta( argumentIndexes[ i ] );
+      if ( argumentMeta.getType() != type || argumentMeta.getStorageType() != ValueMetaInterface.STORAGE_TYPE_NORMAL ) {
+        return ValueMetaInterface.TYPE_NONE;
+      }
+    }
+    return type;
+  }
+
+  private static boolean uses( Calculator.FieldIndexes indexes, int index ) {
+    return indexes.indexA == index || indexes.indexB == index || indexes.indexC == index;
+  }
+
+  /**
+   * @param index the index of a field in the calculation row
+   * @return the metadata of the field with normal storage
+   */
+  public ValueMetaInterface getNormalMeta( int index ) {
+    return normalMetas[ index ];
+  }
+
+  /**
+   * @param function the index of a calculation
+   * @return the operation on primitive values, <code>null</code> if the calculation is evaluated by the step
+   */
+  public Operation getOperation( int function ) {
+    return operations[ function ];
+  }
+
+  /**
+   * A calculation on primitive values.
+   */
+  public abstract class Operation {
+    final int calcType;
+    final int target;
+    final boolean boxed;
+    final int a;
+    final int b;
+    final int c;
+    final boolean unboxedA;
+    final boolean unboxedB;
+    final boolean unboxedC;
+
+    Operation( int calcType, int target, boolean boxed, int a, int b, int c, boolean[] unboxed ) {
+      this.calcType = calcType;
+      this.target = target;
+      this.boxed = boxed;
+      this.a = a;
+      this.b = b;
+      this.c = c;
+      unboxedA = unboxed[ a ];
+      unboxedB = b >= 0 && unboxed[ b ];
+      unboxedC = c >= 0 && unboxed[ c ];
+    }
+
+    /**
+     * Calculates the field of the row.
+     */
+    public abstract void evaluate( Object[] row );
+
+    final boolean isNull( Object[] row, int index, boolean unboxed ) {
+      return unboxed ? nulls[ index ] : row[ index ] == null;
+    }
+
+    /**
+     * @return if one of the arguments is null, the result is then null as well
+     */
+    final boolean hasNullArgument( Object[] row ) {
+      if ( isNull( row, a, unboxedA ) ) {
+        return true;
+      }
+      if ( calcType == CalculatorMetaFunction.CALC_SQUARE ) {
+        return false;
+      }
+      if ( isNull( row, b, unboxedB ) ) {
+        return true;
+      }
+      return calcType == CalculatorMetaFunction.CALC_COMBINATION_1 && isNull( row, c, unboxedC );
+    }
+
+    final void setNull( Object[] row ) {
+      nulls[ target ] = true;
+      if ( boxed ) {
+        row[ target ] = null;
+      }
+    }
+
+    /**
+     * @return if the result is stored in the row, otherwise it's only kept for the next operations
+     */
+    public boolean isBoxed() {
+      return boxed;
+    }
+  }
+
+  class LongOperation extends Operation {
+    LongOperation( int calcType, int target, boolean boxed, int a, int b, int c, boolean[] unboxed ) {
+      super( calcType, target, boxed, a, b, c, unboxed );
+    }
+
+    private long get( Object[] row, int index, boolean unboxed ) {
+      return unboxed ? longs[ index ] : (Long) row[ index ];
+    }
+
+    @Override
+    public void evaluate( Object[] row ) {
+      if ( hasNullArgument( row ) ) {
+        setNull( row );
+        return;
+      }
+      long valueA = get( row, a, unboxedA );
+      long valueB = get( row, b, unboxedB );
+      long result;
+      switch ( calcType ) {
+        case CalculatorMetaFunction.CALC_ADD:
+          result = valueA + valueB;
+          break;
+        case CalculatorMetaFunction.CALC_SUBTRACT:
+          result = valueA - valueB;
+          break;
+        case CalculatorMetaFunction.CALC_DIVIDE:
+          result = valueA / valueB;
+          break;
+        case CalculatorMetaFunction.CALC_COMBINATION_1:
+          result = valueA + valueB * get( row, c, unboxedC );
+          break;
+        default:
+          // multiply and square
+          result = valueA * valueB;
+          break;
+      }
+      longs[ target ] = result;
+      nulls[ target ] = false;
+      if ( boxed ) {
+        row[ target ] = result;
+      }
+    }
+  }
+
+  class DoubleOperation extends Operation {
+    DoubleOperation( int calcType, int target, boolean boxed, int a, int b, int c, boolean[] unboxed ) {
+      super( calcType, target, boxed, a, b, c, unboxed );
+    }
+
+    private double get( Object[] row, int index, boolean unboxed ) {
+      return unboxed ? doubles[ index ] : (Double) row[ index ];
+    }
+
+    @Override
+    public void evaluate( Object[] row ) {
+      if ( hasNullArgument( row ) ) {
+        setNull( row );
+        return;
+      }
+      double valueA = get( row, a, unboxedA );
+      double valueB = get( row, b, unboxedB );
+      double result;
+      switch ( calcType ) {
+        case CalculatorMetaFunction.CALC_ADD:
+          result = valueA + valueB;
+          break;
+        case CalculatorMetaFunction.CALC_SUBTRACT:
+          result = valueA - valueB;
+          break;
+        case CalculatorMetaFunction.CALC_DIVIDE:
+          result = valueA / valueB;
+          break;
+        case CalculatorMetaFunction.CALC_COMBINATION_1:
+          result = valueA + valueB * get( row, c, unboxedC );
+          break;
+        default:
+          // multiply and square
+          result = valueA * valueB;
+          break;
+      }
+      doubles[ target ] = result;
+      nulls[ target ] = false;
+      if ( boxed ) {
+        row[ target ] = result;
+      }
+    }
+  }
+}
@@ -347,11 +347,26 @@ public class CsvInput extends BaseStep implements StepInterface {
       }
 
       data.fc = data.fis.getChannel();
-      data.bb = ByteBuffer.allocateDirect( data.preferredBufferSize );
+      data.scanner = null;
+
+      if ( isMemoryMappable() ) {
+        // Map the file and let the scanner split it in rows and fields.
+        // If we are running in parallel and we need to skip bytes in the first file, the scanner starts there.
+        //
+        boolean skipBytes = data.parallel && data.bytesToSkipInFirstFile > 0;
+        boolean mixedFormat = getFileFormatTypeNr() == TextFileInputMeta.FILE_FORMAT_MIXED;
+        data.scanner = new CsvScanner( data.fc, skipBytes ? data.bytesToSkipInFirstFile : bomSize, data.delimiter[ 0 ],
+          data.enclosure, meta.isNewlinePossibleInFields(), mixedFormat, data.fieldsMapping.size() );
+        if ( skipBytes ) {
+          data.totalBytesRead += data.scanner.skipPartialRow();
+        }
+      } else {
+        data.bb = ByteBuffer.allocateDirect( data.preferredBufferSize );
+      }
 
       // If we are running in parallel and we need to skip bytes in the first file, let's do so here.
       //
-      if ( data.parallel ) {
+      if ( data.parallel && data.scanner == null ) {
         if ( data.bytesToSkipInFirstFile > 0 ) {
           data.fc.position( data.bytesToSkipInFirstFile );
 
@@ -505,6 +520,22 @@ public class CsvInput extends BaseStep implements StepInterface {
     }
   }
 
+  private int getFileFormatTypeNr() {
+    return StringUtils.isBlank( meta.getFileFormat() ) ? TextFileInputMeta.FILE_FORMAT_MIXED
+      : meta.getFileFormatTypeNr();
+  }
+
+  /**
+   * Files are memory mapped and scanned with {@link CsvScanner} if the encoding, the delimiter and the enclosure are
+   * all single byte. The DOS file format, which checks the line ends, is always read through the buffer.
+   */
+  private boolean isMemoryMappable() {
+    return "Y".equalsIgnoreCase( getVariable( Const.KETTLE_CSV_INPUT_MEMORY_MAPPED, "Y" ) )
+      && data.encodingType == EncodingType.SINGLE && data.delimiter.length == 1
+      && ( data.enclosure == null || data.enclosure.length == 1 )
+      && getFileFormatTypeNr() != TextFileInputMeta.FILE_FORMAT_DOS;
+  }
+
   /**
    * We need to skip row only if a line, that we are currently on is read by the previous step <b>partly</b>.
    * In other words, we DON'T skip a line if we are just beginning to read it from the first symbol.
@@ -559,6 +590,9 @@ public class CsvInput extends BaseStep implements StepInterface {
    * @throws KettleException
    */
   private Object[] readOneRow( boolean skipRow, boolean ignoreEnclosures ) throws KettleException {
+    if ( data.scanner != null ) {
+      return readOneMappedRow( skipRow );
+    }
 
     try {
 
@@ -861,6 +895,83 @@ public class CsvInput extends BaseStep implements StepInterface {
   }
 
 
+  /**
+   * Read a single row of data from a memory mapped file: the scanner splits the row in fields, only the fields we
+   * need are copied.
+   *
+   * @param skipRow if row should be skipped: header row
+   * @return a row of data or null if the end of the file is reached
+   * @throws KettleException
+   */
+  private Object[] readOneMappedRow( boolean skipRow ) throws KettleException {
+    CsvScanner scanner = data.scanner;
+    long position = scanner.getPosition();
+    try {
+      if ( !scanner.nextRow() ) {
+        return null; // nothing more to read, call it a day.
+      }
+    } catch ( IOException e ) {
+      throw new KettleFileException( "Exception reading line from memory mapped file", e );
+    }
+    data.totalBytesRead += scanner.getPosition() - position;
+
+    Object[] outputRowData = RowDataUtil.allocateRowData( data.outputRowMeta.size() );
+    List<Exception> conversionExceptions = null;
+    List<ValueMetaInterface> exceptionFields = null;
+
+    for ( int i = 0; i < scanner.getNrFields() && !skipRow; i++ ) {
+      final int actualFieldIndex = data.fieldsMapping.fieldMetaIndex( i );
+      if ( actualFieldIndex == FieldsMapping.FIELD_DOES_NOT_EXIST ) {
+        continue;
+      }
+      byte[] field = scanner.getField( i );
+      if ( meta.isLazyConversionActive() ) {
+        outputRowData[ actualFieldIndex ] = field;
+      } else {
+        ValueMetaInterface sourceValueMeta = data.convertRowMeta.getValueMeta( actualFieldIndex );
+        try {
+          outputRowData[ actualFieldIndex ] = sourceValueMeta.convertBinaryStringToNativeType( field );
+        } catch ( KettleValueException e ) {
+          // There was a conversion error,
+          //
+          outputRowData[ actualFieldIndex ] = null;
+
+          if ( conversionExceptions == null ) {
+            conversionExceptions = new ArrayList<>();
+            exceptionFields = new ArrayList<>();
+          }
+
+          conversionExceptions.add( e );
+          exceptionFields.add( sourceValueMeta );
+        }
+      }
+    }
+
+    // Optionally add the current filename to the mix as well...
+    //
+    if ( meta.isIncludingFilename() && !Utils.isEmpty( meta.getFilenameField() ) ) {
+      if ( meta.isLazyConversionActive() ) {
+        outputRowData[ data.filenameFieldIndex ] = data.binaryFilename;
+      } else {
+        outputRowData[ data.filenameFieldIndex ] = data.filenames[ data.filenr - 1 ];
+      }
+    }
+
+    if ( data.isAddingRowNumber ) {
+      outputRowData[ data.rownumFieldIndex ] = data.rowNumber++;
+    }
+
+    incrementLinesInput();
+
+    if ( conversionExceptions != null ) {
+      throw new KettleConversionException(
+        "There were " + conversionExceptions.size() + " conversion errors on line " + getLinesInput(),
+        conversionExceptions, exceptionFields, outputRowData );
+    }
+
+    return outputRowData;
+  }
+
   public boolean init( StepMetaInterface smi, StepDataInterface sdi ) {
     meta = (CsvInputMeta) smi;
     data = (CsvInputData) sdi;
@@ -74,6 +74,11 @@ public class CsvInputData extends BaseStepData implements StepDataInterface {
 
   public FieldsMapping fieldsMapping;
 
+  /**
+   * Splits the rows of the current file if it is memory mapped, null if the file is read through the buffer.
+   */
+  public CsvScanner scanner;
+
   /**
    * Data class for CsvInput step
    *
@@ -0,0 +1,399 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.csvinput;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Splits the rows of a memory mapped file with a single byte encoding, delimiter and enclosure into fields. The
+ * delimiters and line ends are searched for 8 bytes at a time (SWAR: SIMD within a register), for every row the start
+ * and end offsets of the fields are kept in arrays and a field is only copied out of the mapped file when it's asked
+ * for.
+ * <p>
+ * The rules are the ones of {@link CsvInput}: an enclosure only counts at the start of a field, a doubled enclosure
+ * inside an enclosed field is escaped, newlines end a row except inside the leading fields when newlines are possible
+ * in fields and two newline characters in a row are a single line end.
+ * <p>
+ * Files larger than the mapping window are mapped window by window, a row that crosses the end of a window is read
+ * again from a window starting at that row.
+ */
+public class CsvScanner {
+
+  static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+  private static final long ONES = 0x0101010101010101L;
+  private static final long HIGH_BITS = 0x8080808080808080L;
+  private static final long CR_PATTERN = pattern( (byte) '\r' );
+  private static final long LF_PATTERN = pattern( (byte) '\n' );
+
+  private final FileChannel channel;
+  private final long fileSize;
+  private final byte delimiter;
+  private final long delimiterPattern;
+  private final boolean hasEnclosure;
+  private final byte enclosure;
+  private final long enclosurePattern;
+  private final boolean newlinePossibleInFields;
+  private final boolean mixedFormat;
+  private final int nrFields;
+
+  private MappedByteBuffer buffer;
+  private long windowOffset;
+  private int windowSize;
+  private int limit;
+  private boolean lastWindow;
+  private long position;
+
+  private final int[] fieldStarts;
+  private final int[] fieldEnds;
+  private final int[] fieldEscapes;
+  private int nrFieldsFound;
+
+  /**
+   * @param channel                 the file to read
+   * @param start                   the position of the first row
+   * @param delimiter               the field delimiter
+   * @param enclosure               the enclosure or null if fields are never enclosed
+   * @param newlinePossibleInFields true if only the last field of a row ends at a newline
+   * @param mixedFormat             true to skip a carriage return that follows a delimiter (mixed file format)
+   * @param nrFields                the number of fields to split a row in, the rest of the row is skipped
+   * @throws IOException in case the file can't be mapped
+   */
+  public CsvScanner( FileChannel channel, long start, byte delimiter, byte[] enclosure,
+                     boolean newlinePossibleInFields, boolean mixedFormat, int nrFields ) throws IOException {
+    this( channel, start, delimiter, enclosure, newlinePossibleInFields, mixedFormat, nrFields, DEFAULT_WINDOW_SIZE );
+  }
+
+  CsvScanner( FileChannel channel, long start, byte delimiter, byte[] enclosure, boolean newlinePossibleInFields,
+              boolean mixedFormat, int nrFields, int windowSize ) throws IOException {
+    this.channel = channel;
+    this.fileSize = channel.size();
+    this.delimiter = delimiter;
+    this.delimiterPattern = pattern( delimiter );
+    this.hasEnclosure = enclosure != null && enclosure.length > 0;
+    this.enclosure = hasEnclosure ? enclosure[ 0 ] : 0;
+    this.enclosurePattern = pattern( this.enclosure );
+    this.newlinePossibleInFields = newlinePossibleInFields;
+    this.mixedFormat = mixedFormat;
+    this.nrFields = nrFields;
+    this.fieldStarts = new int[ nrFields ];
+    this.fieldEnds = new int[ nrFields ];
+    this.fieldEscapes = new int[ nrFields ];
+    this.position = Math.min( start, fileSize );
+    map( position, windowSize );
+  }
+
+  private static long pattern( byte b ) {
+    return ( b & 0xFFL ) * ONES;
+  }
+
+  /**
+   * @return a word with the high bit set in every byte of the word that equals the byte of the pattern. Bytes above the
+   * first match may be flagged as well, the lowest flagged byte is always a match.
+   */
+  private static long matches( long word, long pattern ) {
+    long x = word ^ pattern;
+    return ( x - ONES ) & ~x & HIGH_BITS;
+  }
+
+  private static boolean isNewLine( byte b ) {
+    return b == '\r' || b == '\n';
+  }
+
+  private void map( long offset, int size ) throws IOException {
+    long length = Math.min( size, fileSize - offset );
+    buffer = channel.map( FileChannel.MapMode.READ_ONLY, offset, length );
+    buffer.order( ByteOrder.LITTLE_ENDIAN );
+    windowOffset = offset;
+    windowSize = size;
+    limit = (int) length;
+    lastWindow = offset + length >= fileSize;
+  }
+
+  /**
+   * Moves to the start of the next row when reading in parallel starts in the middle of a file: a row is skipped unless
+   * the byte before the start is a line end, with the exception of the middle of a carriage return and line feed.
+   *
+   * @return the number of bytes skipped
+   */
+  public long skipPartialRow() throws IOException {
+    long start = position;
+    if ( start == 0 || start >= fileSize ) {
+      return 0;
+    }
+    boolean previousIsNewLine = isNewLine( byteAt( start - 1 ) );
+    if ( previousIsNewLine && !isNewLine( byteAt( start ) ) ) {
+      return 0;
+    }
+    long p = start;
+    while ( p < fileSize && !isNewLine( byteAt( p ) ) ) {
+      p++;
+    }
+    p++;
+    if ( p < fileSize && isNewLine( byteAt( p ) ) ) {
+      p++;
+    }
+    position = Math.min( p, fileSize );
+    return position - start;
+  }
+
+  private byte byteAt( long p ) throws IOException {
+    if ( p < windowOffset || p >= windowOffset + limit ) {
+      map( p, windowSize );
+    }
+    return buffer.get( (int) ( p - windowOffset ) );
+  }
+
+  /**
+   * Splits the next row in fields.
+   *
+   * @return false if the end of the file is reached
+   * @throws IOException in case the next window of the file can't be mapped
+   */
+  public boolean nextRow() throws IOException {
+    while ( true ) {
+      long rowStart = position - windowOffset;
+      if ( rowStart < 0 || rowStart >= limit ) {
+        if ( position >= fileSize ) {
+          nrFieldsFound = 0;
+          return false;
+        }
+        map( position, windowSize );
+        continue;
+      }
+      int end = parseRow( (int) rowStart );
+      if ( end >= 0 ) {
+        position = windowOffset + Math.min( end, limit );
+        return true;
+      }
+      // The row crosses the end of the window: map the file again from the start of the row, with a larger window if
+      // the row doesn't even fit in a whole window.
+      //
+      map( position, rowStart == 0 ? (int) Math.min( Integer.MAX_VALUE - 8, 2L * windowSize ) : windowSize );
+    }
+  }
+
+  /**
+   * @return the position of the end of the row in the window, -1 if the window ends before the row does
+   */
+  private int parseRow( int p ) {
+    nrFieldsFound = 0;
+    boolean newLineFound = false;
+    while ( !newLineFound && nrFieldsFound < nrFields ) {
+      if ( p >= limit ) {
+        return lastWindow ? limit : -1;
+      }
+      int fieldStart = p;
+      boolean enclosureFound = false;
+      boolean endOfBuffer = false;
+      boolean doubleLineEnd = false;
+      int escapedEnclosures = 0;
+
+      byte first = buffer.get( p );
+      if ( hasEnclosure && first == enclosure && first != delimiter
+        && !( isNewLine( first ) && endsAtNewLine( nrFieldsFound ) ) ) {
+        enclosureFound = true;
+        int q = p + 1;
+        while ( true ) {
+          q = find( q, enclosurePattern, enclosure );
+          if ( q >= limit ) {
+            if ( !lastWindow ) {
+              return -1;
+            }
+            enclosureFound = false;
+            endOfBuffer = true;
+            break;
+          }
+          q++;
+          if ( q >= limit ) {
+            if ( !lastWindow ) {
+              return -1;
+            }
+            endOfBuffer = true;
+            break;
+          }
+          if ( buffer.get( q ) != enclosure ) {
+            break;
+          }
+          escapedEnclosures++;
+          q++;
+        }
+        p = Math.min( q, limit );
+      }
+
+      boolean delimiterFound = false;
+      if ( !endOfBuffer ) {
+        p = endsAtNewLine( nrFieldsFound ) ? findDelimiterOrNewLine( p ) : find( p, delimiterPattern, delimiter );
+        if ( p >= limit ) {
+          if ( !lastWindow ) {
+            return -1;
+          }
+          endOfBuffer = true;
+        } else if ( buffer.get( p ) == delimiter ) {
+          delimiterFound = true;
+        } else {
+          newLineFound = true;
+          p++;
+          if ( p < limit ) {
+            doubleLineEnd = isNewLine( buffer.get( p ) );
+          } else if ( !lastWindow ) {
+            return -1;
+          }
+        }
+      }
+
+      int fieldEnd = newLineFound ? p - 1 : p;
+      if ( enclosureFound ) {
+        fieldStart++;
+        fieldEnd--;
+      }
+      fieldStarts[ nrFieldsFound ] = fieldStart;
+      fieldEnds[ nrFieldsFound ] = Math.max( fieldStart, fieldEnd );
+      fieldEscapes[ nrFieldsFound ] = escapedEnclosures;
+      nrFieldsFound++;
+
+      // Move past the delimiter, or past the second character of a double line end.
+      //
+      if ( ( ( delimiterFound || endOfBuffer ) && nrFieldsFound < nrFields ) || ( newLineFound && doubleLineEnd ) ) {
+        if ( p >= limit || !isNewLine( buffer.get( p ) ) ) {
+          p++;
+        }
+        if ( mixedFormat ) {
+          if ( p < limit ) {
+            if ( doubleLineEnd || buffer.get( p ) == '\r' ) {
+              p++;
+            }
+          } else if ( !lastWindow ) {
+            return -1;
+          }
+        }
+      }
+    }
+
+    // Skip the rest of the row if it has more fields than we need.
+    //
+    if ( !newLineFound && p < limit ) {
+      p = findNewLine( p + 1 );
+      while ( p < limit && isNewLine( buffer.get( p ) ) ) {
+        p++;
+      }
+    }
+    return p >= limit && !lastWindow ? -1 : p;
+  }
+
+  private boolean endsAtNewLine( int fieldIndex ) {
+    return !newlinePossibleInFields || fieldIndex == nrFields - 1;
+  }
+
+  private int find( int p, long pattern, byte b ) {
+    while ( p + 8 <= limit ) {
+      long found = matches( buffer.getLong( p ), pattern );
+      if ( found != 0 ) {
+        return p + ( Long.numberOfTrailingZeros( found ) >>> 3 );
+      }
+      p += 8;
+    }
+    while ( p < limit && buffer.get( p ) != b ) {
+      p++;
+    }
+    return p;
+  }
+
+  private int findNewLine( int p ) {
+    while ( p + 8 <= limit ) {
+      long word = buffer.getLong( p );
+      long found = matches( word, CR_PATTERN ) | matches( word, LF_PATTERN );
+      if ( found != 0 ) {
+        return p + ( Long.numberOfTrailingZeros( found ) >>> 3 );
+      }
+      p += 8;
+    }
+    while ( p < limit && !isNewLine( buffer.get( p ) ) ) {
+      p++;
+    }
+    return p;
+  }
+
+  private int findDelimiterOrNewLine( int p ) {
+    while ( p + 8 <= limit ) {
+      long word = buffer.getLong( p );
+      long found = matches( word, delimiterPattern ) | matches( word, CR_PATTERN ) | matches( word, LF_PATTERN );
+      if ( found != 0 ) {
+        return p + ( Long.numberOfTrailingZeros( found ) >>> 3 );
+      }
+      p += 8;
+    }
+    while ( p < limit ) {
+      byte b = buffer.get( p );
+      if ( b == delimiter || isNewLine( b ) ) {
+        break;
+      }
+      p++;
+    }
+    return p;
+  }
+
+  /**
+   * @return the number of fields of the current row, the fields after it are missing from the row
+   */
+  public int getNrFields() {
+    return nrFieldsFound;
+  }
+
+  /**
+   * @return the position in the file of the next row
+   */
+  public long getPosition() {
+    return position;
+  }
+
+  /**
+   * @return the length in bytes of a field of the current row, escaped enclosures included
+   */
+  public int getFieldLength( int index ) {
+    return fieldEnds[ index ] - fieldStarts[ index ];
+  }
+
+  /**
+   * Copies a field of the current row out of the mapped file, with the escaped enclosures removed.
+   *
+   * @param index the index of the field in the row
+   * @return the bytes of the field
+   */
+  public byte[] getField( int index ) {
+    int start = fieldStarts[ index ];
+    int length = fieldEnds[ index ] - start;
+    int escapes = fieldEscapes[ index ];
+    byte[] field = new byte[ length - escapes ];
+    if ( escapes == 0 ) {
+      // absolute reads leave the position of the shared buffer alone
+      for ( int i = 0; i < length; i++ ) {
+        field[ i ] = buffer.get( start + i );
+      }
+      return field;
+    }
+    int resultIndex = 0;
+    for ( int i = 0; i < length && resultIndex < field.length; i++ ) {
+      byte b = buffer.get( start + i );
+      field[ resultIndex++ ] = b;
+      if ( b == enclosure && i + 1 < length && buffer.get( start + i + 1 ) == enclosure ) {
+        i++;
+      }
+    }
+    return field;
+  }
+}
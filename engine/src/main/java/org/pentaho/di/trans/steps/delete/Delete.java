@@ -73,7 +73,7 @@ public class Delete extends BaseDatabaseStep implements StepInterface {
         .getString( deleteRow ), rowMeta.getString( row ) ) );
     }
 
-    data.db.insertRow( data.prepStatementDelete );
+    data.db.insertRow( data.prepStatementDelete, data.useBatch );
     incrementLinesUpdated();
   }
 
@@ -139,6 +139,13 @@ public class Delete extends BaseDatabaseStep implements StepInterface {
       }
 
       prepareDelete( getInputRowMeta() );
+
+      // Without error handling the deletes don't need to be sent one by one
+      data.useBatch = Const.toInt( getVariable( Const.KETTLE_UPSERT_BATCH_SIZE, "0" ), 0 ) > 1
+        && !getStepMeta().isDoingErrorHandling();
+      if ( data.useBatch && log.isDetailed() ) {
+        logDetailed( BaseMessages.getString( PKG, "Delete.Log.BatchDelete" ) );
+      }
     }
 
     try {
@@ -234,7 +241,11 @@ public class Delete extends BaseDatabaseStep implements StepInterface {
       try {
         if ( !data.db.isAutoCommit() ) {
           if ( getErrors() == 0 ) {
-            data.db.commit();
+            if ( data.useBatch ) {
+              data.db.emptyAndCommit( data.prepStatementDelete, true );
+            } else {
+              data.db.commit();
+            }
           } else {
             data.db.rollback();
           }
@@ -38,6 +38,8 @@ public class DeleteData extends BaseDatabaseStepData implements StepDataInterfac
 
   public PreparedStatement prepStatementDelete;
 
+  public boolean useBatch; // JDBC batches of the commit size
+
   public DeleteData() {
     super();
 
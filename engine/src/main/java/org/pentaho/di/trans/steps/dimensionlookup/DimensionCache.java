@@ -13,12 +13,18 @@
 
 package org.pentaho.di.trans.steps.dimensionlookup;
 
-import java.util.Collections;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.exception.KettleValueException;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.core.row.ValueMetaInterface;
 
@@ -26,19 +32,33 @@ import org.pentaho.di.core.row.ValueMetaInterface;
  * This class will act as a special purpose dimension Cache. The idea here is to not only cache the last version of a
  * dimension entry, but all versions. So basically, the entry key is the natural key as well as the from-to date range.
  *
- * The way to achieve that result is to keep a sorted list in memory. Because we want as few conversion errors as
- * possible, we'll use the same row as we get from the database.
+ * The rows are kept in a hash map on the natural key. Every natural key holds its versions sorted on the start of the
+ * date range, with the date ranges as primitive longs, so a lookup is a hash lookup and a binary search on the start
+ * dates. Because we want as few conversion errors as possible, we'll use the same row as we get from the database.
+ *
+ * The cache can be limited to a number of rows and to an estimated number of bytes. When a limit is exceeded, the
+ * natural keys that were used the longest time ago are removed with all their versions.
  *
  * @author matt
  *
  */
 public class DimensionCache implements Comparator<Object[]> {
+  /**
+   * The estimated number of bytes used by a natural key in the cache, next to the values.
+   */
+  private static final int KEY_OVERHEAD = 120;
+
   private RowMetaInterface rowMeta;
-  private List<Object[]> rowCache;
   private int[] keyIndexes;
   private int fromDateIndex;
   private int toDateIndex;
 
+  private final LinkedHashMap<List<Object>, Versions> versions;
+  private int maximumRows;
+  private long memoryLimit;
+  private int rowCount;
+  private long memoryUsage;
+
   /**
    * Create a new dimension cache object
    *
@@ -56,127 +76,245 @@ public class DimensionCache implements Comparator<Object[]> {
     this.keyIndexes = keyIndexes;
     this.fromDateIndex = fromDateIndex;
     this.toDateIndex = toDateIndex;
+    // In access order, the natural key used the longest time ago comes first
+    versions = new LinkedHashMap<List<Object>, Versions>( 16, 0.75f, true );
   }
 
   /**
-   * Add a row to the back of the list
+   * Add a row with the natural key on the key indexes
    *
    * @param row
    *          the row to add
    */
-  public void addRow( Object[] row ) {
-    rowCache.add( row );
+  public void addRow( Object[] row ) throws KettleValueException {
+    addRow( getKeyValues( row ), row );
   }
 
   /**
-   * Get a row from the cache on a certain index
+   * Add a version of a natural key. A version with the same start of the date range is replaced.
    *
-   * @param index
-   *          the index to look for
-   * @return the row on the specified index
+   * @param keyValues
+   *          the values of the natural key
+   * @param row
+   *          the row to add
    */
-  public Object[] getRow( int index ) {
-    return rowCache.get( index );
+  public void addRow( Object[] keyValues, Object[] row ) throws KettleValueException {
+    List<Object> key = getKey( keyValues );
+    Versions keyVersions = versions.get( key );
+    if ( keyVersions == null ) {
+      keyVersions = new Versions();
+      keyVersions.memory = KEY_OVERHEAD + estimateSize( keyValues );
+      memoryUsage += keyVersions.memory;
+      versions.put( key, keyVersions );
+    }
+    long memoryBefore = keyVersions.memory;
+    int countBefore = keyVersions.count;
+    keyVersions.add( getTime( row, fromDateIndex, Long.MIN_VALUE ), getTime( row, toDateIndex, Long.MAX_VALUE ),
+      row );
+    memoryUsage += keyVersions.memory - memoryBefore;
+    rowCount += keyVersions.count - countBefore;
+
+    removeLeastRecentlyUsed();
   }
 
   /**
-   * Insert a row into the list on a certain index
+   * Looks up a row in the cache.
    *
-   * @param index
-   *          the index on which the row should be inserted
-   * @param row
-   *          the row to add
+   * @param lookupRowData
+   *          The data of the lookup row. Make sure that on the index of the from date, you put the lookup date.
+   * @return the version of the natural key where the lookup date falls in the date range, null if there is none
+   * @throws KettleException
+   *           in case there are conversion errors during the lookup of the row
    */
-  public void addRow( int index, Object[] row ) {
-    rowCache.add( index, row );
+  public Object[] lookupRow( Object[] lookupRowData ) throws KettleException {
+    return lookupRow( getKeyValues( lookupRowData ), rowMeta.getDate( lookupRowData, fromDateIndex ) );
   }
 
   /**
-   * Looks up a row in the (sorted) cache.
+   * Looks up a row in the cache.
    *
-   * @param lookupRowData
-   *          The data of the lookup row. Make sure that on the index of the from date, you put the lookup date.
-   * @throws a
-   *           KettleException in case there are conversion errors during the lookup of the row
+   * @param keyValues
+   *          the values of the natural key
+   * @param lookupDate
+   *          the date to find the version for
+   * @return the version of the natural key where the lookup date falls in the date range, null if there is none
    */
-  public int lookupRow( Object[] lookupRowData ) throws KettleException {
-    try {
-      // First perform the lookup!
-      //
-      int index = Collections.binarySearch( rowCache, lookupRowData, this );
-      if ( index < 0 ) {
-        // What we have now is the insertion point.
-        // Since we only compare on the start of the date range (see also: below in Compare.compare())
-        // we will usually get the insertion point of the row
-        // However, that insertion point is the actual row index IF the supplied lookup date (in the lookup row) is
-        // between
-        //
-        // This row at the insertion point where the natural keys match and the start
-        //
-        int insertionPoint = -( index + 1 );
-        if ( insertionPoint < rowCache.size() - 1 ) {
-          // Get the row in question
-          //
-          Object[] row = rowCache.get( insertionPoint );
-
-          // See if the natural key matches...
-          //
-          int cmp = rowMeta.compare( row, lookupRowData, keyIndexes );
-          if ( cmp == 0 ) {
-            // The natural keys match, now see if the lookup date (lookupRowData[fromDateIndex]) is between
-            // row[fromDateIndex] and row[toDateIndex]
-            //
-            Date fromDate = rowMeta.getDate( row, fromDateIndex );
-            Date toDate = rowMeta.getDate( row, toDateIndex );
-            Date lookupDate = rowMeta.getDate( lookupRowData, fromDateIndex );
-
-            if ( fromDate == null && toDate != null ) {
-              // This is the case where the fromDate is null and the toDate is not.
-              // This is a special case where null as a start date means -Infinity
-              //
-              if ( toDate.compareTo( lookupDate ) > 0 ) {
-                return insertionPoint; // found the key!!
-              } else {
-                // This should never happen, it's a flaw in the data or the binary search algorithm...
-                // TODO: print the row perhaps?
-                //
-                throw new KettleException(
-                  "Key sorting problem detected during row cache lookup: the lookup date of "
-                    + "the row retrieved is higher than or equal to the end of the date range." );
-              }
-            } else if ( fromDate != null && toDate == null ) {
-              // This is the case where the toDate is null and the fromDate is not.
-              // This is a special case where null as an end date means +Infinity
-              //
-              if ( fromDate.compareTo( lookupDate ) <= 0 ) {
-                return insertionPoint; // found the key!!
-              } else {
-                // This should never happen, it's a flaw in the data or the binary search algorithm...
-                // TODO: print the row perhaps?
-                //
-                throw new KettleException(
-                  "Key sorting problem detected during row cache lookup: the lookup date of the row "
-                    + "retrieved is lower than or equal to the start of the date range." );
-              }
-            } else {
-              // Both dates are available: simply see if the lookup date falls in between...
-              //
-              if ( fromDate.compareTo( lookupDate ) <= 0 && toDate.compareTo( lookupDate ) > 0 ) {
-                return insertionPoint;
-              }
-              // Else this is a cache miss.
-            }
-          }
-        }
+  public Object[] lookupRow( Object[] keyValues, Date lookupDate ) throws KettleValueException {
+    Versions keyVersions = versions.get( getKey( keyValues ) );
+    if ( keyVersions == null ) {
+      return null;
+    }
+    return keyVersions.get( lookupDate == null ? Long.MIN_VALUE : lookupDate.getTime() );
+  }
+
+  /**
+   * Removes all versions of a natural key, for instance after some of their values were updated in the database.
+   *
+   * @param keyValues
+   *          the values of the natural key
+   */
+  public void removeKey( Object[] keyValues ) {
+    Versions removed = versions.remove( getKey( keyValues ) );
+    if ( removed != null ) {
+      rowCount -= removed.count;
+      memoryUsage -= removed.memory;
+    }
+  }
+
+  /**
+   * Limits the number of rows in the cache.
+   *
+   * @param maximumRows
+   *          the maximum number of rows, 0 for no limit
+   */
+  public void setMaximumRows( int maximumRows ) {
+    this.maximumRows = maximumRows;
+    removeLeastRecentlyUsed();
+  }
+
+  /**
+   * Limits the estimated memory use of the cache.
+   *
+   * @param memoryLimit
+   *          the maximum number of bytes, 0 for no limit
+   */
+  public void setMemoryLimit( long memoryLimit ) {
+    this.memoryLimit = memoryLimit;
+    removeLeastRecentlyUsed();
+  }
+
+  /**
+   * @return the number of rows in the cache
+   */
+  public int getRowCount() {
+    return rowCount;
+  }
+
+  /**
+   * @return the estimated number of bytes used by the cache
+   */
+  public long getMemoryUsage() {
+    return memoryUsage;
+  }
+
+  private void removeLeastRecentlyUsed() {
+    Iterator<Map.Entry<List<Object>, Versions>> iterator = versions.entrySet().iterator();
+    // The natural key used last stays, even if it doesn't fit on its own
+    while ( versions.size() > 1 && ( ( maximumRows > 0 && rowCount > maximumRows )
+      || ( memoryLimit > 0 && memoryUsage > memoryLimit ) ) ) {
+      Versions removed = iterator.next().getValue();
+      iterator.remove();
+      rowCount -= removed.count;
+      memoryUsage -= removed.memory;
+    }
+  }
+
+  private Object[] getKeyValues( Object[] row ) {
+    Object[] keyValues = new Object[ keyIndexes.length ];
+    for ( int i = 0; i < keyIndexes.length; i++ ) {
+      keyValues[ i ] = row[ keyIndexes[ i ] ];
+    }
+    return keyValues;
+  }
+
+  private long getTime( Object[] row, int index, long nullTime ) throws KettleValueException {
+    Date date = rowMeta.getDate( row, index );
+    return date == null ? nullTime : date.getTime();
+  }
+
+  /**
+   * The natural key, with the values the database compares as equal made equal: numbers regardless of their scale and
+   * dates regardless of their class.
+   */
+  private static List<Object> getKey( Object[] keyValues ) {
+    Object[] key = new Object[ keyValues.length ];
+    for ( int i = 0; i < key.length; i++ ) {
+      Object value = keyValues[ i ];
+      if ( value instanceof BigDecimal ) {
+        value = ( (BigDecimal) value ).stripTrailingZeros();
+      } else if ( value instanceof Double ) {
+        value = (Double) value + 0.0; // -0.0 is 0.0
+      } else if ( value instanceof Date ) {
+        value = ( (Date) value ).getTime();
+      } else if ( value instanceof byte[] ) {
+        value = ByteBuffer.wrap( (byte[]) value );
       }
-      return index;
-    } catch ( RuntimeException e ) {
-      throw new KettleException( e );
+      key[ i ] = value;
     }
+    return Arrays.asList( key );
   }
 
-  public void sortRows() {
-    Collections.sort( rowCache, this );
+  /**
+   * @return the estimated number of bytes used by the values of a row
+   */
+  static long estimateSize( Object[] row ) {
+    long size = 16L + 8L * row.length;
+    for ( Object value : row ) {
+      if ( value instanceof String ) {
+        size += 40L + 2L * ( (String) value ).length();
+      } else if ( value instanceof byte[] ) {
+        size += 16L + ( (byte[]) value ).length;
+      } else if ( value instanceof BigDecimal ) {
+        size += 64L;
+      } else if ( value instanceof Date ) {
+        size += 32L;
+      } else if ( value != null ) {
+        size += 16L;
+      }
+    }
+    return size;
+  }
+
+  /**
+   * The versions of a natural key, sorted on the start of their date range.
+   */
+  private static class Versions {
+    private long[] fromTimes = new long[ 1 ];
+    private long[] toTimes = new long[ 1 ];
+    private Object[][] rows = new Object[ 1 ][];
+    private int count;
+    private long memory;
+
+    /**
+     * @return the last version starting on or before the time, if the time is before the end of its date range
+     */
+    Object[] get( long time ) {
+      int index = Arrays.binarySearch( fromTimes, 0, count, time );
+      if ( index < 0 ) {
+        // The version before the insertion point
+        index = -index - 2;
+      }
+      if ( index >= 0 && time < toTimes[ index ] ) {
+        return rows[ index ];
+      }
+      return null;
+    }
+
+    void add( long fromTime, long toTime, Object[] row ) {
+      int index = Arrays.binarySearch( fromTimes, 0, count, fromTime );
+      if ( index >= 0 ) {
+        memory += estimateSize( row ) - estimateSize( rows[ index ] );
+        toTimes[ index ] = toTime;
+        rows[ index ] = row;
+        return;
+      }
+      index = -index - 1;
+      if ( count == rows.length ) {
+        int capacity = count * 2;
+        fromTimes = Arrays.copyOf( fromTimes, capacity );
+        toTimes = Arrays.copyOf( toTimes, capacity );
+        rows = Arrays.copyOf( rows, capacity );
+        memory += 24L * count;
+      }
+      System.arraycopy( fromTimes, index, fromTimes, index + 1, count - index );
+      System.arraycopy( toTimes, index, toTimes, index + 1, count - index );
+      System.arraycopy( rows, index, rows, index + 1, count - index );
+      fromTimes[ index ] = fromTime;
+      toTimes[ index ] = toTime;
+      rows[ index ] = row;
+      count++;
+      memory += 24L + estimateSize( row );
+    }
   }
 
   /**
@@ -247,21 +385,6 @@ public class DimensionCache implements Comparator<Object[]> {
     this.rowMeta = rowMeta;
   }
 
-  /**
-   * @return the rowCache
-   */
-  public List<Object[]> getRowCache() {
-    return rowCache;
-  }
-
-  /**
-   * @param rowCache
-   *          the rowCache to set
-   */
-  public void setRowCache( List<Object[]> rowCache ) {
-    this.rowCache = rowCache;
-  }
-
   /**
    * @return the keyIndexes
    */
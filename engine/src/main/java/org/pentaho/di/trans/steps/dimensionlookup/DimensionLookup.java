@@ -13,13 +13,12 @@
 
 package org.pentaho.di.trans.steps.dimensionlookup;
 
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.Date;
-import java.util.List;
 
 import org.pentaho.di.core.Const;
 import org.pentaho.di.core.util.Utils;
@@ -29,7 +28,6 @@ import org.pentaho.di.core.exception.KettleDatabaseException;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.exception.KettleStepException;
 import org.pentaho.di.core.exception.KettleValueException;
-import org.pentaho.di.core.hash.ByteArrayHashMap;
 import org.pentaho.di.core.row.RowMeta;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.core.row.ValueMetaInterface;
@@ -180,9 +178,6 @@ public class DimensionLookup extends BaseDatabaseStep implements StepInterface {
             ValueMetaInterface key = data.inputRowMeta.getValueMeta( data.keynrs[ i ] );
             data.cacheKeyRowMeta.addValueMeta( key.clone() );
           }
-
-          data.cache =
-            new ByteArrayHashMap( meta.getCacheSize() > 0 ? meta.getCacheSize() : 5000, data.cacheKeyRowMeta );
         }
       }
 
@@ -282,7 +277,7 @@ public class DimensionLookup extends BaseDatabaseStep implements StepInterface {
       sql += " FROM " + data.schemaTable;
       logDetailed( "Pre-loading cache by reading from database with: " + Const.CR + sql + Const.CR );
 
-      List<Object[]> rows = data.db.getRows( sql, -1 );
+      ResultSet rs = data.db.openQuery( sql );
       RowMetaInterface rowMeta = data.db.getReturnRowMeta();
 
       data.preloadKeyIndexes = new int[ meta.getKeyLookup().length ];
@@ -294,11 +289,15 @@ public class DimensionLookup extends BaseDatabaseStep implements StepInterface {
 
       data.preloadCache =
         new DimensionCache( rowMeta, data.preloadKeyIndexes, data.preloadFromDateIndex, data.preloadToDateIndex );
-      data.preloadCache.setRowCache( rows );
-
-      logDetailed( "Sorting the cache rows..." );
-      data.preloadCache.sortRows();
-      logDetailed( "Sorting of cached rows finished." );
+      try {
+        Object[] row;
+        while ( ( row = data.db.getRow( rs ) ) != null ) {
+          data.preloadCache.addRow( row );
+        }
+      } finally {
+        data.db.closeQuery( rs );
+      }
+      logDetailed( "Pre-loaded " + data.preloadCache.getRowCount() + " rows in the cache." );
 
       // Also see what indexes to take to populate the lookup row...
       // We only ever compare indexes and the lookup date in the cache, the rest is not needed...
@@ -385,14 +384,9 @@ public class DimensionLookup extends BaseDatabaseStep implements StepInterface {
       //
       lookupRow[ data.preloadFromDateIndex ] = valueDate;
 
-      // Look up the row in the pre-load cache...
+      // Look up the row in the pre-load cache, null if nothing is found...
       //
-      int index = data.preloadCache.lookupRow( lookupRow );
-      if ( index >= 0 ) {
-        returnRow = data.preloadCache.getRow( index );
-      } else {
-        returnRow = null; // Nothing found!
-      }
+      returnRow = data.preloadCache.lookupRow( lookupRow );
 
     } else {
       lookupRow = new Object[ data.lookupRowMeta.size() ];
@@ -751,6 +745,11 @@ public class DimensionLookup extends BaseDatabaseStep implements StepInterface {
            */
           dimPunchThrough( rowMeta, row );
           incrementLinesUpdated();
+
+          // The other versions in the cache still have the old values
+          if ( data.cache != null ) {
+            data.cache.removeKey( Arrays.copyOf( lookupRow, data.cacheKeyRowMeta.size() ) );
+          }
         }
 
         returnRow = new Object[ data.returnRowMeta.size() ];
@@ -1500,82 +1499,16 @@ public class DimensionLookup extends BaseDatabaseStep implements StepInterface {
    * @throws KettleValueException
    */
   private void addToCache( Object[] keyValues, Object[] returnValues ) throws KettleValueException {
-    if ( data.cacheValueRowMeta == null ) {
-      data.cacheValueRowMeta = assembleCacheValueRowMeta();
+    if ( data.cache == null ) {
+      createCache();
+    }
+    if ( returnValues == null ) {
+      return;
     }
 
     // store it in the cache if needed.
-    byte[] keyPart = RowMeta.extractData( data.cacheKeyRowMeta, keyValues );
-    byte[] valuePart = RowMeta.extractData( data.cacheValueRowMeta, returnValues );
-    data.cache.put( keyPart, valuePart );
-
-    // check if the size is not too big...
-    // Allow for a buffer overrun of 20% and then remove those 20% in one go.
-    // Just to keep performance in track.
-    //
-    int tenPercent = meta.getCacheSize() / 10;
-    if ( meta.getCacheSize() > 0 && data.cache.size() > meta.getCacheSize() + tenPercent ) {
-      // Which cache entries do we delete here?
-      // We delete those with the lowest technical key...
-      // Those would arguably be the "oldest" dimension entries.
-      // Oh well... Nothing is going to be perfect here...
-      //
-      // Getting the lowest 20% requires some kind of sorting algorithm and I'm not sure we want to do that.
-      // Sorting is slow and even in the best case situation we need to do 2 passes over the cache entries...
-      //
-      // Perhaps we should get 20% random values and delete everything below the lowest but one TK.
-      //
-      List<byte[]> keys = data.cache.getKeys();
-      int sizeBefore = keys.size();
-      List<Long> samples = new ArrayList<Long>();
-
-      // Take 10 sample technical keys....
-      int stepsize = keys.size() / 5;
-      if ( stepsize < 1 ) {
-        stepsize = 1; // make shure we have no endless loop
-      }
-      for ( int i = 0; i < keys.size(); i += stepsize ) {
-        byte[] key = keys.get( i );
-        byte[] value = data.cache.get( key );
-        if ( value != null ) {
-          Object[] values = RowMeta.getRow( data.cacheValueRowMeta, value );
-          Long tk = data.cacheValueRowMeta.getInteger( values, 0 );
-          samples.add( tk );
-        }
-      }
-      // Sort these 5 elements...
-      Collections.sort( samples );
-
-      // What is the smallest?
-      // Take the second, not the fist in the list, otherwise we would be removing a single entry = not good.
-      if ( samples.size() > 1 ) {
-        data.smallestCacheKey = samples.get( 1 );
-      } else if ( !samples.isEmpty() ) { // except when there is only one sample
-        data.smallestCacheKey = samples.get( 0 );
-      } else {
-        // If no samples found nothing to remove, we're done
-        return;
-      }
-
-      // Remove anything in the cache <= smallest.
-      // This makes it almost single pass...
-      // This algorithm is not 100% correct, but I guess it beats sorting the whole cache all the time.
-      //
-      for ( int i = 0; i < keys.size(); i++ ) {
-        byte[] key = keys.get( i );
-        byte[] value = data.cache.get( key );
-        if ( value != null ) {
-          Object[] values = RowMeta.getRow( data.cacheValueRowMeta, value );
-          long tk = data.cacheValueRowMeta.getInteger( values, 0 ).longValue();
-          if ( tk <= data.smallestCacheKey ) {
-            data.cache.remove( key ); // this one has to go.
-          }
-        }
-      }
-
-      int sizeAfter = data.cache.size();
-      logDetailed( "Reduced the lookup cache from " + sizeBefore + " to " + sizeAfter + " rows." );
-    }
+    // The rows of the natural keys used the longest time ago are removed when the cache is full.
+    data.cache.addRow( Arrays.copyOf( keyValues, data.cacheKeyRowMeta.size() ), returnValues );
 
     if ( isRowLevel() ) {
       logRowlevel(
@@ -1583,6 +1516,20 @@ public class DimensionLookup extends BaseDatabaseStep implements StepInterface {
     }
   }
 
+  /**
+   * Creates the cache of the rows looked up and written, limited to the cache size in rows and to the memory limit.
+   */
+  private void createCache() {
+    data.cacheValueRowMeta = assembleCacheValueRowMeta();
+
+    // The last 2 values are from and to
+    int size = data.cacheValueRowMeta.size();
+    data.cache = new DimensionCache( data.cacheValueRowMeta, new int[ 0 ], size - 2, size - 1 );
+    data.cache.setMaximumRows( Math.max( meta.getCacheSize(), 0 ) );
+    data.cache.setMemoryLimit(
+      Const.toLong( getVariable( Const.KETTLE_DIMENSION_CACHE_MEMORY_LIMIT, "0" ), 0L ) * 1024L * 1024L );
+  }
+
   /**
    * @return the cache value row metadata. The items that are cached is basically the return row metadata:<br>
    * - Technical key (Integer) - Version (Integer) -
@@ -1599,34 +1546,22 @@ public class DimensionLookup extends BaseDatabaseStep implements StepInterface {
   }
 
   private Object[] getFromCache( Object[] keyValues, Date dateValue ) throws KettleValueException {
-    if ( data.cacheValueRowMeta == null ) {
+    if ( data.cache == null ) {
       // nothing in the cache yet, no lookup was ever performed
       if ( data.returnRowMeta == null ) {
         return null;
       }
 
-      data.cacheValueRowMeta = assembleCacheValueRowMeta();
+      createCache();
     }
 
-    byte[] key = RowMeta.extractData( data.cacheKeyRowMeta, keyValues );
-    byte[] value = data.cache.get( key );
-    if ( value != null ) {
-      Object[] row = RowMeta.getRow( data.cacheValueRowMeta, value );
-
-      // See if the dateValue is between the from and to date ranges...
-      // The last 2 values are from and to
-      long time = dateValue.getTime();
-      long from = ( (Date) row[ row.length - 2 ] ).getTime();
-      long to = ( (Date) row[ row.length - 1 ] ).getTime();
-      if ( time >= from && time < to ) { // sanity check to see if we have the right version
-        if ( isRowLevel() ) {
-          logRowlevel( "Cache hit: key="
-            + data.cacheKeyRowMeta.getString( keyValues ) + "  values=" + data.cacheValueRowMeta.getString( row ) );
-        }
-        return row;
-      }
+    // The version where the dateValue is between the from and to date ranges
+    Object[] row = data.cache.lookupRow( Arrays.copyOf( keyValues, data.cacheKeyRowMeta.size() ), dateValue );
+    if ( row != null && isRowLevel() ) {
+      logRowlevel( "Cache hit: key="
+        + data.cacheKeyRowMeta.getString( keyValues ) + "  values=" + data.cacheValueRowMeta.getString( row ) );
     }
-    return null;
+    return row;
   }
 
   public void checkDimZero() throws KettleException {
@@ -18,7 +18,6 @@ import java.util.Date;
 import java.util.List;
 
 import org.pentaho.di.core.database.Database;
-import org.pentaho.di.core.hash.ByteArrayHashMap;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.trans.step.BaseDatabaseStepData;
 import org.pentaho.di.trans.step.BaseStepData;
@@ -39,9 +38,7 @@ public class DimensionLookupData extends BaseDatabaseStepData implements StepDat
   public int[] fieldnrs; // nrs in row of the fields
   public int datefieldnr; // Nr of datefield field in row
 
-  public ByteArrayHashMap cache;
-
-  public long smallestCacheKey;
+  public DimensionCache cache;
 
   public Long notFoundTk;
 
@@ -94,7 +91,6 @@ public class DimensionLookupData extends BaseDatabaseStepData implements StepDat
 
     db = null;
     valueDateNow = null;
-    smallestCacheKey = -1;
     realTableName = null;
     realSchemaName = null;
   }
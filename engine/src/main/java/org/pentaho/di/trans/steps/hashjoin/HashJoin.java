@@ -0,0 +1,380 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.hashjoin;
+
+import java.util.List;
+
+import org.apache.commons.vfs2.FileObject;
+import org.pentaho.di.core.Const;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.exception.KettleStepException;
+import org.pentaho.di.core.row.RowDataUtil;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.core.vfs.IKettleVFS;
+import org.pentaho.di.core.vfs.KettleVFS;
+import org.pentaho.di.i18n.BaseMessages;
+import org.pentaho.di.trans.Trans;
+import org.pentaho.di.trans.TransMeta;
+import org.pentaho.di.trans.step.BaseStep;
+import org.pentaho.di.trans.step.StepDataInterface;
+import org.pentaho.di.trans.step.StepInterface;
+import org.pentaho.di.trans.step.StepMeta;
+import org.pentaho.di.trans.step.StepMetaInterface;
+import org.pentaho.di.trans.step.errorhandling.StreamInterface;
+
+/**
+ * Joins 2 unsorted streams on equal keys and outputs the joined rows, with inner, left, right and full outer joins
+ * and any number of matches per key.
+ *
+ * The rows of the second stream are read first, into a hash table on their key. The rows of the first stream are then
+ * looked up in it one at a time. When the second stream has more rows than the cache size, the rows of both streams
+ * are written to temporary files, partitioned on the hash of their key, and every partition is joined on its own.
+ * Partitions that are still too large are split again with another hash. The order of the output rows is not that of
+ * the input rows once the streams are partitioned.
+ */
+public class HashJoin extends BaseStep implements StepInterface {
+  private static Class<?> PKG = HashJoinMeta.class; // for i18n purposes, needed by Translator2!!
+
+  /**
+   * The number of partitions a stream is split in at a time
+   */
+  static final int FAN_OUT = 16;
+
+  /**
+   * The number of times a partition is split before it's joined in memory whatever its size: when many rows have the
+   * same key, no hash splits them.
+   */
+  static final int MAX_LEVELS = 4;
+
+  private HashJoinMeta meta;
+  private HashJoinData data;
+
+  public HashJoin( StepMeta stepMeta, StepDataInterface stepDataInterface, int copyNr, TransMeta transMeta,
+    Trans trans ) {
+    super( stepMeta, stepDataInterface, copyNr, transMeta, trans );
+  }
+
+  public boolean processRow( StepMetaInterface smi, StepDataInterface sdi ) throws KettleException {
+    meta = (HashJoinMeta) smi;
+    data = (HashJoinData) sdi;
+
+    if ( first ) {
+      first = false;
+
+      // Find the RowSet to read from
+      //
+      List<StreamInterface> infoStreams = meta.getStepIOMeta().getInfoStreams();
+
+      data.oneRowSet = findInputRowSet( infoStreams.get( 0 ).getStepname() );
+      if ( data.oneRowSet == null ) {
+        throw new KettleException( BaseMessages.getString(
+          PKG, "HashJoin.Exception.UnableToFindSpecifiedStep", infoStreams.get( 0 ).getStepname() ) );
+      }
+
+      data.twoRowSet = findInputRowSet( infoStreams.get( 1 ).getStepname() );
+      if ( data.twoRowSet == null ) {
+        throw new KettleException( BaseMessages.getString(
+          PKG, "HashJoin.Exception.UnableToFindSpecifiedStep", infoStreams.get( 1 ).getStepname() ) );
+      }
+
+      // The first row of the first stream tells the data types to join on
+      //
+      data.one = getRowFrom( data.oneRowSet );
+      if ( data.one != null ) {
+        data.oneMeta = data.oneRowSet.getRowMeta();
+      } else {
+        data.oneMeta = getTransMeta().getStepFields( infoStreams.get( 0 ).getStepname() );
+      }
+
+      Object[] two = getRowFrom( data.twoRowSet );
+      if ( two != null ) {
+        data.twoMeta = data.twoRowSet.getRowMeta();
+      } else {
+        data.twoMeta = getTransMeta().getStepFields( infoStreams.get( 1 ).getStepname() );
+      }
+
+      // just for speed: oneMeta+twoMeta
+      //
+      data.outputRowMeta = new RowMeta();
+      data.outputRowMeta.mergeRowMeta( data.oneMeta.clone() );
+      data.outputRowMeta.mergeRowMeta( data.twoMeta.clone() );
+
+      data.keyNrs1 = findKeys( data.oneMeta, meta.getKeyFields1() );
+      data.keyNrs2 = findKeys( data.twoMeta, meta.getKeyFields2() );
+
+      ValueMetaInterface[] keyMetas = new ValueMetaInterface[ data.keyNrs1.length ];
+      for ( int i = 0; i < keyMetas.length; i++ ) {
+        keyMetas[ i ] = data.oneMeta.getValueMeta( data.keyNrs1[ i ] );
+      }
+      data.oneKeys = new HashJoinKeyFactory( data.oneMeta, data.keyNrs1, keyMetas );
+      data.twoKeys = new HashJoinKeyFactory( data.twoMeta, data.keyNrs2, keyMetas );
+
+      build( two );
+      if ( isStopped() ) {
+        return false;
+      }
+
+      if ( data.twoPartitions != null ) {
+        partitionFirstStream();
+        if ( !isStopped() ) {
+          joinPartitions( data.twoPartitions, data.onePartitions, 1 );
+        }
+        setOutputDone();
+        return false;
+      }
+    } else {
+      data.one = getRowFrom( data.oneRowSet );
+    }
+
+    // The second stream fits in memory: look up the rows of the first stream as they come
+    //
+    if ( data.one == null ) {
+      joinUnmatched();
+      data.table.clear();
+      setOutputDone();
+      return false;
+    }
+    probe( data.one );
+
+    if ( checkFeedback( getLinesRead() ) ) {
+      logBasic( BaseMessages.getString( PKG, "HashJoin.LineNumber" ) + getLinesRead() );
+    }
+    return true;
+  }
+
+  private int[] findKeys( RowMetaInterface rowMeta, String[] keyFields ) throws KettleStepException {
+    int[] keyNrs = new int[ keyFields.length ];
+    for ( int i = 0; i < keyNrs.length; i++ ) {
+      keyNrs[ i ] = rowMeta.indexOfValue( keyFields[ i ] );
+      if ( keyNrs[ i ] < 0 ) {
+        String message =
+          BaseMessages.getString( PKG, "HashJoin.Exception.UnableToFindFieldInReferenceStream", keyFields[ i ] );
+        logError( message );
+        throw new KettleStepException( message );
+      }
+    }
+    return keyNrs;
+  }
+
+  /**
+   * Reads the second stream into the hash table. Once the table holds more rows than the cache size, its rows and the
+   * rows that follow are partitioned to disk instead.
+   */
+  private void build( Object[] two ) throws KettleException {
+    while ( two != null && !isStopped() ) {
+      HashJoinKey key = data.twoKeys.getKey( two );
+      if ( data.twoPartitions != null ) {
+        addToPartition( data.twoPartitions, key.partition( 0, FAN_OUT ), data.twoMeta, two );
+      } else {
+        data.table.add( key, two );
+        if ( data.cacheSize > 0 && data.table.size() > data.cacheSize ) {
+          if ( log.isBasic() ) {
+            logBasic( BaseMessages.getString( PKG, "HashJoin.Log.PartitioningToDisk", "" + data.cacheSize ) );
+          }
+          data.twoPartitions = new HashJoinSpillFile[ FAN_OUT ];
+          for ( HashJoinTable.Bucket bucket : data.table.getBuckets() ) {
+            int partition = bucket.key.partition( 0, FAN_OUT );
+            for ( Object[] row : bucket.rows ) {
+              addToPartition( data.twoPartitions, partition, data.twoMeta, row );
+            }
+          }
+          data.table.clear();
+        }
+      }
+      two = getRowFrom( data.twoRowSet );
+    }
+  }
+
+  /**
+   * Writes the first stream to the partitions of the second. Rows that can't match any row are left out, unless they
+   * are joined with nulls.
+   */
+  private void partitionFirstStream() throws KettleException {
+    data.onePartitions = new HashJoinSpillFile[ FAN_OUT ];
+    while ( data.one != null && !isStopped() ) {
+      int partition = data.oneKeys.getKey( data.one ).partition( 0, FAN_OUT );
+      if ( data.twoPartitions[ partition ] != null || data.two_optional ) {
+        addToPartition( data.onePartitions, partition, data.oneMeta, data.one );
+      }
+      data.one = getRowFrom( data.oneRowSet );
+    }
+  }
+
+  private void joinPartitions( HashJoinSpillFile[] twos, HashJoinSpillFile[] ones, int level ) throws KettleException {
+    for ( int i = 0; i < FAN_OUT && !isStopped(); i++ ) {
+      try {
+        joinPartition( twos[ i ], ones[ i ], level );
+      } finally {
+        if ( twos[ i ] != null ) {
+          deleteSpillFile( twos[ i ] );
+        }
+        if ( ones[ i ] != null ) {
+          deleteSpillFile( ones[ i ] );
+        }
+      }
+    }
+  }
+
+  /**
+   * Joins the rows of one partition of both streams. A partition of the second stream that doesn't fit in the cache is
+   * split again, with a hash that depends on the level.
+   */
+  private void joinPartition( HashJoinSpillFile two, HashJoinSpillFile one, int level ) throws KettleException {
+    Object[] row;
+    if ( two != null && data.cacheSize > 0 && two.size() > data.cacheSize && level < MAX_LEVELS ) {
+      HashJoinSpillFile[] twos = new HashJoinSpillFile[ FAN_OUT ];
+      HashJoinSpillFile[] ones = new HashJoinSpillFile[ FAN_OUT ];
+      while ( ( row = two.next() ) != null && !isStopped() ) {
+        addToPartition( twos, data.twoKeys.getKey( row ).partition( level, FAN_OUT ), data.twoMeta, row );
+      }
+      deleteSpillFile( two );
+      while ( one != null && ( row = one.next() ) != null && !isStopped() ) {
+        int partition = data.oneKeys.getKey( row ).partition( level, FAN_OUT );
+        if ( twos[ partition ] != null || data.two_optional ) {
+          addToPartition( ones, partition, data.oneMeta, row );
+        }
+      }
+      if ( one != null ) {
+        deleteSpillFile( one );
+      }
+      joinPartitions( twos, ones, level + 1 );
+      return;
+    }
+
+    if ( two != null ) {
+      if ( data.cacheSize > 0 && two.size() > data.cacheSize && log.isDetailed() ) {
+        logDetailed( BaseMessages.getString( PKG, "HashJoin.Log.PartitionTooLarge", "" + two.size() ) );
+      }
+      while ( ( row = two.next() ) != null && !isStopped() ) {
+        data.table.add( data.twoKeys.getKey( row ), row );
+      }
+      deleteSpillFile( two );
+    }
+    while ( one != null && ( row = one.next() ) != null && !isStopped() ) {
+      probe( row );
+    }
+    joinUnmatched();
+    data.table.clear();
+  }
+
+  /**
+   * Pushes a row of the first stream joined with every row of the second stream with the same key to output, or
+   * joined with nulls for left and full outer joins when there are none.
+   */
+  private void probe( Object[] one ) throws KettleException {
+    HashJoinTable.Bucket bucket = data.table.size() == 0 ? null : data.table.get( data.oneKeys.getKey( one ) );
+    if ( bucket != null ) {
+      bucket.matched = true;
+      for ( Object[] two : bucket.rows ) {
+        putRow( data.outputRowMeta, joinRows( one, two ) );
+      }
+    } else if ( data.two_optional ) {
+      putRow( data.outputRowMeta, joinRows( one, null ) );
+    }
+  }
+
+  /**
+   * For right and full outer joins, pushes the rows of the second stream without a match joined with nulls to output.
+   */
+  private void joinUnmatched() throws KettleException {
+    if ( !data.one_optional ) {
+      return;
+    }
+    for ( HashJoinTable.Bucket bucket : data.table.getBuckets() ) {
+      if ( !bucket.matched ) {
+        for ( Object[] two : bucket.rows ) {
+          if ( isStopped() ) {
+            return;
+          }
+          putRow( data.outputRowMeta, joinRows( null, two ) );
+        }
+      }
+    }
+  }
+
+  private Object[] joinRows( Object[] one, Object[] two ) {
+    int oneSize = data.oneMeta.size();
+    Object[] outputRowData = RowDataUtil.allocateRowData( data.outputRowMeta.size() );
+    if ( one != null ) {
+      System.arraycopy( one, 0, outputRowData, 0, oneSize );
+    }
+    if ( two != null ) {
+      System.arraycopy( two, 0, outputRowData, oneSize, data.twoMeta.size() );
+    }
+    return outputRowData;
+  }
+
+  private void addToPartition( HashJoinSpillFile[] partitions, int partition, RowMetaInterface rowMeta,
+    Object[] row ) throws KettleException {
+    if ( partitions[ partition ] == null ) {
+      IKettleVFS vfs = KettleVFS.getInstance( getTransMeta().getBowl() );
+      FileObject fileObject = vfs.createTempFile( environmentSubstitute( meta.getPrefix() ), ".tmp",
+        environmentSubstitute( meta.getDirectory() ), getTransMeta() );
+      partitions[ partition ] = new HashJoinSpillFile( vfs, fileObject, rowMeta );
+      data.spillFiles.add( partitions[ partition ] );
+    }
+    partitions[ partition ].add( row );
+  }
+
+  private void deleteSpillFile( HashJoinSpillFile file ) {
+    file.delete();
+    data.spillFiles.remove( file );
+  }
+
+  /**
+   * @see StepInterface#init(org.pentaho.di.trans.step.StepMetaInterface , org.pentaho.di.trans.step.StepDataInterface)
+   */
+  public boolean init( StepMetaInterface smi, StepDataInterface sdi ) {
+    meta = (HashJoinMeta) smi;
+    data = (HashJoinData) sdi;
+
+    if ( super.init( smi, sdi ) ) {
+      List<StreamInterface> infoStreams = meta.getStepIOMeta().getInfoStreams();
+      if ( infoStreams.get( 0 ).getStepMeta() == null || infoStreams.get( 1 ).getStepMeta() == null ) {
+        logError( BaseMessages.getString( PKG, "HashJoin.Log.BothTrueAndFalseNeeded" ) );
+        return false;
+      }
+      if ( meta.getKeyFields1().length != meta.getKeyFields2().length ) {
+        logError( BaseMessages.getString( PKG, "HashJoin.Log.KeysDoNotMatch",
+          "" + meta.getKeyFields1().length, "" + meta.getKeyFields2().length ) );
+        return false;
+      }
+      data.cacheSize = Const.toInt( environmentSubstitute( meta.getCacheSize() ), 0 );
+      String joinType = meta.getJoinType();
+      for ( int i = 0; i < HashJoinMeta.join_types.length; ++i ) {
+        if ( HashJoinMeta.join_types[i].equalsIgnoreCase( joinType ) ) {
+          data.one_optional = HashJoinMeta.one_optionals[i];
+          data.two_optional = HashJoinMeta.two_optionals[i];
+          return true;
+        }
+      }
+      logError( BaseMessages.getString( PKG, "HashJoin.Log.InvalidJoinType", meta.getJoinType() ) );
+      return false;
+    }
+    return false;
+  }
+
+  @Override
+  public void dispose( StepMetaInterface smi, StepDataInterface sdi ) {
+    data = (HashJoinData) sdi;
+    for ( HashJoinSpillFile file : data.spillFiles ) {
+      file.delete();
+    }
+    data.spillFiles.clear();
+    data.table.clear();
+    super.dispose( smi, sdi );
+  }
+}
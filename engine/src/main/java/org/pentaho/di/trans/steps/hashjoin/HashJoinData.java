@@ -0,0 +1,79 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.hashjoin;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.pentaho.di.core.RowSet;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.trans.step.BaseStepData;
+import org.pentaho.di.trans.step.StepDataInterface;
+
+public class HashJoinData extends BaseStepData implements StepDataInterface {
+  public RowMetaInterface oneMeta, twoMeta;
+  public RowMetaInterface outputRowMeta; // just for speed: oneMeta+twoMeta
+  public boolean one_optional, two_optional;
+  public int[] keyNrs1;
+  public int[] keyNrs2;
+
+  public RowSet oneRowSet;
+  public RowSet twoRowSet;
+
+  /**
+   * The first row of the first stream, read before the second stream to know the layout of its keys
+   */
+  public Object[] one;
+
+  /**
+   * The number of rows of the second stream kept in memory, 0 to keep them all
+   */
+  public int cacheSize;
+
+  /**
+   * Read the keys of the rows of both streams as keys of the same data types
+   */
+  HashJoinKeyFactory oneKeys;
+  HashJoinKeyFactory twoKeys;
+
+  /**
+   * The rows of the second stream, or of the partition of it that is joined
+   */
+  HashJoinTable table;
+
+  /**
+   * The partitions of both streams once the second stream didn't fit in the cache
+   */
+  HashJoinSpillFile[] onePartitions;
+  HashJoinSpillFile[] twoPartitions;
+
+  /**
+   * All temporary files, deleted when the step is disposed of
+   */
+  List<HashJoinSpillFile> spillFiles;
+
+  /**
+   * Default initializer
+   */
+  public HashJoinData() {
+    super();
+    one_optional = false;
+    two_optional = false;
+    keyNrs1 = null;
+    keyNrs2 = null;
+    table = new HashJoinTable();
+    spillFiles = new ArrayList<>();
+  }
+
+}
@@ -0,0 +1,67 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.hashjoin;
+
+import java.util.Arrays;
+
+/**
+ * The normalized values of the join keys of a row, see {@link HashJoinKeyFactory}.
+ */
+final class HashJoinKey {
+  private final Object[] values;
+  private final int hash;
+
+  HashJoinKey( Object[] values ) {
+    this.values = values;
+    this.hash = Arrays.hashCode( values );
+  }
+
+  /**
+   * @param level  the number of times the rows were partitioned before, so that every level splits the rows of a
+   *               partition in a different way
+   * @param fanOut the number of partitions
+   * @return the partition of the key
+   */
+  int partition( int level, int fanOut ) {
+    int h = hash ^ ( level * 0x9E3779B9 );
+    h ^= h >>> 16;
+    h *= 0x85EBCA6B;
+    h ^= h >>> 13;
+    h *= 0xC2B2AE35;
+    h ^= h >>> 16;
+    return ( h & Integer.MAX_VALUE ) % fanOut;
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+
+  @Override
+  public boolean equals( Object obj ) {
+    if ( this == obj ) {
+      return true;
+    }
+    if ( !( obj instanceof HashJoinKey ) ) {
+      return false;
+    }
+    HashJoinKey other = (HashJoinKey) obj;
+    return hash == other.hash && Arrays.equals( values, other.values );
+  }
+
+  @Override
+  public String toString() {
+    return Arrays.toString( values );
+  }
+}
@@ -0,0 +1,90 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.hashjoin;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.Date;
+
+import org.pentaho.di.core.exception.KettleValueException;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.ValueMetaInterface;
+
+/**
+ * Reads the join keys of rows. The key values are converted to the data types of the keys of the first stream and to
+ * values that are equal when the value metadata compares them as equal: numbers don't depend on their scale, case
+ * insensitive strings are lower cased, dates are compared on their milliseconds and timestamps on their nanoseconds.
+ * Null keys are equal to each other, like they are in a Merge Join.
+ */
+class HashJoinKeyFactory {
+  private final int[] keyNrs;
+  private final ValueMetaInterface[] valueMetas;
+  private final ValueMetaInterface[] keyMetas;
+
+  /**
+   * @param rowMeta  the layout of the rows
+   * @param keyNrs   the indexes of the keys in these rows
+   * @param keyMetas the data types of the keys to join on, the keys of the first stream
+   */
+  HashJoinKeyFactory( RowMetaInterface rowMeta, int[] keyNrs, ValueMetaInterface[] keyMetas ) {
+    this.keyNrs = keyNrs;
+    this.keyMetas = keyMetas;
+    valueMetas = new ValueMetaInterface[ keyNrs.length ];
+    for ( int i = 0; i < keyNrs.length; i++ ) {
+      valueMetas[ i ] = rowMeta.getValueMeta( keyNrs[ i ] );
+    }
+  }
+
+  HashJoinKey getKey( Object[] row ) throws KettleValueException {
+    Object[] values = new Object[ keyNrs.length ];
+    for ( int i = 0; i < keyNrs.length; i++ ) {
+      values[ i ] = normalize( i, row[ keyNrs[ i ] ] );
+    }
+    return new HashJoinKey( values );
+  }
+
+  private Object normalize( int i, Object data ) throws KettleValueException {
+    ValueMetaInterface valueMeta = valueMetas[ i ];
+    ValueMetaInterface keyMeta = keyMetas[ i ];
+    if ( valueMeta.isNull( data ) ) {
+      return null;
+    }
+    Object value;
+    if ( valueMeta.getType() != keyMeta.getType() ) {
+      value = keyMeta.convertData( valueMeta, data );
+    } else {
+      value = valueMeta.convertToNormalStorageType( data );
+    }
+    if ( value == null ) {
+      return null;
+    }
+    switch ( keyMeta.getType() ) {
+      case ValueMetaInterface.TYPE_STRING:
+        return keyMeta.isCaseInsensitive() ? ( (String) value ).toLowerCase() : value;
+      case ValueMetaInterface.TYPE_NUMBER:
+        // -0.0 and 0.0 are the same number
+        return ( (Double) value ) == 0.0d ? 0.0d : value;
+      case ValueMetaInterface.TYPE_BIGNUMBER:
+        BigDecimal number = (BigDecimal) value;
+        return number.signum() == 0 ? BigDecimal.ZERO : number.stripTrailingZeros();
+      case ValueMetaInterface.TYPE_BINARY:
+        return ByteBuffer.wrap( (byte[]) value );
+      case ValueMetaInterface.TYPE_DATE:
+        // dates compare on their milliseconds, even when they are timestamps
+        return ( (Date) value ).getTime();
+      default:
+        return value;
+    }
+  }
+}
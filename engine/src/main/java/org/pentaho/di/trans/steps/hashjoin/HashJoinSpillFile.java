@@ -0,0 +1,128 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.hashjoin;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemException;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.exception.KettleFileException;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.vfs.IKettleVFS;
+import org.pentaho.di.core.vfs.KettleVFS;
+
+/**
+ * The rows of one partition of one stream of a Hash Join, in a temporary file. The rows are all written first, then
+ * read once.
+ */
+class HashJoinSpillFile {
+  private final IKettleVFS vfs;
+  private final FileObject fileObject;
+  private final RowMetaInterface rowMeta;
+
+  private DataOutputStream output;
+  private DataInputStream input;
+  private int size;
+  private int position;
+
+  /**
+   * @param vfs        the file system of the transformation
+   * @param fileObject the temporary file
+   * @param rowMeta    the layout of the rows
+   */
+  HashJoinSpillFile( IKettleVFS vfs, FileObject fileObject, RowMetaInterface rowMeta ) {
+    this.vfs = vfs;
+    this.fileObject = fileObject;
+    this.rowMeta = rowMeta;
+  }
+
+  void add( Object[] row ) throws KettleException {
+    if ( output == null ) {
+      try {
+        output = new DataOutputStream( new BufferedOutputStream( vfs.getOutputStream( fileObject, false ), 65536 ) );
+      } catch ( IOException e ) {
+        throw new KettleFileException( "Unable to write to temporary file " + fileObject.getName(), e );
+      }
+    }
+    rowMeta.writeData( output, row );
+    size++;
+  }
+
+  /**
+   * @return the number of rows in the file
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * @return the next row in the order they were added or null when all rows were read
+   */
+  Object[] next() throws KettleException {
+    if ( position >= size ) {
+      close();
+      return null;
+    }
+    try {
+      if ( output != null ) {
+        output.close();
+        output = null;
+      }
+      if ( input == null ) {
+        input = new DataInputStream( new BufferedInputStream( KettleVFS.getInputStream( fileObject ), 65536 ) );
+      }
+      position++;
+      return rowMeta.readData( input );
+    } catch ( IOException e ) {
+      throw new KettleFileException( "Unable to read from temporary file " + fileObject.getName(), e );
+    }
+  }
+
+  /**
+   * Closes and deletes the file.
+   */
+  void delete() {
+    try {
+      close();
+    } catch ( KettleException e ) {
+      // The file is thrown away
+    }
+    try {
+      fileObject.delete();
+    } catch ( FileSystemException e ) {
+      // Left for the operating system to clean up
+    }
+  }
+
+  private void close() throws KettleException {
+    try {
+      if ( output != null ) {
+        output.close();
+      }
+      if ( input != null ) {
+        input.close();
+      }
+    } catch ( IOException e ) {
+      throw new KettleFileException( "Unable to close temporary file " + fileObject.getName(), e );
+    } finally {
+      output = null;
+      input = null;
+    }
+  }
+}
@@ -0,0 +1,67 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.hashjoin;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The rows of the second stream of a Hash Join, grouped on their key. Every group remembers whether a row of the first
+ * stream matched it, so that the groups without a match can be joined for right and full outer joins.
+ */
+class HashJoinTable {
+  static class Bucket {
+    final HashJoinKey key;
+    final List<Object[]> rows = new ArrayList<>( 1 );
+    boolean matched;
+
+    Bucket( HashJoinKey key ) {
+      this.key = key;
+    }
+  }
+
+  private final Map<HashJoinKey, Bucket> buckets = new HashMap<>();
+  private int size;
+
+  void add( HashJoinKey key, Object[] row ) {
+    buckets.computeIfAbsent( key, Bucket::new ).rows.add( row );
+    size++;
+  }
+
+  /**
+   * @return the rows with the key or null if there are none
+   */
+  Bucket get( HashJoinKey key ) {
+    return buckets.get( key );
+  }
+
+  Collection<Bucket> getBuckets() {
+    return buckets.values();
+  }
+
+  /**
+   * @return the number of rows in the table
+   */
+  int size() {
+    return size;
+  }
+
+  void clear() {
+    buckets.clear();
+    size = 0;
+  }
+}
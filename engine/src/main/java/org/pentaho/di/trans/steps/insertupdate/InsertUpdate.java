@@ -13,11 +13,14 @@
 
 package org.pentaho.di.trans.steps.insertupdate;
 
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 import org.apache.commons.lang.ArrayUtils;
 import org.pentaho.di.core.Const;
+import org.pentaho.di.core.database.BatchLookup;
+import org.pentaho.di.core.database.Database;
 import org.pentaho.di.core.database.DatabaseMeta;
 import org.pentaho.di.core.exception.KettleDatabaseException;
 import org.pentaho.di.core.exception.KettleException;
@@ -55,6 +58,21 @@ public class InsertUpdate extends BaseDatabaseStep implements StepInterface {
   protected synchronized void lookupValues( RowMetaInterface rowMeta, Object[] row ) throws KettleException {
     // OK, now do the lookup.
     // We need the lookupvalues for that.
+    Object[] lookupRow = getLookupRow( row );
+
+    data.db.setValues( data.lookupParameterRowMeta, lookupRow, data.prepStatementLookup );
+
+    if ( log.isDebug() ) {
+      logDebug( BaseMessages.getString( PKG, "InsertUpdate.Log.ValuesSetForLookup" )
+        + data.lookupParameterRowMeta.getString( lookupRow ) );
+    }
+    Object[] add = data.db.getLookup( data.prepStatementLookup );
+    incrementLinesInput();
+
+    writeValues( rowMeta, row, lookupRow, add, data.db.getReturnRowMeta() );
+  }
+
+  private Object[] getLookupRow( Object[] row ) {
     Object[] lookupRow = new Object[ data.lookupParameterRowMeta.size() ];
     int lookupIndex = 0;
 
@@ -68,16 +86,14 @@ public class InsertUpdate extends BaseDatabaseStep implements StepInterface {
         lookupIndex++;
       }
     }
+    return lookupRow;
+  }
 
-    data.db.setValues( data.lookupParameterRowMeta, lookupRow, data.prepStatementLookup );
-
-    if ( log.isDebug() ) {
-      logDebug( BaseMessages.getString( PKG, "InsertUpdate.Log.ValuesSetForLookup" )
-        + data.lookupParameterRowMeta.getString( lookupRow ) );
-    }
-    Object[] add = data.db.getLookup( data.prepStatementLookup );
-    incrementLinesInput();
-
+  /**
+   * Inserts the row if no row was found, otherwise updates the found row if the values changed.
+   */
+  private void writeValues( RowMetaInterface rowMeta, Object[] row, Object[] lookupRow, Object[] add,
+                            RowMetaInterface returnRowMeta ) throws KettleException {
     if ( add == null ) {
       /*
        * nothing was found:
@@ -100,7 +116,12 @@ public class InsertUpdate extends BaseDatabaseStep implements StepInterface {
       data.db.setValuesInsert( data.insertRowMeta, insertRow );
 
       // Insert the row
-      data.db.insertRow();
+      if ( data.batchLookup == null ) {
+        data.db.insertRow();
+      } else {
+        data.db.insertRow( data.db.getPrepStatementInsert(), true, false );
+        data.batchInserts++;
+      }
 
       incrementLinesOutput();
     } else {
@@ -119,7 +140,7 @@ public class InsertUpdate extends BaseDatabaseStep implements StepInterface {
         for ( int i = 0; i < data.valuenrs.length; i++ ) {
           if ( meta.getUpdateFields()[ i ].getUpdate().booleanValue() ) {
             ValueMetaInterface valueMeta = rowMeta.getValueMeta( data.valuenrs[ i ] );
-            ValueMetaInterface retMeta = data.db.getReturnRowMeta().getValueMeta( i );
+            ValueMetaInterface retMeta = returnRowMeta.getValueMeta( i );
 
             Object rowvalue = row[ data.valuenrs[ i ] ];
             Object retvalue = add[ i ];
@@ -149,7 +170,12 @@ public class InsertUpdate extends BaseDatabaseStep implements StepInterface {
               + data.lookupParameterRowMeta.getString( lookupRow ) );
           }
           data.db.setValues( data.updateParameterRowMeta, updateRow, data.prepStatementUpdate );
-          data.db.insertRow( data.prepStatementUpdate );
+          if ( data.batchLookup == null ) {
+            data.db.insertRow( data.prepStatementUpdate );
+          } else {
+            data.db.insertRow( data.prepStatementUpdate, true, false );
+            data.batchUpdates++;
+          }
           incrementLinesUpdated();
         } else {
           incrementLinesSkipped();
@@ -173,6 +199,15 @@ public class InsertUpdate extends BaseDatabaseStep implements StepInterface {
     Object[] r = getRow(); // Get row from input rowset & set row busy!
     if ( r == null ) {
       // no more input to be expected...
+      if ( data.batchLookup != null && data.batchLookup.size() > 0 ) {
+        try {
+          writeBatch();
+        } catch ( KettleException e ) {
+          logError( BaseMessages.getString( PKG, "InsertUpdate.Log.ErrorInStep" ), e );
+          setErrors( 1 );
+          stopAll();
+        }
+      }
 
       setOutputDone();
       return false;
@@ -252,6 +287,7 @@ public class InsertUpdate extends BaseDatabaseStep implements StepInterface {
         }
       }
 
+      data.batchSize = getBatchSize();
       setLookup( getInputRowMeta() );
 
       data.insertRowMeta = new RowMeta();
@@ -286,6 +322,41 @@ public class InsertUpdate extends BaseDatabaseStep implements StepInterface {
         }
         prepareUpdate( getInputRowMeta() );
       }
+
+      if ( data.batchLookup != null ) {
+        data.useBatch = data.db.getUseBatchInsert( true ) && !data.db.isAutoCommit();
+        data.commitSize = meta.getCommitSize( this );
+        data.batchRows = new ArrayList<Object[]>( data.batchSize );
+        if ( log.isDetailed() ) {
+          logDetailed( BaseMessages.getString( PKG, "InsertUpdate.Log.BatchLookup",
+            String.valueOf( data.batchSize ) ) );
+        }
+      }
+    }
+
+    if ( data.batchLookup != null ) {
+      try {
+        Object[] lookupRow = getLookupRow( r );
+        if ( !data.batchLookup.canAdd( lookupRow ) ) {
+          // The batch is full or a row with the same key needs to be written first
+          writeBatch();
+        }
+        data.batchLookup.add( lookupRow );
+        data.batchRows.add( r );
+      } catch ( KettleException e ) {
+        logError( BaseMessages.getString( PKG, "InsertUpdate.Log.ErrorInStep" ), e );
+        setErrors( 1 );
+        stopAll();
+        setOutputDone(); // signal end to receiver(s)
+        return false;
+      }
+
+      if ( checkFeedback( getLinesRead() ) ) {
+        if ( log.isBasic() ) {
+          logBasic( BaseMessages.getString( PKG, "InsertUpdate.Log.LineNumber" ) + getLinesRead() );
+        }
+      }
+      return true;
     }
 
     try {
@@ -319,7 +390,84 @@ public class InsertUpdate extends BaseDatabaseStep implements StepInterface {
     return true;
   }
 
+  /**
+   * @return the number of rows to look up at a time, 0 if the rows have to be looked up one by one: when a key is not
+   *         compared for equality, when the inserted rows don't have the key values of the input rows, or when errors
+   *         are handled per row.
+   */
+  private int getBatchSize() {
+    int batchSize = Const.toInt( getVariable( Const.KETTLE_UPSERT_BATCH_SIZE, "0" ), 0 );
+    if ( batchSize <= 1 ) {
+      return 0;
+    }
+    boolean possible = !getStepMeta().isDoingErrorHandling();
+    for ( InsertUpdateMeta.KeyField keyField : meta.getKeyFields() ) {
+      possible = possible && ( "=".equals( keyField.getKeyCondition() )
+        || "= ~NULL".equalsIgnoreCase( keyField.getKeyCondition() ) ) && isKeyInserted( keyField );
+    }
+    if ( !possible ) {
+      logBasic( BaseMessages.getString( PKG, "InsertUpdate.Log.BatchNotPossible" ) );
+      return 0;
+    }
+    return batchSize;
+  }
+
+  /**
+   * @return true if the key column is inserted and updated with the key field only
+   */
+  private boolean isKeyInserted( InsertUpdateMeta.KeyField keyField ) {
+    int keynr = getInputRowMeta().indexOfValue( keyField.getKeyStream() );
+    boolean inserted = false;
+    for ( int i = 0; i < meta.getUpdateFields().length; i++ ) {
+      if ( meta.getUpdateFields()[ i ].getUpdateLookup().equalsIgnoreCase( keyField.getKeyLookup() ) ) {
+        if ( data.valuenrs[ i ] != keynr ) {
+          return false;
+        }
+        inserted = true;
+      }
+    }
+    return inserted;
+  }
+
+  /**
+   * Looks up the rows of the batch, writes the inserts and updates in JDBC batches and passes the rows on.
+   */
+  private void writeBatch() throws KettleException {
+    Object[][] found = data.batchLookup.lookup();
+    RowMetaInterface returnRowMeta = data.batchLookup.getReturnRowMeta();
+    for ( int i = 0; i < found.length; i++ ) {
+      Object[] row = data.batchRows.get( i );
+      incrementLinesInput();
+      writeValues( getInputRowMeta(), row, getLookupRow( row ), found[ i ], returnRowMeta );
+    }
+
+    // The keys in a batch differ, so the inserts can go before the updates
+    executeBatch( data.db.getPrepStatementInsert(), data.batchInserts );
+    executeBatch( data.prepStatementUpdate, data.batchUpdates );
+    data.uncommitted += data.batchInserts + data.batchUpdates;
+    data.batchInserts = 0;
+    data.batchUpdates = 0;
+    if ( data.commitSize > 0 && data.uncommitted >= data.commitSize && !data.db.isAutoCommit() ) {
+      data.db.commit();
+      data.uncommitted = 0;
+    }
+
+    for ( Object[] row : data.batchRows ) {
+      putRow( data.outputRowMeta, row );
+    }
+    data.batchRows.clear();
+  }
 
+  private void executeBatch( PreparedStatement ps, int rows ) throws KettleDatabaseException {
+    if ( data.useBatch && rows > 0 ) {
+      try {
+        ps.executeBatch();
+        ps.clearBatch();
+      } catch ( SQLException e ) {
+        throw Database.createKettleDatabaseBatchException( "Error updating batch", e );
+      }
+    }
+  }
 
   public void setLookup( RowMetaInterface rowMeta ) throws KettleDatabaseException {
     data.lookupParameterRowMeta = new RowMeta();
@@ -390,6 +538,10 @@ public class InsertUpdate extends BaseDatabaseStep implements StepInterface {
     } catch ( SQLException ex ) {
       throw new KettleDatabaseException( "Unable to prepare statement for SQL statement [" + sql + "]", ex );
     }
+
+    if ( data.batchSize > 1 ) {
+      data.batchLookup = new BatchLookup( data.db, sql, data.lookupParameterRowMeta, data.batchSize );
+    }
   }
 
   // Lookup certain fields in a table
@@ -495,6 +647,9 @@ public class InsertUpdate extends BaseDatabaseStep implements StepInterface {
             data.db.rollback();
           }
         }
+        if ( data.batchLookup != null ) {
+          data.batchLookup.close();
+        }
         data.db.closeUpdate();
         data.db.closeInsert();
       } catch ( KettleDatabaseException e ) {
@@ -13,11 +13,13 @@
 
 package org.pentaho.di.trans.steps.insertupdate;
 
+import org.pentaho.di.core.database.BatchLookup;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.trans.step.BaseDatabaseStepData;
 import org.pentaho.di.trans.step.StepDataInterface;
 
 import java.sql.PreparedStatement;
+import java.util.List;
 
 /**
  * Stores data for the Insert/Update step.
@@ -43,6 +45,15 @@ public class InsertUpdateData extends BaseDatabaseStepData implements StepDataIn
   public RowMetaInterface lookupReturnRowMeta;
   public RowMetaInterface insertRowMeta;
 
+  public int batchSize; // rows looked up at a time, 0 when they are looked up one by one
+  public BatchLookup batchLookup;
+  public List<Object[]> batchRows;
+  public boolean useBatch; // JDBC batches
+  public int batchInserts;
+  public int batchUpdates;
+  public int commitSize;
+  public int uncommitted;
+
   /**
    * Default constructor.
    */
@@ -13,16 +13,16 @@
 
 package org.pentaho.di.trans.steps.mergejoin;
 
-import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 
+import org.pentaho.di.core.Const;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.exception.KettleStepException;
 import org.pentaho.di.core.row.RowDataUtil;
 import org.pentaho.di.core.row.RowMeta;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.core.vfs.KettleVFS;
 import org.pentaho.di.i18n.BaseMessages;
 import org.pentaho.di.trans.Trans;
 import org.pentaho.di.trans.TransMeta;
@@ -82,7 +82,13 @@ public class MergeJoin extends BaseStep implements StepInterface {
           PKG, "MergeJoin.Exception.UnableToFindSpecifiedStep", infoStreams.get( 1 ).getStepname() ) );
       }
 
-      data.one = getRowFrom( data.oneRowSet );
+      // With a batch size, both inputs are read ahead on a thread of their own
+      //
+      int batchSize = Const.toInt( getVariable( Const.KETTLE_MERGE_JOIN_PREFETCH_ROWS ), 0 );
+      data.oneInput = new MergeJoinInput( this, data.oneRowSet, batchSize );
+      data.twoInput = new MergeJoinInput( this, data.twoRowSet, batchSize );
+
+      data.one = data.oneInput.getRow();
       if ( data.one != null ) {
         data.oneMeta = data.oneRowSet.getRowMeta();
       } else {
@@ -90,7 +96,7 @@ public class MergeJoin extends BaseStep implements StepInterface {
         data.oneMeta = getTransMeta().getStepFields( infoStreams.get( 0 ).getStepname() );
       }
 
-      data.two = getRowFrom( data.twoRowSet );
+      data.two = data.twoInput.getRow();
       if ( data.two != null ) {
         data.twoMeta = data.twoRowSet.getRowMeta();
       } else {
@@ -134,6 +140,19 @@ public class MergeJoin extends BaseStep implements StepInterface {
         }
       }
 
+      if ( data.keyNrs1 != null ) {
+        data.oneComparator = new MergeJoinKeyComparator( data.oneMeta, data.keyNrs1, data.oneMeta, data.keyNrs1 );
+      }
+      if ( data.keyNrs2 != null ) {
+        data.twoComparator = new MergeJoinKeyComparator( data.twoMeta, data.keyNrs2, data.twoMeta, data.keyNrs2 );
+      }
+      if ( data.keyNrs1 != null && data.keyNrs2 != null ) {
+        data.joinComparator = new MergeJoinKeyComparator( data.oneMeta, data.keyNrs1, data.twoMeta, data.keyNrs2 );
+      }
+      data.twos = new MergeJoinGroup( KettleVFS.getInstance( getTransMeta().getBowl() ),
+        environmentSubstitute( meta.getDirectory() ), environmentSubstitute( meta.getPrefix() ), getTransMeta(),
+        data.twoMeta, Const.toInt( getVariable( Const.KETTLE_MERGE_JOIN_MAX_GROUP_ROWS_IN_MEMORY ), 0 ) );
+
       // Calculate one_dummy... defaults to null
       data.one_dummy = RowDataUtil.allocateRowData( data.oneMeta.size() + data.twoMeta.size() );
 
@@ -157,10 +176,10 @@ public class MergeJoin extends BaseStep implements StepInterface {
       // If we don't do this, the transformation can stall.
       //
       while ( data.one != null && !isStopped() ) {
-        data.one = getRowFrom( data.oneRowSet );
+        data.one = data.oneInput.getRow();
       }
       while ( data.two != null && !isStopped() ) {
-        data.two = getRowFrom( data.twoRowSet );
+        data.two = data.twoInput.getRow();
       }
 
       setOutputDone();
@@ -173,7 +192,7 @@ public class MergeJoin extends BaseStep implements StepInterface {
       if ( data.two == null ) {
         compare = 1;
       } else {
-        int cmp = data.oneMeta.compare( data.one, data.twoMeta, data.two, data.keyNrs1, data.keyNrs2 );
+        int cmp = data.joinComparator.compare( data.one, data.two );
         compare = cmp > 0 ? 1 : cmp < 0 ? -1 : 0;
       }
     }
@@ -181,84 +200,34 @@ public class MergeJoin extends BaseStep implements StepInterface {
     switch ( compare ) {
       case 0:
         /*
-         * We've got a match. This is what we do next (to handle duplicate keys correctly): Read the next record from
-         * both streams If any of the keys match, this means we have duplicates. We therefore Create an array of all
-         * rows that have the same keys Push a Cartesian product of the two arrays to output Else Just push the combined
-         * rowset to output
+         * We've got a match. To handle duplicate keys correctly, read all rows with this key from the second stream
+         * into a group. Then join every row with this key from the first stream with all rows of the group: this pushes
+         * the Cartesian product of both sets of rows to output.
          */
-        data.one_next = getRowFrom( data.oneRowSet );
-        data.two_next = getRowFrom( data.twoRowSet );
-
-        int compare1 =
-          ( data.one_next == null ) ? -1 : data.oneMeta.compare(
-            data.one, data.one_next, data.keyNrs1, data.keyNrs1 );
-        int compare2 =
-          ( data.two_next == null ) ? -1 : data.twoMeta.compare(
-            data.two, data.two_next, data.keyNrs2, data.keyNrs2 );
-        if ( compare1 == 0 || compare2 == 0 ) { // Duplicate keys
-
-          if ( data.ones == null ) {
-            data.ones = new ArrayList<Object[]>();
-          } else {
-            data.ones.clear();
+        data.twos.clear();
+        data.twos.add( data.two );
+        for ( ; !isStopped(); ) {
+          data.two_next = data.twoInput.getRow();
+          if ( data.two_next == null || data.twoComparator.compare( data.two, data.two_next ) != 0 ) {
+            break;
           }
-          if ( data.twos == null ) {
-            data.twos = new ArrayList<Object[]>();
-          } else {
-            data.twos.clear();
-          }
-          data.ones.add( data.one );
-          if ( compare1 == 0 ) {
-            // First stream has duplicates
-
-            data.ones.add( data.one_next );
-            for ( ; !isStopped(); ) {
-              data.one_next = getRowFrom( data.oneRowSet );
-              if ( 0 != ( ( data.one_next == null ) ? -1 : data.oneMeta.compare(
-                data.one, data.one_next, data.keyNrs1, data.keyNrs1 ) ) ) {
-                break;
-              }
-              data.ones.add( data.one_next );
-            }
-            if ( isStopped() ) {
-              return false;
-            }
-          }
-          data.twos.add( data.two );
-          if ( compare2 == 0 ) { // Second stream has duplicates
-
-            data.twos.add( data.two_next );
-            for ( ; !isStopped(); ) {
-              data.two_next = getRowFrom( data.twoRowSet );
-              if ( 0 != ( ( data.two_next == null ) ? -1 : data.twoMeta.compare(
-                data.two, data.two_next, data.keyNrs2, data.keyNrs2 ) ) ) {
-                break;
-              }
-              data.twos.add( data.two_next );
-            }
-            if ( isStopped() ) {
-              return false;
-            }
-          }
-          for ( Iterator<Object[]> oneIter = data.ones.iterator(); oneIter.hasNext() && !isStopped(); ) {
-            Object[] one = oneIter.next();
-            for ( Iterator<Object[]> twoIter = data.twos.iterator(); twoIter.hasNext() && !isStopped(); ) {
-              Object[] two = twoIter.next();
-              Object[] oneBig = RowDataUtil.createResizedCopy( one, data.oneMeta.size() + data.twoMeta.size() );
-              Object[] combi = RowDataUtil.addRowData( oneBig, data.oneMeta.size(), two );
-              putRow( data.outputRowMeta, combi );
-            }
-            // Remove the rows as we merge them to keep the overall memory footprint minimal
-            oneIter.remove();
-          }
-          data.twos.clear();
-        } else {
-          // No duplicates
+          data.twos.add( data.two_next );
+        }
+        if ( isStopped() ) {
+          return false;
+        }
 
-          Object[] outputRowData = RowDataUtil.addRowData( data.one, data.oneMeta.size(), data.two );
-          putRow( data.outputRowMeta, outputRowData );
+        Object[] one = data.one;
+        for ( ; !isStopped(); ) {
+          joinWithGroup( data.one );
+          data.one = data.oneInput.getRow();
+          if ( data.one == null || data.oneComparator.compare( one, data.one ) != 0 ) {
+            break;
+          }
+        }
+        if ( isStopped() ) {
+          return false;
         }
-        data.one = data.one_next;
         data.two = data.two_next;
         break;
       case 1:
@@ -274,7 +243,7 @@ public class MergeJoin extends BaseStep implements StepInterface {
             Object[] outputRowData = RowDataUtil.createResizedCopy( data.one_dummy, data.outputRowMeta.size() );
             outputRowData = RowDataUtil.addRowData( outputRowData, data.oneMeta.size(), data.two );
             putRow( data.outputRowMeta, outputRowData );
-            data.two = getRowFrom( data.twoRowSet );
+            data.two = data.twoInput.getRow();
           } else if ( data.two_optional == false ) {
             /*
              * If we are doing right outer join then we are done since there are no more rows in the second set
@@ -283,10 +252,10 @@ public class MergeJoin extends BaseStep implements StepInterface {
             // If we don't do this, the transformation can stall.
             //
             while ( data.one != null && !isStopped() ) {
-              data.one = getRowFrom( data.oneRowSet );
+              data.one = data.oneInput.getRow();
             }
             while ( data.two != null && !isStopped() ) {
-              data.two = getRowFrom( data.twoRowSet );
+              data.two = data.twoInput.getRow();
             }
 
             setOutputDone();
@@ -298,7 +267,7 @@ public class MergeJoin extends BaseStep implements StepInterface {
             Object[] outputRowData = RowDataUtil.createResizedCopy( data.one, data.outputRowMeta.size() );
             outputRowData = RowDataUtil.addRowData( outputRowData, data.oneMeta.size(), data.two_dummy );
             putRow( data.outputRowMeta, outputRowData );
-            data.one = getRowFrom( data.oneRowSet );
+            data.one = data.oneInput.getRow();
           }
         } else if ( data.two == null && data.two_optional == true ) {
           /**
@@ -308,12 +277,12 @@ public class MergeJoin extends BaseStep implements StepInterface {
           Object[] outputRowData = RowDataUtil.createResizedCopy( data.one, data.outputRowMeta.size() );
           outputRowData = RowDataUtil.addRowData( outputRowData, data.oneMeta.size(), data.two_dummy );
           putRow( data.outputRowMeta, outputRowData );
-          data.one = getRowFrom( data.oneRowSet );
+          data.one = data.oneInput.getRow();
         } else if ( data.two != null ) {
           /*
            * We are doing an inner or left outer join, so throw this row away from the 2nd stream
            */
-          data.two = getRowFrom( data.twoRowSet );
+          data.two = data.twoInput.getRow();
         }
         break;
       case -1:
@@ -329,7 +298,7 @@ public class MergeJoin extends BaseStep implements StepInterface {
             Object[] outputRowData = RowDataUtil.createResizedCopy( data.one, data.outputRowMeta.size() );
             outputRowData = RowDataUtil.addRowData( outputRowData, data.oneMeta.size(), data.two_dummy );
             putRow( data.outputRowMeta, outputRowData );
-            data.one = getRowFrom( data.oneRowSet );
+            data.one = data.oneInput.getRow();
           } else if ( data.one_optional == false ) {
             /*
              * We are doing a left outer join and there are no more rows in the first stream; so we are done
@@ -338,10 +307,10 @@ public class MergeJoin extends BaseStep implements StepInterface {
             // If we don't do this, the transformation can stall.
             //
             while ( data.one != null && !isStopped() ) {
-              data.one = getRowFrom( data.oneRowSet );
+              data.one = data.oneInput.getRow();
             }
             while ( data.two != null && !isStopped() ) {
-              data.two = getRowFrom( data.twoRowSet );
+              data.two = data.twoInput.getRow();
             }
 
             setOutputDone();
@@ -353,7 +322,7 @@ public class MergeJoin extends BaseStep implements StepInterface {
             Object[] outputRowData = RowDataUtil.createResizedCopy( data.one_dummy, data.outputRowMeta.size() );
             outputRowData = RowDataUtil.addRowData( outputRowData, data.oneMeta.size(), data.two );
             putRow( data.outputRowMeta, outputRowData );
-            data.two = getRowFrom( data.twoRowSet );
+            data.two = data.twoInput.getRow();
           }
         } else if ( data.one == null && data.one_optional == true ) {
           /*
@@ -363,20 +332,20 @@ public class MergeJoin extends BaseStep implements StepInterface {
           Object[] outputRowData = RowDataUtil.createResizedCopy( data.one_dummy, data.outputRowMeta.size() );
           outputRowData = RowDataUtil.addRowData( outputRowData, data.oneMeta.size(), data.two );
           putRow( data.outputRowMeta, outputRowData );
-          data.two = getRowFrom( data.twoRowSet );
+          data.two = data.twoInput.getRow();
         } else if ( data.one != null ) {
           /*
            * We are doing an inner or right outer join so a non-matching row in the first stream is of no use to us -
            * throw it away and get the next row
            */
-          data.one = getRowFrom( data.oneRowSet );
+          data.one = data.oneInput.getRow();
         }
         break;
       default:
         logDebug( "We shouldn't be here!!" );
         // Make sure we do not go into an infinite loop by continuing to read data
-        data.one = getRowFrom( data.oneRowSet );
-        data.two = getRowFrom( data.twoRowSet );
+        data.one = data.oneInput.getRow();
+        data.two = data.twoInput.getRow();
         break;
     }
     if ( checkFeedback( getLinesRead() ) ) {
@@ -385,6 +354,28 @@ public class MergeJoin extends BaseStep implements StepInterface {
     return true;
   }
 
+  /**
+   * Pushes a row of the first stream joined with every row of the second stream with the same key to output.
+   */
+  private void joinWithGroup( Object[] one ) throws KettleException {
+    int oneSize = data.oneMeta.size();
+    boolean single = data.twos.size() == 1;
+    data.twos.rewind();
+    Object[] two;
+    while ( ( two = data.twos.next() ) != null && !isStopped() ) {
+      Object[] outputRowData;
+      if ( single ) {
+        outputRowData = RowDataUtil.addRowData( one, oneSize, two );
+      } else {
+        // The row of the first stream is used for more than one output row
+        outputRowData = RowDataUtil.allocateRowData( oneSize + two.length );
+        System.arraycopy( one, 0, outputRowData, 0, oneSize );
+        System.arraycopy( two, 0, outputRowData, oneSize, two.length );
+      }
+      putRow( data.outputRowMeta, outputRowData );
+    }
+  }
+
   /**
    * @see StepInterface#init(org.pentaho.di.trans.step.StepMetaInterface , org.pentaho.di.trans.step.StepDataInterface)
    */
@@ -412,6 +403,21 @@ public class MergeJoin extends BaseStep implements StepInterface {
     return true;
   }
 
+  @Override
+  public void dispose( StepMetaInterface smi, StepDataInterface sdi ) {
+    data = (MergeJoinData) sdi;
+    if ( data.oneInput != null ) {
+      data.oneInput.close();
+    }
+    if ( data.twoInput != null ) {
+      data.twoInput.close();
+    }
+    if ( data.twos != null ) {
+      data.twos.clear();
+    }
+    super.dispose( smi, sdi );
+  }
+
   /**
    * Checks whether incoming rows are join compatible. This essentially means that the keys being compared should be of
    * the same datatype and both rows should have the same number of keys specified
@@ -13,8 +13,6 @@
 
 package org.pentaho.di.trans.steps.mergejoin;
 
-import java.util.List;
-
 import org.pentaho.di.core.RowSet;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.trans.step.BaseStepData;
@@ -31,8 +29,7 @@ public class MergeJoinData extends BaseStepData implements StepDataInterface {
   public RowMetaInterface oneMeta, twoMeta;
   public RowMetaInterface outputRowMeta; // just for speed: oneMeta+twoMeta
   public Object[] one_dummy, two_dummy;
-  public List<Object[]> ones, twos;
-  public Object[] one_next, two_next;
+  public Object[] two_next;
   public boolean one_optional, two_optional;
   public int[] keyNrs1;
   public int[] keyNrs2;
@@ -40,14 +37,27 @@ public class MergeJoinData extends BaseStepData implements StepDataInterface {
   public RowSet oneRowSet;
   public RowSet twoRowSet;
 
+  MergeJoinInput oneInput;
+  MergeJoinInput twoInput;
+
+  /**
+   * Compares the keys of 2 rows of the first stream, of 2 rows of the second stream and of a row of each stream
+   */
+  MergeJoinKeyComparator oneComparator;
+  MergeJoinKeyComparator twoComparator;
+  MergeJoinKeyComparator joinComparator;
+
+  /**
+   * The rows of the second stream with the key of the current row of the first stream
+   */
+  MergeJoinGroup twos;
+
   /**
    * Default initializer
    */
   public MergeJoinData() {
     super();
-    ones = null;
     twos = null;
-    one_next = null;
     two_next = null;
     one_dummy = null;
     two_dummy = null;
@@ -0,0 +1,169 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.mergejoin;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemException;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.exception.KettleFileException;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.variables.VariableSpace;
+import org.pentaho.di.core.vfs.IKettleVFS;
+import org.pentaho.di.core.vfs.KettleVFS;
+
+/**
+ * The rows of the second input of a Merge Join that have the same key. The rows beyond the memory limit are written to
+ * a temporary file, so that very large groups of duplicate keys don't run out of memory. Every pass over the group
+ * reads that file again.
+ */
+class MergeJoinGroup {
+  private final IKettleVFS vfs;
+  private final String directory;
+  private final String prefix;
+  private final VariableSpace space;
+  private final RowMetaInterface rowMeta;
+  private final int memoryLimit;
+
+  private final List<Object[]> rows = new ArrayList<>();
+  private FileObject file;
+  private DataOutputStream output;
+  private int fileRows;
+
+  private int position;
+  private DataInputStream input;
+
+  /**
+   * @param vfs         the file system of the transformation
+   * @param directory   the directory of the temporary file
+   * @param prefix      the prefix of the name of the temporary file
+   * @param space       resolves the variables in the directory
+   * @param rowMeta     the layout of the rows
+   * @param memoryLimit the number of rows kept in memory, 0 to keep them all
+   */
+  MergeJoinGroup( IKettleVFS vfs, String directory, String prefix, VariableSpace space, RowMetaInterface rowMeta,
+    int memoryLimit ) {
+    this.vfs = vfs;
+    this.directory = directory;
+    this.prefix = prefix;
+    this.space = space;
+    this.rowMeta = rowMeta;
+    this.memoryLimit = memoryLimit;
+  }
+
+  void add( Object[] row ) throws KettleException {
+    if ( memoryLimit <= 0 || rows.size() < memoryLimit ) {
+      rows.add( row );
+      return;
+    }
+    if ( file == null ) {
+      file = vfs.createTempFile( prefix, ".tmp", directory, space );
+    }
+    try {
+      if ( output == null ) {
+        output = new DataOutputStream( new BufferedOutputStream( vfs.getOutputStream( file, false ), 65536 ) );
+      }
+    } catch ( IOException e ) {
+      throw new KettleFileException( "Unable to write the rows with the same key to temporary file "
+        + file.getName(), e );
+    }
+    rowMeta.writeData( output, row );
+    fileRows++;
+  }
+
+  int size() {
+    return rows.size() + fileRows;
+  }
+
+  /**
+   * Starts a pass over the rows, in the order they were added.
+   */
+  void rewind() throws KettleException {
+    closeStreams();
+    position = 0;
+  }
+
+  /**
+   * @return the next row of the pass or null when all rows were read
+   */
+  Object[] next() throws KettleException {
+    if ( position < rows.size() ) {
+      return rows.get( position++ );
+    }
+    if ( position >= size() ) {
+      return null;
+    }
+    try {
+      if ( input == null ) {
+        input = new DataInputStream( new BufferedInputStream( KettleVFS.getInputStream( file ), 65536 ) );
+      }
+    } catch ( IOException e ) {
+      throw new KettleFileException( "Unable to read the rows with the same key from temporary file "
+        + file.getName(), e );
+    }
+    position++;
+    try {
+      return rowMeta.readData( input );
+    } catch ( SocketTimeoutException e ) {
+      throw new KettleFileException( "Unable to read the rows with the same key from temporary file "
+        + file.getName(), e );
+    }
+  }
+
+  /**
+   * Removes the rows, the memory used for them is kept for the next group.
+   */
+  void clear() {
+    try {
+      closeStreams();
+    } catch ( KettleException e ) {
+      // The file is thrown away
+    }
+    rows.clear();
+    fileRows = 0;
+    position = 0;
+    if ( file != null ) {
+      try {
+        file.delete();
+      } catch ( FileSystemException e ) {
+        // Left for the operating system to clean up
+      }
+      file = null;
+    }
+  }
+
+  private void closeStreams() throws KettleException {
+    try {
+      if ( output != null ) {
+        output.close();
+      }
+      if ( input != null ) {
+        input.close();
+      }
+    } catch ( IOException e ) {
+      throw new KettleFileException( "Unable to close temporary file " + file.getName(), e );
+    } finally {
+      output = null;
+      input = null;
+    }
+  }
+}
@@ -0,0 +1,148 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.mergejoin;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.pentaho.di.core.RowSet;
+import org.pentaho.di.core.exception.KettleStepException;
+import org.pentaho.di.trans.step.BaseStep;
+
+/**
+ * Reads the rows of one input of a Merge Join. With a batch size, a separate thread reads batches of rows ahead, so
+ * that both inputs are read while the step joins the rows it already has.
+ */
+class MergeJoinInput {
+  /**
+   * The number of batches read ahead
+   */
+  private static final int BATCHES_AHEAD = 2;
+
+  private final List<Object[]> end = new ArrayList<>( 0 );
+
+  private final BaseStep step;
+  private final RowSet rowSet;
+  private final int batchSize;
+
+  private BlockingQueue<List<Object[]>> batches;
+  private Thread reader;
+  private volatile boolean closed;
+  private volatile Exception error;
+
+  private List<Object[]> batch;
+  private int index;
+  private boolean done;
+
+  /**
+   * @param step      the step reading the rows
+   * @param rowSet    the row set to read from
+   * @param batchSize the number of rows to read ahead at a time, 0 to read the rows one at a time when they're asked
+   *                  for
+   */
+  MergeJoinInput( BaseStep step, RowSet rowSet, int batchSize ) {
+    this.step = step;
+    this.rowSet = rowSet;
+    this.batchSize = batchSize;
+  }
+
+  RowSet getRowSet() {
+    return rowSet;
+  }
+
+  /**
+   * @return the next row or null if there are no more rows
+   */
+  Object[] getRow() throws KettleStepException {
+    if ( batchSize <= 0 ) {
+      return step.getRowFrom( rowSet );
+    }
+    if ( reader == null ) {
+      start();
+    }
+    while ( batch == null || index >= batch.size() ) {
+      if ( done ) {
+        return null;
+      }
+      try {
+        batch = batches.take();
+      } catch ( InterruptedException e ) {
+        Thread.currentThread().interrupt();
+        throw new KettleStepException( e );
+      }
+      index = 0;
+      if ( batch == end ) {
+        done = true;
+        batch = null;
+        if ( error != null ) {
+          throw new KettleStepException( error );
+        }
+      }
+    }
+    return batch.get( index++ );
+  }
+
+  private void start() {
+    batches = new ArrayBlockingQueue<>( BATCHES_AHEAD );
+    reader = new Thread( this::read, step.getStepname() + " - " + rowSet.getOriginStepName() );
+    reader.setDaemon( true );
+    reader.start();
+  }
+
+  private void read() {
+    List<Object[]> rows = new ArrayList<>( batchSize );
+    try {
+      Object[] row;
+      while ( !closed && ( row = step.getRowFrom( rowSet ) ) != null ) {
+        rows.add( row );
+        if ( rows.size() == batchSize ) {
+          put( rows );
+          rows = new ArrayList<>( batchSize );
+        }
+      }
+    } catch ( Exception e ) {
+      error = e;
+    } finally {
+      // The rows read before an error are joined first
+      if ( !rows.isEmpty() ) {
+        put( rows );
+      }
+      put( end );
+    }
+  }
+
+  private void put( List<Object[]> rows ) {
+    try {
+      while ( !closed && !batches.offer( rows, 100, TimeUnit.MILLISECONDS ) ) {
+        // Wait for the step to take a batch
+      }
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+      closed = true;
+    }
+  }
+
+  /**
+   * Stops reading ahead.
+   */
+  void close() {
+    closed = true;
+    if ( reader != null ) {
+      reader.interrupt();
+    }
+  }
+}
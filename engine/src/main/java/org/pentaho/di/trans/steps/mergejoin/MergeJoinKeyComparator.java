@@ -0,0 +1,86 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.mergejoin;
+
+import org.pentaho.di.core.exception.KettleValueException;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+
+/**
+ * Compares the join keys of two rows. The value metadata of the keys is looked up once, and integer keys of the same
+ * layout are compared directly. It compares like {@link RowMetaInterface#compare(Object[], RowMetaInterface, Object[],
+ * int[], int[])}.
+ */
+class MergeJoinKeyComparator {
+  private final int[] keyNrs1;
+  private final int[] keyNrs2;
+  private final ValueMetaInterface[] valueMetas1;
+  private final ValueMetaInterface[] valueMetas2;
+  private final boolean[] sameLayout;
+  private final boolean[] integers;
+
+  /**
+   * @param rowMeta1 the layout of the rows on the left of the comparison
+   * @param keyNrs1  the indexes of the keys in these rows
+   * @param rowMeta2 the layout of the rows on the right of the comparison
+   * @param keyNrs2  the indexes of the keys in these rows
+   */
+  MergeJoinKeyComparator( RowMetaInterface rowMeta1, int[] keyNrs1, RowMetaInterface rowMeta2, int[] keyNrs2 ) {
+    int nrKeys = Math.min( keyNrs1.length, keyNrs2.length );
+    this.keyNrs1 = keyNrs1;
+    this.keyNrs2 = keyNrs2;
+    valueMetas1 = new ValueMetaInterface[ nrKeys ];
+    valueMetas2 = new ValueMetaInterface[ nrKeys ];
+    sameLayout = new boolean[ nrKeys ];
+    integers = new boolean[ nrKeys ];
+    for ( int i = 0; i < nrKeys; i++ ) {
+      valueMetas1[ i ] = rowMeta1.getValueMeta( keyNrs1[ i ] );
+      valueMetas2[ i ] = rowMeta2.getValueMeta( keyNrs2[ i ] );
+      sameLayout[ i ] = valueMetas1[ i ].getType() == valueMetas2[ i ].getType()
+        && valueMetas1[ i ].getStorageType() == valueMetas2[ i ].getStorageType();
+      integers[ i ] = sameLayout[ i ] && valueMetas1[ i ].isStorageNormal()
+        && valueMetas1[ i ].getClass() == ValueMetaInteger.class
+        && valueMetas2[ i ].getClass() == ValueMetaInteger.class
+        && !valueMetas1[ i ].isSortedDescending();
+    }
+  }
+
+  /**
+   * @return a negative number, zero or a positive number when the keys of the first row are smaller than, equal to or
+   * greater than the keys of the second row
+   */
+  int compare( Object[] row1, Object[] row2 ) throws KettleValueException {
+    for ( int i = 0; i < valueMetas1.length; i++ ) {
+      Object data1 = row1[ keyNrs1[ i ] ];
+      Object data2 = row2[ keyNrs2[ i ] ];
+      int cmp;
+      if ( integers[ i ] ) {
+        if ( data1 == null || data2 == null ) {
+          cmp = data1 == data2 ? 0 : data1 == null ? -1 : 1;
+        } else {
+          cmp = Long.compare( (Long) data1, (Long) data2 );
+        }
+      } else if ( sameLayout[ i ] ) {
+        cmp = valueMetas1[ i ].compare( data1, data2 );
+      } else {
+        cmp = valueMetas1[ i ].compare( data1, valueMetas2[ i ], data2 );
+      }
+      if ( cmp != 0 ) {
+        return cmp;
+      }
+    }
+    return 0;
+  }
+}
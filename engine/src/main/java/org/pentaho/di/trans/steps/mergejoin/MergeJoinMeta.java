@@ -63,6 +63,10 @@ public class MergeJoinMeta extends BaseStepMeta implements StepMetaInterface {
   public static final boolean[] one_optionals = { false, false, true, true };
   public static final boolean[] two_optionals = { false, true, false, true };
 
+  /** The temporary files go here in steps saved before they could be configured */
+  private static final String DEFAULT_DIRECTORY = "%%java.io.tmpdir%%";
+  private static final String DEFAULT_PREFIX = "mergejoin";
+
   @Injection( name = "JOIN_TYPE" )
   private String joinType;
 
@@ -71,6 +75,14 @@ public class MergeJoinMeta extends BaseStepMeta implements StepMetaInterface {
   @Injection( name = "KEY_FIELD2" )
   private String[] keyFields2;
 
+  /** The directory of the temporary file of large groups of rows with the same key */
+  @Injection( name = "DIRECTORY" )
+  private String directory;
+
+  /** The prefix of the temporary file of large groups of rows with the same key */
+  @Injection( name = "PREFIX" )
+  private String prefix;
+
   /**
    * The supported join types are INNER, LEFT OUTER, RIGHT OUTER and FULL OUTER
    *
@@ -117,6 +129,34 @@ public class MergeJoinMeta extends BaseStepMeta implements StepMetaInterface {
     this.keyFields2 = keyFields2;
   }
 
+  /**
+   * @return Returns the directory of the temporary files.
+   */
+  public String getDirectory() {
+    return directory;
+  }
+
+  /**
+   * @param directory The directory of the temporary files to set.
+   */
+  public void setDirectory( String directory ) {
+    this.directory = directory;
+  }
+
+  /**
+   * @return Returns the prefix of the temporary files.
+   */
+  public String getPrefix() {
+    return prefix;
+  }
+
+  /**
+   * @param prefix The prefix of the temporary files to set.
+   */
+  public void setPrefix( String prefix ) {
+    this.prefix = prefix;
+  }
+
   public boolean excludeFromRowLayoutVerification() {
     return true;
   }
@@ -161,6 +201,8 @@ public class MergeJoinMeta extends BaseStepMeta implements StepMetaInterface {
     retval.append( XMLHandler.addTagValue( "join_type", getJoinType() ) );
     retval.append( XMLHandler.addTagValue( "step1", infoStreams.get( 0 ).getStepname() ) );
     retval.append( XMLHandler.addTagValue( "step2", infoStreams.get( 1 ).getStepname() ) );
+    retval.append( XMLHandler.addTagValue( "directory", directory ) );
+    retval.append( XMLHandler.addTagValue( "prefix", prefix ) );
 
     retval.append( "    <keys_1>" + Const.CR );
     for ( int i = 0; i < keyFields1.length; i++ ) {
@@ -202,6 +244,8 @@ public class MergeJoinMeta extends BaseStepMeta implements StepMetaInterface {
       infoStreams.get( 0 ).setSubject( XMLHandler.getTagValue( stepnode, "step1" ) );
       infoStreams.get( 1 ).setSubject( XMLHandler.getTagValue( stepnode, "step2" ) );
       joinType = XMLHandler.getTagValue( stepnode, "join_type" );
+      directory = Const.NVL( XMLHandler.getTagValue( stepnode, "directory" ), DEFAULT_DIRECTORY );
+      prefix = Const.NVL( XMLHandler.getTagValue( stepnode, "prefix" ), DEFAULT_PREFIX );
     } catch ( Exception e ) {
       throw new KettleXMLException(
         BaseMessages.getString( PKG, "MergeJoinMeta.Exception.UnableToLoadStepInfo" ), e );
@@ -210,6 +254,8 @@ public class MergeJoinMeta extends BaseStepMeta implements StepMetaInterface {
 
   public void setDefault() {
     joinType = join_types[0];
+    directory = DEFAULT_DIRECTORY;
+    prefix = DEFAULT_PREFIX;
     allocate( 0, 0 );
   }
 
@@ -231,6 +277,8 @@ public class MergeJoinMeta extends BaseStepMeta implements StepMetaInterface {
       infoStreams.get( 0 ).setSubject( rep.getStepAttributeString( id_step, "step1" ) );
       infoStreams.get( 1 ).setSubject( rep.getStepAttributeString( id_step, "step2" ) );
       joinType = rep.getStepAttributeString( id_step, "join_type" );
+      directory = Const.NVL( rep.getStepAttributeString( id_step, "directory" ), DEFAULT_DIRECTORY );
+      prefix = Const.NVL( rep.getStepAttributeString( id_step, "prefix" ), DEFAULT_PREFIX );
     } catch ( Exception e ) {
       throw new KettleException( BaseMessages.getString(
         PKG, "MergeJoinMeta.Exception.UnexpectedErrorReadingStepInfo" ), e );
@@ -260,6 +308,8 @@ public class MergeJoinMeta extends BaseStepMeta implements StepMetaInterface {
       rep.saveStepAttribute( id_transformation, id_step, "step1", infoStreams.get( 0 ).getStepname() );
       rep.saveStepAttribute( id_transformation, id_step, "step2", infoStreams.get( 1 ).getStepname() );
       rep.saveStepAttribute( id_transformation, id_step, "join_type", getJoinType() );
+      rep.saveStepAttribute( id_transformation, id_step, "directory", directory );
+      rep.saveStepAttribute( id_transformation, id_step, "prefix", prefix );
     } catch ( Exception e ) {
       throw new KettleException( BaseMessages.getString( PKG, "MergeJoinMeta.Exception.UnableToSaveStepInfo" )
         + id_step, e );
@@ -0,0 +1,379 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.parallelgzipcsv;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import org.apache.commons.vfs2.FileObject;
+import org.pentaho.di.core.vfs.KettleVFS;
+
+/**
+ * Index of the members of a gzip file. A gzip file can consist of several members (compressed streams) written one
+ * after the other, BGZF files (bgzip, htslib) are made of members of at most 64KB. Every member starts on a byte
+ * boundary with a fresh dictionary so decompression can start at the beginning of any member. The index keeps the
+ * compressed and uncompressed offset of the members, no more than one per {@link #SPACING} uncompressed bytes.<br>
+ * <br>
+ * BGZF files are indexed by reading the member headers and trailers only. Other files need to be decompressed once to
+ * find the member boundaries. Indexes are stored next to the file in a sidecar file with extension
+ * {@link #EXTENSION}.
+ */
+public class GzipIndex {
+
+  public static final String EXTENSION = ".kgzi";
+
+  /** The minimum number of uncompressed bytes between two index entries */
+  public static final long SPACING = 4L * 1024 * 1024;
+
+  private static final int MAGIC = 0x4b475a49; // KGZI
+  private static final int VERSION = 1;
+
+  private static final int FHCRC = 2;
+  private static final int FEXTRA = 4;
+  private static final int FNAME = 8;
+  private static final int FCOMMENT = 16;
+
+  private static final Map<String, GzipIndex> indexes = new ConcurrentHashMap<>();
+
+  private final long fileSize;
+  private final long lastModified;
+  private long uncompressedSize;
+  private long[] compressedOffsets;
+  private long[] uncompressedOffsets;
+  private int nrEntries;
+
+  public GzipIndex( long fileSize, long lastModified ) {
+    this.fileSize = fileSize;
+    this.lastModified = lastModified;
+    this.compressedOffsets = new long[ 16 ];
+    this.uncompressedOffsets = new long[ 16 ];
+  }
+
+  /**
+   * Gets the index of a gzip file. The index is looked up in memory first, then in the sidecar file. If neither is there
+   * or up to date the index is built and saved in the sidecar file. Step copies reading the same file share the index.
+   *
+   * @param fileObject  the gzip file
+   * @param scanMembers true to decompress files that are not in the BGZF format to find their members
+   * @return the index or null if the file is not in the BGZF format and scanMembers is false
+   * @throws IOException in case the file can't be read
+   */
+  public static synchronized GzipIndex getIndex( FileObject fileObject, boolean scanMembers ) throws IOException {
+    String uri = fileObject.getName().getURI();
+    long fileSize = fileObject.getContent().getSize();
+    long lastModified = fileObject.getContent().getLastModifiedTime();
+
+    GzipIndex index = indexes.get( uri );
+    if ( index != null && index.matches( fileSize, lastModified ) ) {
+      return index;
+    }
+
+    FileObject sidecar = fileObject.getParent().resolveFile( fileObject.getName().getBaseName() + EXTENSION );
+    index = null;
+    if ( sidecar.exists() ) {
+      try ( InputStream inputStream = KettleVFS.getInputStream( sidecar ) ) {
+        index = read( inputStream );
+      } catch ( IOException e ) {
+        // Corrupt index, build it again
+      }
+    }
+    if ( index == null || !index.matches( fileSize, lastModified ) ) {
+      try ( InputStream inputStream = KettleVFS.getInputStream( fileObject ) ) {
+        index = build( inputStream, fileSize, lastModified, scanMembers );
+      }
+      if ( index == null ) {
+        return null;
+      }
+      try ( OutputStream outputStream = KettleVFS.getOutputStream( sidecar, false ) ) {
+        index.write( outputStream );
+      } catch ( IOException e ) {
+        // Read-only location: the index is built again by the next transformation
+      }
+    }
+    indexes.put( uri, index );
+    return index;
+  }
+
+  /**
+   * Builds the index of a gzip file.
+   *
+   * @param inputStream  the compressed file
+   * @param fileSize     the size of the file
+   * @param lastModified the last modification time of the file
+   * @param scanMembers  true to decompress files that are not in the BGZF format to find their members
+   * @return the index or null if the file is not in the BGZF format and scanMembers is false
+   * @throws IOException in case the file can't be read or isn't a gzip file
+   */
+  public static GzipIndex build( InputStream inputStream, long fileSize, long lastModified, boolean scanMembers )
+    throws IOException {
+    Scanner scanner = new Scanner( inputStream );
+    GzipIndex index = new GzipIndex( fileSize, lastModified );
+
+    int blockSize = scanner.readHeader();
+    if ( blockSize < 0 && !scanMembers ) {
+      return null;
+    }
+    long memberStart = 0L;
+    long uncompressed = 0L;
+    while ( blockSize != Integer.MIN_VALUE ) {
+      if ( index.nrEntries == 0 || uncompressed - index.getLastUncompressedOffset() >= SPACING ) {
+        index.add( memberStart, uncompressed );
+      }
+      if ( blockSize >= 0 ) {
+        // BGZF: skip the compressed data, the uncompressed size is in the trailer
+        //
+        scanner.skip( memberStart + blockSize - 4 - scanner.position );
+        uncompressed += scanner.readIntLE() & 0xffffffffL;
+      } else {
+        uncompressed += scanner.inflateMember();
+      }
+      memberStart = scanner.position;
+      blockSize = scanner.readHeader();
+    }
+    index.uncompressedSize = uncompressed;
+    return index;
+  }
+
+  /**
+   * Reads an index written with {@link #write(OutputStream)}.
+   *
+   * @return the index or null if the data is not an index
+   */
+  public static GzipIndex read( InputStream inputStream ) throws IOException {
+    DataInputStream in = new DataInputStream( new BufferedInputStream( inputStream ) );
+    if ( in.readInt() != MAGIC || in.readInt() != VERSION ) {
+      return null;
+    }
+    GzipIndex index = new GzipIndex( in.readLong(), in.readLong() );
+    index.uncompressedSize = in.readLong();
+    int size = in.readInt();
+    for ( int i = 0; i < size; i++ ) {
+      index.add( in.readLong(), in.readLong() );
+    }
+    return index;
+  }
+
+  public void write( OutputStream outputStream ) throws IOException {
+    DataOutputStream out = new DataOutputStream( new BufferedOutputStream( outputStream ) );
+    out.writeInt( MAGIC );
+    out.writeInt( VERSION );
+    out.writeLong( fileSize );
+    out.writeLong( lastModified );
+    out.writeLong( uncompressedSize );
+    out.writeInt( nrEntries );
+    for ( int i = 0; i < nrEntries; i++ ) {
+      out.writeLong( compressedOffsets[ i ] );
+      out.writeLong( uncompressedOffsets[ i ] );
+    }
+    out.flush();
+  }
+
+  private void add( long compressedOffset, long uncompressedOffset ) {
+    if ( nrEntries == compressedOffsets.length ) {
+      compressedOffsets = Arrays.copyOf( compressedOffsets, nrEntries * 2 );
+      uncompressedOffsets = Arrays.copyOf( uncompressedOffsets, nrEntries * 2 );
+    }
+    compressedOffsets[ nrEntries ] = compressedOffset;
+    uncompressedOffsets[ nrEntries ] = uncompressedOffset;
+    nrEntries++;
+  }
+
+  private long getLastUncompressedOffset() {
+    return nrEntries == 0 ? 0L : uncompressedOffsets[ nrEntries - 1 ];
+  }
+
+  /**
+   * @return true if the index was built for a file with the given size and modification time
+   */
+  public boolean matches( long fileSize, long lastModified ) {
+    return this.fileSize == fileSize && this.lastModified == lastModified;
+  }
+
+  /**
+   * @return true if decompression can start somewhere else than at the beginning of the file
+   */
+  public boolean isSeekable() {
+    return nrEntries > 1;
+  }
+
+  /**
+   * @param uncompressedPosition a position in the uncompressed data
+   * @return the number of the last entry at or before the position
+   */
+  public int findEntry( long uncompressedPosition ) {
+    int entry = Arrays.binarySearch( uncompressedOffsets, 0, nrEntries, uncompressedPosition );
+    return entry >= 0 ? entry : -entry - 2;
+  }
+
+  public long getCompressedOffset( int entry ) {
+    return compressedOffsets[ entry ];
+  }
+
+  public long getUncompressedOffset( int entry ) {
+    return uncompressedOffsets[ entry ];
+  }
+
+  public int size() {
+    return nrEntries;
+  }
+
+  public long getUncompressedSize() {
+    return uncompressedSize;
+  }
+
+  /**
+   * Reads gzip member headers and keeps track of the position in the compressed file.
+   */
+  private static class Scanner {
+    private static final int BUFFER_SIZE = 65536;
+
+    private final PushbackInputStream in;
+    private final byte[] buffer = new byte[ BUFFER_SIZE ];
+    private final byte[] inflated = new byte[ BUFFER_SIZE ];
+    private long position;
+
+    Scanner( InputStream inputStream ) {
+      this.in = new PushbackInputStream( inputStream, BUFFER_SIZE );
+    }
+
+    /**
+     * @return the BGZF block size, -1 for a member that is not a BGZF block or Integer.MIN_VALUE at the end of the file
+     */
+    int readHeader() throws IOException {
+      int id1 = in.read();
+      if ( id1 < 0 ) {
+        return Integer.MIN_VALUE;
+      }
+      position++;
+      if ( id1 != 0x1f || readByte() != 0x8b || readByte() != 8 ) {
+        throw new IOException( "Not in gzip format at offset " + ( position - 1 ) );
+      }
+      int flags = readByte();
+      skip( 6 ); // modification time, extra flags, OS
+
+      int blockSize = -1;
+      if ( ( flags & FEXTRA ) != 0 ) {
+        int extraLength = readShortLE();
+        long extraEnd = position + extraLength;
+        while ( position + 4 <= extraEnd ) {
+          int si1 = readByte();
+          int si2 = readByte();
+          int length = readShortLE();
+          if ( si1 == 'B' && si2 == 'C' && length == 2 ) {
+            blockSize = readShortLE() + 1;
+          } else {
+            skip( length );
+          }
+        }
+        skip( extraEnd - position );
+      }
+      if ( ( flags & FNAME ) != 0 ) {
+        skipZeroTerminated();
+      }
+      if ( ( flags & FCOMMENT ) != 0 ) {
+        skipZeroTerminated();
+      }
+      if ( ( flags & FHCRC ) != 0 ) {
+        skip( 2 );
+      }
+      return blockSize;
+    }
+
+    /**
+     * Decompresses the data of the member and skips the trailer.
+     *
+     * @return the number of uncompressed bytes in the member
+     */
+    long inflateMember() throws IOException {
+      Inflater inflater = new Inflater( true );
+      try {
+        int length = 0;
+        while ( !inflater.finished() ) {
+          if ( inflater.needsInput() ) {
+            length = in.read( buffer );
+            if ( length < 0 ) {
+              throw new EOFException( "Unexpected end of gzip file" );
+            }
+            inflater.setInput( buffer, 0, length );
+          }
+          try {
+            inflater.inflate( inflated );
+          } catch ( DataFormatException e ) {
+            throw new IOException( e );
+          }
+        }
+        // Put back what was read beyond the end of the member
+        //
+        int remaining = inflater.getRemaining();
+        if ( remaining > 0 ) {
+          in.unread( buffer, length - remaining, remaining );
+        }
+        position += inflater.getBytesRead();
+        skip( 8 ); // CRC32 and ISIZE
+        return inflater.getBytesWritten();
+      } finally {
+        inflater.end();
+      }
+    }
+
+    int readByte() throws IOException {
+      int b = in.read();
+      if ( b < 0 ) {
+        throw new EOFException( "Unexpected end of gzip file" );
+      }
+      position++;
+      return b;
+    }
+
+    int readShortLE() throws IOException {
+      return readByte() | ( readByte() << 8 );
+    }
+
+    int readIntLE() throws IOException {
+      return readShortLE() | ( readShortLE() << 16 );
+    }
+
+    void skip( long bytes ) throws IOException {
+      long skipped = 0L;
+      while ( skipped < bytes ) {
+        long n = in.skip( bytes - skipped );
+        if ( n <= 0 ) {
+          readByte();
+          skipped++;
+        } else {
+          skipped += n;
+          position += n;
+        }
+      }
+    }
+
+    private void skipZeroTerminated() throws IOException {
+      while ( readByte() != 0 ) {
+        // keep looking
+      }
+    }
+  }
+}
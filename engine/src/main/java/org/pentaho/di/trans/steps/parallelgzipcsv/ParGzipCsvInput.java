@@ -19,6 +19,7 @@ import java.util.List;
 import java.util.zip.GZIPInputStream;
 
 import org.apache.commons.vfs2.FileObject;
+import org.pentaho.di.core.Const;
 import org.pentaho.di.core.ResultFile;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.exception.KettleFileException;
@@ -181,21 +182,10 @@ public class ParGzipCsvInput extends BaseStep implements StepInterface {
       // Get into position...
       //
       try {
-        long bytesSkipped = 0;
-        while ( bytesSkipped < bytesToSkip ) {
-          long n = data.gzis.skip( bytesToSkip - bytesSkipped );
-          if ( n <= 0 ) {
-            // EOF reached...
-            //
-            data.eofReached = true;
-            data.fileReadPosition += bytesSkipped;
-            return true; // nothing more to be found in the file, stop right here.
-          }
-          bytesSkipped += n;
+        if ( !skipTo( positionToReach ) ) {
+          return true; // nothing more to be found in the file, stop right here.
         }
 
-        data.fileReadPosition += bytesSkipped;
-
         // Now we need to clear the buffer, reset everything...
         //
         clearBuffer();
@@ -216,6 +206,74 @@ public class ParGzipCsvInput extends BaseStep implements StepInterface {
     }
   }
 
+  private GzipIndex getGzipIndex( FileObject fileObject ) {
+    try {
+      boolean scanMembers = "Y".equalsIgnoreCase( getVariable( Const.KETTLE_PARGZIP_SCAN_MEMBERS, "N" ) );
+      GzipIndex index = GzipIndex.getIndex( fileObject, scanMembers );
+      if ( index != null && index.isSeekable() ) {
+        if ( log.isDetailed() ) {
+          logDetailed( "Using an index of " + index.size() + " gzip members for file " + fileObject.getName() );
+        }
+        return index;
+      }
+    } catch ( IOException e ) {
+      logError( "Unable to index gzip file " + fileObject.getName() + ", decompressing from the start", e );
+    }
+    return null;
+  }
+
+  /**
+   * Skips to the given position in the uncompressed data of the current file. With a gzip member index the file is
+   * reopened at the last member before the position instead of decompressing all data in between.
+   *
+   * @param positionToReach the position in the uncompressed data
+   * @return false if the end of the file was reached before the position
+   * @throws IOException in case of an I/O problem
+   */
+  private boolean skipTo( long positionToReach ) throws IOException {
+    if ( data.gzipIndex != null ) {
+      if ( positionToReach >= data.gzipIndex.getUncompressedSize() ) {
+        data.eofReached = true;
+        return false;
+      }
+      int entry = data.gzipIndex.findEntry( positionToReach );
+      if ( entry >= 0 && data.gzipIndex.getUncompressedOffset( entry ) > data.fileReadPosition ) {
+        data.gzis.close();
+        data.fis = KettleVFS.getInputStream( data.fileObject );
+        long offset = data.gzipIndex.getCompressedOffset( entry );
+        long skipped = 0L;
+        while ( skipped < offset ) {
+          long n = data.fis.skip( offset - skipped );
+          if ( n <= 0 ) {
+            throw new IOException( "Unable to skip to offset " + offset + " in file " + data.fileObject.getName() );
+          }
+          skipped += n;
+        }
+        data.gzis = new GZIPInputStream( data.fis, data.bufferSize );
+        data.fileReadPosition = data.gzipIndex.getUncompressedOffset( entry );
+      }
+    }
+
+    long bytesToSkip = positionToReach - data.fileReadPosition;
+    long bytesSkipped = 0L;
+    while ( bytesSkipped < bytesToSkip ) {
+      long n = data.gzis.skip( bytesToSkip - bytesSkipped );
+      if ( n <= 0 ) {
+        // EOF reached...
+        //
+        data.eofReached = true;
+        data.fileReadPosition += bytesSkipped;
+        return false;
+      }
+      bytesSkipped += n;
+    }
+
+    // Keep track of the file pointer!
+    //
+    data.fileReadPosition += bytesSkipped;
+    return true;
+  }
+
   private void getFilenamesFromPreviousSteps() throws KettleException {
     List<String> filenames = new ArrayList<String>();
     boolean firstRow = true;
@@ -273,6 +331,7 @@ public class ParGzipCsvInput extends BaseStep implements StepInterface {
       logBasic( "Opening file #" + data.filenr + " : " + data.filenames[data.filenr] );
       FileObject fileObject = KettleVFS.getInstance( getTransMeta().getBowl() )
         .getFileObject( data.filenames[data.filenr], getTransMeta() );
+      data.fileObject = fileObject;
       data.fis = KettleVFS.getInputStream( fileObject );
 
       if ( meta.isLazyConversionActive() ) {
@@ -314,6 +373,17 @@ public class ParGzipCsvInput extends BaseStep implements StepInterface {
         // So our first act is to skip to the correct position in the compressed stream...
         //
         data.blockSize = 2 * data.bufferSize; // for now.
+
+        // If the file consists of several gzip members (BGZF for example) the step copies can start decompressing at
+        // the member holding their block. In that case every step copy reads one contiguous part of the file.
+        //
+        data.gzipIndex = getGzipIndex( fileObject );
+        if ( data.gzipIndex != null ) {
+          long partSize =
+            ( data.gzipIndex.getUncompressedSize() + data.totalNumberOfSteps - 1 ) / data.totalNumberOfSteps;
+          data.blockSize = Math.max( data.blockSize, partSize );
+        }
+
         long bytesToSkip = data.stepNumber * data.blockSize;
         if ( bytesToSkip > 0 ) {
           // Get into position for block 0
@@ -321,21 +391,11 @@ public class ParGzipCsvInput extends BaseStep implements StepInterface {
           logBasic( "Skipping "
             + bytesToSkip + " bytes to go to position " + bytesToSkip + " for step copy " + data.stepNumber );
 
-          long bytesSkipped = 0L;
-          while ( bytesSkipped < bytesToSkip ) {
-            long n = data.gzis.skip( bytesToSkip - bytesSkipped );
-            if ( n <= 0 ) {
-              // EOF in this file, can't read a block in this step copy
-              data.eofReached = true;
-              return false;
-            }
-            bytesSkipped += n;
+          if ( !skipTo( bytesToSkip ) ) {
+            // EOF in this file, can't read a block in this step copy
+            return false;
           }
 
-          // Keep track of the file pointer!
-          //
-          data.fileReadPosition += bytesSkipped;
-
           // Reset the bytes read in the current block of data
           //
           data.totalBytesRead = 0L;
@@ -17,6 +17,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.zip.GZIPInputStream;
 
+import org.apache.commons.vfs2.FileObject;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.trans.step.BaseStepData;
@@ -35,8 +36,14 @@ public class ParGzipCsvInputData extends BaseStepData implements StepDataInterfa
   public int startFilenr;
   public byte[] binaryFilename;
 
+  public FileObject fileObject;
   public InputStream fis;
 
+  /**
+   * The member index of the current file, null if decompression can only start at the beginning of the file
+   */
+  public GzipIndex gzipIndex;
+
   public boolean isAddingRowNumber;
   public long rowNumber;
 
@@ -13,10 +13,12 @@
 
 package org.pentaho.di.trans.steps.recordsfromstream;
 
+import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.trans.Trans;
 import org.pentaho.di.trans.TransMeta;
 import org.pentaho.di.trans.step.StepDataInterface;
 import org.pentaho.di.trans.step.StepMeta;
+import org.pentaho.di.trans.step.StepMetaInterface;
 import org.pentaho.di.trans.steps.rowsfromresult.RowsFromResult;
 
 public class RecordsFromStream extends RowsFromResult {
@@ -25,4 +27,20 @@ public class RecordsFromStream extends RowsFromResult {
                             final TransMeta transMeta, final Trans trans ) {
     super( stepMeta, stepDataInterface, copyNr, transMeta, trans );
   }
+
+  @Override
+  public boolean processRow( StepMetaInterface smi, StepDataInterface sdi ) throws KettleException {
+    // A sub-transformation of a continuous streaming batch gets its records injected through a row producer
+    //
+    if ( getInputRowSets().isEmpty() ) {
+      return super.processRow( smi, sdi );
+    }
+    Object[] row = getRow();
+    if ( row == null ) {
+      setOutputDone();
+      return false;
+    }
+    putRow( getInputRowMeta(), row );
+    return true;
+  }
 }
@@ -92,37 +92,43 @@ public class ScriptValuesMod extends BaseStep implements StepInterface {
   }
 
   private void determineUsedFields( RowMetaInterface row ) {
-    int nr = 0;
-    // Count the occurrences of the values.
+    // Only the fields mentioned in the script are bound in the scope for every row.
     // Perhaps we find values in comments, but we take no risk!
+    // The names are bound case-sensitive so a case-sensitive search is enough.
     //
+    int[] used = new int[ row.size() ];
+    int nr = 0;
     for ( int i = 0; i < row.size(); i++ ) {
-      String valname = row.getValueMeta( i ).getName().toUpperCase();
-      if ( strTransformScript.toUpperCase().indexOf( valname ) >= 0 ) {
-        nr++;
+      String valname = row.getValueMeta( i ).getName();
+      if ( strTransformScript.indexOf( valname ) >= 0 ) {
+        if ( log.isDetailed() ) {
+          logDetailed( BaseMessages.getString(
+            PKG, "ScriptValuesMod.Log.UsedValueName", String.valueOf( i ), valname ) );
+        }
+        used[ nr++ ] = i;
       }
     }
 
-    // Allocate fields_used
     data.fields_used = new int[ nr ];
+    System.arraycopy( used, 0, data.fields_used, 0, nr );
     data.values_used = new Value[ nr ];
 
-    nr = 0;
-    // Count the occurrences of the values.
-    // Perhaps we find values in comments, but we take no risk!
+    // Look up the metadata and the names of the used fields once, not for every row
     //
-    for ( int i = 0; i < row.size(); i++ ) {
-      // Values are case-insensitive in JavaScript.
-      //
-      String valname = row.getValueMeta( i ).getName();
-      if ( strTransformScript.indexOf( valname ) >= 0 ) {
-        if ( log.isDetailed() ) {
-          logDetailed( BaseMessages.getString(
-            PKG, "ScriptValuesMod.Log.UsedValueName", String.valueOf( i ), valname ) );
+    data.metas_used = new ValueMetaInterface[ nr ];
+    data.names_used = new String[ nr ];
+    for ( int i = 0; i < nr; i++ ) {
+      data.metas_used[ i ] = row.getValueMeta( data.fields_used[ i ] );
+      data.names_used[ i ] = data.metas_used[ i ].getName();
+    }
+
+    if ( meta.isCompatible() ) {
+      data.usedRowValues = new Hashtable<Integer, Value>();
+      data.usedRowValuesListener = new ValueUsedListener() {
+        public void valueIsUsed( int index, Value value ) {
+          data.usedRowValues.put( index, value );
         }
-        data.fields_used[ nr ] = i;
-        nr++;
-      }
+      };
     }
 
     if ( log.isDetailed() ) {
@@ -131,6 +137,35 @@ public class ScriptValuesMod extends BaseStep implements StepInterface {
     }
   }
 
+  /**
+   * Binds the row and the values of the used fields in the scope. The scope, the metadata of the used fields and the
+   * listener for the values used in the compatibility row are set up once and reused for every row.
+   */
+  private void bindRow( RowMetaInterface rowMeta, Object[] row ) throws KettleValueException {
+    if ( meta.isCompatible() ) {
+      Row v2Row = RowMeta.createOriginalRow( rowMeta, row );
+      v2Row.getUsedValueListeners().add( data.usedRowValuesListener );
+      data.scope.put( "row", data.scope, Context.toObject( v2Row, data.scope ) );
+    } else {
+      data.scope.put( "row", data.scope, Context.toObject( row, data.scope ) );
+    }
+
+    for ( int i = 0; i < data.fields_used.length; i++ ) {
+      ValueMetaInterface valueMeta = data.metas_used[ i ];
+      Object valueData = row[ data.fields_used[ i ] ];
+
+      Scriptable jsarg;
+      if ( meta.isCompatible() ) {
+        data.values_used[ i ] = valueMeta.createOriginalValue( valueData );
+        jsarg = Context.toObject( data.values_used[ i ], data.scope );
+      } else {
+        Object normalStorageValueData = valueMeta.convertToNormalStorageType( valueData );
+        jsarg = normalStorageValueData != null ? Context.toObject( normalStorageValueData, data.scope ) : null;
+      }
+      data.scope.put( data.names_used[ i ], data.scope, jsarg );
+    }
+  }
+
   private boolean addValues( RowMetaInterface rowMeta, Object[] row ) throws KettleException {
     if ( first ) {
       first = false;
@@ -209,39 +244,9 @@ public class ScriptValuesMod extends BaseStep implements StepInterface {
         // add these now (they will be re-added later) to make compilation succeed
         //
 
-        // Add the old style row object for compatibility reasons...
-        //
-        if ( meta.isCompatible() ) {
-          Row v2Row = RowMeta.createOriginalRow( rowMeta, row );
-          Scriptable jsV2Row = Context.toObject( v2Row, data.scope );
-          data.scope.put( "row", data.scope, jsV2Row );
-        } else {
-          Scriptable jsrow = Context.toObject( row, data.scope );
-          data.scope.put( "row", data.scope, jsrow );
-        }
-
-        // Add the used fields...
+        // Add the row (the old style row object for compatibility reasons) and the used fields...
         //
-        for ( int i = 0; i < data.fields_used.length; i++ ) {
-          ValueMetaInterface valueMeta = rowMeta.getValueMeta( data.fields_used[ i ] );
-          Object valueData = row[ data.fields_used[ i ] ];
-
-          if ( meta.isCompatible() ) {
-            data.values_used[ i ] = valueMeta.createOriginalValue( valueData );
-
-            Scriptable jsarg = Context.toObject( data.values_used[ i ], data.scope );
-            data.scope.put( valueMeta.getName(), data.scope, jsarg );
-          } else {
-            Object normalStorageValueData = valueMeta.convertToNormalStorageType( valueData );
-            Scriptable jsarg;
-            if ( normalStorageValueData != null ) {
-              jsarg = Context.toObject( normalStorageValueData, data.scope );
-            } else {
-              jsarg = null;
-            }
-            data.scope.put( valueMeta.getName(), data.scope, jsarg );
-          }
-        }
+        bindRow( rowMeta, row );
 
         // also add the meta information for the whole row
         //
@@ -291,7 +296,7 @@ public class ScriptValuesMod extends BaseStep implements StepInterface {
         try {
           // Checking for StartScript
           if ( strStartScript != null && strStartScript.length() > 0 ) {
-            Script startScript = data.cx.compileString( strStartScript, "trans_Start", 1, null );
+            Script startScript = ScriptValuesScriptCache.getScript( data.cx, strStartScript, "trans_Start" );
             startScript.exec( data.cx, data.scope );
             if ( log.isDetailed() ) {
               logDetailed( ( "Start Script found!" ) );
@@ -307,8 +312,8 @@ public class ScriptValuesMod extends BaseStep implements StepInterface {
             PKG, "ScriptValuesMod.Log.ErrorProcessingStartScript" ), es );
 
         }
-        // Now Compile our Script
-        data.script = data.cx.compileString( strTransformScript, "script", 1, null );
+        // Now Compile our Script, or pick up the class compiled by another copy or an earlier execution
+        data.script = ScriptValuesScriptCache.getScript( data.cx, strTransformScript, "script" );
       } catch ( Exception e ) {
         throw new KettleValueException( BaseMessages.getString(
           PKG, "ScriptValuesMod.Log.CouldNotCompileJavascript" ), e );
@@ -324,54 +329,16 @@ public class ScriptValuesMod extends BaseStep implements StepInterface {
 
     // Keep track of the changed values...
     //
-    final Map<Integer, Value> usedRowValues;
-
     if ( meta.isCompatible() ) {
-      usedRowValues = new Hashtable<Integer, Value>();
-    } else {
-      usedRowValues = null;
+      data.usedRowValues.clear();
     }
 
     try {
       try {
-        if ( meta.isCompatible() ) {
-          Row v2Row = RowMeta.createOriginalRow( rowMeta, row );
-          Scriptable jsV2Row = Context.toObject( v2Row, data.scope );
-          data.scope.put( "row", data.scope, jsV2Row );
-          v2Row.getUsedValueListeners().add( new ValueUsedListener() {
-            public void valueIsUsed( int index, Value value ) {
-              usedRowValues.put( index, value );
-            }
-          } );
-        } else {
-          Scriptable jsrow = Context.toObject( row, data.scope );
-          data.scope.put( "row", data.scope, jsrow );
-        }
-
-        for ( int i = 0; i < data.fields_used.length; i++ ) {
-          ValueMetaInterface valueMeta = rowMeta.getValueMeta( data.fields_used[ i ] );
-          Object valueData = row[ data.fields_used[ i ] ];
-
-          if ( meta.isCompatible() ) {
-            data.values_used[ i ] = valueMeta.createOriginalValue( valueData );
+        bindRow( rowMeta, row );
 
-            Scriptable jsarg = Context.toObject( data.values_used[ i ], data.scope );
-            data.scope.put( valueMeta.getName(), data.scope, jsarg );
-          } else {
-            Object normalStorageValueData = valueMeta.convertToNormalStorageType( valueData );
-            Scriptable jsarg;
-            if ( normalStorageValueData != null ) {
-              jsarg = Context.toObject( normalStorageValueData, data.scope );
-            } else {
-              jsarg = null;
-            }
-            data.scope.put( valueMeta.getName(), data.scope, jsarg );
-          }
-        }
-
-        // also add the meta information for the hole row
-        Scriptable jsrowMeta = Context.toObject( rowMeta, data.scope );
-        data.scope.put( "rowMeta", data.scope, jsrowMeta );
+        // The meta information for the whole row ("rowMeta") doesn't change between rows,
+        // it was bound once when the script was compiled.
       } catch ( Exception e ) {
         throw new KettleValueException( BaseMessages.getString( PKG, "ScriptValuesMod.Log.UnexpectedeError" ), e );
       }
@@ -420,13 +387,12 @@ public class ScriptValuesMod extends BaseStep implements StepInterface {
         //
         if ( meta.isCompatible() ) {
           for ( int i = 0; i < data.values_used.length; i++ ) {
-            ValueMetaInterface valueMeta = rowMeta.getValueMeta( data.fields_used[ i ] );
-            outputRow[ data.fields_used[ i ] ] = valueMeta.getValueData( data.values_used[ i ] );
+            outputRow[ data.fields_used[ i ] ] = data.metas_used[ i ].getValueData( data.values_used[ i ] );
           }
 
           // Grab the variables in the "row" object too.
           //
-          for ( Map.Entry<Integer, Value> entry : usedRowValues.entrySet() ) {
+          for ( Map.Entry<Integer, Value> entry : data.usedRowValues.entrySet() ) {
             Value value = entry.getValue();
             Integer index = entry.getKey();
             ValueMetaInterface valueMeta = rowMeta.getValueMeta( index );
@@ -503,7 +469,7 @@ public class ScriptValuesMod extends BaseStep implements StepInterface {
         if ( data.cx != null ) {
           // Checking for EndScript
           if ( strEndScript != null && strEndScript.length() > 0 ) {
-            Script endScript = data.cx.compileString( strEndScript, "trans_End", 1, null );
+            Script endScript = ScriptValuesScriptCache.getScript( data.cx, strEndScript, "trans_End" );
             endScript.exec( data.cx, data.scope );
             if ( log.isDetailed() ) {
               logDetailed( ( "End Script found!" ) );
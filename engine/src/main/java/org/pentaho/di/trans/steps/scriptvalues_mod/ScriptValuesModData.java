@@ -13,11 +13,15 @@
 
 package org.pentaho.di.trans.steps.scriptvalues_mod;
 
+import java.util.Map;
+
 import org.mozilla.javascript.Context;
 import org.mozilla.javascript.Script;
 import org.mozilla.javascript.Scriptable;
 import org.pentaho.di.compatibility.Value;
+import org.pentaho.di.compatibility.ValueUsedListener;
 import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.ValueMetaInterface;
 import org.pentaho.di.trans.step.BaseStepData;
 import org.pentaho.di.trans.step.StepDataInterface;
 
@@ -33,6 +37,14 @@ public class ScriptValuesModData extends BaseStepData implements StepDataInterfa
 
   public int[] fields_used;
   public Value[] values_used;
+  public ValueMetaInterface[] metas_used;
+  public String[] names_used;
+
+  /**
+   * The values of the compatibility row that the script used, cleared for every row
+   */
+  public Map<Integer, Value> usedRowValues;
+  public ValueUsedListener usedRowValuesListener;
 
   public RowMetaInterface outputRowMeta;
   public int[] replaceIndex;
@@ -0,0 +1,127 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.scriptvalues_mod;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.Script;
+
+/**
+ * Keeps the Rhino classes compiled for the Modified Java Script Value step so that step copies and later executions of
+ * the same transformation don't pay the compilation cost again.<br>
+ * Only scripts compiled to Java bytecode (optimization level 0 or higher) are cached: those are stateless and can be
+ * executed concurrently against different scopes.
+ */
+public class ScriptValuesScriptCache {
+
+  public static final int MAX_CACHED_SCRIPTS = 500;
+
+  private static final Map<CacheKey, Script> scripts =
+    new LinkedHashMap<CacheKey, Script>( 16, 0.75f, true ) {
+      @Override
+      protected boolean removeEldestEntry( Map.Entry<CacheKey, Script> eldest ) {
+        return size() > MAX_CACHED_SCRIPTS;
+      }
+    };
+
+  private ScriptValuesScriptCache() {
+  }
+
+  /**
+   * Compiles the given source with the settings of the given context or returns a previously compiled script.
+   *
+   * @param cx         the current context, its optimization level and language version are part of the cache key
+   * @param source     the JavaScript source
+   * @param sourceName the name of the script, used in error messages
+   * @return the compiled script
+   */
+  public static Script getScript( Context cx, String source, String sourceName ) {
+    if ( cx.getOptimizationLevel() < 0 ) {
+      // Interpreted scripts are cheap to build and carry per-execution state: don't share them
+      //
+      return cx.compileString( source, sourceName, 1, null );
+    }
+
+    CacheKey key = new CacheKey( source, sourceName, cx.getOptimizationLevel(), cx.getLanguageVersion() );
+    synchronized ( scripts ) {
+      Script script = scripts.get( key );
+      if ( script != null ) {
+        return script;
+      }
+    }
+
+    // Compile outside of the lock, worst case two copies compile the same script at the same time.
+    //
+    Script script = cx.compileString( source, sourceName, 1, null );
+    synchronized ( scripts ) {
+      scripts.put( key, script );
+    }
+    return script;
+  }
+
+  public static void clear() {
+    synchronized ( scripts ) {
+      scripts.clear();
+    }
+  }
+
+  public static int size() {
+    synchronized ( scripts ) {
+      return scripts.size();
+    }
+  }
+
+  private static final class CacheKey {
+    private final String source;
+    private final String sourceName;
+    private final int optimizationLevel;
+    private final int languageVersion;
+    private final int hashCode;
+
+    CacheKey( String source, String sourceName, int optimizationLevel, int languageVersion ) {
+      this.source = source;
+      this.sourceName = sourceName;
+      this.optimizationLevel = optimizationLevel;
+      this.languageVersion = languageVersion;
+
+      int hash = source.hashCode();
+      hash = 31 * hash + ( sourceName == null ? 0 : sourceName.hashCode() );
+      hash = 31 * hash + optimizationLevel;
+      hash = 31 * hash + languageVersion;
+      this.hashCode = hash;
+    }
+
+    @Override
+    public boolean equals( Object obj ) {
+      if ( this == obj ) {
+        return true;
+      }
+      if ( !( obj instanceof CacheKey ) ) {
+        return false;
+      }
+      CacheKey other = (CacheKey) obj;
+      return optimizationLevel == other.optimizationLevel
+        && languageVersion == other.languageVersion
+        && source.equals( other.source )
+        && ( sourceName == null ? other.sourceName == null : sourceName.equals( other.sourceName ) );
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+}
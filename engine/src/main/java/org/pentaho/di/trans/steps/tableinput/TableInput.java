@@ -16,6 +16,7 @@ package org.pentaho.di.trans.steps.tableinput;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
 
 import org.json.simple.JSONObject;
@@ -138,6 +139,11 @@ public class TableInput extends BaseDatabaseStep implements StepInterface {
           return false; // stop immediately, nothing to do here.
         }
 
+        if ( !prepareSplit( parametersMeta, parameters ) ) {
+          setOutputDone(); // nothing to read for this copy
+          return false;
+        }
+
         boolean success = doQuery( parametersMeta, parameters );
         if ( !success ) {
           return false;
@@ -200,6 +206,10 @@ public class TableInput extends BaseDatabaseStep implements StepInterface {
           return false; // end of data or error.
         }
       } else {
+        if ( data.sharedSplit != null && !data.sharedSplit.takeRow() ) {
+          setOutputDone(); // the copies together reached the row limit
+          return false;
+        }
         putRow( data.rowMeta, data.thisrow ); // fill the rowset(s). (wait for empty)
         data.thisrow = data.nextrow;
 
@@ -222,15 +232,136 @@ public class TableInput extends BaseDatabaseStep implements StepInterface {
     }
   }
 
+  private String getSQL() {
+    if ( meta.isVariableReplacementActive() ) {
+      return environmentSubstitute( meta.getSQL() );
+    } else {
+      return meta.getSQL();
+    }
+  }
+
+  /**
+   * Splits the query in ranges of the split column, one for each copy of the step. The bounds of the column are read
+   * from the database once for all copies unless both are given.
+   *
+   * @return false if this copy has nothing to read
+   */
+  private boolean prepareSplit( RowMetaInterface parametersMeta, Object[] parameters ) throws KettleException {
+    if ( Utils.isEmpty( meta.getSplitColumn() ) ) {
+      return true;
+    }
+    if ( meta.isExecuteEachInputRow() ) {
+      logBasic( BaseMessages.getString( PKG, "TableInput.Log.SplitNotPossible" ) );
+      return true;
+    }
+    int ranges = getUniqueStepCountAcrossSlaves();
+    int range = getUniqueStepNrAcrossSlaves();
+    if ( ranges <= 1 ) {
+      return true;
+    }
+    data.sharedSplit = getSharedSplit();
+
+    String column = environmentSubstitute( meta.getSplitColumn() );
+    String lowerBound = environmentSubstitute( meta.getSplitLowerBound() );
+    String upperBound = environmentSubstitute( meta.getSplitUpperBound() );
+    ValueMetaInterface keyMeta;
+    Object lower;
+    Object upper;
+    if ( !Utils.isEmpty( lowerBound ) && !Utils.isEmpty( upperBound ) ) {
+      Object[] bounds = TableInputSplit.parseBounds( lowerBound, upperBound );
+      keyMeta = (ValueMetaInterface) bounds[ 0 ];
+      lower = bounds[ 1 ];
+      upper = bounds[ 2 ];
+    } else {
+      String boundsSql = TableInputSplit.getBoundsSQL( meta.getDatabaseMeta(), getSQL(), column );
+      if ( log.isDetailed() ) {
+        logDetailed( BaseMessages.getString( PKG, "TableInput.Log.SqlQuery", boundsSql ) );
+      }
+      RowMetaAndData bounds = readBounds( boundsSql, parametersMeta, parameters );
+      if ( bounds == null ) {
+        return false; // stopped while waiting for the bounds
+      }
+      keyMeta = bounds.getRowMeta().getValueMeta( 0 );
+      lower = bounds.getData() == null ? null : bounds.getData()[ 0 ];
+      upper = bounds.getData() == null ? null : bounds.getData()[ 1 ];
+      if ( lower == null || upper == null ) {
+        // No rows or only nulls, the first copy reads them all
+        return range == 0;
+      }
+    }
+    if ( log.isDetailed() ) {
+      logDetailed( BaseMessages.getString( PKG, "TableInput.Log.SplitBounds", column, keyMeta.getString( lower ),
+        keyMeta.getString( upper ) ) );
+    }
+
+    data.split = new TableInputSplit( keyMeta, lower, upper, ranges );
+    data.splitColumn = column;
+    data.splitRange = range;
+    return true;
+  }
+
+  /**
+   * @return the state of the split shared by the copies of this step in the transformation
+   */
+  private TableInputSplit.Shared getSharedSplit() {
+    Map<String, Object> extensionData = getTrans().getExtensionDataMap();
+    synchronized ( extensionData ) {
+      return (TableInputSplit.Shared) extensionData.computeIfAbsent(
+        TableInputSplit.Shared.class.getName() + "." + getStepname(),
+        key -> new TableInputSplit.Shared( Const.toInt( environmentSubstitute( meta.getRowLimit() ), 0 ) ) );
+    }
+  }
+
+  /**
+   * Reads the bounds of the split column, or waits for the copy that reads them.
+   *
+   * @return the bounds, null if the step was stopped while waiting
+   */
+  private RowMetaAndData readBounds( String boundsSql, RowMetaInterface parametersMeta, Object[] parameters )
+    throws KettleException {
+    if ( data.sharedSplit.claimBounds() ) {
+      try {
+        RowMetaAndData bounds;
+        if ( parametersMeta.isEmpty() ) {
+          bounds = data.db.getOneRow( boundsSql );
+        } else {
+          bounds = data.db.getOneRow( boundsSql, parametersMeta, parameters );
+        }
+        data.sharedSplit.setBounds( bounds );
+        return bounds;
+      } catch ( KettleException | RuntimeException e ) {
+        data.sharedSplit.setBoundsFailed( e );
+        throw e;
+      }
+    }
+    while ( !isStopped() ) {
+      RowMetaAndData bounds = data.sharedSplit.getBounds( 100, TimeUnit.MILLISECONDS );
+      if ( bounds != null ) {
+        return bounds;
+      }
+    }
+    return null;
+  }
+
   private boolean doQuery( RowMetaInterface parametersMeta, Object[] parameters ) throws KettleDatabaseException {
     boolean success = true;
 
     // Open the query with the optional parameters received from the source steps.
-    String sql = null;
-    if ( meta.isVariableReplacementActive() ) {
-      sql = environmentSubstitute( meta.getSQL() );
-    } else {
-      sql = meta.getSQL();
+    String sql = getSQL();
+
+    // Only read the range of this copy, its bounds are passed as parameters after the others
+    if ( data.split != null ) {
+      if ( log.isBasic() ) {
+        logBasic( BaseMessages.getString( PKG, "TableInput.Log.SplitRange", String.valueOf( data.splitRange + 1 ),
+          String.valueOf( getUniqueStepCountAcrossSlaves() ), data.splitColumn ) );
+      }
+      sql = data.split.getRangeSQL( meta.getDatabaseMeta(), sql, data.splitColumn, data.splitRange );
+      RowMetaInterface rangeParametersMeta = new RowMeta();
+      rangeParametersMeta.addRowMeta( parametersMeta );
+      rangeParametersMeta.addRowMeta( data.split.getRangeParametersMeta( data.splitRange ) );
+      parameters = RowDataUtil.addRowData( parameters, parametersMeta.size(),
+        data.split.getRangeParameters( data.splitRange ) );
+      parametersMeta = rangeParametersMeta;
     }
 
     if ( log.isDetailed() ) {
@@ -36,6 +36,13 @@ public class TableInputData extends BaseDatabaseStepData implements StepDataInte
   public boolean isCanceled;
   public StreamInterface infoStream;
 
+  /** The ranges of the split column, null if the query is not split */
+  public TableInputSplit split;
+  public String splitColumn;
+  public int splitRange;
+  /** What the copies of the split step share, null if the query is not split */
+  public TableInputSplit.Shared sharedSplit;
+
   public TableInputData() {
     super();
 
@@ -87,6 +87,16 @@ public class TableInputMeta extends BaseDatabaseStepMeta implements StepMetaInte
 
   private RowMetaInterface cachedRowMeta;
 
+  /** The numeric or date column used to split the query in ranges, one for each copy of the step */
+  @Injection( name = "SPLIT_COLUMN" )
+  private String splitColumn;
+
+  @Injection( name = "SPLIT_LOWER_BOUND" )
+  private String splitLowerBound;
+
+  @Injection( name = "SPLIT_UPPER_BOUND" )
+  private String splitUpperBound;
+
   public TableInputMeta() {
     super();
   }
@@ -182,6 +192,9 @@ public class TableInputMeta extends BaseDatabaseStepMeta implements StepMetaInte
       lazyConversionActive = "Y".equals( XMLHandler.getTagValue( stepnode, "lazy_conversion_active" ) );
       cachedRowMetaActive = "Y".equals( XMLHandler.getTagValue( stepnode, "cached_row_meta_active" ) );
       cachedRowMeta = new RowMeta( XMLHandler.getSubNode( stepnode, RowMeta.XML_META_TAG ) );
+      splitColumn = XMLHandler.getTagValue( stepnode, "split_column" );
+      splitLowerBound = XMLHandler.getTagValue( stepnode, "split_lower_bound" );
+      splitUpperBound = XMLHandler.getTagValue( stepnode, "split_upper_bound" );
 
     } catch ( Exception e ) {
       throw new KettleXMLException( "Unable to load step info from XML", e );
@@ -301,6 +314,9 @@ public class TableInputMeta extends BaseDatabaseStepMeta implements StepMetaInte
     retval.append( "    " + XMLHandler.addTagValue( "variables_active", variableReplacementActive ) );
     retval.append( "    " + XMLHandler.addTagValue( "lazy_conversion_active", lazyConversionActive ) );
     retval.append( "    " + XMLHandler.addTagValue( "cached_row_meta_active", cachedRowMetaActive ) );
+    retval.append( "    " + XMLHandler.addTagValue( "split_column", splitColumn ) );
+    retval.append( "    " + XMLHandler.addTagValue( "split_lower_bound", splitLowerBound ) );
+    retval.append( "    " + XMLHandler.addTagValue( "split_upper_bound", splitUpperBound ) );
     storeCachedRowMeta( retval );
     return retval.toString();
   }
@@ -354,6 +370,9 @@ public class TableInputMeta extends BaseDatabaseStepMeta implements StepMetaInte
       variableReplacementActive = rep.getStepAttributeBoolean( id_step, "variables_active" );
       lazyConversionActive = rep.getStepAttributeBoolean( id_step, "lazy_conversion_active" );
       cachedRowMetaActive = rep.getStepAttributeBoolean( id_step, "cached_row_meta_active" );
+      splitColumn = rep.getStepAttributeString( id_step, "split_column" );
+      splitLowerBound = rep.getStepAttributeString( id_step, "split_lower_bound" );
+      splitUpperBound = rep.getStepAttributeString( id_step, "split_upper_bound" );
 
       String sRowMeta = rep.getStepAttributeString( id_step, RowMeta.XML_META_TAG );
       if ( sRowMeta != null ) {
@@ -380,6 +399,9 @@ public class TableInputMeta extends BaseDatabaseStepMeta implements StepMetaInte
       rep.saveStepAttribute( id_transformation, id_step, "variables_active", variableReplacementActive );
       rep.saveStepAttribute( id_transformation, id_step, "lazy_conversion_active", lazyConversionActive );
       rep.saveStepAttribute( id_transformation, id_step, "cached_row_meta_active", cachedRowMetaActive );
+      rep.saveStepAttribute( id_transformation, id_step, "split_column", splitColumn );
+      rep.saveStepAttribute( id_transformation, id_step, "split_lower_bound", splitLowerBound );
+      rep.saveStepAttribute( id_transformation, id_step, "split_upper_bound", splitUpperBound );
       if ( cachedRowMeta != null ) {
         rep.saveStepAttribute( id_transformation, id_step, RowMeta.XML_META_TAG, cachedRowMeta.getMetaXML() );
       }
@@ -620,6 +642,48 @@ public class TableInputMeta extends BaseDatabaseStepMeta implements StepMetaInte
     this.cachedRowMeta = cachedRowMeta;
   }
 
+  /**
+   * @return the column used to split the query in ranges, one for each copy of the step
+   */
+  public String getSplitColumn() {
+    return splitColumn;
+  }
+
+  /**
+   * @param splitColumn the column used to split the query in ranges, empty to run the query as is
+   */
+  public void setSplitColumn( String splitColumn ) {
+    this.splitColumn = splitColumn;
+  }
+
+  /**
+   * @return the lowest value of the split column, read from the database when empty
+   */
+  public String getSplitLowerBound() {
+    return splitLowerBound;
+  }
+
+  /**
+   * @param splitLowerBound the lowest value of the split column
+   */
+  public void setSplitLowerBound( String splitLowerBound ) {
+    this.splitLowerBound = splitLowerBound;
+  }
+
+  /**
+   * @return the highest value of the split column, read from the database when empty
+   */
+  public String getSplitUpperBound() {
+    return splitUpperBound;
+  }
+
+  /**
+   * @param splitUpperBound the highest value of the split column
+   */
+  public void setSplitUpperBound( String splitUpperBound ) {
+    this.splitUpperBound = splitUpperBound;
+  }
+
   /**
    * Returns the Input/Output metadata for this step. The generator step only produces output, does not accept input!
    */
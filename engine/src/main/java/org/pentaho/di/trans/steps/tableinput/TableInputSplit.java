@@ -0,0 +1,302 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.tableinput;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.pentaho.di.core.Const;
+import org.pentaho.di.core.RowMetaAndData;
+import org.pentaho.di.core.database.DatabaseMeta;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaBigNumber;
+import org.pentaho.di.core.row.value.ValueMetaDate;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaNumber;
+import org.pentaho.di.core.row.value.ValueMetaTimestamp;
+import org.pentaho.di.i18n.BaseMessages;
+
+/**
+ * Splits the query of a Table Input step in ranges of a numeric or date column, one range per step copy.<br>
+ * The lower bound and the upper bound of the column are divided in ranges of the same width. The first range has no
+ * lower bound and also reads the rows where the column is null, the last range has no upper bound, so all the rows are
+ * read even if the bounds given by the user are too narrow.
+ */
+public class TableInputSplit {
+  private static Class<?> PKG = TableInputMeta.class; // for i18n purposes, needed by Translator2!!
+
+  private static final String[] DATE_FORMATS = { "yyyy-MM-dd HH:mm:ss.SSS", "yyyy-MM-dd HH:mm:ss", "yyyy-MM-dd" };
+
+  private final ValueMetaInterface keyMeta;
+  private final Object[] boundaries;
+
+  /**
+   * @param keyMeta    the metadata of the bounds
+   * @param lowerBound the lowest value of the column
+   * @param upperBound the highest value of the column
+   * @param ranges     the number of ranges
+   */
+  public TableInputSplit( ValueMetaInterface keyMeta, Object lowerBound, Object upperBound, int ranges )
+    throws KettleException {
+    this.keyMeta = getParameterMeta( keyMeta );
+    boundaries = new Object[ ranges - 1 ];
+    for ( int i = 1; i < ranges; i++ ) {
+      boundaries[ i - 1 ] = getBoundary( keyMeta.getType(), lowerBound, upperBound, i, ranges );
+    }
+  }
+
+  /**
+   * @return the query reading the lowest and the highest value of the column
+   */
+  public static String getBoundsSQL( DatabaseMeta databaseMeta, String sql, String column ) {
+    String field = databaseMeta.quoteField( column );
+    return "SELECT MIN(" + field + "), MAX(" + field + ") FROM (" + Const.CR + stripSemicolon( sql ) + Const.CR
+      + ") split_bounds";
+  }
+
+  /**
+   * @param range the range, from 0
+   * @return the query reading the rows of the range, its parameters come after the ones of the query
+   */
+  public String getRangeSQL( DatabaseMeta databaseMeta, String sql, String column, int range ) {
+    String field = databaseMeta.quoteField( column );
+    StringBuilder rangeSql = new StringBuilder( "SELECT * FROM (" ).append( Const.CR ).append( stripSemicolon( sql ) )
+      .append( Const.CR ).append( ") split_range WHERE " );
+    if ( range == 0 ) {
+      rangeSql.append( field ).append( " < ? OR " ).append( field ).append( " IS NULL" );
+    } else if ( range == boundaries.length ) {
+      rangeSql.append( field ).append( " >= ?" );
+    } else {
+      rangeSql.append( field ).append( " >= ? AND " ).append( field ).append( " < ?" );
+    }
+    return rangeSql.toString();
+  }
+
+  /**
+   * @param range the range, from 0
+   * @return the metadata of the parameters of the range
+   */
+  public RowMetaInterface getRangeParametersMeta( int range ) {
+    RowMetaInterface parametersMeta = new RowMeta();
+    for ( int i = 0; i < getRangeParameters( range ).length; i++ ) {
+      parametersMeta.addValueMeta( keyMeta.clone() );
+    }
+    return parametersMeta;
+  }
+
+  /**
+   * @param range the range, from 0
+   * @return the bounds of the range
+   */
+  public Object[] getRangeParameters( int range ) {
+    if ( range == 0 ) {
+      return new Object[] { boundaries[ 0 ] };
+    } else if ( range == boundaries.length ) {
+      return new Object[] { boundaries[ range - 1 ] };
+    } else {
+      return new Object[] { boundaries[ range - 1 ], boundaries[ range ] };
+    }
+  }
+
+  /**
+   * Converts the bounds given by the user: numbers, or dates as yyyy-MM-dd with an optional time HH:mm:ss[.SSS].
+   *
+   * @return the metadata of the bounds, the lower bound and the upper bound
+   * @throws KettleException if a bound can't be converted, the bounds are of different types or the lower bound is
+   *                         above the upper bound
+   */
+  public static Object[] parseBounds( String lowerBound, String upperBound ) throws KettleException {
+    Object[] lower = parseBound( lowerBound );
+    Object[] upper = parseBound( upperBound );
+    int lowerType = ( (ValueMetaInterface) lower[ 0 ] ).getType();
+    int upperType = ( (ValueMetaInterface) upper[ 0 ] ).getType();
+    Object[] bounds;
+    if ( lowerType == upperType ) {
+      bounds = new Object[] { lower[ 0 ], lower[ 1 ], upper[ 1 ] };
+    } else if ( lowerType == ValueMetaInterface.TYPE_DATE || upperType == ValueMetaInterface.TYPE_DATE ) {
+      throw new KettleException( BaseMessages.getString( PKG, "TableInput.Exception.InvalidSplitBounds",
+        lowerBound, upperBound ) );
+    } else {
+      // An integer and a fraction
+      bounds = new Object[] { new ValueMetaNumber( "bound" ), ( (Number) lower[ 1 ] ).doubleValue(),
+        ( (Number) upper[ 1 ] ).doubleValue() };
+    }
+    if ( ( (ValueMetaInterface) bounds[ 0 ] ).compare( bounds[ 1 ], bounds[ 2 ] ) > 0 ) {
+      throw new KettleException( BaseMessages.getString( PKG, "TableInput.Exception.ReversedSplitBounds",
+        lowerBound.trim(), upperBound.trim() ) );
+    }
+    return bounds;
+  }
+
+  private static Object[] parseBound( String bound ) throws KettleException {
+    String value = bound.trim();
+    try {
+      BigDecimal number = new BigDecimal( value );
+      if ( number.signum() == 0 || number.stripTrailingZeros().scale() <= 0 ) {
+        return new Object[] { new ValueMetaInteger( "bound" ), number.longValueExact() };
+      }
+      return new Object[] { new ValueMetaNumber( "bound" ), number.doubleValue() };
+    } catch ( NumberFormatException | ArithmeticException e ) {
+      // Not a number, try a date
+    }
+    for ( String format : DATE_FORMATS ) {
+      if ( value.length() == format.length() ) {
+        SimpleDateFormat dateFormat = new SimpleDateFormat( format );
+        dateFormat.setLenient( false );
+        try {
+          return new Object[] { new ValueMetaDate( "bound" ), dateFormat.parse( value ) };
+        } catch ( ParseException e ) {
+          // Try the next format
+        }
+      }
+    }
+    throw new KettleException( BaseMessages.getString( PKG, "TableInput.Exception.InvalidSplitBound", bound ) );
+  }
+
+  private static ValueMetaInterface getParameterMeta( ValueMetaInterface keyMeta ) throws KettleException {
+    switch ( keyMeta.getType() ) {
+      case ValueMetaInterface.TYPE_INTEGER:
+        return new ValueMetaInteger( "split" );
+      case ValueMetaInterface.TYPE_NUMBER:
+        return new ValueMetaNumber( "split" );
+      case ValueMetaInterface.TYPE_BIGNUMBER:
+        return new ValueMetaBigNumber( "split" );
+      case ValueMetaInterface.TYPE_DATE:
+        return new ValueMetaDate( "split" );
+      case ValueMetaInterface.TYPE_TIMESTAMP:
+        return new ValueMetaTimestamp( "split" );
+      default:
+        throw new KettleException( BaseMessages.getString( PKG, "TableInput.Exception.InvalidSplitColumnType",
+          keyMeta.getName(), keyMeta.getTypeDesc() ) );
+    }
+  }
+
+  private static Object getBoundary( int type, Object lowerBound, Object upperBound, int range, int ranges ) {
+    switch ( type ) {
+      case ValueMetaInterface.TYPE_NUMBER: {
+        double lower = ( (Number) lowerBound ).doubleValue();
+        return lower + ( ( (Number) upperBound ).doubleValue() - lower ) * range / ranges;
+      }
+      case ValueMetaInterface.TYPE_BIGNUMBER: {
+        BigDecimal lower = toBigDecimal( lowerBound );
+        BigDecimal width = toBigDecimal( upperBound ).subtract( lower );
+        return lower.add( width.multiply( BigDecimal.valueOf( range ) ).divide( BigDecimal.valueOf( ranges ),
+          Math.max( width.scale(), 0 ) + 10, RoundingMode.HALF_UP ) );
+      }
+      case ValueMetaInterface.TYPE_DATE:
+        return new Date( getLongBoundary( ( (Date) lowerBound ).getTime(), ( (Date) upperBound ).getTime(), range,
+          ranges ) );
+      case ValueMetaInterface.TYPE_TIMESTAMP:
+        return new Timestamp( getLongBoundary( ( (Date) lowerBound ).getTime(), ( (Date) upperBound ).getTime(),
+          range, ranges ) );
+      default:
+        return getLongBoundary( ( (Number) lowerBound ).longValue(), ( (Number) upperBound ).longValue(), range,
+          ranges );
+    }
+  }
+
+  /**
+   * Integer boundaries, the width of the ranges differs by 1 at most.
+   */
+  static long getLongBoundary( long lower, long upper, int range, int ranges ) {
+    // The width can overflow a long
+    BigDecimal width = BigDecimal.valueOf( upper ).subtract( BigDecimal.valueOf( lower ) ).add( BigDecimal.ONE );
+    return BigDecimal.valueOf( lower ).add( width.multiply( BigDecimal.valueOf( range ) )
+      .divide( BigDecimal.valueOf( ranges ), 0, RoundingMode.FLOOR ) ).longValue();
+  }
+
+  private static BigDecimal toBigDecimal( Object value ) {
+    return value instanceof BigDecimal ? (BigDecimal) value : new BigDecimal( value.toString() );
+  }
+
+  /**
+   * What the copies of a split step share in a transformation: the bounds of the split column, read by the first copy
+   * that needs them while the other copies wait, and the rows left of the row limit, which counts for all copies
+   * together. The copies of a clustered transformation share them per slave server.
+   */
+  public static class Shared {
+    private final AtomicBoolean boundsClaimed = new AtomicBoolean();
+    private final CompletableFuture<RowMetaAndData> bounds = new CompletableFuture<>();
+    private final AtomicLong rowsLeft;
+
+    /**
+     * @param rowLimit the maximum number of rows of all copies together, 0 for no limit
+     */
+    public Shared( long rowLimit ) {
+      rowsLeft = new AtomicLong( rowLimit > 0 ? rowLimit : Long.MAX_VALUE );
+    }
+
+    /**
+     * @return true for the one copy that reads the bounds and passes them on with {@link #setBounds(RowMetaAndData)}
+     * or {@link #setBoundsFailed(Exception)}
+     */
+    public boolean claimBounds() {
+      return boundsClaimed.compareAndSet( false, true );
+    }
+
+    public void setBounds( RowMetaAndData bounds ) {
+      this.bounds.complete( bounds );
+    }
+
+    public void setBoundsFailed( Exception e ) {
+      bounds.completeExceptionally( e );
+    }
+
+    /**
+     * @return the bounds read by another copy, null if they weren't read within the timeout
+     * @throws KettleException if the other copy couldn't read the bounds
+     */
+    public RowMetaAndData getBounds( long timeout, TimeUnit unit ) throws KettleException {
+      try {
+        return bounds.get( timeout, unit );
+      } catch ( TimeoutException e ) {
+        return null;
+      } catch ( InterruptedException e ) {
+        Thread.currentThread().interrupt();
+        throw new KettleException( e );
+      } catch ( ExecutionException e ) {
+        throw new KettleException( BaseMessages.getString( PKG, "TableInput.Exception.SplitBoundsNotRead" ),
+          e.getCause() );
+      }
+    }
+
+    /**
+     * @return true if a copy can pass on one more row within the row limit
+     */
+    public boolean takeRow() {
+      return rowsLeft.getAndDecrement() > 0;
+    }
+  }
+
+  private static String stripSemicolon( String sql ) {
+    String trimmed = sql.trim();
+    while ( trimmed.endsWith( ";" ) ) {
+      trimmed = trimmed.substring( 0, trimmed.length() - 1 ).trim();
+    }
+    return trimmed;
+  }
+}
@@ -17,7 +17,9 @@ import org.json.simple.JSONObject;
 import org.pentaho.di.core.Const;
 import org.pentaho.di.core.RowMetaAndData;
 import org.pentaho.di.core.SQLStatement;
+import org.pentaho.di.core.database.BulkLoadEncoder;
 import org.pentaho.di.core.database.Database;
+import org.pentaho.di.core.database.DatabaseBulkLoader;
 import org.pentaho.di.core.database.DatabaseInterface;
 import org.pentaho.di.core.exception.KettleDatabaseBatchException;
 import org.pentaho.di.core.exception.KettleDatabaseException;
@@ -55,6 +57,9 @@ public class TableOutput extends BaseDatabaseStep implements StepInterface {
   public static final String CONNECTION = "connection";
   private static Class<?> PKG = TableOutputMeta.class; // for i18n purposes, needed by Translator2!!
 
+  /** The bytes of encoded rows loaded at once when bulk loading, if the commit size isn't reached before */
+  static final int BULK_LOAD_BUFFER_SIZE = 8 * 1024 * 1024;
+
   private TableOutputMeta meta;
   private TableOutputData data;
 
@@ -73,6 +78,16 @@ public class TableOutput extends BaseDatabaseStep implements StepInterface {
       if ( first && meta.truncateTable() ) {
         truncateTable();
       }
+      if ( data.bulkEncoder != null ) {
+        try {
+          flushBulkLoad( true );
+        } catch ( KettleException e ) {
+          logError( "Because of an error, this step can't continue: ", e );
+          setErrors( 1 );
+          stopAll();
+          setOutputDone(); // signal end to receiver(s)
+        }
+      }
       return false;
     }
 
@@ -116,10 +131,13 @@ public class TableOutput extends BaseDatabaseStep implements StepInterface {
           }
         }
       }
+
+      initBulkLoad();
     }
 
     try {
-      Object[] outputRowData = writeToTable( getInputRowMeta(), r );
+      Object[] outputRowData =
+        data.bulkEncoder != null ? writeToBulkLoad( r ) : writeToTable( getInputRowMeta(), r );
       if ( outputRowData != null ) {
         putRow( data.outputRowMeta, outputRowData ); // in case we want it go further...
         incrementLinesOutput();
@@ -424,6 +442,98 @@ public class TableOutput extends BaseDatabaseStep implements StepInterface {
     return outputRowData;
   }
 
+  /**
+   * Sets up the bulk loader of the database when bulk loading is enabled and the settings and fields of the step allow
+   * it. Otherwise the rows are inserted one by one.
+   */
+  void initBulkLoad() {
+    if ( !"Y".equalsIgnoreCase( getVariable( Const.KETTLE_TABLE_OUTPUT_BULK_LOAD, "N" ) ) ) {
+      return;
+    }
+    DatabaseBulkLoader bulkLoader = data.databaseMeta.getDatabaseInterface().getBulkLoader();
+    boolean possible = bulkLoader != null && !Utils.isEmpty( data.tableName )
+      && !getStepMeta().isDoingErrorHandling() && !meta.ignoreErrors() && !meta.isReturningGeneratedKeys()
+      && !getTransMeta().isUsingUniqueConnections() && bulkLoader.canLoad( data.db.getConnection() );
+    String[] columns = new String[ data.insertRowMeta.size() ];
+    for ( int i = 0; possible && i < columns.length; i++ ) {
+      ValueMetaInterface valueMeta = data.insertRowMeta.getValueMeta( i );
+      possible = BulkLoadEncoder.canEncode( valueMeta );
+      columns[ i ] = data.databaseMeta.quoteField( valueMeta.getName() );
+    }
+    if ( !possible ) {
+      logBasic( BaseMessages.getString( PKG, "TableOutput.Log.BulkLoadNotPossible" ) );
+      return;
+    }
+
+    data.bulkLoader = bulkLoader;
+    data.bulkEncoder =
+      new BulkLoadEncoder( bulkLoader.getFormat(), data.insertRowMeta, data.databaseMeta.supportsBooleanDataType() );
+    data.bulkSchemaTable =
+      data.databaseMeta.getQuotedSchemaTableCombination( environmentSubstitute( meta.getSchemaName() ),
+        data.tableName );
+    data.bulkColumns = columns;
+    if ( log.isDetailed() ) {
+      logDetailed( BaseMessages.getString( PKG, "TableOutput.Log.BulkLoad", data.bulkSchemaTable ) );
+    }
+  }
+
+  /**
+   * Encodes a row for the bulk loader. The rows are loaded when the buffer is full and committed at the commit size,
+   * and are passed on once they are loaded.
+   */
+  protected Object[] writeToBulkLoad( Object[] r ) throws KettleException {
+    Object[] insertRowData = r;
+    if ( meta.specifyFields() ) {
+      insertRowData = new Object[data.valuenrs.length];
+      for ( int idx = 0; idx < data.valuenrs.length; idx++ ) {
+        insertRowData[idx] = r[data.valuenrs[idx]];
+      }
+    }
+    data.bulkEncoder.addRow( insertRowData );
+    data.batchBuffer.add( r );
+    if ( isRowLevel() ) {
+      logRowlevel( "Encoded row: " + data.insertRowMeta.getString( insertRowData ) );
+    }
+
+    int commitCounter = data.commitCounterMap.merge( data.tableName, 1, Integer::sum );
+    if ( commitCounter >= data.commitSize ) {
+      flushBulkLoad( true );
+    } else if ( data.bulkEncoder.size() >= BULK_LOAD_BUFFER_SIZE ) {
+      flushBulkLoad( false );
+    }
+    return null;
+  }
+
+  /**
+   * Loads the encoded rows, commits if needed and passes the loaded rows on.
+   */
+  void flushBulkLoad( boolean commit ) throws KettleException {
+    if ( data.bulkEncoder.getRowCount() > 0 ) {
+      long loaded = data.bulkLoader.load( data.db.getConnection(), data.bulkSchemaTable, data.bulkColumns,
+        data.bulkEncoder.getInputStream() );
+      // A loader can skip rows it fails to load instead of failing
+      if ( loaded >= 0 && loaded != data.bulkEncoder.getRowCount() ) {
+        throw new KettleDatabaseException( BaseMessages.getString( PKG, "TableOutput.Exception.BulkLoadRowCount",
+          String.valueOf( loaded ), String.valueOf( data.bulkEncoder.getRowCount() ), data.bulkSchemaTable ) );
+      }
+      if ( log.isDetailed() ) {
+        logDetailed( BaseMessages.getString( PKG, "TableOutput.Log.BulkLoaded",
+          String.valueOf( data.bulkEncoder.getRowCount() ), data.bulkSchemaTable ) );
+      }
+      data.bulkEncoder.clear();
+    }
+    if ( commit ) {
+      data.db.commit();
+      data.commitCounterMap.put( data.tableName, 0 );
+    }
+
+    for ( Object[] row : data.batchBuffer ) {
+      putRow( data.outputRowMeta, row );
+      incrementLinesOutput();
+    }
+    data.batchBuffer.clear();
+  }
+
   public boolean isRowLevel() {
     return log.isRowLevel();
   }
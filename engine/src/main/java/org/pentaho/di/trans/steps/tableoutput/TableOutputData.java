@@ -22,7 +22,9 @@ import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
 
+import org.pentaho.di.core.database.BulkLoadEncoder;
 import org.pentaho.di.core.database.Database;
+import org.pentaho.di.core.database.DatabaseBulkLoader;
 import org.pentaho.di.core.database.DatabaseMeta;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.trans.step.BaseDatabaseStepData;
@@ -69,6 +71,12 @@ public class TableOutputData extends BaseDatabaseStepData implements StepDataInt
 
   public int commitSize;
 
+  /** The bulk loader and the encoder of the rows to load, null when the rows are inserted one by one */
+  public DatabaseBulkLoader bulkLoader;
+  public BulkLoadEncoder bulkEncoder;
+  public String bulkSchemaTable;
+  public String[] bulkColumns;
+
   public TableOutputData() {
     super();
 
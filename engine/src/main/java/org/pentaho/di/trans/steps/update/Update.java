@@ -22,6 +22,8 @@ import org.json.simple.JSONObject;
 import org.pentaho.di.core.Const;
 import org.pentaho.di.core.SQLStatement;
 import org.pentaho.di.core.util.Utils;
+import org.pentaho.di.core.database.BatchLookup;
+import org.pentaho.di.core.database.Database;
 import org.pentaho.di.core.database.DatabaseMeta;
 import org.pentaho.di.core.exception.KettleDatabaseException;
 import org.pentaho.di.core.exception.KettleException;
@@ -52,20 +54,30 @@ public class Update extends BaseDatabaseStep implements StepInterface {
   }
 
   private synchronized Object[] lookupValues( RowMetaInterface rowMeta, Object[] row ) throws KettleException {
-    Object[] outputRow = row;
     Object[] add;
 
-    // Create the output row and copy the input values
-    if ( !Utils.isEmpty( meta.getIgnoreFlagField() ) ) { // add flag field!
-
-      outputRow = new Object[data.outputRowMeta.size()];
-      for ( int i = 0; i < rowMeta.size(); i++ ) {
-        outputRow[i] = row[i];
+    // OK, now do the lookup.
+    // We need the lookupvalues for that.
+    Object[] lookupRow = getLookupRow( row );
+    RowMetaInterface returnRowMeta = null;
+    if ( !meta.isSkipLookup() ) {
+      data.db.setValues( data.lookupParameterRowMeta, lookupRow, data.prepStatementLookup );
+      if ( log.isDebug() ) {
+        logDebug( BaseMessages.getString( PKG, "Update.Log.ValuesSetForLookup", data.lookupParameterRowMeta
+          .getString( lookupRow ), rowMeta.getString( row ) ) );
       }
+      add = data.db.getLookup( data.prepStatementLookup );
+      returnRowMeta = data.db.getReturnRowMeta();
+    } else {
+      add = null;
     }
 
-    // OK, now do the lookup.
-    // We need the lookupvalues for that.
+    incrementLinesInput();
+
+    return writeValues( rowMeta, row, lookupRow, add, returnRowMeta );
+  }
+
+  private Object[] getLookupRow( Object[] row ) {
     Object[] lookupRow = new Object[data.lookupParameterRowMeta.size()];
     int lookupIndex = 0;
 
@@ -80,21 +92,27 @@ public class Update extends BaseDatabaseStep implements StepInterface {
         lookupIndex++;
       }
     }
-    RowMetaInterface returnRowMeta = null;
-    if ( !meta.isSkipLookup() ) {
-      data.db.setValues( data.lookupParameterRowMeta, lookupRow, data.prepStatementLookup );
-      if ( log.isDebug() ) {
-        logDebug( BaseMessages.getString( PKG, "Update.Log.ValuesSetForLookup", data.lookupParameterRowMeta
-          .getString( lookupRow ), rowMeta.getString( row ) ) );
+    return lookupRow;
+  }
+
+  /**
+   * Updates the found row if the values changed.
+   *
+   * @return the output row, null if it went to the error rows
+   */
+  private Object[] writeValues( RowMetaInterface rowMeta, Object[] row, Object[] lookupRow, Object[] add,
+                                RowMetaInterface returnRowMeta ) throws KettleException {
+    Object[] outputRow = row;
+
+    // Create the output row and copy the input values
+    if ( !Utils.isEmpty( meta.getIgnoreFlagField() ) ) { // add flag field!
+
+      outputRow = new Object[data.outputRowMeta.size()];
+      for ( int i = 0; i < rowMeta.size(); i++ ) {
+        outputRow[i] = row[i];
       }
-      add = data.db.getLookup( data.prepStatementLookup );
-      returnRowMeta = data.db.getReturnRowMeta();
-    } else {
-      add = null;
     }
 
-    incrementLinesInput();
-
     if ( add == null && !meta.isSkipLookup() ) {
       /*
        * nothing was found: throw error!
@@ -177,6 +195,7 @@ public class Update extends BaseDatabaseStep implements StepInterface {
         }
         data.db.setValues( data.updateParameterRowMeta, updateRow, data.prepStatementUpdate );
         data.db.insertRow( data.prepStatementUpdate, meta.useBatchUpdate(), true );
+        data.batchUpdates++;
         incrementLinesUpdated();
       } else {
         incrementLinesSkipped();
@@ -200,6 +219,15 @@ public class Update extends BaseDatabaseStep implements StepInterface {
 
     Object[] r = getRow(); // Get row from input rowset & set row busy!
     if ( r == null ) { // no more input to be expected...
+      if ( data.batchLookup != null && data.batchLookup.size() > 0 ) {
+        try {
+          writeBatch();
+        } catch ( KettleException e ) {
+          logError( BaseMessages.getString( PKG, "Update.Log.ErrorInStep" ), e );
+          setErrors( 1 );
+          stopAll();
+        }
+      }
 
       setOutputDone();
       return false;
@@ -300,9 +328,42 @@ public class Update extends BaseDatabaseStep implements StepInterface {
           }
         }
       } else {
+        data.batchSize = getBatchSize();
         setLookup( getInputRowMeta() );
       }
       prepareUpdate( getInputRowMeta() );
+
+      if ( data.batchLookup != null ) {
+        data.batchRows = new ArrayList<Object[]>( data.batchSize );
+        if ( log.isDetailed() ) {
+          logDetailed( BaseMessages.getString( PKG, "Update.Log.BatchLookup", String.valueOf( data.batchSize ) ) );
+        }
+      }
+    }
+
+    if ( data.batchLookup != null ) {
+      try {
+        Object[] lookupRow = getLookupRow( r );
+        if ( !data.batchLookup.canAdd( lookupRow ) ) {
+          // The batch is full or a row with the same key needs to be updated first
+          writeBatch();
+        }
+        data.batchLookup.add( lookupRow );
+        data.batchRows.add( r );
+      } catch ( KettleException e ) {
+        logError( BaseMessages.getString( PKG, "Update.Log.ErrorInStep" ), e );
+        setErrors( 1 );
+        stopAll();
+        setOutputDone(); // signal end to receiver(s)
+        return false;
+      }
+
+      if ( checkFeedback( getLinesRead() ) ) {
+        if ( log.isBasic() ) {
+          logBasic( BaseMessages.getString( PKG, "Update.Log.LineNumber" ) + getLinesRead() );
+        }
+      }
+      return true;
     }
 
     try {
@@ -336,6 +397,59 @@ public class Update extends BaseDatabaseStep implements StepInterface {
     return true;
   }
 
+  /**
+   * @return the number of rows to look up at a time, 0 if the rows have to be looked up one by one: when a key is not
+   *         compared for equality, when a key column is updated with another field, or when errors are handled per
+   *         row.
+   */
+  private int getBatchSize() {
+    int batchSize = Const.toInt( getVariable( Const.KETTLE_UPSERT_BATCH_SIZE, "0" ), 0 );
+    if ( batchSize <= 1 ) {
+      return 0;
+    }
+    boolean possible = !getStepMeta().isDoingErrorHandling();
+    for ( int i = 0; possible && i < meta.getKeyLookup().length; i++ ) {
+      possible = "=".equals( meta.getKeyCondition()[i] ) || "= ~NULL".equalsIgnoreCase( meta.getKeyCondition()[i] );
+      int keynr = getInputRowMeta().indexOfValue( meta.getKeyStream()[i] );
+      for ( int j = 0; possible && j < meta.getUpdateLookup().length; j++ ) {
+        possible = !meta.getUpdateLookup()[j].equalsIgnoreCase( meta.getKeyLookup()[i] ) || data.valuenrs[j] == keynr;
+      }
+    }
+    if ( !possible ) {
+      logBasic( BaseMessages.getString( PKG, "Update.Log.BatchNotPossible" ) );
+      return 0;
+    }
+    return batchSize;
+  }
+
+  /**
+   * Looks up the rows of the batch, updates them and passes them on.
+   */
+  private void writeBatch() throws KettleException {
+    Object[][] found = data.batchLookup.lookup();
+    RowMetaInterface returnRowMeta = data.batchLookup.getReturnRowMeta();
+    for ( int i = 0; i < found.length; i++ ) {
+      Object[] row = data.batchRows.get( i );
+      incrementLinesInput();
+      Object[] outputRow = writeValues( getInputRowMeta(), row, getLookupRow( row ), found[i], returnRowMeta );
+      if ( outputRow != null ) {
+        putRow( data.outputRowMeta, outputRow );
+      }
+    }
+    data.batchRows.clear();
+
+    // The next batch can have the same keys, its lookup has to see these updates
+    if ( data.batchUpdates > 0 && !data.db.isAutoCommit() && data.db.getUseBatchInsert( meta.useBatchUpdate() ) ) {
+      try {
+        data.prepStatementUpdate.executeBatch();
+        data.prepStatementUpdate.clearBatch();
+      } catch ( SQLException e ) {
+        throw Database.createKettleDatabaseBatchException( "Error updating batch", e );
+      }
+    }
+    data.batchUpdates = 0;
+  }
+
   public void setLookup( RowMetaInterface rowMeta ) throws KettleDatabaseException {
     data.lookupParameterRowMeta = new RowMeta();
     data.lookupReturnRowMeta = new RowMeta();
@@ -402,6 +516,9 @@ public class Update extends BaseDatabaseStep implements StepInterface {
       throw new KettleDatabaseException( "Unable to prepare statement for SQL statement [" + sql + "]", ex );
     }
 
+    if ( data.batchSize > 1 ) {
+      data.batchLookup = new BatchLookup( data.db, sql, data.lookupParameterRowMeta, data.batchSize );
+    }
   }
 
   // Lookup certain fields in a table
@@ -499,6 +616,9 @@ public class Update extends BaseDatabaseStep implements StepInterface {
         }
         data.db.closePreparedStatement( data.prepStatementUpdate );
         data.db.closePreparedStatement( data.prepStatementLookup );
+        if ( data.batchLookup != null ) {
+          data.batchLookup.close();
+        }
       } catch ( KettleDatabaseException e ) {
         logError( BaseMessages.getString( PKG, "Update.Log.UnableToCommitUpdateConnection" )
           + data.db + "] :" + e.toString() );
@@ -14,7 +14,9 @@
 package org.pentaho.di.trans.steps.update;
 
 import java.sql.PreparedStatement;
+import java.util.List;
 
+import org.pentaho.di.core.database.BatchLookup;
 import org.pentaho.di.core.database.Database;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.trans.step.BaseDatabaseStepData;
@@ -47,6 +49,11 @@ public class UpdateData extends BaseDatabaseStepData implements StepDataInterfac
   public RowMetaInterface lookupReturnRowMeta;
   public RowMetaInterface updateParameterRowMeta;
 
+  public int batchSize; // rows looked up at a time, 0 when they are looked up one by one
+  public BatchLookup batchLookup;
+  public List<Object[]> batchRows;
+  public int batchUpdates; // updates of the batch added to the JDBC batch, executed before the next lookup
+
   public UpdateData() {
     super();
 
@@ -16,11 +16,14 @@ package org.pentaho.di.trans.streaming.common;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Throwables;
+import io.reactivex.functions.Consumer;
 import org.pentaho.di.core.CheckResultInterface;
+import org.pentaho.di.core.Const;
 import org.pentaho.di.core.Result;
 import org.pentaho.di.core.RowMetaAndData;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.exception.KettleStepException;
+import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.i18n.BaseMessages;
 import org.pentaho.di.trans.SubtransExecutor;
 import org.pentaho.di.trans.Trans;
@@ -39,6 +42,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 @SuppressWarnings ( "WeakerAccess" )
 public class BaseStreamStep extends BaseStep {
@@ -209,6 +213,30 @@ public class BaseStreamStep extends BaseStep {
     }
   }
 
+  /**
+   * @return true if the sub-transformation runs continuously, see {@link Const#KETTLE_STREAMING_CONTINUOUS}
+   */
+  protected boolean isContinuous() {
+    return "Y".equalsIgnoreCase( getVariable( Const.KETTLE_STREAMING_CONTINUOUS, "N" ) );
+  }
+
+  /**
+   * Creates the window that passes the records on to the sub-transformation: a {@link ContinuousStreamWindow} if the
+   * sub-transformation runs continuously, a {@link FixedTimeStreamWindow} otherwise.
+   *
+   * @param rowMeta       the layout of the records
+   * @param postProcessor called with every batch the sub-transformation is done with
+   */
+  protected StreamWindow<List<Object>, Result> createWindow( RowMetaInterface rowMeta,
+                                                            Consumer<Map.Entry<List<List<Object>>, Result>> postProcessor ) {
+    if ( isContinuous() ) {
+      return new ContinuousStreamWindow<>( subtransExecutor, rowMeta, getDuration(), getBatchSize(), getParallelism(),
+        postProcessor );
+    }
+    return new FixedTimeStreamWindow<>( subtransExecutor, rowMeta, getDuration(), getBatchSize(), getParallelism(),
+      postProcessor );
+  }
+
   @Override public Collection<StepStatus> subStatuses() {
     return subtransExecutor != null ? subtransExecutor.getStatuses().values() : Collections.emptyList();
   }
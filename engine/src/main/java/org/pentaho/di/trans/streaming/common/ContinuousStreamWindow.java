@@ -0,0 +1,114 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.streaming.common;
+
+import io.reactivex.Flowable;
+import io.reactivex.Single;
+import io.reactivex.functions.Consumer;
+import io.reactivex.schedulers.Schedulers;
+import org.pentaho.di.core.Result;
+import org.pentaho.di.core.RowMetaAndData;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.i18n.BaseMessages;
+import org.pentaho.di.trans.SubtransExecutor;
+import org.pentaho.di.trans.streaming.api.StreamWindow;
+
+import java.util.AbstractMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * A StreamWindow implementation which passes every row of I on to the subtransformation as soon as it arrives, instead
+ * of once its batch is complete. Every batch gets a run of the subtransformation that is prepared ahead and started
+ * with the first row. The end of the batch flows through the subtransformation as the end of its input: once the
+ * subtransformation finished, all rows of the batch are done with and the batch is handed to the post processor
+ * (offset commits, acknowledgements).<br>
+ * Up to the parallelism batches run at the same time, so the rows of the next batch don't wait while the previous one
+ * finishes. The batches are handed to the post processor in the order they arrived.
+ */
+public class ContinuousStreamWindow<I extends List> implements StreamWindow<I, Result> {
+
+  private static final Class<?> PKG = BaseStreamStep.class;
+
+  private final SubtransExecutor subtransExecutor;
+  private final RowMetaInterface rowMeta;
+  private final long millis;
+  private final int batchSize;
+  private final int parallelism;
+  private final Consumer<Map.Entry<List<I>, Result>> postProcessor;
+
+  public ContinuousStreamWindow( SubtransExecutor subtransExecutor, RowMetaInterface rowMeta, long millis,
+                                 int batchSize, int parallelism ) {
+    this( subtransExecutor, rowMeta, millis, batchSize, parallelism, ( p ) -> { } );
+  }
+
+  public ContinuousStreamWindow( SubtransExecutor subtransExecutor, RowMetaInterface rowMeta, long millis,
+                                 int batchSize, int parallelism, Consumer<Map.Entry<List<I>, Result>> postProcessor ) {
+    this.subtransExecutor = subtransExecutor;
+    this.rowMeta = rowMeta;
+    this.millis = millis;
+    this.batchSize = batchSize;
+    this.parallelism = Math.max( parallelism, 1 );
+    this.postProcessor = postProcessor;
+  }
+
+  @Override public Iterable<Result> buffer( Flowable<I> flowable ) {
+    Flowable<Flowable<I>> batches = millis > 0
+      ? batchSize > 0 ? flowable.window( millis, MILLISECONDS, Schedulers.io(), batchSize, true )
+      : flowable.window( millis, MILLISECONDS )
+      : flowable.window( batchSize );
+    return batches
+      .concatMapEager( batch -> runBatch( batch ).toFlowable(), parallelism, 1 )
+      .filter( Optional::isPresent )
+      .map( Optional::get )
+      .doOnNext( this::failOnError )
+      .doOnNext( postProcessor )
+      .map( Map.Entry::getValue )
+      .doFinally( subtransExecutor::finishContinuous )
+      .blockingIterable();
+  }
+
+  /**
+   * Passes the rows of the batch on to a run of the subtransformation as they arrive, then waits for the run to finish
+   * on another thread so that the rows of the next batch can go to the next run in the meantime.
+   */
+  private Single<Optional<Map.Entry<List<I>, Result>>> runBatch( Flowable<I> batch ) {
+    return Single.defer( () -> {
+      SubtransExecutor.StreamingRun run = subtransExecutor.startStreamingRun();
+      return batch
+        .doOnNext( row -> run.putRow( new RowMetaAndData( rowMeta, row.toArray( new Object[ 0 ] ) ) ) )
+        .toList()
+        .observeOn( Schedulers.io() )
+        .map( rows -> finish( run, rows ) );
+    } );
+  }
+
+  private Optional<Map.Entry<List<I>, Result>> finish( SubtransExecutor.StreamingRun run, List<I> batch ) {
+    Optional<Result> result = run.finish();
+    if ( batch.isEmpty() ) {
+      return Optional.empty();
+    }
+    return result.map( r -> new AbstractMap.SimpleImmutableEntry<>( batch, r ) );
+  }
+
+  private void failOnError( Map.Entry<List<I>, Result> pair ) throws KettleException {
+    if ( pair.getValue().getNrErrors() > 0 ) {
+      throw new KettleException( BaseMessages.getString( PKG, "FixedTimeStreamWindow.SubtransFailed" ) );
+    }
+  }
+}
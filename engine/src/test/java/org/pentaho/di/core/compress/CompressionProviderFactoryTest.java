@@ -29,8 +29,11 @@ import org.junit.ClassRule;
 import org.junit.Test;
 import org.pentaho.di.core.compress.gzip.GZIPCompressionProvider;
 import org.pentaho.di.core.compress.hadoopsnappy.HadoopSnappyCompressionProvider;
+import org.pentaho.di.core.compress.lz4.LZ4CompressionProvider;
+import org.pentaho.di.core.compress.pgzip.ParallelGZIPCompressionProvider;
 import org.pentaho.di.core.compress.snappy.SnappyCompressionProvider;
 import org.pentaho.di.core.compress.zip.ZIPCompressionProvider;
+import org.pentaho.di.core.compress.zstd.ZstdCompressionProvider;
 import org.pentaho.di.core.plugins.PluginRegistry;
 import org.pentaho.di.junit.rules.RestorePDIEngineEnvironment;
 
@@ -94,6 +97,24 @@ public class CompressionProviderFactoryTest {
     assertTrue( provider.getClass().isAssignableFrom( HadoopSnappyCompressionProvider.class ) );
     assertEquals( "Hadoop-snappy", provider.getName() );
     assertEquals( "Hadoop Snappy compression", provider.getDescription() );
+
+    provider = factory.createCompressionProviderInstance( "Parallel GZip" );
+    assertNotNull( provider );
+    assertTrue( provider.getClass().isAssignableFrom( ParallelGZIPCompressionProvider.class ) );
+    assertEquals( "Parallel GZip", provider.getName() );
+    assertEquals( "Parallel GZIP compression", provider.getDescription() );
+
+    provider = factory.createCompressionProviderInstance( "Zstd" );
+    assertNotNull( provider );
+    assertTrue( provider.getClass().isAssignableFrom( ZstdCompressionProvider.class ) );
+    assertEquals( "Zstd", provider.getName() );
+    assertEquals( "Zstandard compression", provider.getDescription() );
+
+    provider = factory.createCompressionProviderInstance( "LZ4" );
+    assertNotNull( provider );
+    assertTrue( provider.getClass().isAssignableFrom( LZ4CompressionProvider.class ) );
+    assertEquals( "LZ4", provider.getName() );
+    assertEquals( "LZ4 frame compression", provider.getDescription() );
   }
 
   /**
@@ -109,6 +130,9 @@ public class CompressionProviderFactoryTest {
         put( "GZip", false );
         put( "Snappy", false );
         put( "Hadoop-snappy", false );
+        put( "Parallel GZip", false );
+        put( "Zstd", false );
+        put( "LZ4", false );
       }
     };
 
@@ -140,6 +164,9 @@ public class CompressionProviderFactoryTest {
         put( "GZip", false );
         put( "Snappy", false );
         put( "Hadoop-snappy", false );
+        put( "Parallel GZip", false );
+        put( "Zstd", false );
+        put( "LZ4", false );
       }
     };
 
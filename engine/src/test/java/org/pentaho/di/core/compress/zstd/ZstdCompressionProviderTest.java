@@ -0,0 +1,93 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.di.core.compress.zstd;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.pentaho.di.core.compress.CompressionPluginType;
+import org.pentaho.di.core.compress.CompressionProviderFactory;
+import org.pentaho.di.core.plugins.PluginRegistry;
+import org.pentaho.di.junit.rules.RestorePDIEngineEnvironment;
+
+public class ZstdCompressionProviderTest {
+  @ClassRule public static RestorePDIEngineEnvironment env = new RestorePDIEngineEnvironment();
+
+  public static final String PROVIDER_NAME = "Zstd";
+
+  public CompressionProviderFactory factory = null;
+
+  @BeforeClass
+  public static void setUpBeforeClass() throws Exception {
+    PluginRegistry.addPluginType( CompressionPluginType.getInstance() );
+    PluginRegistry.init( false );
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    factory = CompressionProviderFactory.getInstance();
+  }
+
+  @Test
+  public void testGetProviderAttributes() {
+    ZstdCompressionProvider provider =
+      (ZstdCompressionProvider) factory.getCompressionProviderByName( PROVIDER_NAME );
+    assertNotNull( provider );
+    assertEquals( PROVIDER_NAME, provider.getName() );
+    assertEquals( "Zstandard compression", provider.getDescription() );
+    assertTrue( provider.supportsInput() );
+    assertTrue( provider.supportsOutput() );
+    assertEquals( "zst", provider.getDefaultExtension() );
+  }
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    ZstdCompressionProvider provider =
+      (ZstdCompressionProvider) factory.getCompressionProviderByName( PROVIDER_NAME );
+
+    // Several blocks and a partial one
+    byte[] data = new byte[ 3 * 1024 * 1024 + 12345 ];
+    for ( int i = 0; i < data.length; i++ ) {
+      data[ i ] = (byte) ( 'a' + ( i * 7 + i / 1000 ) % 26 );
+    }
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    try ( OutputStream out = provider.createOutputStream( compressed ) ) {
+      out.write( data, 0, 1000 );
+      out.write( data[ 1000 ] );
+      out.write( data, 1001, data.length - 1001 );
+    }
+    assertTrue( compressed.size() < data.length );
+
+    ByteArrayOutputStream decompressed = new ByteArrayOutputStream();
+    try ( InputStream in = provider.createInputStream( new ByteArrayInputStream( compressed.toByteArray() ) ) ) {
+      byte[] buffer = new byte[ 8192 ];
+      int n;
+      while ( ( n = in.read( buffer ) ) >= 0 ) {
+        decompressed.write( buffer, 0, n );
+      }
+    }
+    assertArrayEquals( data, decompressed.toByteArray() );
+  }
+}
@@ -0,0 +1,75 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.repository.kdr.delegates;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.pentaho.di.core.RowMetaAndData;
+import org.pentaho.di.core.exception.KettleValueException;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaBigNumber;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaString;
+
+public class KettleDatabaseRepositoryRowBufferTest {
+
+  private static RowMetaInterface attributeRowMeta() {
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaBigNumber( "ID_TRANSFORMATION" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "CODE" ) );
+    rowMeta.addValueMeta( new ValueMetaInteger( "NR" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "VALUE_STR" ) );
+    return rowMeta;
+  }
+
+  @Test
+  public void testGetRowWithNormalizedKeys() throws Exception {
+    List<Object[]> rows = new ArrayList<>();
+    rows.add( new Object[] { new BigDecimal( 7 ), "PARAM_KEY", 0L, "a" } );
+    rows.add( new Object[] { new BigDecimal( 7 ), "PARAM_KEY", 1L, "b" } );
+    KettleDatabaseRepositoryRowBuffer buffer =
+      new KettleDatabaseRepositoryRowBuffer( attributeRowMeta(), rows, "CODE", "NR" );
+
+    RowMetaAndData row = buffer.getRow( "PARAM_KEY", 1 );
+    assertEquals( "b", row.getString( "VALUE_STR", null ) );
+    assertNull( buffer.getRow( "PARAM_KEY", 2L ) );
+    assertEquals( 2, buffer.size() );
+  }
+
+  @Test
+  public void testCountRows() throws Exception {
+    List<Object[]> rows = new ArrayList<>();
+    rows.add( new Object[] { new BigDecimal( 7 ), "PARAM_KEY", 0L, "a" } );
+    rows.add( new Object[] { new BigDecimal( 7 ), "PARAM_DEFAULT", 0L, "b" } );
+    rows.add( new Object[] { new BigDecimal( 7 ), "PARAM_KEY", 1L, null } );
+    KettleDatabaseRepositoryRowBuffer buffer =
+      new KettleDatabaseRepositoryRowBuffer( attributeRowMeta(), rows, "CODE", "NR" );
+
+    assertEquals( 2, buffer.countRows( "CODE", "PARAM_KEY" ) );
+    assertEquals( 3, buffer.countRows( "ID_TRANSFORMATION", 7L ) );
+    assertEquals( 1, buffer.countRows( "VALUE_STR", null ) );
+  }
+
+  @Test( expected = KettleValueException.class )
+  public void testUnknownKeyField() throws Exception {
+    new KettleDatabaseRepositoryRowBuffer( attributeRowMeta(), new ArrayList<>(), "ID_STEP" );
+  }
+}
@@ -35,10 +35,19 @@ import org.pentaho.di.core.logging.LoggingObject;
 import org.pentaho.di.core.logging.LoggingObjectInterface;
 import org.pentaho.di.core.plugins.PluginRegistry;
 import org.pentaho.di.core.plugins.StepPluginType;
+import org.pentaho.di.core.row.RowMeta;
 import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaString;
 import org.pentaho.di.core.variables.Variables;
 import org.pentaho.di.junit.rules.RestorePDIEngineEnvironment;
+import org.pentaho.di.trans.step.StepMeta;
 import org.pentaho.di.trans.step.StepStatus;
+import org.pentaho.di.trans.steps.datagrid.DataGridMeta;
+import org.pentaho.di.trans.steps.dummytrans.DummyTransMeta;
+import org.pentaho.di.trans.steps.memgroupby.MemoryGroupByMeta;
+import org.pentaho.di.trans.steps.mergejoin.MergeJoinMeta;
+import org.pentaho.di.trans.steps.recordsfromstream.RecordsFromStreamMeta;
 import org.pentaho.di.trans.steps.transexecutor.TransExecutorParameters;
 
 import java.util.ArrayList;
@@ -59,6 +68,7 @@ import java.util.concurrent.TimeoutException;
 import static junit.framework.TestCase.fail;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -267,6 +277,98 @@ public class SubtransExecutorTest {
     assertFalse( timedOut );
   }
 
+  @Test
+  public void streamingRunsEndWithTheirWindow() throws Exception {
+    TransMeta parentMeta =
+      new TransMeta( DefaultBowl.getInstance(), this.getClass().getResource( "subtrans-executor-parent.ktr" ).getPath(),
+        new Variables() );
+    Trans parentTrans = new Trans( parentMeta, new LoggingObject( "anything" ) );
+    SubtransExecutor subtransExecutor = new SubtransExecutor( "subtransname", parentTrans, streamingSubtrans(), true,
+      new TransExecutorParameters(), "Output", 1001 );
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaString( "key" ) );
+
+    // Merge Join keeps waiting for the next row and Group by only writes its row at the end of its input: the rows of a
+    // window only come out once the end of the window went through every step
+    //
+    try {
+      SubtransExecutor.StreamingRun first = subtransExecutor.startStreamingRun();
+      first.putRow( new RowMetaAndData( rowMeta, "a" ) );
+      first.putRow( new RowMetaAndData( rowMeta, "b" ) );
+      SubtransExecutor.StreamingRun second = subtransExecutor.startStreamingRun();
+      second.putRow( new RowMetaAndData( rowMeta, "c" ) );
+
+      Result secondResult = second.finish().orElseThrow( AssertionError::new );
+      assertEquals( 1, secondResult.getRows().size() );
+      assertEquals( 1L, secondResult.getRows().get( 0 ).getInteger( "count", -1L ) );
+
+      Result firstResult = first.finish().orElseThrow( AssertionError::new );
+      assertEquals( 1, firstResult.getRows().size() );
+      assertEquals( 2L, firstResult.getRows().get( 0 ).getInteger( "count", -1L ) );
+
+      assertNull( parentTrans.getActiveSubTransformation( "subtransname" ) );
+      assertTrue( subtransExecutor.running.isEmpty() );
+      assertFalse( subtransExecutor.startStreamingRun().finish().isPresent() );
+    } finally {
+      subtransExecutor.finishContinuous();
+    }
+  }
+
+  /**
+   * Get records from stream and a data grid, joined in a left outer Merge Join, counted by a Group by that writes to a
+   * dummy step
+   */
+  private static TransMeta streamingSubtrans() {
+    TransMeta transMeta = new TransMeta();
+    transMeta.setName( "streaming-sub" );
+
+    RecordsFromStreamMeta recordsMeta = new RecordsFromStreamMeta();
+    recordsMeta.allocate( 1 );
+    recordsMeta.setFieldname( new String[] { "key" } );
+    recordsMeta.setType( new int[] { ValueMetaInterface.TYPE_STRING } );
+    recordsMeta.setLength( new int[] { -1 } );
+    recordsMeta.setPrecision( new int[] { -1 } );
+    StepMeta records = new StepMeta( "Get records from stream", recordsMeta );
+
+    DataGridMeta gridMeta = new DataGridMeta();
+    gridMeta.allocate( 1 );
+    gridMeta.setFieldName( new String[] { "key2" } );
+    gridMeta.setFieldType( new String[] { "String" } );
+    gridMeta.setFieldLength( new int[] { -1 } );
+    gridMeta.setFieldPrecision( new int[] { -1 } );
+    gridMeta.setDataLines( Arrays.asList(
+      Collections.singletonList( "a" ), Collections.singletonList( "b" ), Collections.singletonList( "c" ) ) );
+    StepMeta grid = new StepMeta( "Data Grid", gridMeta );
+
+    MergeJoinMeta joinMeta = new MergeJoinMeta();
+    joinMeta.setDefault();
+    joinMeta.setJoinType( "LEFT OUTER" );
+    joinMeta.setKeyFields1( new String[] { "key" } );
+    joinMeta.setKeyFields2( new String[] { "key2" } );
+    joinMeta.getStepIOMeta().getInfoStreams().get( 0 ).setStepMeta( records );
+    joinMeta.getStepIOMeta().getInfoStreams().get( 1 ).setStepMeta( grid );
+    StepMeta join = new StepMeta( "Merge Join", joinMeta );
+
+    MemoryGroupByMeta groupByMeta = new MemoryGroupByMeta();
+    groupByMeta.allocate( 0, 1 );
+    groupByMeta.setAggregateField( new String[] { "count" } );
+    groupByMeta.setSubjectField( new String[] { "key" } );
+    groupByMeta.setAggregateType( new int[] { MemoryGroupByMeta.TYPE_GROUP_COUNT_ALL } );
+    groupByMeta.setValueField( new String[] { null } );
+    StepMeta groupBy = new StepMeta( "Group by", groupByMeta );
+
+    StepMeta output = new StepMeta( "Output", new DummyTransMeta() );
+
+    for ( StepMeta stepMeta : Arrays.asList( records, grid, join, groupBy, output ) ) {
+      transMeta.addStep( stepMeta );
+    }
+    transMeta.addTransHop( new TransHopMeta( records, join ) );
+    transMeta.addTransHop( new TransHopMeta( grid, join ) );
+    transMeta.addTransHop( new TransHopMeta( join, groupBy ) );
+    transMeta.addTransHop( new TransHopMeta( groupBy, output ) );
+    return transMeta;
+  }
+
   private void safeAcquirePermits( SubtransExecutor subtransExecutor, int permitCount,
                                    CompletableFuture<Boolean> threadRunning ) {
     try {
@@ -44,6 +44,7 @@ import org.pentaho.di.repository.Repository;
 import org.pentaho.di.repository.RepositoryBowl;
 import org.pentaho.di.repository.RepositoryDirectory;
 import org.pentaho.di.repository.RepositoryDirectoryInterface;
+import org.pentaho.di.trans.step.StepErrorMeta;
 import org.pentaho.di.trans.step.StepIOMeta;
 import org.pentaho.di.trans.step.StepMeta;
 import org.pentaho.di.trans.step.StepMetaChangeListenerInterface;
@@ -978,4 +979,35 @@ public class TransMetaTest {
     assertTrue( "Null filename should result in null or empty after deserialization",
         deserializedTransMeta.getFilename() == null || deserializedTransMeta.getFilename().isEmpty() );
   }
+
+  @Test
+  public void testLoadXmlResolvesHopsAndErrorHops() throws Exception {
+    TransMeta source = new TransMeta();
+    source.setName( "hops" );
+    StepMeta one = new StepMeta( "One", new DummyTransMeta() );
+    StepMeta two = new StepMeta( "Two", new DummyTransMeta() );
+    StepMeta three = new StepMeta( "Three", new DummyTransMeta() );
+    source.addStep( one );
+    source.addStep( two );
+    source.addStep( three );
+    source.addTransHop( new TransHopMeta( one, two ) );
+    source.addTransHop( new TransHopMeta( one, three ) );
+    StepErrorMeta errorMeta = new StepErrorMeta( source, one, three );
+    errorMeta.setEnabled( true );
+    one.setStepErrorMeta( errorMeta );
+
+    org.w3c.dom.Document doc = XMLHandler.loadXMLString( source.getXML() );
+    Node transNode = XMLHandler.getSubNode( doc, TransMeta.XML_TAG );
+    TransMeta target = new TransMeta( transNode, null );
+
+    assertEquals( 3, target.nrSteps() );
+    assertEquals( 2, target.nrTransHops() );
+    TransHopMeta normalHop = target.getTransHop( 0 );
+    assertSame( target.findStep( "One" ), normalHop.getFromStep() );
+    assertSame( target.findStep( "Two" ), normalHop.getToStep() );
+    assertFalse( normalHop.isErrorHop() );
+    TransHopMeta errorHop = target.getTransHop( 1 );
+    assertSame( target.findStep( "Three" ), errorHop.getToStep() );
+    assertTrue( errorHop.isErrorHop() );
+  }
 }
@@ -211,6 +211,63 @@ public class CalculatorUnitTest {
     }
   }
 
+  @Test
+  public void testPrimitiveArithmeticWithTemporaryFields() throws KettleException {
+    RowMeta inputRowMeta = new RowMeta();
+    inputRowMeta.addValueMeta( new ValueMetaInteger( "a" ) );
+    inputRowMeta.addValueMeta( new ValueMetaInteger( "b" ) );
+    inputRowMeta.addValueMeta( new ValueMetaNumber( "x" ) );
+
+    RowSet inputRowSet = smh.getMockInputRowSet( new Object[][] {
+      { 3L, 4L, 1.5 }, { null, 2L, 3.0 }, { 7L, 2L, null } } );
+    inputRowSet.setRowMeta( inputRowMeta );
+
+    Calculator calculator = new Calculator( smh.stepMeta, smh.stepDataInterface, 0, smh.transMeta, smh.trans );
+    calculator.addRowSetToInputRowSets( inputRowSet );
+    calculator.setInputRowMeta( inputRowMeta );
+    calculator.init( smh.initStepMetaInterface, smh.initStepDataInterface );
+
+    CalculatorMeta meta = new CalculatorMeta();
+    meta.setCalculation( new CalculatorMetaFunction[] {
+      // removed and only used by the next calculations, never stored in the row
+      new CalculatorMetaFunction( "sum", CalculatorMetaFunction.CALC_ADD, "a", "b", null,
+        ValueMetaInterface.TYPE_INTEGER, 0, 0, true, "", "", "", "" ),
+      new CalculatorMetaFunction( "product", CalculatorMetaFunction.CALC_MULTIPLY, "sum", "b", null,
+        ValueMetaInterface.TYPE_INTEGER, 0, 0, false, "", "", "", "" ),
+      new CalculatorMetaFunction( "combination", CalculatorMetaFunction.CALC_COMBINATION_1, "sum", "product", "b",
+        ValueMetaInterface.TYPE_INTEGER, 0, 0, false, "", "", "", "" ),
+      new CalculatorMetaFunction( "square", CalculatorMetaFunction.CALC_SQUARE, "x", null, null,
+        ValueMetaInterface.TYPE_NUMBER, 0, 0, false, "", "", "", "" ),
+      // the arguments don't have the type of the result, so this one is converted by the step
+      new CalculatorMetaFunction( "mixed", CalculatorMetaFunction.CALC_ADD, "x", "a", null,
+        ValueMetaInterface.TYPE_NUMBER, 0, 0, false, "", "", "", "" ) } );
+
+    final List<Object[]> rows = new ArrayList<>();
+    calculator.addRowListener( new RowAdapter() {
+      @Override public void rowWrittenEvent( RowMetaInterface rowMeta, Object[] row ) throws KettleStepException {
+        assertEquals( 7, rowMeta.size() );
+        assertEquals( -1, rowMeta.indexOfValue( "sum" ) );
+        rows.add( row );
+      }
+    } );
+    CalculatorData data = new CalculatorData();
+    for ( int i = 0; i < 3; i++ ) {
+      calculator.processRow( meta, data );
+    }
+
+    assertEquals( 3, rows.size() );
+    assertEquals( 28L, rows.get( 0 )[ 3 ] );
+    assertEquals( 119L, rows.get( 0 )[ 4 ] );
+    assertEquals( 2.25, rows.get( 0 )[ 5 ] );
+    assertEquals( 4.5, rows.get( 0 )[ 6 ] );
+    assertEquals( null, rows.get( 1 )[ 3 ] );
+    assertEquals( null, rows.get( 1 )[ 4 ] );
+    assertEquals( 9.0, rows.get( 1 )[ 5 ] );
+    assertEquals( 18L, rows.get( 2 )[ 3 ] );
+    assertEquals( 45L, rows.get( 2 )[ 4 ] );
+    assertEquals( null, rows.get( 2 )[ 5 ] );
+  }
+
   @Test
   public void calculatorShouldClearDataInstance() throws Exception {
     RowMeta inputRowMeta = new RowMeta();
@@ -0,0 +1,123 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+
+package org.pentaho.di.trans.steps.csvinput;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class CsvScannerTest {
+
+  private static final byte[] ENCLOSURE = { '"' };
+
+  private FileInputStream fis;
+
+  @After
+  public void tearDown() throws IOException {
+    if ( fis != null ) {
+      fis.close();
+    }
+  }
+
+  private CsvScanner scanner( String content, long start, boolean newlinePossibleInFields, int nrFields,
+                              int windowSize ) throws IOException {
+    File file = File.createTempFile( "CsvScannerTest", ".csv" );
+    file.deleteOnExit();
+    Files.write( file.toPath(), content.getBytes( StandardCharsets.UTF_8 ) );
+    fis = new FileInputStream( file );
+    return new CsvScanner( fis.getChannel(), start, (byte) ',', ENCLOSURE, newlinePossibleInFields, true, nrFields,
+      windowSize );
+  }
+
+  private List<List<String>> readAll( CsvScanner scanner ) throws IOException {
+    List<List<String>> rows = new ArrayList<>();
+    while ( scanner.nextRow() ) {
+      List<String> row = new ArrayList<>();
+      for ( int i = 0; i < scanner.getNrFields(); i++ ) {
+        row.add( new String( scanner.getField( i ), StandardCharsets.UTF_8 ) );
+      }
+      rows.add( row );
+    }
+    return rows;
+  }
+
+  @Test
+  public void testRowsAndFields() throws IOException {
+    CsvScanner scanner = scanner( "a,bb,ccc\r\nlonger field value,2,3\n4,5,6", 0, false, 3, 1024 );
+    assertEquals( Arrays.asList(
+      Arrays.asList( "a", "bb", "ccc" ),
+      Arrays.asList( "longer field value", "2", "3" ),
+      Arrays.asList( "4", "5", "6" ) ), readAll( scanner ) );
+  }
+
+  @Test
+  public void testEnclosuresAndEscapedEnclosures() throws IOException {
+    CsvScanner scanner = scanner( "\"a,b\",\"say \"\"hi\"\"\",c\"d\n", 0, false, 3, 1024 );
+    assertEquals( Arrays.asList( Arrays.asList( "a,b", "say \"hi\"", "c\"d" ) ), readAll( scanner ) );
+  }
+
+  @Test
+  public void testShortRowsAndExtraFields() throws IOException {
+    CsvScanner scanner = scanner( "1\n2,3,4,5,6\n7,8\n", 0, false, 2, 1024 );
+    assertEquals( Arrays.asList(
+      Arrays.asList( "1" ),
+      Arrays.asList( "2", "3" ),
+      Arrays.asList( "7", "8" ) ), readAll( scanner ) );
+  }
+
+  @Test
+  public void testNewlinesInFields() throws IOException {
+    CsvScanner scanner = scanner( "a\nb,c\nd,e\n", 0, true, 2, 1024 );
+    assertEquals( Arrays.asList(
+      Arrays.asList( "a\nb", "c" ),
+      Arrays.asList( "d", "e" ) ), readAll( scanner ) );
+  }
+
+  @Test
+  public void testRowsCrossingTheMappingWindow() throws IOException {
+    StringBuilder content = new StringBuilder();
+    List<List<String>> expected = new ArrayList<>();
+    for ( int i = 0; i < 200; i++ ) {
+      String value = "value " + i;
+      content.append( i ).append( ",\"" ).append( value ).append( "\"\n" );
+      expected.add( Arrays.asList( Integer.toString( i ), value ) );
+    }
+    // a window of 16 bytes is smaller than most rows
+    //
+    assertEquals( expected, readAll( scanner( content.toString(), 0, false, 2, 16 ) ) );
+  }
+
+  @Test
+  public void testSkipPartialRow() throws IOException {
+    String content = "first,row\nsecond,row\n";
+    CsvScanner scanner = scanner( content, 3, false, 2, 1024 );
+    assertEquals( 7, scanner.skipPartialRow() );
+    assertEquals( Arrays.asList( Arrays.asList( "second", "row" ) ), readAll( scanner ) );
+
+    scanner = scanner( content, content.indexOf( "second" ), false, 2, 1024 );
+    assertEquals( 0, scanner.skipPartialRow() );
+    assertEquals( Arrays.asList( Arrays.asList( "second", "row" ) ), readAll( scanner ) );
+  }
+}
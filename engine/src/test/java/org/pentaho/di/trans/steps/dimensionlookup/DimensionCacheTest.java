@@ -13,17 +13,158 @@
 
 package org.pentaho.di.trans.steps.dimensionlookup;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
 import java.sql.Timestamp;
 import java.util.Date;
 
 import org.junit.Test;
 import org.pentaho.di.core.row.RowMeta;
 import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaBigNumber;
+import org.pentaho.di.core.row.value.ValueMetaDate;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaString;
 import org.pentaho.di.core.row.value.ValueMetaTimestamp;
 import org.pentaho.di.core.util.Assert;
 
 public class DimensionCacheTest {
 
+  private static final Date D1 = new Date( 1000L );
+  private static final Date D2 = new Date( 2000L );
+  private static final Date D3 = new Date( 3000L );
+
+  /**
+   * Rows of the dimension: natural key, technical key, date from, date to.
+   */
+  private static DimensionCache createCache() {
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaString( "CODE" ) );
+    rowMeta.addValueMeta( new ValueMetaInteger( "TK" ) );
+    rowMeta.addValueMeta( new ValueMetaDate( "DATE_FROM" ) );
+    rowMeta.addValueMeta( new ValueMetaDate( "DATE_TO" ) );
+    return new DimensionCache( rowMeta, new int[] { 0 }, 2, 3 );
+  }
+
+  @Test
+  public void testLookupVersions() throws Exception {
+    DimensionCache dc = createCache();
+    // added out of order like the rows of a table
+    Object[] second = new Object[] { "a", 2L, D2, D3 };
+    Object[] first = new Object[] { "a", 1L, null, D2 };
+    Object[] last = new Object[] { "a", 3L, D3, null };
+    dc.addRow( second );
+    dc.addRow( last );
+    dc.addRow( first );
+    dc.addRow( new Object[] { "b", 4L, null, null } );
+    assertEquals( 4, dc.getRowCount() );
+
+    assertSame( first, dc.lookupRow( new Object[] { "a", null, new Date( 500L ), null } ) );
+    assertSame( second, dc.lookupRow( new Object[] { "a", null, D2, null } ) );
+    assertSame( second, dc.lookupRow( new Object[] { "a", null, new Date( 2999L ), null } ) );
+    assertSame( last, dc.lookupRow( new Object[] { "a", null, new Date( 9000L ), null } ) );
+    assertEquals( 4L, dc.lookupRow( new Object[] { "b" }, D1 )[ 1 ] );
+    assertNull( dc.lookupRow( new Object[] { "c" }, D1 ) );
+  }
+
+  @Test
+  public void testLookupOutsideDateRange() throws Exception {
+    DimensionCache dc = createCache();
+    dc.addRow( new Object[] { "a", 1L, D1, D2 } );
+
+    assertNull( dc.lookupRow( new Object[] { "a" }, new Date( 500L ) ) );
+    assertNull( dc.lookupRow( new Object[] { "a" }, D2 ) );
+  }
+
+  @Test
+  public void testKeysComparedLikeTheDatabase() throws Exception {
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaBigNumber( "ID" ) );
+    rowMeta.addValueMeta( new ValueMetaDate( "DAY" ) );
+    rowMeta.addValueMeta( new ValueMetaDate( "DATE_FROM" ) );
+    rowMeta.addValueMeta( new ValueMetaDate( "DATE_TO" ) );
+    DimensionCache dc = new DimensionCache( rowMeta, new int[] { 0, 1 }, 2, 3 );
+    Object[] row = new Object[] { new BigDecimal( "1.50" ), new Timestamp( 1000L ), null, null };
+    dc.addRow( row );
+
+    assertSame( row, dc.lookupRow( new Object[] { new BigDecimal( "1.5" ), D1 }, D3 ) );
+  }
+
+  @Test
+  public void testReplaceVersion() throws Exception {
+    DimensionCache dc = createCache();
+    dc.addRow( new Object[] { "a" }, new Object[] { 1L, 1L, D1, null } );
+    // the version is closed by the update of the dimension
+    dc.addRow( new Object[] { "a" }, new Object[] { 1L, 1L, D1, D2 } );
+    dc.addRow( new Object[] { "a" }, new Object[] { 2L, 2L, D2, null } );
+
+    assertEquals( 2, dc.getRowCount() );
+    assertEquals( 1L, dc.lookupRow( new Object[] { "a" }, D1 )[ 0 ] );
+    assertEquals( 2L, dc.lookupRow( new Object[] { "a" }, D3 )[ 0 ] );
+  }
+
+  @Test
+  public void testRemoveKey() throws Exception {
+    DimensionCache dc = createCache();
+    dc.addRow( new Object[] { "a", 1L, null, D2 } );
+    dc.addRow( new Object[] { "a", 2L, D2, null } );
+    dc.addRow( new Object[] { "b", 3L, null, null } );
+    long memoryUsage = dc.getMemoryUsage();
+
+    dc.removeKey( new Object[] { "a" } );
+    assertEquals( 1, dc.getRowCount() );
+    assertTrue( dc.getMemoryUsage() < memoryUsage );
+    assertNull( dc.lookupRow( new Object[] { "a" }, D1 ) );
+    assertNull( dc.lookupRow( new Object[] { "a" }, D3 ) );
+    assertEquals( 3L, dc.lookupRow( new Object[] { "b" }, D1 )[ 1 ] );
+
+    dc.removeKey( new Object[] { "c" } );
+    assertEquals( 1, dc.getRowCount() );
+  }
+
+  @Test
+  public void testMaximumRows() throws Exception {
+    DimensionCache dc = createCache();
+    dc.setMaximumRows( 3 );
+    dc.addRow( new Object[] { "a", 1L, null, D2 } );
+    dc.addRow( new Object[] { "a", 2L, D2, null } );
+    dc.addRow( new Object[] { "b", 3L, null, null } );
+    // a is used after b
+    dc.lookupRow( new Object[] { "a" }, D1 );
+    dc.addRow( new Object[] { "c", 4L, null, null } );
+
+    // b is removed, a with its 2 versions stays
+    assertEquals( 3, dc.getRowCount() );
+    assertNull( dc.lookupRow( new Object[] { "b" }, D1 ) );
+    assertEquals( 2L, dc.lookupRow( new Object[] { "a" }, D3 )[ 1 ] );
+    assertEquals( 4L, dc.lookupRow( new Object[] { "c" }, D1 )[ 1 ] );
+
+    // The versions of a are removed together
+    dc.addRow( new Object[] { "d", 5L, null, null } );
+    assertEquals( 2, dc.getRowCount() );
+    assertNull( dc.lookupRow( new Object[] { "a" }, D1 ) );
+  }
+
+  @Test
+  public void testMemoryLimit() throws Exception {
+    DimensionCache dc = createCache();
+    for ( int i = 0; i < 100; i++ ) {
+      dc.addRow( new Object[] { "key" + i, (long) i, null, null } );
+    }
+    long memoryUsage = dc.getMemoryUsage();
+    assertTrue( memoryUsage > 0 );
+
+    dc.setMemoryLimit( memoryUsage / 2 );
+    assertTrue( dc.getMemoryUsage() <= memoryUsage / 2 );
+    assertTrue( dc.getRowCount() < 100 );
+    assertNull( dc.lookupRow( new Object[] { "key0" }, D1 ) );
+    assertEquals( 99L, dc.lookupRow( new Object[] { "key99" }, D1 )[ 1 ] );
+  }
+
   @Test
   public void testCompareDateInterval() {
     RowMetaInterface rowMeta = new RowMeta();
@@ -0,0 +1,146 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.hashjoin;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.Date;
+
+import org.apache.commons.vfs2.FileObject;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.pentaho.di.core.KettleClientEnvironment;
+import org.pentaho.di.core.bowl.DefaultBowl;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaBigNumber;
+import org.pentaho.di.core.row.value.ValueMetaDate;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaNumber;
+import org.pentaho.di.core.row.value.ValueMetaString;
+import org.pentaho.di.core.row.value.ValueMetaTimestamp;
+import org.pentaho.di.core.variables.Variables;
+import org.pentaho.di.core.vfs.IKettleVFS;
+import org.pentaho.di.core.vfs.KettleVFS;
+
+public class HashJoinKeyTest {
+
+  @BeforeClass
+  public static void init() throws Exception {
+    KettleClientEnvironment.init();
+  }
+
+  private static RowMetaInterface rowMeta( ValueMetaInterface... valueMetas ) {
+    RowMetaInterface rowMeta = new RowMeta();
+    for ( ValueMetaInterface valueMeta : valueMetas ) {
+      rowMeta.addValueMeta( valueMeta );
+    }
+    return rowMeta;
+  }
+
+  @Test
+  public void testKeysOfBothStreamsAreEqual() throws Exception {
+    ValueMetaString name = new ValueMetaString( "name" );
+    name.setCaseInsensitive( true );
+    RowMetaInterface oneMeta = rowMeta( new ValueMetaInteger( "id" ), new ValueMetaBigNumber( "amount" ), name );
+    RowMetaInterface twoMeta = rowMeta(
+      new ValueMetaString( "other" ), new ValueMetaNumber( "id" ), new ValueMetaBigNumber( "amount" ),
+      new ValueMetaString( "name" ) );
+    ValueMetaInterface[] keyMetas = { oneMeta.getValueMeta( 0 ), oneMeta.getValueMeta( 1 ), name };
+
+    HashJoinKeyFactory oneKeys = new HashJoinKeyFactory( oneMeta, new int[] { 0, 1, 2 }, keyMetas );
+    HashJoinKeyFactory twoKeys = new HashJoinKeyFactory( twoMeta, new int[] { 1, 2, 3 }, keyMetas );
+
+    HashJoinKey one = oneKeys.getKey( new Object[] { 7L, new BigDecimal( "1.50" ), "Kettle" } );
+    HashJoinKey two = twoKeys.getKey( new Object[] { "x", 7.0d, new BigDecimal( "1.5" ), "KETTLE" } );
+    assertEquals( one, two );
+    assertEquals( one.hashCode(), two.hashCode() );
+    assertEquals( one.partition( 2, HashJoin.FAN_OUT ), two.partition( 2, HashJoin.FAN_OUT ) );
+
+    assertNotEquals( one, twoKeys.getKey( new Object[] { "x", 8.0d, new BigDecimal( "1.5" ), "KETTLE" } ) );
+    assertEquals( oneKeys.getKey( new Object[] { null, null, null } ),
+      twoKeys.getKey( new Object[] { "x", null, null, null } ) );
+  }
+
+  @Test
+  public void testDatesCompareOnMilliseconds() throws Exception {
+    ValueMetaInterface[] dateKey = { new ValueMetaDate( "d" ) };
+    HashJoinKeyFactory dates = new HashJoinKeyFactory( rowMeta( dateKey ), new int[] { 0 }, dateKey );
+    Timestamp timestamp = Timestamp.valueOf( "2024-03-01 12:30:00.5" );
+    assertEquals( dates.getKey( new Object[] { new Date( timestamp.getTime() ) } ),
+      dates.getKey( new Object[] { timestamp } ) );
+
+    ValueMetaInterface[] timestampKey = { new ValueMetaTimestamp( "t" ) };
+    HashJoinKeyFactory timestamps = new HashJoinKeyFactory( rowMeta( timestampKey ), new int[] { 0 }, timestampKey );
+    Timestamp later = Timestamp.valueOf( "2024-03-01 12:30:00.500000001" );
+    assertNotEquals( timestamps.getKey( new Object[] { timestamp } ), timestamps.getKey( new Object[] { later } ) );
+  }
+
+  @Test
+  public void testPartitionsDependOnLevel() {
+    boolean differ = false;
+    for ( long i = 0; i < 100; i++ ) {
+      HashJoinKey key = new HashJoinKey( new Object[] { i } );
+      int partition = key.partition( 1, HashJoin.FAN_OUT );
+      assertTrue( partition >= 0 && partition < HashJoin.FAN_OUT );
+      differ |= partition != key.partition( 2, HashJoin.FAN_OUT );
+    }
+    assertTrue( differ );
+  }
+
+  @Test
+  public void testTableGroupsRowsOnKey() {
+    HashJoinTable table = new HashJoinTable();
+    table.add( new HashJoinKey( new Object[] { 1L } ), new Object[] { 1L, "a" } );
+    table.add( new HashJoinKey( new Object[] { 1L } ), new Object[] { 1L, "b" } );
+    table.add( new HashJoinKey( new Object[] { 2L } ), new Object[] { 2L, "c" } );
+
+    assertEquals( 3, table.size() );
+    assertEquals( 2, table.getBuckets().size() );
+    assertEquals( 2, table.get( new HashJoinKey( new Object[] { 1L } ) ).rows.size() );
+    assertNull( table.get( new HashJoinKey( new Object[] { 3L } ) ) );
+
+    table.clear();
+    assertEquals( 0, table.size() );
+  }
+
+  @Test
+  public void testSpillFileReadsRowsBack() throws Exception {
+    RowMetaInterface rowMeta = rowMeta( new ValueMetaInteger( "id" ), new ValueMetaString( "name" ) );
+    IKettleVFS vfs = KettleVFS.getInstance( DefaultBowl.getInstance() );
+    FileObject fileObject =
+      vfs.createTempFile( "hashjoin", ".tmp", System.getProperty( "java.io.tmpdir" ), new Variables() );
+    HashJoinSpillFile file = new HashJoinSpillFile( vfs, fileObject, rowMeta );
+    try {
+      for ( long i = 0; i < 3; i++ ) {
+        file.add( new Object[] { i, i == 1 ? null : "row" + i } );
+      }
+      assertEquals( 3, file.size() );
+      assertArrayEquals( new Object[] { 0L, "row0" }, file.next() );
+      assertArrayEquals( new Object[] { 1L, null }, file.next() );
+      assertArrayEquals( new Object[] { 2L, "row2" }, file.next() );
+      assertNull( file.next() );
+    } finally {
+      file.delete();
+    }
+    assertTrue( !fileObject.exists() );
+  }
+}
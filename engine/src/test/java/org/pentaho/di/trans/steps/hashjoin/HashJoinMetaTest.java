@@ -0,0 +1,79 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.hashjoin;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.junit.rules.RestorePDIEngineEnvironment;
+import org.pentaho.di.trans.step.errorhandling.StreamInterface;
+import org.pentaho.di.trans.steps.loadsave.LoadSaveTester;
+import org.pentaho.di.trans.steps.loadsave.validator.FieldLoadSaveValidator;
+
+public class HashJoinMetaTest {
+  @ClassRule public static RestorePDIEngineEnvironment env = new RestorePDIEngineEnvironment();
+
+  @Test
+  public void testSerialization() throws KettleException {
+    List<String> attributes =
+      Arrays.asList( "joinType", "keyFields1", "keyFields2", "cacheSize", "directory", "prefix" );
+
+    Map<String, String> getterMap = new HashMap<>();
+    Map<String, String> setterMap = new HashMap<>();
+    for ( String attribute : attributes ) {
+      String name = Character.toUpperCase( attribute.charAt( 0 ) ) + attribute.substring( 1 );
+      getterMap.put( attribute, "get" + name );
+      setterMap.put( attribute, "set" + name );
+    }
+
+    LoadSaveTester loadSaveTester = new LoadSaveTester( HashJoinMeta.class, attributes, getterMap, setterMap,
+      new HashMap<String, FieldLoadSaveValidator<?>>(), new HashMap<String, FieldLoadSaveValidator<?>>() );
+    loadSaveTester.testSerialization();
+  }
+
+  @Test
+  public void testClone() {
+    HashJoinMeta meta = new HashJoinMeta();
+    meta.setDefault();
+    meta.setKeyFields1( new String[] { "kf1-1", "kf1-2" } );
+    meta.setKeyFields2( new String[] { "kf2-1", "kf2-2" } );
+    meta.setJoinType( "FULL OUTER" );
+    meta.setCacheSize( "1000" );
+
+    HashJoinMeta aClone = (HashJoinMeta) meta.clone();
+    assertNotSame( meta, aClone );
+    assertArrayEquals( meta.getKeyFields1(), aClone.getKeyFields1() );
+    assertArrayEquals( meta.getKeyFields2(), aClone.getKeyFields2() );
+    assertNotSame( meta.getKeyFields1(), aClone.getKeyFields1() );
+    assertEquals( "FULL OUTER", aClone.getJoinType() );
+    assertEquals( "1000", aClone.getCacheSize() );
+    assertEquals( meta.getDirectory(), aClone.getDirectory() );
+
+    List<StreamInterface> infoStreams = meta.getStepIOMeta().getInfoStreams();
+    List<StreamInterface> cloneInfoStreams = aClone.getStepIOMeta().getInfoStreams();
+    assertEquals( 2, cloneInfoStreams.size() );
+    for ( int i = 0; i < infoStreams.size(); i++ ) {
+      assertNotSame( infoStreams.get( i ), cloneInfoStreams.get( i ) );
+    }
+  }
+}
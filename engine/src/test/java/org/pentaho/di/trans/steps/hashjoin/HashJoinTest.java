@@ -0,0 +1,207 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.hashjoin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.pentaho.di.core.KettleClientEnvironment;
+import org.pentaho.di.core.QueueRowSet;
+import org.pentaho.di.core.RowSet;
+import org.pentaho.di.core.bowl.DefaultBowl;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.logging.LoggingObjectInterface;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaString;
+import org.pentaho.di.junit.rules.RestorePDIEngineEnvironment;
+import org.pentaho.di.trans.step.StepMeta;
+import org.pentaho.di.trans.step.errorhandling.StreamInterface;
+import org.pentaho.di.trans.steps.mock.StepMockHelper;
+
+public class HashJoinTest {
+
+  private static final List<String> INNER = Arrays.asList(
+    "2 a2 2 b2", "2 a2 2 b2b", "2 a2b 2 b2", "2 a2b 2 b2b", "4 a4 4 b4", "null a5 null bn" );
+  private static final String UNMATCHED_ONE = "1 a1 null null";
+  private static final List<String> UNMATCHED_TWO = Arrays.asList( "null null 3 b3", "null null 5 b5" );
+
+  private StepMockHelper<HashJoinMeta, HashJoinData> mockHelper;
+  private HashJoinMeta meta;
+  private HashJoinData data;
+  private HashJoin hashJoin;
+  private List<String> output;
+
+  @ClassRule
+  public static RestorePDIEngineEnvironment env = new RestorePDIEngineEnvironment();
+
+  @BeforeClass
+  public static void init() throws KettleException {
+    KettleClientEnvironment.init();
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    mockHelper = new StepMockHelper<>( "HashJoinTest", HashJoinMeta.class, HashJoinData.class );
+    when( mockHelper.logChannelInterfaceFactory.create( any(), any( LoggingObjectInterface.class ) ) ).thenReturn(
+      mockHelper.logChannelInterface );
+    when( mockHelper.trans.isRunning() ).thenReturn( true );
+    when( mockHelper.transMeta.getBowl() ).thenReturn( DefaultBowl.getInstance() );
+
+    meta = new HashJoinMeta();
+    meta.setDefault();
+    meta.setKeyFields1( new String[] { "id" } );
+    meta.setKeyFields2( new String[] { "key" } );
+    meta.setDirectory( System.getProperty( "java.io.tmpdir" ) );
+    meta.setPrefix( "hashjoin" );
+    List<StreamInterface> infoStreams = meta.getStepIOMeta().getInfoStreams();
+    infoStreams.get( 0 ).setStepMeta( new StepMeta( "one", null ) );
+    infoStreams.get( 1 ).setStepMeta( new StepMeta( "two", null ) );
+    data = new HashJoinData();
+
+    hashJoin = Mockito.spy( new HashJoin( mockHelper.stepMeta, data, 0, mockHelper.transMeta, mockHelper.trans ) );
+    RowMetaInterface oneMeta = rowMeta( new ValueMetaInteger( "id" ), new ValueMetaString( "a" ) );
+    RowMetaInterface twoMeta = rowMeta( new ValueMetaInteger( "key" ), new ValueMetaString( "b" ) );
+    doReturn( rowSet( oneMeta, new Object[] { 1L, "a1" }, new Object[] { 2L, "a2" }, new Object[] { 4L, "a4" },
+      new Object[] { 2L, "a2b" }, new Object[] { null, "a5" } ) ).when( hashJoin ).findInputRowSet( "one" );
+    doReturn( rowSet( twoMeta, new Object[] { 5L, "b5" }, new Object[] { 2L, "b2" }, new Object[] { 3L, "b3" },
+      new Object[] { null, "bn" }, new Object[] { 4L, "b4" }, new Object[] { 2L, "b2b" } ) )
+      .when( hashJoin ).findInputRowSet( "two" );
+
+    output = new ArrayList<>();
+    doAnswer( invocation -> {
+      Object[] row = invocation.getArgument( 1 );
+      output.add( row[ 0 ] + " " + row[ 1 ] + " " + row[ 2 ] + " " + row[ 3 ] );
+      return null;
+    } ).when( hashJoin ).putRow( any( RowMetaInterface.class ), any( Object[].class ) );
+  }
+
+  @After
+  public void tearDown() {
+    mockHelper.cleanUp();
+  }
+
+  private static RowMetaInterface rowMeta( ValueMetaInteger key, ValueMetaString value ) {
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( key );
+    rowMeta.addValueMeta( value );
+    return rowMeta;
+  }
+
+  private static RowSet rowSet( RowMetaInterface rowMeta, Object[]... rows ) {
+    RowSet rowSet = new QueueRowSet();
+    for ( Object[] row : rows ) {
+      rowSet.putRow( rowMeta, row );
+    }
+    rowSet.setDone();
+    return rowSet;
+  }
+
+  private static List<String> expected( List<String> inner, String... unmatched ) {
+    List<String> rows = new ArrayList<>( inner );
+    rows.addAll( Arrays.asList( unmatched ) );
+    Collections.sort( rows );
+    return rows;
+  }
+
+  /**
+   * Runs the step until it's done and returns the sorted output rows.
+   */
+  private List<String> join( String joinType, int cacheSize ) throws Exception {
+    meta.setJoinType( joinType );
+    meta.setCacheSize( String.valueOf( cacheSize ) );
+    assertTrue( hashJoin.init( meta, data ) );
+    while ( hashJoin.processRow( meta, data ) ) {
+      // join the next row
+    }
+    hashJoin.dispose( meta, data );
+    Collections.sort( output );
+    return output;
+  }
+
+  @Test
+  public void testInnerJoin() throws Exception {
+    assertEquals( expected( INNER ), join( "INNER", 0 ) );
+    assertNull( data.twoPartitions );
+  }
+
+  @Test
+  public void testLeftOuterJoin() throws Exception {
+    assertEquals( expected( INNER, UNMATCHED_ONE ), join( "LEFT OUTER", 0 ) );
+  }
+
+  @Test
+  public void testRightOuterJoin() throws Exception {
+    assertEquals( expected( INNER, UNMATCHED_TWO.get( 0 ), UNMATCHED_TWO.get( 1 ) ), join( "RIGHT OUTER", 0 ) );
+  }
+
+  @Test
+  public void testFullOuterJoin() throws Exception {
+    assertEquals( expected( INNER, UNMATCHED_ONE, UNMATCHED_TWO.get( 0 ), UNMATCHED_TWO.get( 1 ) ),
+      join( "FULL OUTER", 0 ) );
+  }
+
+  @Test
+  public void testInnerJoinPartitioned() throws Exception {
+    assertEquals( expected( INNER ), join( "INNER", 2 ) );
+    assertNotNull( data.twoPartitions );
+    assertTrue( data.spillFiles.isEmpty() );
+  }
+
+  @Test
+  public void testLeftOuterJoinPartitioned() throws Exception {
+    assertEquals( expected( INNER, UNMATCHED_ONE ), join( "LEFT OUTER", 2 ) );
+    assertNotNull( data.twoPartitions );
+  }
+
+  @Test
+  public void testRightOuterJoinPartitioned() throws Exception {
+    assertEquals( expected( INNER, UNMATCHED_TWO.get( 0 ), UNMATCHED_TWO.get( 1 ) ), join( "RIGHT OUTER", 2 ) );
+    assertNotNull( data.twoPartitions );
+  }
+
+  @Test
+  public void testFullOuterJoinPartitioned() throws Exception {
+    assertEquals( expected( INNER, UNMATCHED_ONE, UNMATCHED_TWO.get( 0 ), UNMATCHED_TWO.get( 1 ) ),
+      join( "FULL OUTER", 2 ) );
+    assertNotNull( data.twoPartitions );
+  }
+
+  @Test
+  public void testJoinPartitionedTwice() throws Exception {
+    // a single row in memory splits the partitions of the second stream again
+    assertEquals( expected( INNER, UNMATCHED_ONE, UNMATCHED_TWO.get( 0 ), UNMATCHED_TWO.get( 1 ) ),
+      join( "FULL OUTER", 1 ) );
+    assertNotNull( data.twoPartitions );
+    assertTrue( data.spillFiles.isEmpty() );
+  }
+}
@@ -0,0 +1,96 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.mergejoin;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.pentaho.di.core.KettleClientEnvironment;
+import org.pentaho.di.core.bowl.DefaultBowl;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaString;
+import org.pentaho.di.core.variables.Variables;
+import org.pentaho.di.core.vfs.KettleVFS;
+
+public class MergeJoinGroupTest {
+
+  @BeforeClass
+  public static void init() throws Exception {
+    KettleClientEnvironment.init();
+  }
+
+  private static RowMetaInterface rowMeta() {
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "name" ) );
+    return rowMeta;
+  }
+
+  private static File[] tempFiles( File directory ) {
+    return directory.listFiles( ( dir, name ) -> name.startsWith( "mergejoin" ) );
+  }
+
+  @Test
+  public void testSpillsRowsBeyondMemoryLimit() throws Exception {
+    File directory = new File( System.getProperty( "java.io.tmpdir" ), "MergeJoinGroupTest" + System.nanoTime() );
+    assertTrue( directory.mkdir() );
+    Variables space = new Variables();
+    space.setVariable( "TEMP_DIR", directory.getAbsolutePath() );
+    MergeJoinGroup group = new MergeJoinGroup( KettleVFS.getInstance( DefaultBowl.getInstance() ),
+      space.environmentSubstitute( "${TEMP_DIR}" ), "mergejoin", space, rowMeta(), 2 );
+    for ( long i = 0; i < 5; i++ ) {
+      group.add( new Object[] { i, "row" + i } );
+    }
+    assertEquals( 5, group.size() );
+    assertEquals( 1, tempFiles( directory ).length );
+
+    for ( int pass = 0; pass < 2; pass++ ) {
+      group.rewind();
+      for ( long i = 0; i < 5; i++ ) {
+        assertArrayEquals( new Object[] { i, "row" + i }, group.next() );
+      }
+      assertNull( group.next() );
+    }
+
+    group.clear();
+    group.add( new Object[] { 9L, null } );
+    group.rewind();
+    assertArrayEquals( new Object[] { 9L, null }, group.next() );
+    assertNull( group.next() );
+    group.clear();
+    assertEquals( 0, tempFiles( directory ).length );
+    assertTrue( directory.delete() );
+  }
+
+  @Test
+  public void testKeyComparator() throws Exception {
+    RowMetaInterface rowMeta = rowMeta();
+    MergeJoinKeyComparator comparator =
+      new MergeJoinKeyComparator( rowMeta, new int[] { 0, 1 }, rowMeta, new int[] { 0, 1 } );
+
+    assertEquals( 0, comparator.compare( new Object[] { 1L, "a" }, new Object[] { 1L, "a" } ) );
+    assertEquals( -1, Integer.signum( comparator.compare( new Object[] { 1L, "a" }, new Object[] { 2L, "a" } ) ) );
+    assertEquals( 1, Integer.signum( comparator.compare( new Object[] { 1L, "b" }, new Object[] { 1L, "a" } ) ) );
+    assertEquals( -1, Integer.signum( comparator.compare( new Object[] { null, "a" }, new Object[] { 1L, "a" } ) ) );
+    assertEquals( 0, comparator.compare( new Object[] { null, null }, new Object[] { null, null } ) );
+  }
+}
@@ -0,0 +1,63 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.mergejoin;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.junit.Test;
+import org.pentaho.di.core.RowSet;
+import org.pentaho.di.core.exception.KettleStepException;
+import org.pentaho.di.trans.step.BaseStep;
+
+public class MergeJoinInputTest {
+
+  @Test
+  public void testReadsAheadInBatches() throws Exception {
+    BaseStep step = mock( BaseStep.class );
+    RowSet rowSet = mock( RowSet.class );
+    when( step.getStepname() ).thenReturn( "Merge join" );
+    when( step.getRowFrom( rowSet ) ).thenReturn(
+      new Object[] { 1L }, new Object[] { 2L }, new Object[] { 3L }, new Object[] { 4L }, new Object[] { 5L }, null );
+
+    MergeJoinInput input = new MergeJoinInput( step, rowSet, 2 );
+    for ( long i = 1; i <= 5; i++ ) {
+      assertArrayEquals( new Object[] { i }, input.getRow() );
+    }
+    assertNull( input.getRow() );
+    assertNull( input.getRow() );
+    input.close();
+  }
+
+  @Test
+  public void testPassesReadErrors() throws Exception {
+    BaseStep step = mock( BaseStep.class );
+    RowSet rowSet = mock( RowSet.class );
+    when( step.getRowFrom( rowSet ) ).thenReturn( new Object[] { 1L } )
+      .thenThrow( new KettleStepException( "broken" ) );
+
+    MergeJoinInput input = new MergeJoinInput( step, rowSet, 10 );
+    assertArrayEquals( new Object[] { 1L }, input.getRow() );
+    try {
+      input.getRow();
+      fail( "The read error should be thrown by the step" );
+    } catch ( KettleStepException e ) {
+      // expected
+    }
+    input.close();
+  }
+}
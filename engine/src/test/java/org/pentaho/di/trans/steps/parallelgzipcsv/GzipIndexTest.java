@@ -0,0 +1,172 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.parallelgzipcsv;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class GzipIndexTest {
+
+  private static final int BLOCK = 60000;
+
+  private static byte[] data( int size ) {
+    byte[] data = new byte[ size ];
+    for ( int i = 0; i < size; i++ ) {
+      data[ i ] = (byte) ( 'a' + ( i * 31 + i / 7 ) % 26 );
+    }
+    return data;
+  }
+
+  private static byte[] bgzf( byte[] data ) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    for ( int start = 0; start < data.length; start += BLOCK ) {
+      int length = Math.min( BLOCK, data.length - start );
+      Deflater deflater = new Deflater( Deflater.DEFAULT_COMPRESSION, true );
+      deflater.setInput( data, start, length );
+      deflater.finish();
+      byte[] compressed = new byte[ 2 * BLOCK ];
+      int compressedLength = deflater.deflate( compressed );
+      deflater.end();
+      CRC32 crc = new CRC32();
+      crc.update( data, start, length );
+
+      int blockSize = 18 + compressedLength + 8;
+      out.write( new byte[] { 0x1f, (byte) 0x8b, 8, 4, 0, 0, 0, 0, 0, (byte) 0xff, 6, 0, 'B', 'C', 2, 0,
+        (byte) ( blockSize - 1 ), (byte) ( ( blockSize - 1 ) >> 8 ) } );
+      out.write( compressed, 0, compressedLength );
+      writeIntLE( out, (int) crc.getValue() );
+      writeIntLE( out, length );
+    }
+    return out.toByteArray();
+  }
+
+  private static byte[] members( byte[] data, int memberSize ) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    for ( int start = 0; start < data.length; start += memberSize ) {
+      GZIPOutputStream gzip = new GZIPOutputStream( out ) {
+        @Override public void close() throws IOException {
+          finish(); // keep the underlying stream open
+        }
+      };
+      gzip.write( data, start, Math.min( memberSize, data.length - start ) );
+      gzip.close();
+    }
+    return out.toByteArray();
+  }
+
+  private static void writeIntLE( ByteArrayOutputStream out, int value ) {
+    out.write( value );
+    out.write( value >> 8 );
+    out.write( value >> 16 );
+    out.write( value >> 24 );
+  }
+
+  private static void assertReadableFromEveryEntry( GzipIndex index, byte[] compressed, byte[] data )
+    throws IOException {
+    for ( int entry = 0; entry < index.size(); entry++ ) {
+      InputStream in = new ByteArrayInputStream( compressed );
+      assertEquals( index.getCompressedOffset( entry ), in.skip( index.getCompressedOffset( entry ) ) );
+      try ( GZIPInputStream gzip = new GZIPInputStream( in ) ) {
+        byte[] expected = new byte[ 100 ];
+        System.arraycopy( data, (int) index.getUncompressedOffset( entry ), expected, 0, expected.length );
+        byte[] actual = new byte[ 100 ];
+        int read = 0;
+        while ( read < actual.length ) {
+          read += gzip.read( actual, read, actual.length - read );
+        }
+        assertEquals( new String( expected, StandardCharsets.US_ASCII ),
+          new String( actual, StandardCharsets.US_ASCII ) );
+      }
+    }
+  }
+
+  @Test
+  public void testBgzfIsIndexedWithoutScanning() throws Exception {
+    byte[] data = data( 10 * 1024 * 1024 );
+    byte[] compressed = bgzf( data );
+
+    GzipIndex index = GzipIndex.build( new ByteArrayInputStream( compressed ), compressed.length, 1L, false );
+    assertEquals( data.length, index.getUncompressedSize() );
+    assertEquals( 3, index.size() );
+    assertTrue( index.isSeekable() );
+    assertReadableFromEveryEntry( index, compressed, data );
+  }
+
+  @Test
+  public void testMultiMemberGzipIsScanned() throws Exception {
+    byte[] data = data( 9 * 1024 * 1024 );
+    byte[] compressed = members( data, 1024 * 1024 );
+
+    assertNull( GzipIndex.build( new ByteArrayInputStream( compressed ), compressed.length, 1L, false ) );
+
+    GzipIndex index = GzipIndex.build( new ByteArrayInputStream( compressed ), compressed.length, 1L, true );
+    assertEquals( data.length, index.getUncompressedSize() );
+    assertEquals( 3, index.size() );
+    assertReadableFromEveryEntry( index, compressed, data );
+  }
+
+  @Test
+  public void testSingleMemberIsNotSeekable() throws Exception {
+    byte[] data = data( 100000 );
+    byte[] compressed = members( data, data.length );
+    GzipIndex index = GzipIndex.build( new ByteArrayInputStream( compressed ), compressed.length, 1L, true );
+    assertFalse( index.isSeekable() );
+  }
+
+  @Test
+  public void testWriteAndRead() throws Exception {
+    byte[] data = data( 10 * 1024 * 1024 );
+    byte[] compressed = bgzf( data );
+    GzipIndex index = GzipIndex.build( new ByteArrayInputStream( compressed ), compressed.length, 12L, false );
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    index.write( out );
+    GzipIndex read = GzipIndex.read( new ByteArrayInputStream( out.toByteArray() ) );
+
+    assertTrue( read.matches( compressed.length, 12L ) );
+    assertFalse( read.matches( compressed.length, 13L ) );
+    assertEquals( index.size(), read.size() );
+    assertEquals( index.getUncompressedSize(), read.getUncompressedSize() );
+    for ( int i = 0; i < index.size(); i++ ) {
+      assertEquals( index.getCompressedOffset( i ), read.getCompressedOffset( i ) );
+      assertEquals( index.getUncompressedOffset( i ), read.getUncompressedOffset( i ) );
+    }
+  }
+
+  @Test
+  public void testFindEntry() throws Exception {
+    byte[] data = data( 10 * 1024 * 1024 );
+    byte[] compressed = bgzf( data );
+    GzipIndex index = GzipIndex.build( new ByteArrayInputStream( compressed ), compressed.length, 1L, false );
+
+    assertEquals( 0, index.findEntry( 0L ) );
+    assertEquals( 0, index.findEntry( index.getUncompressedOffset( 1 ) - 1 ) );
+    assertEquals( 1, index.findEntry( index.getUncompressedOffset( 1 ) ) );
+    assertEquals( 2, index.findEntry( data.length ) );
+  }
+}
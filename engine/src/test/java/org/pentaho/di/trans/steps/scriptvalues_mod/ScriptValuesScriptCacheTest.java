@@ -0,0 +1,91 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.scriptvalues_mod;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.ContextFactory;
+import org.mozilla.javascript.Script;
+import org.mozilla.javascript.Scriptable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class ScriptValuesScriptCacheTest {
+
+  private Context cx;
+
+  @Before
+  public void setUp() {
+    ScriptValuesScriptCache.clear();
+    cx = ContextFactory.getGlobal().enterContext();
+  }
+
+  @After
+  public void tearDown() {
+    Context.exit();
+    ScriptValuesScriptCache.clear();
+  }
+
+  @Test
+  public void compiledScriptIsReused() {
+    cx.setOptimizationLevel( 9 );
+    Script first = ScriptValuesScriptCache.getScript( cx, "var a = 1 + 2;", "script" );
+    Script second = ScriptValuesScriptCache.getScript( cx, "var a = 1 + 2;", "script" );
+
+    assertSame( first, second );
+    assertEquals( 1, ScriptValuesScriptCache.size() );
+  }
+
+  @Test
+  public void optimizationLevelIsPartOfTheKey() {
+    cx.setOptimizationLevel( 9 );
+    Script optimized = ScriptValuesScriptCache.getScript( cx, "var a = 1 + 2;", "script" );
+    cx.setOptimizationLevel( 0 );
+    Script plain = ScriptValuesScriptCache.getScript( cx, "var a = 1 + 2;", "script" );
+
+    assertNotSame( optimized, plain );
+    assertEquals( 2, ScriptValuesScriptCache.size() );
+  }
+
+  @Test
+  public void interpretedScriptsAreNotCached() {
+    cx.setOptimizationLevel( -1 );
+    Script first = ScriptValuesScriptCache.getScript( cx, "var a = 1 + 2;", "script" );
+    Script second = ScriptValuesScriptCache.getScript( cx, "var a = 1 + 2;", "script" );
+
+    assertNotSame( first, second );
+    assertEquals( 0, ScriptValuesScriptCache.size() );
+  }
+
+  @Test
+  public void cachedScriptRunsInDifferentScopes() {
+    cx.setOptimizationLevel( 9 );
+    Script script = ScriptValuesScriptCache.getScript( cx, "b = a * 2;", "script" );
+
+    Scriptable scope1 = cx.initStandardObjects( null, false );
+    scope1.put( "a", scope1, 2 );
+    Scriptable scope2 = cx.initStandardObjects( null, false );
+    scope2.put( "a", scope2, 5 );
+
+    ScriptValuesScriptCache.getScript( cx, "b = a * 2;", "script" ).exec( cx, scope1 );
+    script.exec( cx, scope2 );
+
+    assertEquals( 4, Context.toNumber( scope1.get( "b", scope1 ) ), 0 );
+    assertEquals( 10, Context.toNumber( scope2.get( "b", scope2 ) ), 0 );
+  }
+}
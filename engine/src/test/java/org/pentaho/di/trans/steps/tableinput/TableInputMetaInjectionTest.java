@@ -59,6 +59,21 @@ public class TableInputMetaInjectionTest extends BaseMetadataInjectionTest<Table
         return meta.isCachedRowMetaActive();
       }
     } );
+    check( "SPLIT_COLUMN", new StringGetter() {
+      public String get() {
+        return meta.getSplitColumn();
+      }
+    } );
+    check( "SPLIT_LOWER_BOUND", new StringGetter() {
+      public String get() {
+        return meta.getSplitLowerBound();
+      }
+    } );
+    check( "SPLIT_UPPER_BOUND", new StringGetter() {
+      public String get() {
+        return meta.getSplitUpperBound();
+      }
+    } );
     skipPropertyTest( "CONNECTIONNAME" );
   }
 }
@@ -0,0 +1,173 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.tableinput;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.pentaho.di.core.Const;
+import org.pentaho.di.core.RowMetaAndData;
+import org.pentaho.di.core.database.DatabaseMeta;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaDate;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaNumber;
+import org.pentaho.di.core.row.value.ValueMetaString;
+
+public class TableInputSplitTest {
+
+  private DatabaseMeta databaseMeta;
+
+  @Before
+  public void setUp() {
+    databaseMeta = mock( DatabaseMeta.class );
+    when( databaseMeta.quoteField( anyString() ) )
+      .thenAnswer( invocation -> "\"" + invocation.getArgument( 0 ) + "\"" );
+  }
+
+  @Test
+  public void testLongBoundaries() {
+    // 1..10 in 3 ranges: [1, 4), [4, 7), [7, 10]
+    assertEquals( 4L, TableInputSplit.getLongBoundary( 1L, 10L, 1, 3 ) );
+    assertEquals( 7L, TableInputSplit.getLongBoundary( 1L, 10L, 2, 3 ) );
+    // no overflow on the widest range
+    assertEquals( 0L, TableInputSplit.getLongBoundary( Long.MIN_VALUE, Long.MAX_VALUE, 1, 2 ) );
+  }
+
+  @Test
+  public void testRanges() throws KettleException {
+    TableInputSplit split = new TableInputSplit( new ValueMetaInteger( "id" ), 0L, 99L, 4 );
+    String sql = "SELECT * FROM orders;";
+
+    assertEquals( "SELECT * FROM (" + Const.CR + "SELECT * FROM orders" + Const.CR
+      + ") split_range WHERE \"id\" < ? OR \"id\" IS NULL", split.getRangeSQL( databaseMeta, sql, "id", 0 ) );
+    assertArrayEquals( new Object[] { 25L }, split.getRangeParameters( 0 ) );
+
+    assertTrue( split.getRangeSQL( databaseMeta, sql, "id", 1 ).endsWith( "WHERE \"id\" >= ? AND \"id\" < ?" ) );
+    assertArrayEquals( new Object[] { 25L, 50L }, split.getRangeParameters( 1 ) );
+    assertEquals( 2, split.getRangeParametersMeta( 1 ).size() );
+    assertEquals( ValueMetaInterface.TYPE_INTEGER, split.getRangeParametersMeta( 1 ).getValueMeta( 0 ).getType() );
+
+    assertTrue( split.getRangeSQL( databaseMeta, sql, "id", 3 ).endsWith( "WHERE \"id\" >= ?" ) );
+    assertArrayEquals( new Object[] { 75L }, split.getRangeParameters( 3 ) );
+  }
+
+  @Test
+  public void testNumberAndDateRanges() throws KettleException {
+    TableInputSplit split = new TableInputSplit( new ValueMetaNumber( "amount" ), 0.0, 1.0, 4 );
+    assertArrayEquals( new Object[] { 0.25, 0.5 }, split.getRangeParameters( 1 ) );
+
+    split = new TableInputSplit( new ValueMetaDate( "day" ), new Date( 0L ), new Date( 1000L ), 2 );
+    assertArrayEquals( new Object[] { new Date( 500L ) }, split.getRangeParameters( 1 ) );
+    assertEquals( ValueMetaInterface.TYPE_DATE, split.getRangeParametersMeta( 1 ).getValueMeta( 0 ).getType() );
+  }
+
+  @Test( expected = KettleException.class )
+  public void testStringColumnIsNotSplit() throws KettleException {
+    new TableInputSplit( new ValueMetaString( "name" ), "a", "z", 2 );
+  }
+
+  @Test
+  public void testBoundsSQL() {
+    assertEquals( "SELECT MIN(\"id\"), MAX(\"id\") FROM (" + Const.CR + "SELECT id FROM t WHERE a = ?" + Const.CR
+      + ") split_bounds", TableInputSplit.getBoundsSQL( databaseMeta, "SELECT id FROM t WHERE a = ?", "id" ) );
+  }
+
+  @Test
+  public void testParseBounds() throws KettleException {
+    Object[] bounds = TableInputSplit.parseBounds( "1", " 2000000000000 " );
+    assertEquals( ValueMetaInterface.TYPE_INTEGER, ( (ValueMetaInterface) bounds[ 0 ] ).getType() );
+    assertEquals( 1L, bounds[ 1 ] );
+    assertEquals( 2000000000000L, bounds[ 2 ] );
+
+    bounds = TableInputSplit.parseBounds( "0", "2.5" );
+    assertEquals( ValueMetaInterface.TYPE_NUMBER, ( (ValueMetaInterface) bounds[ 0 ] ).getType() );
+    assertEquals( 0.0, bounds[ 1 ] );
+    assertEquals( 2.5, bounds[ 2 ] );
+
+    bounds = TableInputSplit.parseBounds( "2024-01-01", "2024-12-31 23:59:59" );
+    assertEquals( ValueMetaInterface.TYPE_DATE, ( (ValueMetaInterface) bounds[ 0 ] ).getType() );
+    assertTrue( ( (Date) bounds[ 1 ] ).before( (Date) bounds[ 2 ] ) );
+  }
+
+  @Test( expected = KettleException.class )
+  public void testInvalidBound() throws KettleException {
+    TableInputSplit.parseBounds( "1", "2024-13-01" );
+  }
+
+  @Test( expected = KettleException.class )
+  public void testMixedBounds() throws KettleException {
+    TableInputSplit.parseBounds( "1", "2024-12-01" );
+  }
+
+  @Test
+  public void testReversedBounds() throws KettleException {
+    for ( String[] bounds : new String[][] { { "10", "1" }, { "1.5", "1" }, { "2024-12-01", "2024-01-01" } } ) {
+      try {
+        TableInputSplit.parseBounds( bounds[ 0 ], bounds[ 1 ] );
+        fail( bounds[ 0 ] + " > " + bounds[ 1 ] );
+      } catch ( KettleException e ) {
+        assertTrue( e.getMessage().contains( "[" + bounds[ 0 ] + "]" ) );
+      }
+    }
+    // a single value is a valid range
+    TableInputSplit.parseBounds( "5", "5" );
+  }
+
+  @Test
+  public void testSharedBoundsAreReadOnce() throws KettleException {
+    TableInputSplit.Shared shared = new TableInputSplit.Shared( 0 );
+    assertTrue( shared.claimBounds() );
+    assertFalse( shared.claimBounds() );
+    assertNull( shared.getBounds( 1, TimeUnit.MILLISECONDS ) );
+
+    RowMetaAndData bounds = new RowMetaAndData();
+    shared.setBounds( bounds );
+    assertSame( bounds, shared.getBounds( 1, TimeUnit.MILLISECONDS ) );
+  }
+
+  @Test( expected = KettleException.class )
+  public void testSharedBoundsFailed() throws KettleException {
+    TableInputSplit.Shared shared = new TableInputSplit.Shared( 0 );
+    shared.setBoundsFailed( new KettleException( "no connection" ) );
+    shared.getBounds( 1, TimeUnit.MILLISECONDS );
+  }
+
+  @Test
+  public void testRowLimitOfAllCopies() {
+    TableInputSplit.Shared shared = new TableInputSplit.Shared( 2 );
+    assertTrue( shared.takeRow() );
+    assertTrue( shared.takeRow() );
+    assertFalse( shared.takeRow() );
+
+    TableInputSplit.Shared unlimited = new TableInputSplit.Shared( 0 );
+    for ( int i = 0; i < 1000; i++ ) {
+      assertTrue( unlimited.takeRow() );
+    }
+  }
+}
@@ -0,0 +1,92 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.tableoutput;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.pentaho.di.core.database.BulkLoadEncoder;
+import org.pentaho.di.core.database.DatabaseBulkLoader;
+import org.pentaho.di.core.database.H2DatabaseMeta;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaBoolean;
+import org.pentaho.di.core.row.value.ValueMetaDate;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaString;
+
+/**
+ * Loads rows encoded like Table Output does in bulk mode into an embedded H2 database.
+ */
+public class TableOutputBulkLoadTest {
+
+  private Connection connection;
+
+  @Before
+  public void setUp() throws Exception {
+    connection = DriverManager.getConnection( "jdbc:h2:mem:BULK_LOAD" );
+    try ( Statement statement = connection.createStatement() ) {
+      statement.execute( "CREATE TABLE CUSTOMERS (ID INTEGER, NAME VARCHAR(50), ACTIVE BOOLEAN, CREATED TIMESTAMP)" );
+    }
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    connection.close();
+  }
+
+  @Test
+  public void testH2BulkLoad() throws Exception {
+    DatabaseBulkLoader bulkLoader = new H2DatabaseMeta().getBulkLoader();
+    assertTrue( bulkLoader.canLoad( connection ) );
+
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "ID" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "NAME" ) );
+    rowMeta.addValueMeta( new ValueMetaBoolean( "ACTIVE" ) );
+    rowMeta.addValueMeta( new ValueMetaDate( "CREATED" ) );
+    BulkLoadEncoder encoder = new BulkLoadEncoder( bulkLoader.getFormat(), rowMeta );
+    Timestamp created = Timestamp.valueOf( "2024-03-01 12:30:00.5" );
+    encoder.addRow( new Object[] { 1L, "Smith, \"Jr\"", true, created } );
+    encoder.addRow( new Object[] { 2L, null, false, null } );
+
+    long rows = bulkLoader.load( connection, "CUSTOMERS", new String[] { "ID", "NAME", "ACTIVE", "CREATED" },
+      encoder.getInputStream() );
+
+    assertEquals( 2L, rows );
+    try ( Statement statement = connection.createStatement();
+          ResultSet rs = statement.executeQuery( "SELECT * FROM CUSTOMERS ORDER BY ID" ) ) {
+      assertTrue( rs.next() );
+      assertEquals( "Smith, \"Jr\"", rs.getString( "NAME" ) );
+      assertTrue( rs.getBoolean( "ACTIVE" ) );
+      assertEquals( created, rs.getTimestamp( "CREATED" ) );
+      assertTrue( rs.next() );
+      assertNull( rs.getString( "NAME" ) );
+      assertFalse( rs.getBoolean( "ACTIVE" ) );
+      assertNull( rs.getTimestamp( "CREATED" ) );
+      assertFalse( rs.next() );
+    }
+  }
+}
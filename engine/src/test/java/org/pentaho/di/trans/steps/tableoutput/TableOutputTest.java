@@ -15,6 +15,7 @@ package org.pentaho.di.trans.steps.tableoutput;
 
 import java.lang.reflect.Method;
 import java.sql.Connection;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -22,14 +23,18 @@ import org.json.simple.JSONObject;
 import org.junit.Before;
 import org.junit.Test;
 import org.pentaho.di.core.SQLStatement;
+import org.pentaho.di.core.database.BulkLoadEncoder;
 import org.pentaho.di.core.database.Database;
+import org.pentaho.di.core.database.DatabaseBulkLoader;
 import org.pentaho.di.core.database.DatabaseInterface;
 import org.pentaho.di.core.database.DatabaseMeta;
+import org.pentaho.di.core.exception.KettleDatabaseException;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.exception.KettleStepException;
 import org.pentaho.di.core.row.RowMeta;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
 import org.pentaho.di.core.row.value.ValueMetaString;
 import org.pentaho.di.trans.Trans;
 import org.pentaho.di.trans.TransMeta;
@@ -42,6 +47,7 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
@@ -111,6 +117,52 @@ public class TableOutputTest {
     tableOutputSpy.writeToTable( mock( RowMetaInterface.class ), new Object[] {} );
   }
 
+  @Test
+  public void testWriteToBulkLoad_loadsAndCommitsAtCommitSize() throws Exception {
+    RowMetaInterface insertRowMeta = new RowMeta();
+    insertRowMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+    DatabaseBulkLoader bulkLoader = mock( DatabaseBulkLoader.class );
+    String[] columns = new String[] { "id" };
+    tableOutputData.insertRowMeta = insertRowMeta;
+    tableOutputData.outputRowMeta = insertRowMeta;
+    tableOutputData.bulkLoader = bulkLoader;
+    tableOutputData.bulkEncoder = new BulkLoadEncoder( BulkLoadEncoder.Format.TEXT, insertRowMeta );
+    tableOutputData.bulkSchemaTable = "sas";
+    tableOutputData.bulkColumns = columns;
+    tableOutputData.commitSize = 2;
+    tableOutputData.commitCounterMap = new HashMap<>();
+    tableOutputData.batchBuffer = new ArrayList<>();
+    when( bulkLoader.load( any(), any(), any(), any() ) ).thenReturn( 2L );
+    doNothing().when( tableOutputSpy ).putRow( any(), any() );
+
+    tableOutputSpy.writeToBulkLoad( new Object[] { 1L } );
+    verify( bulkLoader, never() ).load( any(), any(), any(), any() );
+    verify( tableOutputSpy, never() ).putRow( any(), any() );
+
+    tableOutputSpy.writeToBulkLoad( new Object[] { 2L } );
+    verify( bulkLoader ).load( any(), eq( "sas" ), eq( columns ), any() );
+    verify( db ).commit();
+    verify( tableOutputSpy, times( 2 ) ).putRow( any(), any() );
+    assertEquals( 0, tableOutputData.bulkEncoder.getRowCount() );
+    assertTrue( tableOutputData.batchBuffer.isEmpty() );
+  }
+
+  @Test( expected = KettleDatabaseException.class )
+  public void testFlushBulkLoad_failsWhenRowsAreSkipped() throws Exception {
+    RowMetaInterface insertRowMeta = new RowMeta();
+    insertRowMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+    DatabaseBulkLoader bulkLoader = mock( DatabaseBulkLoader.class );
+    when( bulkLoader.load( any(), any(), any(), any() ) ).thenReturn( 1L );
+    tableOutputData.insertRowMeta = insertRowMeta;
+    tableOutputData.bulkLoader = bulkLoader;
+    tableOutputData.bulkEncoder = new BulkLoadEncoder( BulkLoadEncoder.Format.TEXT, insertRowMeta );
+    tableOutputData.bulkEncoder.addRow( new Object[] { 1L } );
+    tableOutputData.bulkEncoder.addRow( new Object[] { 1L } );
+    tableOutputData.batchBuffer = new ArrayList<>();
+
+    tableOutputSpy.flushBulkLoad( false );
+  }
+
   @Test
   public void testTruncateTable_off() throws Exception {
     tableOutputSpy.truncateTable();
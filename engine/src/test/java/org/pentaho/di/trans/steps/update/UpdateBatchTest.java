@@ -0,0 +1,135 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.update;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.pentaho.di.core.Const;
+import org.pentaho.di.core.KettleEnvironment;
+import org.pentaho.di.core.RowSet;
+import org.pentaho.di.core.database.Database;
+import org.pentaho.di.core.database.DatabaseMeta;
+import org.pentaho.di.core.database.H2DatabaseMeta;
+import org.pentaho.di.core.logging.LoggingObjectInterface;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaString;
+import org.pentaho.di.trans.steps.mock.StepMockHelper;
+
+/**
+ * Updates an embedded H2 database with rows that are looked up in batches.
+ */
+public class UpdateBatchTest {
+  private static final String DB_NAME = "mem:UPDATE_BATCH;DB_CLOSE_DELAY=-1";
+
+  private StepMockHelper<UpdateMeta, UpdateData> smh;
+  private Connection connection;
+
+  @BeforeClass
+  public static void beforeClass() throws Exception {
+    KettleEnvironment.init( false );
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    smh = new StepMockHelper<>( "Update", UpdateMeta.class, UpdateData.class );
+    when( smh.logChannelInterfaceFactory.create( any(), any( LoggingObjectInterface.class ) ) ).thenReturn(
+      smh.logChannelInterface );
+    when( smh.trans.isRunning() ).thenReturn( true );
+
+    connection = DriverManager.getConnection( "jdbc:h2:" + DB_NAME );
+    try ( Statement statement = connection.createStatement() ) {
+      statement.execute( "CREATE TABLE CUSTOMERS (ID INTEGER, NAME VARCHAR(50))" );
+      statement.execute( "INSERT INTO CUSTOMERS VALUES (1, 'old'), (2, 'old')" );
+    }
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    try ( Statement statement = connection.createStatement() ) {
+      statement.execute( "DROP TABLE CUSTOMERS" );
+    }
+    connection.close();
+    smh.cleanUp();
+  }
+
+  @Test
+  public void testSameKeyInConsecutiveBatches() throws Exception {
+    DatabaseMeta databaseMeta = new DatabaseMeta();
+    databaseMeta.setDatabaseInterface( new H2DatabaseMeta() );
+    databaseMeta.setName( "h2" );
+    databaseMeta.setDBName( DB_NAME );
+
+    UpdateMeta meta = smh.processRowsStepMetaInterface;
+    when( meta.getDatabaseMeta() ).thenReturn( databaseMeta );
+    when( meta.getTableName() ).thenReturn( "CUSTOMERS" );
+    when( meta.getKeyStream() ).thenReturn( new String[] { "ID" } );
+    when( meta.getKeyStream2() ).thenReturn( new String[] { null } );
+    when( meta.getKeyLookup() ).thenReturn( new String[] { "ID" } );
+    when( meta.getKeyCondition() ).thenReturn( new String[] { "=" } );
+    when( meta.getUpdateLookup() ).thenReturn( new String[] { "NAME" } );
+    when( meta.getUpdateStream() ).thenReturn( new String[] { "NAME" } );
+    when( meta.useBatchUpdate() ).thenReturn( true );
+
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "ID" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "NAME" ) );
+    // The first batch updates customer 1, the second one sets it back to the value that was read before
+    RowSet rowSet = smh.getMockInputRowSet( new Object[] { 1L, "new" }, new Object[] { 2L, "old" },
+      new Object[] { 1L, "old" } );
+    when( rowSet.getRowMeta() ).thenReturn( rowMeta );
+
+    UpdateData data = smh.processRowsStepDataInterface;
+    Update step = new Update( smh.stepMeta, data, 0, smh.transMeta, smh.trans );
+    step.setVariable( Const.KETTLE_UPSERT_BATCH_SIZE, "2" );
+    step.setInputRowMeta( rowMeta );
+    step.addRowSetToInputRowSets( rowSet );
+
+    data.db = new Database( step, databaseMeta );
+    data.db.connect();
+    data.db.setCommit( 100 );
+
+    while ( step.processRow( meta, data ) ) {
+      // process all rows
+    }
+    assertNotNull( data.batchLookup );
+    assertEquals( 0, step.getErrors() );
+    assertEquals( 2, step.getLinesUpdated() );
+    step.dispose( meta, data );
+
+    try ( Statement statement = connection.createStatement();
+          ResultSet rs = statement.executeQuery( "SELECT NAME FROM CUSTOMERS ORDER BY ID" ) ) {
+      assertTrue( rs.next() );
+      assertEquals( "old", rs.getString( 1 ) );
+      assertTrue( rs.next() );
+      assertEquals( "old", rs.getString( 1 ) );
+      assertFalse( rs.next() );
+    }
+  }
+}
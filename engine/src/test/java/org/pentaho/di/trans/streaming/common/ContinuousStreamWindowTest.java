@@ -0,0 +1,112 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.streaming.common;
+
+import io.reactivex.Flowable;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.pentaho.di.core.Result;
+import org.pentaho.di.core.RowMetaAndData;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaString;
+import org.pentaho.di.trans.SubtransExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.pentaho.di.i18n.BaseMessages.getString;
+
+@RunWith( MockitoJUnitRunner.class )
+public class ContinuousStreamWindowTest {
+  @Mock private SubtransExecutor subtransExecutor;
+  @Mock private SubtransExecutor.StreamingRun firstRun;
+  @Mock private SubtransExecutor.StreamingRun secondRun;
+
+  private RowMetaInterface rowMeta() {
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaString( "field" ) );
+    return rowMeta;
+  }
+
+  @Test
+  public void rowsArePassedOnOneByOneAndBatchesAreCommittedInOrder() throws KettleException {
+    RowMetaInterface rowMeta = rowMeta();
+    Result firstResult = new Result();
+    firstResult.setRows( asList( new RowMetaAndData( rowMeta, "queen" ) ) );
+    Result secondResult = new Result();
+    when( subtransExecutor.startStreamingRun() ).thenReturn( firstRun, secondRun );
+    when( firstRun.finish() ).thenReturn( Optional.of( firstResult ) );
+    when( secondRun.finish() ).thenReturn( Optional.of( secondResult ) );
+
+    List<Integer> committed = new ArrayList<>();
+    ContinuousStreamWindow<List> window =
+      new ContinuousStreamWindow<>( subtransExecutor, rowMeta, 0, 2, 2, p -> committed.add( p.getKey().size() ) );
+    List<Result> results = new ArrayList<>();
+    window.buffer( Flowable.fromIterable( asList( asList( "v1" ), asList( "v2" ), asList( "v3" ) ) ) )
+      .forEach( results::add );
+
+    assertEquals( asList( firstResult, secondResult ), results );
+    assertEquals( asList( 2, 1 ), committed );
+
+    InOrder inOrder = inOrder( firstRun );
+    inOrder.verify( firstRun, times( 2 ) ).putRow( any() );
+    inOrder.verify( firstRun ).finish();
+    verify( secondRun ).putRow( any() );
+    verify( secondRun ).finish();
+    verify( subtransExecutor ).finishContinuous();
+  }
+
+  @Test
+  public void stoppedSubtransGivesNoResults() throws KettleException {
+    when( subtransExecutor.startStreamingRun() ).thenReturn( firstRun );
+    when( firstRun.finish() ).thenReturn( Optional.empty() );
+    ContinuousStreamWindow<List> window = new ContinuousStreamWindow<>( subtransExecutor, rowMeta(), 0, 2, 1 );
+    List<Result> results = new ArrayList<>();
+    window.buffer( Flowable.fromIterable( asList( asList( "v1" ), asList( "v2" ) ) ) ).forEach( results::add );
+
+    assertEquals( 0, results.size() );
+    verify( firstRun, times( 2 ) ).putRow( any() );
+    verify( subtransExecutor ).finishContinuous();
+  }
+
+  @Test
+  public void failedSubtransThrowsAnError() {
+    Result result = new Result();
+    result.setNrErrors( 1 );
+    when( subtransExecutor.startStreamingRun() ).thenReturn( firstRun );
+    when( firstRun.finish() ).thenReturn( Optional.of( result ) );
+    ContinuousStreamWindow<List> window = new ContinuousStreamWindow<>( subtransExecutor, rowMeta(), 0, 1, 1 );
+    try {
+      window.buffer( Flowable.fromIterable( asList( asList( "v1" ) ) ) ).forEach( r -> { } );
+      fail();
+    } catch ( Exception e ) {
+      assertEquals(
+        getString( BaseStreamStep.class, "FixedTimeStreamWindow.SubtransFailed" ), e.getCause().getMessage().trim() );
+    }
+  }
+}
@@ -29,6 +29,7 @@ import org.apache.commons.vfs2.FileSystemException;
 import org.pentaho.di.core.Const;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.exception.KettleFileException;
+import org.pentaho.di.core.row.ColumnarRowBuffer;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.core.vfs.KettleVFS;
 import org.pentaho.di.i18n.BaseMessages;
@@ -58,12 +59,17 @@ public class BlockingStep extends BaseStep implements StepInterface {
 
   private boolean addBuffer( RowMetaInterface rowMeta, Object[] r ) {
     if ( r != null ) {
-      data.buffer.add( r ); // Save row
+      if ( data.buffer == null ) {
+        // Rows are kept column by column: a lot less heap than a list of Object[]
+        data.buffer = new ColumnarRowBuffer( rowMeta );
+      }
+      data.buffer.addRow( r ); // Save row
     }
+    int bufferSize = data.buffer == null ? 0 : data.buffer.size();
 
     // Time to write to disk: buffer in core is full!
-    if ( data.buffer.size() == meta.getCacheSize() // Buffer is full: dump to disk
-        || ( data.files.size() > 0 && r == null && data.buffer.size() > 0 ) // No more records: join from disk
+    if ( bufferSize == meta.getCacheSize() // Buffer is full: dump to disk
+        || ( data.files.size() > 0 && r == null && bufferSize > 0 ) // No more records: join from disk
     ) {
       // Then write them to disk...
       DataOutputStream dos;
@@ -92,7 +98,7 @@ public class BlockingStep extends BaseStep implements StepInterface {
 
         for ( p = 0; p < data.buffer.size(); p++ ) {
           // Just write the data, nothing else
-          rowMeta.writeData( dos, data.buffer.get( p ) );
+          data.buffer.writeRow( dos, p );
         }
         // Close temp-file
         dos.close(); // close data stream
@@ -159,9 +165,8 @@ public class BlockingStep extends BaseStep implements StepInterface {
     }
 
     if ( data.files.size() == 0 ) {
-      if ( data.buffer.size() > 0 ) {
-        retval = data.buffer.get( 0 );
-        data.buffer.remove( 0 );
+      if ( data.buffer != null && data.bufferIndex < data.buffer.size() ) {
+        retval = data.buffer.getRow( data.bufferIndex++ );
       } else {
         retval = null;
       }
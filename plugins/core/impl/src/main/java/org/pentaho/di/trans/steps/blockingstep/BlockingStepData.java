@@ -20,13 +20,24 @@ import java.util.List;
 import java.util.zip.GZIPInputStream;
 
 import org.apache.commons.vfs2.FileObject;
+import org.pentaho.di.core.row.ColumnarRowBuffer;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.trans.step.BaseStepData;
 import org.pentaho.di.trans.step.StepDataInterface;
 
 public class BlockingStepData extends BaseStepData implements StepDataInterface {
   public List<FileObject> files;
-  public List<Object[]> buffer;
+
+  /**
+   * The rows kept in memory, created when the first row arrives
+   */
+  public ColumnarRowBuffer buffer;
+
+  /**
+   * The next row to pass on from the in-memory buffer
+   */
+  public int bufferIndex;
+
   public List<InputStream> fis;
   public List<GZIPInputStream> gzis;
   public List<DataInputStream> dis;
@@ -40,7 +51,6 @@ public class BlockingStepData extends BaseStepData implements StepDataInterface
   public BlockingStepData() {
     super();
 
-    buffer = new ArrayList<Object[]>( BlockingStepMeta.CACHE_SIZE );
     files = new ArrayList<FileObject>();
     fis = new ArrayList<InputStream>();
     dis = new ArrayList<DataInputStream>();
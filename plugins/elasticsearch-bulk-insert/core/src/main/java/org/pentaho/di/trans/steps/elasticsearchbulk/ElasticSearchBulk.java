@@ -19,6 +19,7 @@ import org.elasticsearch.ElasticsearchTimeoutException;
 import org.elasticsearch.action.ActionFuture;
 import org.elasticsearch.action.DocWriteRequest.OpType;
 import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
 import org.elasticsearch.action.bulk.BulkRequestBuilder;
 import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.index.IndexRequest;
@@ -78,6 +79,16 @@ public class ElasticSearchBulk extends BaseStep implements StepInterface {
   BulkRequestBuilder currentRequest;
 
   private int batchSize = 2;
+  private long maxBulkSizeBytes = 0L;
+  private int concurrentRequests = 0;
+  private int maxRetries = 0;
+
+  /**
+   * Sends the bulk requests without waiting for them, <code>null</code> when every request is waited for
+   */
+  private ElasticSearchBulkDispatcher dispatcher;
+  private BulkRequest pendingRequest;
+  private List<Object[]> pendingRows;
 
   private boolean isJsonInsert = false;
   private int jsonFieldIdx = 0;
@@ -109,6 +120,11 @@ public class ElasticSearchBulk extends BaseStep implements StepInterface {
   public boolean processRow( StepMetaInterface smi, StepDataInterface sdi ) throws KettleException {
 
     Object[] rowData = getRow();
+    if ( rowData == null && dispatcher != null ) {
+      finishDispatching();
+      setOutputDone();
+      return false;
+    }
     if ( rowData == null ) {
       if ( currentRequest != null && currentRequest.numberOfActions() > 0 ) {
         // didn't fill a whole batch
@@ -124,6 +140,16 @@ public class ElasticSearchBulk extends BaseStep implements StepInterface {
       currentRequest = client.prepareBulk();
       requestsBuffer = new ArrayList<IndexRequestBuilder>( this.batchSize );
       initFieldIndexes();
+      if ( concurrentRequests > 0 ) {
+        dispatcher = new ElasticSearchBulkDispatcher( client, concurrentRequests, maxRetries,
+          ElasticSearchBulkDispatcher.DEFAULT_INITIAL_BACKOFF_MILLIS );
+        pendingRequest = new BulkRequest();
+        pendingRows = new ArrayList<>( batchSize );
+      }
+    }
+
+    if ( dispatcher != null ) {
+      return dispatchRow( data.inputRowMeta, rowData ) || !stopOnError;
     }
 
     try {
@@ -197,23 +223,13 @@ public class ElasticSearchBulk extends BaseStep implements StepInterface {
   private boolean indexRow( RowMetaInterface rowMeta, Object[] row ) throws KettleStepException {
     try {
 
-      IndexRequestBuilder requestBuilder = client.prepareIndex( index, type );
-      requestBuilder.setOpType( this.opType );
-
-      if ( idFieldIndex != null ) {
-        requestBuilder.setId( "" + row[idFieldIndex] ); // "" just in case field isn't string
-      }
-
-      if ( isJsonInsert ) {
-        addSourceFromJsonString( row, requestBuilder );
-      } else {
-        addSourceFromRowFields( requestBuilder, rowMeta, row );
-      }
+      IndexRequestBuilder requestBuilder = prepareIndex( rowMeta, row );
 
       currentRequest.add( requestBuilder );
       requestsBuffer.add( requestBuilder );
 
-      if ( currentRequest.numberOfActions() >= batchSize ) {
+      if ( currentRequest.numberOfActions() >= batchSize
+        || ( maxBulkSizeBytes > 0 && currentRequest.request().estimatedSizeInBytes() >= maxBulkSizeBytes ) ) {
         return processBatch( true );
       } else {
         return true;
@@ -229,6 +245,123 @@ public class ElasticSearchBulk extends BaseStep implements StepInterface {
     }
   }
 
+  private IndexRequestBuilder prepareIndex( RowMetaInterface rowMeta, Object[] row ) throws Exception {
+    IndexRequestBuilder requestBuilder = client.prepareIndex( index, type );
+    requestBuilder.setOpType( this.opType );
+
+    if ( idFieldIndex != null ) {
+      requestBuilder.setId( "" + row[idFieldIndex] ); // "" just in case field isn't string
+    }
+
+    if ( isJsonInsert ) {
+      addSourceFromJsonString( row, requestBuilder );
+    } else {
+      addSourceFromRowFields( requestBuilder, rowMeta, row );
+    }
+    return requestBuilder;
+  }
+
+  /**
+   * Adds the row to the pending bulk request and hands the request to the dispatcher once it holds batch size rows or
+   * max bulk size bytes. Rows are only written out once their response is in, see {@link #handleResults()}.
+   *
+   * @return <code>false</code> if a row failed
+   */
+  private boolean dispatchRow( RowMetaInterface rowMeta, Object[] row ) throws KettleStepException {
+    try {
+      pendingRequest.add( prepareIndex( rowMeta, row ).request() );
+      pendingRows.add( row );
+      if ( pendingRequest.numberOfActions() >= batchSize
+        || ( maxBulkSizeBytes > 0 && pendingRequest.estimatedSizeInBytes() >= maxBulkSizeBytes ) ) {
+        dispatchPending();
+      }
+    } catch ( KettleStepException e ) {
+      throw e;
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+      throw new KettleStepException( BaseMessages.getString( PKG, "ElasticSearchBulk.Log.Exception", e
+              .getLocalizedMessage() ), e );
+    } catch ( NoNodeAvailableException e ) {
+      throw new KettleStepException( BaseMessages.getString( PKG, "ElasticSearchBulkDialog.Error.NoNodesFound" ) );
+    } catch ( Exception e ) {
+      throw new KettleStepException( BaseMessages.getString( PKG, "ElasticSearchBulk.Log.Exception", e
+              .getLocalizedMessage() ), e );
+    }
+    return handleResults();
+  }
+
+  private void dispatchPending() throws InterruptedException {
+    if ( pendingRequest.numberOfActions() > 0 ) {
+      dispatcher.submit( pendingRequest, pendingRows );
+      pendingRequest = new BulkRequest();
+      pendingRows = new ArrayList<>( batchSize );
+    }
+  }
+
+  /**
+   * Sends the last request and waits for all responses.
+   *
+   * @return <code>false</code> if a row failed
+   */
+  private boolean finishDispatching() throws KettleStepException {
+    try {
+      dispatchPending();
+      if ( !dispatcher.awaitCompletion( timeout, timeoutUnit ) ) {
+        String msg = BaseMessages.getString( PKG, "ElasticSearchBulk.Error.Timeout" );
+        logError( msg );
+        throw new KettleStepException( msg );
+      }
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+      throw new KettleStepException( BaseMessages.getString( PKG, "ElasticSearchBulk.Log.Exception", e
+              .getLocalizedMessage() ), e );
+    }
+    return handleResults();
+  }
+
+  /**
+   * Writes out the rows of the items whose responses came in, failed rows go to the error hop.
+   *
+   * @return <code>false</code> if a row failed
+   */
+  private boolean handleResults() {
+    String firstFailure = null;
+    int linesOK = 0;
+    ElasticSearchBulkDispatcher.ItemResult result;
+    while ( ( result = dispatcher.poll() ) != null ) {
+      if ( result.isFailed() ) {
+        if ( firstFailure == null ) {
+          firstFailure = result.getFailureMessage();
+        }
+        logDetailed( result.getFailureMessage() );
+        numberOfErrors++;
+        if ( getStepMeta().isDoingErrorHandling() ) {
+          rejectRow( result.getRow(), result.getFailureMessage() );
+        }
+      } else {
+        linesOK++;
+        if ( useOutput ) {
+          Object[] row = result.getRow();
+          if ( idOutFieldName != null ) {
+            row = RowDataUtil.resizeArray( row, data.inputRowMeta.size() + 1 );
+            row[data.inputRowMeta.size()] = result.getId();
+          }
+          echoRow( row );
+        }
+      }
+    }
+    if ( firstFailure != null ) {
+      logError( firstFailure );
+    }
+    setErrors( numberOfErrors );
+    if ( useOutput ) {
+      setLinesOutput( getLinesOutput() + linesOK );
+    } else {
+      setLinesWritten( getLinesWritten() + linesOK );
+    }
+    return firstFailure == null;
+  }
+
   /**
    * @param row
    * @param requestBuilder
@@ -304,6 +437,9 @@ public class ElasticSearchBulk extends BaseStep implements StepInterface {
     index = environmentSubstitute( meta.getIndex() );
     type = environmentSubstitute( meta.getType() );
     batchSize = meta.getBatchSizeInt( this );
+    maxBulkSizeBytes = meta.getMaxBulkSizeBytes( this );
+    concurrentRequests = meta.getConcurrentRequestsInt( this );
+    maxRetries = meta.getMaxRetriesInt( this );
     try {
       timeout = Long.parseLong( environmentSubstitute( meta.getTimeOut() ) );
     } catch ( NumberFormatException e ) {
@@ -426,15 +562,23 @@ public class ElasticSearchBulk extends BaseStep implements StepInterface {
   private void echoRow( int rowIndex ) {
     try {
 
-      putRow( data.outputRowMeta, data.inputRowBuffer[rowIndex] );
+      echoRow( data.inputRowBuffer[rowIndex] );
 
-    } catch ( KettleStepException e ) {
-      logError( e.getLocalizedMessage() );
     } catch ( ArrayIndexOutOfBoundsException e ) {
       logError( e.getLocalizedMessage() );
     }
   }
 
+  private void echoRow( Object[] row ) {
+    try {
+
+      putRow( data.outputRowMeta, row );
+
+    } catch ( KettleStepException e ) {
+      logError( e.getLocalizedMessage() );
+    }
+  }
+
   /**
    * Send input row to error.
    *
@@ -444,15 +588,23 @@ public class ElasticSearchBulk extends BaseStep implements StepInterface {
   private void rejectRow( int index, String errorMsg ) {
     try {
 
-      putError( getInputRowMeta(), data.inputRowBuffer[index], 1, errorMsg, null, INSERT_ERROR_CODE );
+      rejectRow( data.inputRowBuffer[index], errorMsg );
 
-    } catch ( KettleStepException e ) {
-      logError( e.getLocalizedMessage() );
     } catch ( ArrayIndexOutOfBoundsException e ) {
       logError( e.getLocalizedMessage() );
     }
   }
 
+  private void rejectRow( Object[] row, String errorMsg ) {
+    try {
+
+      putError( getInputRowMeta(), row, 1, errorMsg, null, INSERT_ERROR_CODE );
+
+    } catch ( KettleStepException e ) {
+      logError( e.getLocalizedMessage() );
+    }
+  }
+
   private void rejectAllRows( String errorMsg ) {
     for ( int i = 0; i < data.nextBufferRowIdx; i++ ) {
       rejectRow( i, errorMsg );
@@ -0,0 +1,212 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.elasticsearchbulk;
+
+import org.elasticsearch.ExceptionsHelper;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.rest.RestStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends bulk requests without waiting for their responses, at most <code>concurrentRequests</code> requests are in
+ * flight at the same time. Items the cluster rejects because its queues are full are sent again after an exponential
+ * backoff. The outcome of every other item is queued as an {@link ItemResult}, the step thread picks them up with
+ * {@link #poll()} so rows are only ever written by the step itself.
+ */
+public class ElasticSearchBulkDispatcher {
+
+  public static final long DEFAULT_INITIAL_BACKOFF_MILLIS = 50L;
+
+  private static ScheduledExecutorService scheduler;
+
+  private final Client client;
+  private final int concurrentRequests;
+  private final int maxRetries;
+  private final long initialBackoffMillis;
+  private final Semaphore inFlight;
+  private final Queue<ItemResult> results = new ConcurrentLinkedQueue<>();
+
+  /**
+   * @param client               the client to send the requests with
+   * @param concurrentRequests   the number of bulk requests in flight
+   * @param maxRetries           the number of times rejected items are sent again
+   * @param initialBackoffMillis the time to wait before the first retry, doubled for every next retry
+   */
+  public ElasticSearchBulkDispatcher( Client client, int concurrentRequests, int maxRetries,
+                                      long initialBackoffMillis ) {
+    this.client = client;
+    this.concurrentRequests = Math.max( 1, concurrentRequests );
+    this.maxRetries = Math.max( 0, maxRetries );
+    this.initialBackoffMillis = initialBackoffMillis;
+    this.inFlight = new Semaphore( this.concurrentRequests );
+  }
+
+  private static synchronized ScheduledExecutorService getScheduler() {
+    if ( scheduler == null ) {
+      scheduler = Executors.newSingleThreadScheduledExecutor( runnable -> {
+        Thread thread = new Thread( runnable, "Elasticsearch bulk retry" );
+        thread.setDaemon( true );
+        return thread;
+      } );
+    }
+    return scheduler;
+  }
+
+  /**
+   * Sends a bulk request, waits first while <code>concurrentRequests</code> requests are in flight.
+   *
+   * @param request the request to send
+   * @param rows    the rows of the request, in the order of its items
+   * @throws InterruptedException when interrupted while waiting
+   */
+  public void submit( BulkRequest request, List<Object[]> rows ) throws InterruptedException {
+    inFlight.acquire();
+    send( request, rows, 0 );
+  }
+
+  /**
+   * @return the outcome of the next item that completed, <code>null</code> if there is none yet
+   */
+  public ItemResult poll() {
+    return results.poll();
+  }
+
+  /**
+   * Waits until the responses of all requests sent so far are in.
+   *
+   * @param timeout the maximum time to wait, <code>null</code> to wait as long as it takes
+   * @param unit    the unit of the timeout
+   * @return <code>false</code> if the timeout passed first
+   * @throws InterruptedException when interrupted while waiting
+   */
+  public boolean awaitCompletion( Long timeout, TimeUnit unit ) throws InterruptedException {
+    if ( timeout == null || unit == null ) {
+      inFlight.acquire( concurrentRequests );
+    } else if ( !inFlight.tryAcquire( concurrentRequests, timeout, unit ) ) {
+      return false;
+    }
+    inFlight.release( concurrentRequests );
+    return true;
+  }
+
+  private void send( BulkRequest request, List<Object[]> rows, int attempt ) {
+    try {
+      client.bulk( request, new ActionListener<BulkResponse>() {
+        @Override
+        public void onResponse( BulkResponse response ) {
+          handleResponse( request, rows, attempt, response );
+        }
+
+        @Override
+        public void onFailure( Exception e ) {
+          handleFailure( request, rows, attempt, e );
+        }
+      } );
+    } catch ( Exception e ) {
+      handleFailure( request, rows, attempt, e );
+    }
+  }
+
+  private void handleResponse( BulkRequest request, List<Object[]> rows, int attempt, BulkResponse response ) {
+    List<?> requests = request.requests();
+    BulkRequest retry = null;
+    List<Object[]> retryRows = null;
+    for ( BulkItemResponse item : response.getItems() ) {
+      Object[] row = rows.get( item.getItemId() );
+      if ( item.isFailed() && isRejected( item.getFailure().getStatus() ) && attempt < maxRetries ) {
+        if ( retry == null ) {
+          retry = new BulkRequest();
+          retryRows = new ArrayList<>();
+        }
+        retry.add( (DocWriteRequest<?>) requests.get( item.getItemId() ) );
+        retryRows.add( row );
+      } else {
+        results.add( new ItemResult( row, item.getId(), item.isFailed() ? item.getFailureMessage() : null ) );
+      }
+    }
+    if ( retry != null ) {
+      retry( retry, retryRows, attempt );
+    } else {
+      inFlight.release();
+    }
+  }
+
+  private void handleFailure( BulkRequest request, List<Object[]> rows, int attempt, Exception e ) {
+    if ( isRejected( ExceptionsHelper.status( e ) ) && attempt < maxRetries ) {
+      retry( request, rows, attempt );
+      return;
+    }
+    String message = e.getLocalizedMessage();
+    for ( Object[] row : rows ) {
+      results.add( new ItemResult( row, null, message != null ? message : e.toString() ) );
+    }
+    inFlight.release();
+  }
+
+  /**
+   * The permit of the request is kept until the retries are done, so a busy cluster slows down the step.
+   */
+  private void retry( BulkRequest request, List<Object[]> rows, int attempt ) {
+    long delay = initialBackoffMillis << Math.min( attempt, 16 );
+    getScheduler().schedule( () -> send( request, rows, attempt + 1 ), delay, TimeUnit.MILLISECONDS );
+  }
+
+  private static boolean isRejected( RestStatus status ) {
+    return status == RestStatus.TOO_MANY_REQUESTS;
+  }
+
+  /**
+   * The outcome of indexing one row.
+   */
+  public static class ItemResult {
+    private final Object[] row;
+    private final String id;
+    private final String failureMessage;
+
+    ItemResult( Object[] row, String id, String failureMessage ) {
+      this.row = row;
+      this.id = id;
+      this.failureMessage = failureMessage;
+    }
+
+    public Object[] getRow() {
+      return row;
+    }
+
+    public String getId() {
+      return id;
+    }
+
+    public boolean isFailed() {
+      return failureMessage != null;
+    }
+
+    public String getFailureMessage() {
+      return failureMessage;
+    }
+  }
+}
@@ -81,6 +81,9 @@ public class ElasticSearchBulkMeta extends BaseStepMeta implements StepMetaInter
     static final String TAG_TIMEOUT = "timeout";
     static final String TAG_TIMEOUT_UNIT = "timeoutUnit";
     static final String TAG_BATCH_SIZE = "batchSize";
+    static final String TAG_CONCURRENT_REQUESTS = "concurrentRequests";
+    static final String TAG_MAX_BULK_SIZE = "maxBulkSize";
+    static final String TAG_MAX_RETRIES = "maxRetries";
 
     static final String TAG_FIELDS = "fields";
     static final String TAG_FIELD = "field";
@@ -102,6 +105,9 @@ public class ElasticSearchBulkMeta extends BaseStepMeta implements StepMetaInter
   }
 
   public static final int DEFAULT_BATCH_SIZE = 50000;
+  public static final int DEFAULT_CONCURRENT_REQUESTS = 0;
+  public static final int DEFAULT_MAX_BULK_SIZE = 0;
+  public static final int DEFAULT_MAX_RETRIES = 8;
   public static final Long DEFAULT_TIMEOUT = 10L;
   public static final TimeUnit DEFAULT_TIMEOUT_UNIT = TimeUnit.SECONDS;
   public static final int DEFAULT_PORT = 9300;
@@ -136,6 +142,12 @@ public class ElasticSearchBulkMeta extends BaseStepMeta implements StepMetaInter
   private String timeout;
   @Injection( name = "TIMEOUT_UNIT" )
   private TimeUnit timeoutUnit;
+  @Injection( name = "CONCURRENT_REQUESTS" )
+  private String concurrentRequests;
+  @Injection( name = "MAX_BULK_SIZE" )
+  private String maxBulkSize;
+  @Injection( name = "MAX_RETRIES" )
+  private String maxRetries;
 
   @InjectionDeep( prefix = "SERVER" )
   List<Server> servers = new ArrayList<>();
@@ -322,6 +334,66 @@ public class ElasticSearchBulkMeta extends BaseStepMeta implements StepMetaInter
     return Const.toInt( vars.environmentSubstitute( this.batchSize ), DEFAULT_BATCH_SIZE );
   }
 
+  /**
+   * @param value The number of bulk requests that may be in flight at the same time, 0 to wait for every request
+   */
+  public void setConcurrentRequests( String value ) {
+    this.concurrentRequests = value;
+  }
+
+  /**
+   * @return Returns the concurrentRequests.
+   */
+  public String getConcurrentRequests() {
+    return this.concurrentRequests;
+  }
+
+  public int getConcurrentRequestsInt( VariableSpace vars ) {
+    return Math.max( 0, Const.toInt( vars.environmentSubstitute( this.concurrentRequests ),
+      DEFAULT_CONCURRENT_REQUESTS ) );
+  }
+
+  /**
+   * @param value The size in MB after which a bulk request is sent even if it has less than batch size rows, 0 for no
+   *              limit
+   */
+  public void setMaxBulkSize( String value ) {
+    this.maxBulkSize = value;
+  }
+
+  /**
+   * @return Returns the maxBulkSize.
+   */
+  public String getMaxBulkSize() {
+    return this.maxBulkSize;
+  }
+
+  /**
+   * @return the maximum size of a bulk request in bytes, 0 for no limit
+   */
+  public long getMaxBulkSizeBytes( VariableSpace vars ) {
+    return Math.max( 0L, Const.toLong( vars.environmentSubstitute( this.maxBulkSize ), DEFAULT_MAX_BULK_SIZE ) )
+      * 1024L * 1024L;
+  }
+
+  /**
+   * @param value The number of times rows rejected by a busy cluster are sent again
+   */
+  public void setMaxRetries( String value ) {
+    this.maxRetries = value;
+  }
+
+  /**
+   * @return Returns the maxRetries.
+   */
+  public String getMaxRetries() {
+    return this.maxRetries;
+  }
+
+  public int getMaxRetriesInt( VariableSpace vars ) {
+    return Math.max( 0, Const.toInt( vars.environmentSubstitute( this.maxRetries ), DEFAULT_MAX_RETRIES ) );
+  }
+
   /**
    * @return Returns the TimeOut.
    */
@@ -360,6 +432,9 @@ public class ElasticSearchBulkMeta extends BaseStepMeta implements StepMetaInter
 
   public void setDefault() {
     batchSize = "" + DEFAULT_BATCH_SIZE;
+    concurrentRequests = "" + DEFAULT_CONCURRENT_REQUESTS;
+    maxBulkSize = "" + DEFAULT_MAX_BULK_SIZE;
+    maxRetries = "" + DEFAULT_MAX_RETRIES;
     timeoutUnit = DEFAULT_TIMEOUT_UNIT;
     index = "twitter";
     type = "tweet";
@@ -392,6 +467,9 @@ public class ElasticSearchBulkMeta extends BaseStepMeta implements StepMetaInter
 
       batchSize = XMLHandler.getTagValue( general, Dom.TAG_BATCH_SIZE );
       timeout = XMLHandler.getTagValue( general, Dom.TAG_TIMEOUT );
+      concurrentRequests = XMLHandler.getTagValue( general, Dom.TAG_CONCURRENT_REQUESTS );
+      maxBulkSize = XMLHandler.getTagValue( general, Dom.TAG_MAX_BULK_SIZE );
+      maxRetries = XMLHandler.getTagValue( general, Dom.TAG_MAX_RETRIES );
       String timeoutStr = XMLHandler.getTagValue( general, Dom.TAG_TIMEOUT_UNIT );
       try {
         timeoutUnit = TimeUnit.valueOf( timeoutStr );
@@ -481,6 +559,9 @@ public class ElasticSearchBulkMeta extends BaseStepMeta implements StepMetaInter
     retval.append( indent.toString() + XMLHandler.addTagValue( Dom.TAG_BATCH_SIZE, batchSize ) );
     retval.append( indent.toString() + XMLHandler.addTagValue( Dom.TAG_TIMEOUT, timeout ) );
     retval.append( indent.toString() ).append( XMLHandler.addTagValue( Dom.TAG_TIMEOUT_UNIT, timeoutUnit.toString() ) );
+    retval.append( indent.toString() + XMLHandler.addTagValue( Dom.TAG_CONCURRENT_REQUESTS, concurrentRequests ) );
+    retval.append( indent.toString() + XMLHandler.addTagValue( Dom.TAG_MAX_BULK_SIZE, maxBulkSize ) );
+    retval.append( indent.toString() + XMLHandler.addTagValue( Dom.TAG_MAX_RETRIES, maxRetries ) );
 
     retval.append( indent.toString() + XMLHandler.addTagValue( Dom.TAG_IS_JSON, isJsonInsert() ) );
     if ( getJsonField() != null ) {
@@ -586,6 +667,10 @@ public class ElasticSearchBulkMeta extends BaseStepMeta implements StepMetaInter
       setBatchSize( rep.getStepAttributeString( id_step, joinRepAttr( Dom.TAG_GENERAL, Dom.TAG_BATCH_SIZE ) ) );
       setTimeOut( rep.getStepAttributeString( id_step, joinRepAttr( Dom.TAG_GENERAL, Dom.TAG_TIMEOUT ) ) );
       String timeoutStr = rep.getStepAttributeString( id_step, joinRepAttr( Dom.TAG_GENERAL, Dom.TAG_TIMEOUT_UNIT ) );
+      setConcurrentRequests( rep.getStepAttributeString( id_step, joinRepAttr( Dom.TAG_GENERAL,
+              Dom.TAG_CONCURRENT_REQUESTS ) ) );
+      setMaxBulkSize( rep.getStepAttributeString( id_step, joinRepAttr( Dom.TAG_GENERAL, Dom.TAG_MAX_BULK_SIZE ) ) );
+      setMaxRetries( rep.getStepAttributeString( id_step, joinRepAttr( Dom.TAG_GENERAL, Dom.TAG_MAX_RETRIES ) ) );
       try {
         timeoutUnit = TimeUnit.valueOf( timeoutStr );
       } catch ( Exception e ) {
@@ -650,6 +735,12 @@ public class ElasticSearchBulkMeta extends BaseStepMeta implements StepMetaInter
               getTimeOut() );
       rep.saveStepAttribute( id_transformation, id_step, joinRepAttr( Dom.TAG_GENERAL, Dom.TAG_TIMEOUT_UNIT ),
               getTimeoutUnit().toString() );
+      rep.saveStepAttribute( id_transformation, id_step, joinRepAttr( Dom.TAG_GENERAL, Dom.TAG_CONCURRENT_REQUESTS ),
+              concurrentRequests );
+      rep.saveStepAttribute( id_transformation, id_step, joinRepAttr( Dom.TAG_GENERAL, Dom.TAG_MAX_BULK_SIZE ),
+              maxBulkSize );
+      rep.saveStepAttribute( id_transformation, id_step, joinRepAttr( Dom.TAG_GENERAL, Dom.TAG_MAX_RETRIES ),
+              maxRetries );
 
       rep.saveStepAttribute( id_transformation, id_step, joinRepAttr( Dom.TAG_GENERAL, Dom.TAG_IS_JSON ),
               isJsonInsert() );
@@ -87,6 +87,12 @@ public class ElasticSearchBulkDialog extends BaseStepDialog implements StepDialo
   private Label wlBatchSize;
 
   private TextVar wBatchSize;
+  private Label wlConcurrentRequests;
+  private TextVar wConcurrentRequests;
+  private Label wlMaxBulkSize;
+  private TextVar wMaxBulkSize;
+  private Label wlMaxRetries;
+  private TextVar wMaxRetries;
   private LabelTextVar wIdOutField;
   private Group wIndexGroup;
   private FormData fdIndexGroup;
@@ -548,6 +554,37 @@ public class ElasticSearchBulkDialog extends BaseStepDialog implements StepDialo
     props.setLook( wBatchSize );
     wBatchSize.addModifyListener( lsMod );
 
+    // Concurrent requests
+    wlConcurrentRequests = new Label( wSettingsGroup, SWT.RIGHT );
+    wlConcurrentRequests.setText( BaseMessages.getString( PKG, "ElasticSearchBulkDialog.ConcurrentRequests.Label" ) );
+    props.setLook( wlConcurrentRequests );
+
+    wConcurrentRequests = new TextVar( transMeta, wSettingsGroup, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wConcurrentRequests.setToolTipText(
+      BaseMessages.getString( PKG, "ElasticSearchBulkDialog.ConcurrentRequests.Tooltip" ) );
+    props.setLook( wConcurrentRequests );
+    wConcurrentRequests.addModifyListener( lsMod );
+
+    // Max bulk size
+    wlMaxBulkSize = new Label( wSettingsGroup, SWT.RIGHT );
+    wlMaxBulkSize.setText( BaseMessages.getString( PKG, "ElasticSearchBulkDialog.MaxBulkSize.Label" ) );
+    props.setLook( wlMaxBulkSize );
+
+    wMaxBulkSize = new TextVar( transMeta, wSettingsGroup, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wMaxBulkSize.setToolTipText( BaseMessages.getString( PKG, "ElasticSearchBulkDialog.MaxBulkSize.Tooltip" ) );
+    props.setLook( wMaxBulkSize );
+    wMaxBulkSize.addModifyListener( lsMod );
+
+    // Max retries
+    wlMaxRetries = new Label( wSettingsGroup, SWT.RIGHT );
+    wlMaxRetries.setText( BaseMessages.getString( PKG, "ElasticSearchBulkDialog.MaxRetries.Label" ) );
+    props.setLook( wlMaxRetries );
+
+    wMaxRetries = new TextVar( transMeta, wSettingsGroup, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wMaxRetries.setToolTipText( BaseMessages.getString( PKG, "ElasticSearchBulkDialog.MaxRetries.Tooltip" ) );
+    props.setLook( wMaxRetries );
+    wMaxRetries.addModifyListener( lsMod );
+
     // Stop on error
     wlStopOnError = new Label( wSettingsGroup, SWT.RIGHT );
     wlStopOnError.setText( BaseMessages.getString( PKG, "ElasticSearchBulkDialog.StopOnError.Label" ) );
@@ -670,8 +707,8 @@ public class ElasticSearchBulkDialog extends BaseStepDialog implements StepDialo
     getPreviousFields( wJsonField );
     wJsonField.setEnabled( wIsJson.getSelection() );
 
-    Control[] settingsControls = new Control[]{wlBatchSize, wBatchSize, wlStopOnError, wStopOnError, wTimeOut,
-      wIdInField, wlIsOverwrite, wIsOverwrite, wlUseOutput, wUseOutput, wIdOutField, wlIsJson, wIsJson,
+    Control[] settingsControls = new Control[]{wlBatchSize, wBatchSize, wlConcurrentRequests, wConcurrentRequests,
+      wlMaxBulkSize, wMaxBulkSize, wlMaxRetries, wMaxRetries, wlStopOnError, wStopOnError, wTimeOut, wIdInField, wlIsOverwrite, wIsOverwrite, wlUseOutput, wUseOutput, wIdOutField, wlIsJson, wIsJson,
       wJsonField};
     placeControls( wSettingsGroup, settingsControls );
 
@@ -765,6 +802,10 @@ public class ElasticSearchBulkDialog extends BaseStepDialog implements StepDialo
     wType.setText( Const.NVL( in.getType(), "" ) );
 
     wBatchSize.setText( Const.NVL( in.getBatchSize(), "" + ElasticSearchBulkMeta.DEFAULT_BATCH_SIZE ) );
+    wConcurrentRequests.setText( Const.NVL( in.getConcurrentRequests(),
+      "" + ElasticSearchBulkMeta.DEFAULT_CONCURRENT_REQUESTS ) );
+    wMaxBulkSize.setText( Const.NVL( in.getMaxBulkSize(), "" + ElasticSearchBulkMeta.DEFAULT_MAX_BULK_SIZE ) );
+    wMaxRetries.setText( Const.NVL( in.getMaxRetries(), "" + ElasticSearchBulkMeta.DEFAULT_MAX_RETRIES ) );
 
     wStopOnError.setSelection( in.isStopOnError() );
 
@@ -833,6 +874,9 @@ public class ElasticSearchBulkDialog extends BaseStepDialog implements StepDialo
     in.setIndex( wIndex.getText() );
 
     in.setBatchSize( wBatchSize.getText() );
+    in.setConcurrentRequests( wConcurrentRequests.getText() );
+    in.setMaxBulkSize( wMaxBulkSize.getText() );
+    in.setMaxRetries( wMaxRetries.getText() );
     in.setTimeOut( Const.NVL( wTimeOut.getText(), null ) );
     in.setTimeoutUnit( wTimeOut.getTimeUnit() );
 
@@ -0,0 +1,229 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.elasticsearchbulk;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.rest.RestStatus;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ElasticSearchBulkDispatcherTest {
+
+  private Client client;
+  private List<BulkRequest> requests;
+  private List<ActionListener<BulkResponse>> listeners;
+
+  @Before
+  @SuppressWarnings( "unchecked" )
+  public void setUp() {
+    client = mock( Client.class );
+    requests = new CopyOnWriteArrayList<>();
+    listeners = new CopyOnWriteArrayList<>();
+    doAnswer( invocation -> {
+      requests.add( invocation.getArgument( 0 ) );
+      listeners.add( invocation.getArgument( 1 ) );
+      return null;
+    } ).when( client ).bulk( any( BulkRequest.class ), any( ActionListener.class ) );
+  }
+
+  private static BulkRequest request( int size ) {
+    BulkRequest request = new BulkRequest();
+    for ( int i = 0; i < size; i++ ) {
+      request.add( new IndexRequest( "index", "type" ).source( "{}", XContentType.JSON ) );
+    }
+    return request;
+  }
+
+  private static List<Object[]> rows( String... values ) {
+    List<Object[]> rows = new ArrayList<>();
+    for ( String value : values ) {
+      rows.add( new Object[] { value } );
+    }
+    return rows;
+  }
+
+  private static BulkItemResponse ok( int itemId ) {
+    BulkItemResponse item = mock( BulkItemResponse.class );
+    when( item.getItemId() ).thenReturn( itemId );
+    when( item.getId() ).thenReturn( "id" + itemId );
+    return item;
+  }
+
+  private static BulkItemResponse failed( int itemId, RestStatus status ) {
+    BulkItemResponse.Failure failure = mock( BulkItemResponse.Failure.class );
+    when( failure.getStatus() ).thenReturn( status );
+    BulkItemResponse item = mock( BulkItemResponse.class );
+    when( item.getItemId() ).thenReturn( itemId );
+    when( item.isFailed() ).thenReturn( true );
+    when( item.getFailure() ).thenReturn( failure );
+    when( item.getFailureMessage() ).thenReturn( status.name() );
+    return item;
+  }
+
+  private static BulkResponse response( BulkItemResponse... items ) {
+    BulkResponse response = mock( BulkResponse.class );
+    when( response.getItems() ).thenReturn( items );
+    return response;
+  }
+
+  private List<ElasticSearchBulkDispatcher.ItemResult> drain( ElasticSearchBulkDispatcher dispatcher ) {
+    List<ElasticSearchBulkDispatcher.ItemResult> results = new ArrayList<>();
+    ElasticSearchBulkDispatcher.ItemResult result;
+    while ( ( result = dispatcher.poll() ) != null ) {
+      results.add( result );
+    }
+    return results;
+  }
+
+  private void awaitRequests( int count ) throws InterruptedException {
+    long end = System.currentTimeMillis() + 5000;
+    while ( requests.size() < count && System.currentTimeMillis() < end ) {
+      Thread.sleep( 5 );
+    }
+    assertEquals( count, requests.size() );
+  }
+
+  @Test
+  public void testRequestsStayInFlightUntilTheirResponse() throws Exception {
+    ElasticSearchBulkDispatcher dispatcher = new ElasticSearchBulkDispatcher( client, 2, 0, 1L );
+    List<Object[]> first = rows( "a", "b" );
+    List<Object[]> second = rows( "c" );
+
+    dispatcher.submit( request( 2 ), first );
+    dispatcher.submit( request( 1 ), second );
+    assertEquals( 2, requests.size() );
+    assertFalse( dispatcher.awaitCompletion( 10L, TimeUnit.MILLISECONDS ) );
+    assertNull( dispatcher.poll() );
+
+    listeners.get( 1 ).onResponse( response( ok( 0 ) ) );
+    listeners.get( 0 ).onResponse( response( ok( 0 ), ok( 1 ) ) );
+    assertTrue( dispatcher.awaitCompletion( 10L, TimeUnit.MILLISECONDS ) );
+
+    List<ElasticSearchBulkDispatcher.ItemResult> results = drain( dispatcher );
+    assertEquals( 3, results.size() );
+    assertSame( second.get( 0 ), results.get( 0 ).getRow() );
+    assertSame( first.get( 0 ), results.get( 1 ).getRow() );
+    assertSame( first.get( 1 ), results.get( 2 ).getRow() );
+    assertEquals( "id1", results.get( 2 ).getId() );
+    assertFalse( results.get( 2 ).isFailed() );
+  }
+
+  @Test
+  public void testSubmitWaitsForAFreeSlot() throws Exception {
+    ElasticSearchBulkDispatcher dispatcher = new ElasticSearchBulkDispatcher( client, 1, 0, 1L );
+    dispatcher.submit( request( 1 ), rows( "a" ) );
+
+    Thread submitter = new Thread( () -> {
+      try {
+        dispatcher.submit( request( 1 ), rows( "b" ) );
+      } catch ( InterruptedException e ) {
+        Thread.currentThread().interrupt();
+      }
+    } );
+    submitter.start();
+    Thread.sleep( 50 );
+    assertEquals( 1, requests.size() );
+
+    listeners.get( 0 ).onResponse( response( ok( 0 ) ) );
+    submitter.join( 5000 );
+    assertEquals( 2, requests.size() );
+  }
+
+  @Test
+  public void testRejectedItemsAreRetried() throws Exception {
+    ElasticSearchBulkDispatcher dispatcher = new ElasticSearchBulkDispatcher( client, 1, 3, 1L );
+    List<Object[]> rows = rows( "a", "b", "c" );
+    BulkRequest request = request( 3 );
+    dispatcher.submit( request, rows );
+
+    listeners.get( 0 ).onResponse( response( ok( 0 ), failed( 1, RestStatus.TOO_MANY_REQUESTS ),
+      failed( 2, RestStatus.BAD_REQUEST ) ) );
+    awaitRequests( 2 );
+    assertEquals( 1, requests.get( 1 ).numberOfActions() );
+    assertSame( request.requests().get( 1 ), requests.get( 1 ).requests().get( 0 ) );
+    assertFalse( dispatcher.awaitCompletion( 10L, TimeUnit.MILLISECONDS ) );
+
+    listeners.get( 1 ).onResponse( response( ok( 0 ) ) );
+    assertTrue( dispatcher.awaitCompletion( 5L, TimeUnit.SECONDS ) );
+
+    List<ElasticSearchBulkDispatcher.ItemResult> results = drain( dispatcher );
+    assertEquals( 3, results.size() );
+    assertSame( rows.get( 0 ), results.get( 0 ).getRow() );
+    assertSame( rows.get( 2 ), results.get( 1 ).getRow() );
+    assertTrue( results.get( 1 ).isFailed() );
+    assertEquals( "BAD_REQUEST", results.get( 1 ).getFailureMessage() );
+    assertSame( rows.get( 1 ), results.get( 2 ).getRow() );
+    assertFalse( results.get( 2 ).isFailed() );
+  }
+
+  @Test
+  public void testRetriesAreLimited() throws Exception {
+    ElasticSearchBulkDispatcher dispatcher = new ElasticSearchBulkDispatcher( client, 1, 2, 1L );
+    dispatcher.submit( request( 1 ), rows( "a" ) );
+    for ( int attempt = 0; attempt < 3; attempt++ ) {
+      awaitRequests( attempt + 1 );
+      listeners.get( attempt ).onResponse( response( failed( 0, RestStatus.TOO_MANY_REQUESTS ) ) );
+    }
+    assertTrue( dispatcher.awaitCompletion( 5L, TimeUnit.SECONDS ) );
+    assertEquals( 3, requests.size() );
+
+    List<ElasticSearchBulkDispatcher.ItemResult> results = drain( dispatcher );
+    assertEquals( 1, results.size() );
+    assertTrue( results.get( 0 ).isFailed() );
+  }
+
+  @Test
+  public void testFailedRequestFailsAllRows() throws Exception {
+    ElasticSearchBulkDispatcher dispatcher = new ElasticSearchBulkDispatcher( client, 2, 1, 1L );
+    List<Object[]> rows = rows( "a", "b" );
+    dispatcher.submit( request( 2 ), rows );
+
+    listeners.get( 0 ).onFailure( new EsRejectedExecutionException( "queue full" ) );
+    awaitRequests( 2 );
+    listeners.get( 1 ).onFailure( new IllegalStateException( "broken" ) );
+    assertTrue( dispatcher.awaitCompletion( 5L, TimeUnit.SECONDS ) );
+
+    List<ElasticSearchBulkDispatcher.ItemResult> results = drain( dispatcher );
+    assertEquals( 2, results.size() );
+    for ( ElasticSearchBulkDispatcher.ItemResult result : results ) {
+      assertTrue( result.isFailed() );
+      assertEquals( "broken", result.getFailureMessage() );
+    }
+    assertEquals( Arrays.asList( rows.get( 0 ), rows.get( 1 ) ),
+      Arrays.asList( results.get( 0 ).getRow(), results.get( 1 ).getRow() ) );
+  }
+}
@@ -91,6 +91,21 @@ public class ElasticSearchBulkMetaInjectionTest extends BaseMetadataInjectionTes
         return meta.getTimeoutUnit();
       }
     }, TimeUnit.class );
+    check( "CONCURRENT_REQUESTS", new StringGetter() {
+      public String get() {
+        return meta.getConcurrentRequests();
+      }
+    } );
+    check( "MAX_BULK_SIZE", new StringGetter() {
+      public String get() {
+        return meta.getMaxBulkSize();
+      }
+    } );
+    check( "MAX_RETRIES", new StringGetter() {
+      public String get() {
+        return meta.getMaxRetries();
+      }
+    } );
     check( "SERVER.ADDRESS", new StringGetter() {
       public String get() {
         return meta.servers.get( 0 ).address;
@@ -43,8 +43,9 @@ public class ElasticSearchBulkMetaTest {
   @Test
   public void testRoundTrip() throws KettleException {
     List<String> attributes =
-        Arrays.asList( "index", "type", "batchSize", "timeout", "timeoutUnit", "isJson", "jsonField", "idOutputField",
-            "idField", "overwriteIfExists", "useOutput", "stopOnError", "fields", "servers", "settings" );
+        Arrays.asList( "index", "type", "batchSize", "timeout", "timeoutUnit", "concurrentRequests", "maxBulkSize",
+            "maxRetries", "isJson", "jsonField", "idOutputField", "idField", "overwriteIfExists", "useOutput",
+            "stopOnError", "fields", "servers", "settings" );
 
     Map<String, String> getterMap = new HashMap<String, String>();
     getterMap.put( "index", "getIndex" );
@@ -52,6 +53,9 @@ public class ElasticSearchBulkMetaTest {
     getterMap.put( "batchSize", "getBatchSize" );
     getterMap.put( "timeout", "getTimeOut" );
     getterMap.put( "timeoutUnit", "getTimeoutUnit" );
+    getterMap.put( "concurrentRequests", "getConcurrentRequests" );
+    getterMap.put( "maxBulkSize", "getMaxBulkSize" );
+    getterMap.put( "maxRetries", "getMaxRetries" );
     getterMap.put( "isJson", "isJsonInsert" );
     getterMap.put( "jsonField", "getJsonField" );
     getterMap.put( "idOutputField", "getIdOutField" );
@@ -69,6 +73,9 @@ public class ElasticSearchBulkMetaTest {
     setterMap.put( "batchSize", "setBatchSize" );
     setterMap.put( "timeout", "setTimeOut" );
     setterMap.put( "timeoutUnit", "setTimeoutUnit" );
+    setterMap.put( "concurrentRequests", "setConcurrentRequests" );
+    setterMap.put( "maxBulkSize", "setMaxBulkSize" );
+    setterMap.put( "maxRetries", "setMaxRetries" );
     setterMap.put( "isJson", "setJsonInsert" );
     setterMap.put( "jsonField", "setJsonField" );
     setterMap.put( "idOutputField", "setIdOutField" );
@@ -0,0 +1,323 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.excelinput.staxpoi;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.poi.xssf.model.SharedStrings;
+import org.apache.poi.xssf.usermodel.XSSFRichTextString;
+import org.pentaho.di.core.xml.XMLParserFactoryProducer;
+
+/**
+ * Shared strings table of a workbook, read once and shared by all its sheets.<br>
+ * Unlike POI's table it keeps plain strings instead of rich text beans, and once the strings take more than the memory
+ * limit the remaining ones are written to a temporary file and looked up from there.
+ */
+public abstract class StaxPoiSharedStrings implements Closeable {
+
+  public static final int DEFAULT_MEMORY_LIMIT_MB = 64;
+
+  private static final String TAG_SI = "si";
+  private static final String TAG_T = "t";
+  private static final String TAG_RPH = "rPh";
+
+  /**
+   * @param idx the index of the string
+   * @return the string
+   */
+  public abstract String getString( int idx );
+
+  /**
+   * @return the number of strings in the table
+   */
+  public abstract int getCount();
+
+  @Override
+  public void close() throws IOException {
+  }
+
+  /**
+   * Reads the shared strings part of a workbook.
+   *
+   * @param sharedStringsData the shared strings part
+   * @param memoryLimit       the number of bytes of strings to keep in memory
+   */
+  public static StaxPoiSharedStrings read( InputStream sharedStringsData, long memoryLimit )
+    throws IOException, XMLStreamException {
+    Loader loader = new Loader( memoryLimit );
+    XMLInputFactory factory = XMLParserFactoryProducer.createSecureXMLInputFactory();
+    XMLStreamReader reader = factory.createXMLStreamReader( sharedStringsData );
+    try {
+      StringBuilder text = new StringBuilder();
+      boolean phonetic = false;
+      while ( reader.hasNext() ) {
+        int event = reader.next();
+        if ( event == XMLStreamConstants.START_ELEMENT ) {
+          String name = reader.getLocalName();
+          if ( name.equals( TAG_SI ) ) {
+            text.setLength( 0 );
+          } else if ( name.equals( TAG_RPH ) ) {
+            phonetic = true;
+          } else if ( name.equals( TAG_T ) && !phonetic ) {
+            text.append( reader.getElementText() );
+          }
+        } else if ( event == XMLStreamConstants.END_ELEMENT ) {
+          String name = reader.getLocalName();
+          if ( name.equals( TAG_SI ) ) {
+            loader.add( decode( text ) );
+          } else if ( name.equals( TAG_RPH ) ) {
+            phonetic = false;
+          }
+        }
+      }
+    } catch ( IOException | XMLStreamException | RuntimeException e ) {
+      loader.build().close();
+      throw e;
+    } finally {
+      reader.close();
+    }
+    return loader.build();
+  }
+
+  /**
+   * @return the table of POI wrapped, <code>null</code> if there is none
+   */
+  public static StaxPoiSharedStrings wrap( SharedStrings sst ) {
+    return sst == null ? null : new PoiStrings( sst );
+  }
+
+  /**
+   * Escaped characters like <code>_x000D_</code> are decoded the way POI does, only strings that may contain them pay
+   * for the rich text bean.
+   */
+  private static String decode( CharSequence text ) {
+    String value = text.toString();
+    return value.contains( "_x" ) ? new XSSFRichTextString( value ).getString() : value;
+  }
+
+  private static class Loader {
+    private final long memoryLimit;
+    private final List<String> strings = new ArrayList<>();
+    private long memoryUsed;
+    private DiskStrings disk;
+    private DataOutputStream data;
+    private DataOutputStream offsets;
+    private long offset;
+
+    Loader( long memoryLimit ) {
+      this.memoryLimit = memoryLimit;
+    }
+
+    void add( String value ) throws IOException {
+      if ( disk == null ) {
+        strings.add( value );
+        memoryUsed += 2L * value.length() + 40L;
+        if ( memoryUsed > memoryLimit ) {
+          spill();
+        }
+      } else {
+        write( value );
+      }
+    }
+
+    private void spill() throws IOException {
+      disk = new DiskStrings();
+      data = new DataOutputStream( new BufferedOutputStream( new FileOutputStream( disk.dataFile ), 65536 ) );
+      offsets = new DataOutputStream( new BufferedOutputStream( new FileOutputStream( disk.offsetsFile ), 65536 ) );
+      for ( String value : strings ) {
+        write( value );
+      }
+      strings.clear();
+    }
+
+    private void write( String value ) throws IOException {
+      byte[] bytes = value.getBytes( StandardCharsets.UTF_8 );
+      data.write( bytes );
+      offset += bytes.length;
+      offsets.writeLong( offset );
+      disk.count++;
+    }
+
+    StaxPoiSharedStrings build() throws IOException {
+      if ( disk == null ) {
+        return new MemoryStrings( strings.toArray( new String[ strings.size() ] ) );
+      }
+      if ( data != null ) {
+        data.close();
+        offsets.close();
+        data = null;
+        offsets = null;
+        disk.open();
+      }
+      return disk;
+    }
+  }
+
+  private static class MemoryStrings extends StaxPoiSharedStrings {
+    private final String[] strings;
+
+    MemoryStrings( String[] strings ) {
+      this.strings = strings;
+    }
+
+    @Override
+    public String getString( int idx ) {
+      return strings[ idx ];
+    }
+
+    @Override
+    public int getCount() {
+      return strings.length;
+    }
+  }
+
+  /**
+   * Strings in a data file, with the end offset of every string in an offsets file. Recently used strings are cached,
+   * a sheet usually refers to the same strings over and over.
+   */
+  private static class DiskStrings extends StaxPoiSharedStrings {
+    private static final int CACHE_SIZE = 4096;
+
+    private final File dataFile;
+    private final File offsetsFile;
+    private int count;
+    private RandomAccessFile dataAccess;
+    private RandomAccessFile offsetsAccess;
+    private FileChannel dataChannel;
+    private FileChannel offsetsChannel;
+
+    private final ByteBuffer offsetBuffer = ByteBuffer.allocate( 16 );
+    private ByteBuffer stringBuffer = ByteBuffer.allocate( 1024 );
+    private final int[] cacheKeys = new int[ CACHE_SIZE ];
+    private final String[] cacheValues = new String[ CACHE_SIZE ];
+
+    DiskStrings() throws IOException {
+      dataFile = File.createTempFile( "kettle-xlsx-strings", ".dat" );
+      dataFile.deleteOnExit();
+      offsetsFile = File.createTempFile( "kettle-xlsx-strings", ".idx" );
+      offsetsFile.deleteOnExit();
+    }
+
+    void open() throws IOException {
+      dataAccess = new RandomAccessFile( dataFile, "r" );
+      offsetsAccess = new RandomAccessFile( offsetsFile, "r" );
+      dataChannel = dataAccess.getChannel();
+      offsetsChannel = offsetsAccess.getChannel();
+    }
+
+    @Override
+    public synchronized String getString( int idx ) {
+      if ( idx < 0 || idx >= count ) {
+        throw new IndexOutOfBoundsException( "Shared string " + idx + " of " + count );
+      }
+      int slot = idx & ( CACHE_SIZE - 1 );
+      if ( cacheValues[ slot ] != null && cacheKeys[ slot ] == idx ) {
+        return cacheValues[ slot ];
+      }
+      try {
+        long start;
+        long end;
+        offsetBuffer.clear();
+        if ( idx == 0 ) {
+          offsetBuffer.limit( 8 );
+          readFully( offsetsChannel, offsetBuffer, 0L );
+          start = 0L;
+          end = offsetBuffer.getLong( 0 );
+        } else {
+          readFully( offsetsChannel, offsetBuffer, ( idx - 1 ) * 8L );
+          start = offsetBuffer.getLong( 0 );
+          end = offsetBuffer.getLong( 8 );
+        }
+        int length = (int) ( end - start );
+        if ( stringBuffer.capacity() < length ) {
+          stringBuffer = ByteBuffer.allocate( Math.max( length, 2 * stringBuffer.capacity() ) );
+        }
+        stringBuffer.clear();
+        stringBuffer.limit( length );
+        readFully( dataChannel, stringBuffer, start );
+        String value = new String( stringBuffer.array(), 0, length, StandardCharsets.UTF_8 );
+        cacheKeys[ slot ] = idx;
+        cacheValues[ slot ] = value;
+        return value;
+      } catch ( IOException e ) {
+        throw new RuntimeException( e );
+      }
+    }
+
+    private static void readFully( FileChannel channel, ByteBuffer buffer, long position ) throws IOException {
+      while ( buffer.hasRemaining() ) {
+        int n = channel.read( buffer, position );
+        if ( n < 0 ) {
+          throw new IOException( "Unexpected end of shared strings file" );
+        }
+        position += n;
+      }
+    }
+
+    @Override
+    public int getCount() {
+      return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        if ( dataAccess != null ) {
+          dataAccess.close();
+        }
+        if ( offsetsAccess != null ) {
+          offsetsAccess.close();
+        }
+      } finally {
+        dataFile.delete();
+        offsetsFile.delete();
+      }
+    }
+  }
+
+  private static class PoiStrings extends StaxPoiSharedStrings {
+    private final SharedStrings sst;
+
+    PoiStrings( SharedStrings sst ) {
+      this.sst = sst;
+    }
+
+    @Override
+    public String getString( int idx ) {
+      return new XSSFRichTextString( sst.getItemAt( idx ).getString() ).toString();
+    }
+
+    @Override
+    public int getCount() {
+      return sst.getCount();
+    }
+  }
+}
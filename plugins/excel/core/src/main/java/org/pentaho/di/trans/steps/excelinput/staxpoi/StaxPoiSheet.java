@@ -20,6 +20,7 @@ package org.pentaho.di.trans.steps.excelinput.staxpoi;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.TimeZone;
 
@@ -33,7 +34,6 @@ import org.apache.commons.lang.StringUtils;
 import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
 import org.apache.poi.ss.usermodel.DateUtil;
 import org.apache.poi.xssf.eventusermodel.XSSFReader;
-import org.apache.poi.xssf.model.SharedStrings;
 import org.apache.poi.xssf.model.StylesTable;
 import org.apache.poi.xssf.usermodel.XSSFRichTextString;
 import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTXf;
@@ -76,19 +76,33 @@ public class StaxPoiSheet implements KSheet {
   // 1-based first non-empty row
   private int firstRow;
   private KCell[] currentRowCells;
+  // cells of the row being parsed, reused from row to row
+  private StaxPoiCell[] rowBuffer = new StaxPoiCell[ 16 ];
 
   // full shared strings table
-  private SharedStrings sst;
+  private StaxPoiSharedStrings sst;
   // custom styles
   private StylesTable styles;
+  // whether a style is a date format, by style index: 0 unknown, 1 date, 2 no date
+  private byte[] dateStyles = new byte[ 0 ];
 
   public StaxPoiSheet( XSSFReader reader, String sheetName, String sheetID )
       throws InvalidFormatException, IOException, XMLStreamException {
+    this( reader, sheetName, sheetID, StaxPoiSharedStrings.wrap( reader.getSharedStringsTable() ),
+      reader.getStylesTable() );
+  }
+
+  /**
+   * @param sst    the shared strings of the workbook, read once for all its sheets
+   * @param styles the styles of the workbook, read once for all its sheets
+   */
+  public StaxPoiSheet( XSSFReader reader, String sheetName, String sheetID, StaxPoiSharedStrings sst,
+                       StylesTable styles ) throws InvalidFormatException, IOException, XMLStreamException {
     this.sheetName = sheetName;
     xssfReader = reader;
     sheetId = sheetID;
-    sst = reader.getSharedStringsTable();
-    styles = reader.getStylesTable();
+    this.sst = sst;
+    this.styles = styles;
     sheetStream = reader.getSheet( sheetID );
     XMLInputFactory factory = XMLParserFactoryProducer.createSecureXMLInputFactory();
     sheetReader = factory.createXMLStreamReader( sheetStream );
@@ -128,9 +142,8 @@ public class StaxPoiSheet implements KSheet {
                     event = sheetReader.next();
                     if ( event == XMLStreamConstants.START_ELEMENT && sheetReader.getLocalName().equals( TAG_V ) ) {
                       int idx = Integer.parseInt( sheetReader.getElementText() );
-                      if (sst != null && sst.getCount() > 0) {
-                        String content = new XSSFRichTextString(sst.getItemAt(idx).getString()).toString();
-                        headerRow.add( content );
+                      if ( sst != null && sst.getCount() > 0 ) {
+                        headerRow.add( sst.getString( idx ) );
                       }
                       break;
                     }
@@ -243,13 +256,7 @@ public class StaxPoiSheet implements KSheet {
   }
 
   private KCell[] parseRow() throws XMLStreamException {
-    List<StaxPoiCell> cells;
-    if ( isMaxColsNumberDefined() ) {
-      cells = new ArrayList<>( numCols );
-    } else {
-      cells = new ArrayList<>();
-    }
-
+    int length = 0;
     int undefinedColIndex = 0;
     for ( int i = 0; i < numCols; i++ ) {
       // go to the "c" cell tag
@@ -260,7 +267,7 @@ public class StaxPoiSheet implements KSheet {
         }
         if ( event == XMLStreamConstants.END_ELEMENT && sheetReader.getLocalName().equals( TAG_ROW ) ) {
           // premature end of row, returning what we have
-          return cells.toArray( new StaxPoiCell[cells.size()] );
+          return Arrays.copyOf( rowBuffer, length );
         }
       }
       // We're on the "c" cell tag
@@ -280,8 +287,8 @@ public class StaxPoiSheet implements KSheet {
             // read content as string
             if ( cellType != null && cellType.equals( "s" ) ) {
               int idx = Integer.parseInt( sheetReader.getElementText() );
-              if (sst != null && sst.getCount() > 0) {
-                content = new XSSFRichTextString(sst.getItemAt(idx).getString()).toString();
+              if ( sst != null && sst.getCount() > 0 ) {
+                content = sst.getString( idx );
               }
             } else {
               content = sheetReader.getElementText();
@@ -316,23 +323,32 @@ public class StaxPoiSheet implements KSheet {
       }
       if ( content != null ) {
         KCellType kcType = getCellType( cellType, cellStyle, isFormula );
-        setCells( cells, undefinedColIndex, columnIndex, new StaxPoiCell( parseValue( kcType, content ), kcType, currentRow ) );
+        length = setCells( length, undefinedColIndex, columnIndex,
+          new StaxPoiCell( parseValue( kcType, content ), kcType, currentRow ) );
       } else {
         // else let cell be null
-        setCells( cells, undefinedColIndex, columnIndex, null );
+        length = setCells( length, undefinedColIndex, columnIndex, null );
       }
         undefinedColIndex = columnIndex + 1;
     }
-    return cells.toArray( new StaxPoiCell[cells.size()] );
+    return Arrays.copyOf( rowBuffer, length );
   }
 
-  private static void setCells( List<StaxPoiCell> cellsArray, int firstUndefinedColIndex, int foundColIndex, StaxPoiCell cell ) {
+  /**
+   * @return the new length of the row
+   */
+  private int setCells( int length, int firstUndefinedColIndex, int foundColIndex, StaxPoiCell cell ) {
+    int newLength = length + Math.max( 0, foundColIndex - firstUndefinedColIndex ) + 1;
+    if ( newLength > rowBuffer.length ) {
+      rowBuffer = Arrays.copyOf( rowBuffer, Math.max( newLength, 2 * rowBuffer.length ) );
+    }
     // fill all cells before found with Null
     for ( int index = firstUndefinedColIndex; index < foundColIndex; index++ ) {
-      cellsArray.add( null );
+      rowBuffer[ length++ ] = null;
     }
     // add the found Cell
-    cellsArray.add( cell );
+    rowBuffer[ length++ ] = cell;
+    return length;
   }
 
   @Override
@@ -386,13 +402,25 @@ public class StaxPoiSheet implements KSheet {
   protected boolean isDateCell( String cellStyle ) {
     if ( cellStyle != null ) {
       int styleIdx = Integer.parseInt( cellStyle );
+      // the format check is expensive, it is done once per style
+      if ( styleIdx >= 0 && styleIdx < dateStyles.length && dateStyles[ styleIdx ] != 0 ) {
+        return dateStyles[ styleIdx ] == 1;
+      }
+      boolean isDate = false;
       CTXf cellXf = styles.getCellXfAt( styleIdx );
       if ( cellXf != null ) {
         // need id for builtin types, format if custom
         short formatId = (short) cellXf.getNumFmtId();
         String format = styles.getNumberFormatAt( formatId );
-        return DateUtil.isADateFormat( formatId, format );
+        isDate = DateUtil.isADateFormat( formatId, format );
+      }
+      if ( styleIdx >= 0 && styleIdx < 65536 ) {
+        if ( styleIdx >= dateStyles.length ) {
+          dateStyles = Arrays.copyOf( dateStyles, Math.max( styleIdx + 1, 2 * dateStyles.length ) );
+        }
+        dateStyles[ styleIdx ] = isDate ? (byte) 1 : (byte) 2;
       }
+      return isDate;
     }
     return false;
   }
@@ -21,6 +21,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 import javax.xml.stream.XMLInputFactory;
@@ -30,12 +31,17 @@ import javax.xml.stream.XMLStreamReader;
 
 import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
 import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackagePart;
 import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
+import org.pentaho.di.core.Const;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.logging.KettleLogStore;
 import org.pentaho.di.core.logging.LogChannelInterface;
 import org.pentaho.di.core.spreadsheet.KSheet;
 import org.pentaho.di.core.spreadsheet.KWorkbook;
+import org.pentaho.di.core.util.EnvUtil;
 import org.pentaho.di.core.xml.XMLParserFactoryProducer;
 import org.pentaho.di.i18n.BaseMessages;
 
@@ -63,6 +69,11 @@ public class StaxPoiWorkbook implements KWorkbook {
 
   private OPCPackage opcpkg;
 
+  // shared strings and styles of all sheets, read with the first sheet
+  private StaxPoiSharedStrings sharedStrings;
+  private StylesTable styles;
+  private boolean sharedTablesRead;
+
   protected StaxPoiWorkbook() {
     openSheetsMap = new HashMap<String, StaxPoiSheet>();
     this.log = KettleLogStore.getLogChannelInterfaceFactory().create( this );
@@ -151,7 +162,8 @@ public class StaxPoiWorkbook implements KWorkbook {
     StaxPoiSheet sheet = openSheetsMap.get( sheetID );
     if ( sheet == null ) {
       try {
-        sheet = new StaxPoiSheet( reader, sheetName, sheetID );
+        readSharedTables();
+        sheet = new StaxPoiSheet( reader, sheetName, sheetID, sharedStrings, styles );
         openSheetsMap.put( sheetID, sheet );
       } catch ( Exception e ) {
         log.logError( sheetName, e );
@@ -160,6 +172,22 @@ public class StaxPoiWorkbook implements KWorkbook {
     return sheet;
   }
 
+  private void readSharedTables() throws Exception {
+    if ( sharedTablesRead ) {
+      return;
+    }
+    List<PackagePart> parts = opcpkg.getPartsByContentType( XSSFRelation.SHARED_STRINGS.getContentType() );
+    if ( !parts.isEmpty() ) {
+      long memoryLimit = Const.toLong( EnvUtil.getSystemProperty( Const.KETTLE_XLSX_SHARED_STRINGS_MEMORY_LIMIT ),
+        StaxPoiSharedStrings.DEFAULT_MEMORY_LIMIT_MB ) * 1024L * 1024L;
+      try ( InputStream sharedStringsData = parts.get( 0 ).getInputStream() ) {
+        sharedStrings = StaxPoiSharedStrings.read( sharedStringsData, memoryLimit );
+      }
+    }
+    styles = reader.getStylesTable();
+    sharedTablesRead = true;
+  }
+
   @Override
   public String[] getSheetNames() {
     String[] sheets = new String[sheetNameIDMap.size()];
@@ -178,6 +206,13 @@ public class StaxPoiWorkbook implements KWorkbook {
         log.logError( "Could not close xmlstream", e );
       }
     }
+    if ( sharedStrings != null ) {
+      try {
+        sharedStrings.close();
+      } catch ( IOException e ) {
+        log.logError( "Could not remove shared strings file", e );
+      }
+    }
     if ( opcpkg != null ) {
       //We should not save change in xlsx because it is input step.
       opcpkg.revert();
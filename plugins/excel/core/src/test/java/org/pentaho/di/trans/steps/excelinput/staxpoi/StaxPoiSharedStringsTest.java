@@ -0,0 +1,86 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.excelinput.staxpoi;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+public class StaxPoiSharedStringsTest {
+
+  private static final String SST = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+    + "<sst xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\" count=\"6\" uniqueCount=\"5\">"
+    + "<si><t>Plain</t></si>"
+    + "<si><r><rPr><b/></rPr><t>Rich </t></r><r><t xml:space=\"preserve\">text </t></r></si>"
+    + "<si><t>\u6f22\u5b57</t><rPh sb=\"0\" eb=\"2\"><t>\u304b\u3093\u3058</t></rPh></si>"
+    + "<si><t/></si>"
+    + "<si><t>Line_x000D_break</t></si>"
+    + "</sst>";
+
+  private static StaxPoiSharedStrings read( String xml, long memoryLimit ) throws Exception {
+    return StaxPoiSharedStrings.read( new ByteArrayInputStream( xml.getBytes( StandardCharsets.UTF_8 ) ),
+      memoryLimit );
+  }
+
+  private static void assertStrings( StaxPoiSharedStrings sst ) {
+    assertEquals( 5, sst.getCount() );
+    assertEquals( "Plain", sst.getString( 0 ) );
+    assertEquals( "Rich text ", sst.getString( 1 ) );
+    assertEquals( "\u6f22\u5b57", sst.getString( 2 ) );
+    assertEquals( "", sst.getString( 3 ) );
+    assertEquals( "Line\rbreak", sst.getString( 4 ) );
+  }
+
+  @Test
+  public void testInMemory() throws Exception {
+    try ( StaxPoiSharedStrings sst = read( SST, Long.MAX_VALUE ) ) {
+      assertStrings( sst );
+    }
+  }
+
+  @Test
+  public void testOnDisk() throws Exception {
+    try ( StaxPoiSharedStrings sst = read( SST, 0L ) ) {
+      assertStrings( sst );
+      // again, from the cache
+      assertStrings( sst );
+    }
+  }
+
+  @Test
+  public void testSpillsWhenFull() throws Exception {
+    StringBuilder xml = new StringBuilder( "<sst>" );
+    for ( int i = 0; i < 10000; i++ ) {
+      xml.append( "<si><t>value " ).append( i ).append( "</t></si>" );
+    }
+    xml.append( "</sst>" );
+    try ( StaxPoiSharedStrings sst = read( xml.toString(), 100000L ) ) {
+      assertEquals( 10000, sst.getCount() );
+      for ( int i = 9999; i >= 0; i -= 7 ) {
+        assertEquals( "value " + i, sst.getString( i ) );
+      }
+      assertEquals( "value 0", sst.getString( 0 ) );
+    }
+  }
+
+  @Test( expected = IndexOutOfBoundsException.class )
+  public void testOutOfRange() throws Exception {
+    try ( StaxPoiSharedStrings sst = read( SST, 0L ) ) {
+      sst.getString( 5 );
+    }
+  }
+}
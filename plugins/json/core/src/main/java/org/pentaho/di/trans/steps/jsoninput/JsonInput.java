@@ -14,6 +14,7 @@
 package org.pentaho.di.trans.steps.jsoninput;
 
 import java.io.ByteArrayInputStream;
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.BitSet;
@@ -43,6 +44,7 @@ import org.pentaho.di.trans.steps.jsoninput.exception.JsonInputException;
 import org.pentaho.di.trans.steps.jsoninput.reader.FastJsonReader;
 import org.pentaho.di.trans.steps.jsoninput.reader.InputsReader;
 import org.pentaho.di.trans.steps.jsoninput.reader.RowOutputConverter;
+import org.pentaho.di.trans.steps.jsoninput.reader.StreamingJsonReader;
 
 /**
  * Read Json files, parse them and convert them to rows and writes these to one or more output streams.
@@ -246,10 +248,14 @@ public class JsonInput extends BaseFileInputStep<JsonInputMeta, JsonInputData> i
     addFileToResultFilesname( file );
   }
 
-  private void parseNextInputToRowSet( InputStream input ) throws KettleException {
+  /**
+   * @return if the row set reads the input while returning rows, it then closes the input itself
+   */
+  private boolean parseNextInputToRowSet( InputStream input ) throws KettleException {
+    closeReaderRowSet();
     try {
       data.readerRowSet = data.reader.parse( input );
-      input.close();
+      return data.readerRowSet instanceof Closeable;
     } catch ( KettleException ke ) {
       logInputError( ke );
       throw new JsonInputException( ke );
@@ -259,6 +265,25 @@ public class JsonInput extends BaseFileInputStep<JsonInputMeta, JsonInputData> i
     }
   }
 
+  private Object[] getReaderRow() throws KettleException {
+    try {
+      return data.readerRowSet.getRow();
+    } catch ( StreamingJsonReader.ReadException e ) {
+      logInputError( e.getCause() );
+      throw new JsonInputException( e.getCause() );
+    }
+  }
+
+  private void closeReaderRowSet() {
+    if ( data.readerRowSet instanceof Closeable ) {
+      try {
+        ( (Closeable) data.readerRowSet ).close();
+      } catch ( IOException e ) {
+        logError( BaseMessages.getString( PKG, "JsonInput.Log.UnexpectedError", e.toString() ), e );
+      }
+    }
+  }
+
   private void logInputError( KettleException e ) {
     logError( e.getLocalizedMessage(), e );
     inputError( e.getLocalizedMessage() );
@@ -314,19 +339,21 @@ public class JsonInput extends BaseFileInputStep<JsonInputMeta, JsonInputData> i
       return null;
     }
     Object[] rawReaderRow;
-    while ( ( rawReaderRow = data.readerRowSet.getRow() ) == null ) {
+    while ( ( rawReaderRow = getReaderRow() ) == null ) {
       if ( data.inputs.hasNext() && data.readerRowSet.isDone() ) {
-        try ( InputStream nextIn = data.inputs.next() ) {
-
-          if ( nextIn != null ) {
-            parseNextInputToRowSet( nextIn );
-          } else {
-            parseNextInputToRowSet( new ByteArrayInputStream( EMPTY_JSON ) );
+        InputStream nextIn = data.inputs.next();
+        boolean streaming = false;
+        try {
+          streaming = parseNextInputToRowSet( nextIn != null ? nextIn : new ByteArrayInputStream( EMPTY_JSON ) );
+        } finally {
+          if ( nextIn != null && !streaming ) {
+            try {
+              nextIn.close();
+            } catch ( IOException e ) {
+              logError( BaseMessages.getString( PKG, "JsonInput.Log.UnexpectedError", e.toString() ), e );
+              incrementErrors();
+            }
           }
-
-        } catch ( IOException e ) {
-          logError( BaseMessages.getString( PKG, "JsonInput.Log.UnexpectedError", e.toString() ), e );
-          incrementErrors();
         }
       } else {
         if ( isDetailed() ) {
@@ -472,6 +499,7 @@ public class JsonInput extends BaseFileInputStep<JsonInputMeta, JsonInputData> i
     }
     data.inputs = null;
     data.reader = null;
+    closeReaderRowSet();
     data.readerRowSet = null;
     data.repeatedFields = null;
     super.dispose( smi, sdi );
@@ -59,6 +59,7 @@ public class FastJsonReader implements IJsonReader {
 
   private JsonInputField[] inputFields;
   private JsonPath[] compiledJsonPaths = null;
+  private StreamingJsonReader streamingReader;
   private LogChannelInterface log;
 
   public FastJsonReader( JsonInput step, JsonInputField[] inputFields, boolean defaultPathLeafToNull,
@@ -107,6 +108,13 @@ public class FastJsonReader implements IJsonReader {
     return jsonConfiguration;
   }
 
+  /**
+   * @return if the documents are streamed instead of being read whole
+   */
+  public boolean isStreaming() {
+    return streamingReader != null;
+  }
+
   private ParseContext getParseContext() {
     return JsonPath.using( jsonConfiguration );
   }
@@ -131,14 +139,21 @@ public class FastJsonReader implements IJsonReader {
       this.inputFields = inputFields;
 
       compiledJsonPaths = new JsonPath[ inputFields.length ];
+      String[] paths = new String[ inputFields.length ];
       int i = 0;
       for ( JsonInputField inputField : inputFields ) {
         if ( System.getProperty( Const.KETTLE_COMPATIBILITY_JSON_INPUT_LEGACY_MODE, "N" ).equals( "Y" ) ) {
-          compiledJsonPaths[ i++ ] = JsonPath.compile( step.environmentSubstitute( inputField.getPath(), false ).trim() );
+          paths[ i ] = step.environmentSubstitute( inputField.getPath(), false ).trim();
         } else {
-          compiledJsonPaths[ i++ ] = JsonPath.compile( step.environmentSubstitute( inputField.getPath(), true ) );
+          paths[ i ] = step.environmentSubstitute( inputField.getPath(), true );
         }
-
+        compiledJsonPaths[ i ] = JsonPath.compile( paths[ i ] );
+        i++;
+      }
+      streamingReader = null;
+      if ( step != null && defaultPathLeafToNull
+        && "Y".equalsIgnoreCase( step.getVariable( Const.KETTLE_JSON_INPUT_STREAMING, "N" ) ) ) {
+        streamingReader = StreamingJsonReader.create( paths, ignoreMissingPath, includeNulls, log );
       }
     } else {
       this.inputFields = ZERO_INPUT_FIELDS;
@@ -147,6 +162,9 @@ public class FastJsonReader implements IJsonReader {
 
   @Override
   public RowSet parse( InputStream in ) throws KettleException {
+    if ( streamingReader != null ) {
+      return streamingReader.parse( in );
+    }
     readInput( in );
     List<List<?>> results = evalCombinedResult();
     int len = results.isEmpty() ? 0 : getMaxRowSize( results );
@@ -0,0 +1,458 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.jsoninput.reader;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import net.minidev.json.JSONArray;
+import org.pentaho.di.core.RowSet;
+import org.pentaho.di.core.SingleRowRowSet;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.logging.LogChannelInterface;
+import org.pentaho.di.i18n.BaseMessages;
+import org.pentaho.di.trans.steps.jsoninput.JsonInputMeta;
+import org.pentaho.di.trans.steps.jsoninput.exception.JsonInputException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads a JSON document as a stream of tokens and returns a row as soon as an element of the iterated array is
+ * complete, so only one element is in memory at a time.<br>
+ * Supports paths made of properties (<code>.name</code>, <code>['name']</code>), indexes (<code>[0]</code>) and
+ * wildcards (<code>[*]</code>), where all fields share the same path up to their last wildcard: one row is returned for
+ * every element matched by that common path, and the rest of each field path is evaluated on the element. Use
+ * {@link #create(String[], boolean, boolean, LogChannelInterface)} to find out if a set of paths is supported.<br>
+ * Values missing in an element are returned as <code>null</code>; a path that matched no value at all is reported at
+ * the end of the document, after the rows were returned.
+ */
+public class StreamingJsonReader implements IJsonReader {
+  private static Class<?> PKG = JsonInputMeta.class; // for i18n purposes, needed by Translator2!!
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  // json-smart returns a BigDecimal instead of a Double for longer numbers, see JSONParser.USE_HI_PRECISION_FLOAT
+  private static final int MAX_DOUBLE_LENGTH = 18;
+
+  private static final Object MISSING = new Object();
+
+  private final String[] paths;
+  private final Segment[] elementPath;
+  private final Segment[][] fieldPaths;
+  private final boolean ignoreMissingPath;
+  private final boolean includeNulls;
+  private final LogChannelInterface log;
+
+  private StreamingJsonReader( String[] paths, Segment[] elementPath, Segment[][] fieldPaths,
+                               boolean ignoreMissingPath, boolean includeNulls, LogChannelInterface log ) {
+    this.paths = paths;
+    this.elementPath = elementPath;
+    this.fieldPaths = fieldPaths;
+    this.ignoreMissingPath = ignoreMissingPath;
+    this.includeNulls = includeNulls;
+    this.log = log;
+  }
+
+  /**
+   * @param paths the paths of the fields
+   * @return a reader for the paths, <code>null</code> if they use features that need the whole document
+   */
+  public static StreamingJsonReader create( String[] paths, boolean ignoreMissingPath, boolean includeNulls,
+                                            LogChannelInterface log ) {
+    if ( paths.length == 0 ) {
+      return null;
+    }
+    Segment[] elementPath = null;
+    Segment[][] fieldPaths = new Segment[ paths.length ][];
+    for ( int i = 0; i < paths.length; i++ ) {
+      Segment[] path = parsePath( paths[ i ] );
+      if ( path == null ) {
+        return null;
+      }
+      int lastWildcard = -1;
+      for ( int s = 0; s < path.length; s++ ) {
+        if ( path[ s ].wildcard ) {
+          lastWildcard = s;
+        }
+      }
+      if ( lastWildcard < 0 ) {
+        return null;
+      }
+      Segment[] prefix = Arrays.copyOf( path, lastWildcard + 1 );
+      if ( elementPath == null ) {
+        elementPath = prefix;
+      } else if ( !Arrays.equals( elementPath, prefix ) ) {
+        return null;
+      }
+      fieldPaths[ i ] = Arrays.copyOfRange( path, lastWildcard + 1, path.length );
+    }
+    return new StreamingJsonReader( paths, elementPath, fieldPaths, ignoreMissingPath, includeNulls, log );
+  }
+
+  /**
+   * @return the segments of the path, <code>null</code> if the path uses other features
+   */
+  static Segment[] parsePath( String path ) {
+    String p = path == null ? "" : path.trim();
+    if ( !p.startsWith( "$" ) ) {
+      return null;
+    }
+    List<Segment> segments = new ArrayList<>();
+    int i = 1;
+    while ( i < p.length() ) {
+      char c = p.charAt( i );
+      if ( c == '.' ) {
+        int end = i + 1;
+        while ( end < p.length() && p.charAt( end ) != '.' && p.charAt( end ) != '[' ) {
+          end++;
+        }
+        String name = p.substring( i + 1, end );
+        if ( name.isEmpty() || name.equals( "*" ) || name.indexOf( '(' ) >= 0 ) {
+          // deep scan, wildcard on properties or function
+          return null;
+        }
+        segments.add( Segment.name( name ) );
+        i = end;
+      } else if ( c == '[' ) {
+        int end = p.indexOf( ']', i );
+        if ( end < 0 ) {
+          return null;
+        }
+        String inner = p.substring( i + 1, end ).trim();
+        if ( inner.equals( "*" ) ) {
+          segments.add( Segment.WILDCARD );
+        } else if ( inner.length() >= 2 && ( inner.charAt( 0 ) == '\'' || inner.charAt( 0 ) == '"' )
+          && inner.charAt( inner.length() - 1 ) == inner.charAt( 0 )
+          && inner.indexOf( inner.charAt( 0 ), 1 ) == inner.length() - 1 ) {
+          segments.add( Segment.name( inner.substring( 1, inner.length() - 1 ) ) );
+        } else if ( !inner.isEmpty() && inner.length() < 10 && inner.chars().allMatch( Character::isDigit ) ) {
+          segments.add( Segment.index( Integer.parseInt( inner ) ) );
+        } else {
+          // filters, slices, unions, negative indexes
+          return null;
+        }
+        i = end + 1;
+      } else {
+        return null;
+      }
+    }
+    return segments.toArray( new Segment[ segments.size() ] );
+  }
+
+  @Override
+  public RowSet parse( InputStream in ) throws KettleException {
+    try {
+      return new StreamingRowSet( in, JSON_FACTORY.createParser( in ) );
+    } catch ( IOException e ) {
+      throw new KettleException( e );
+    }
+  }
+
+  static final class Segment {
+    static final Segment WILDCARD = new Segment( null, -1, true );
+
+    private final String name;
+    private final int index;
+    private final boolean wildcard;
+
+    private Segment( String name, int index, boolean wildcard ) {
+      this.name = name;
+      this.index = index;
+      this.wildcard = wildcard;
+    }
+
+    static Segment name( String name ) {
+      return new Segment( name, -1, false );
+    }
+
+    static Segment index( int index ) {
+      return new Segment( null, index, false );
+    }
+
+    boolean matchesProperty( String property ) {
+      return wildcard || ( name != null && name.equals( property ) );
+    }
+
+    boolean matchesIndex( int i ) {
+      return wildcard || ( name == null && index == i );
+    }
+
+    @Override
+    public boolean equals( Object o ) {
+      if ( !( o instanceof Segment ) ) {
+        return false;
+      }
+      Segment other = (Segment) o;
+      return wildcard == other.wildcard && index == other.index
+        && ( name == null ? other.name == null : name.equals( other.name ) );
+    }
+
+    @Override
+    public int hashCode() {
+      return ( name == null ? 0 : name.hashCode() ) * 31 + index;
+    }
+  }
+
+  /**
+   * A failure while reading rows from the stream, thrown by {@link RowSet#getRow()} which can't throw a
+   * {@link KettleException} itself.
+   */
+  public static class ReadException extends RuntimeException {
+    public ReadException( KettleException cause ) {
+      super( cause );
+    }
+
+    @Override
+    public synchronized KettleException getCause() {
+      return (KettleException) super.getCause();
+    }
+  }
+
+  /**
+   * A container the parser is in, whose children are matched against a segment of the element path.
+   */
+  private static final class Frame {
+    private final int segment;
+    private final boolean array;
+    private int index;
+
+    Frame( int segment, boolean array ) {
+      this.segment = segment;
+      this.array = array;
+    }
+  }
+
+  private class StreamingRowSet extends SingleRowRowSet implements Closeable {
+    private final InputStream in;
+    private final JsonParser parser;
+    private final Deque<Frame> stack = new ArrayDeque<>();
+    private final boolean[] found = new boolean[ fieldPaths.length ];
+    private boolean started;
+    private boolean done;
+    private long elements;
+    private Object[] culledRow;
+
+    StreamingRowSet( InputStream in, JsonParser parser ) {
+      this.in = in;
+      this.parser = parser;
+    }
+
+    @Override
+    public Object[] getRow() {
+      if ( done ) {
+        return null;
+      }
+      try {
+        Object element;
+        while ( ( element = nextElement() ) != MISSING ) {
+          elements++;
+          Object[] row = new Object[ fieldPaths.length ];
+          boolean allNulls = !includeNulls;
+          for ( int i = 0; i < fieldPaths.length; i++ ) {
+            Object value = evaluate( element, fieldPaths[ i ] );
+            row[ i ] = value == MISSING ? null : value;
+            found[ i ] |= row[ i ] != null;
+            allNulls &= row[ i ] == null;
+          }
+          if ( !allNulls ) {
+            return row;
+          }
+          // rows of nulls only are skipped, unless there's just one row
+          culledRow = elements == 1 ? row : null;
+        }
+        return finish();
+      } catch ( IOException e ) {
+        close();
+        throw new ReadException( new JsonInputException( e ) );
+      }
+    }
+
+    private Object[] finish() {
+      close();
+      if ( log.isDetailed() ) {
+        log.logDetailed( BaseMessages.getString( PKG, "JsonInput.Log.NrRecords", elements ) );
+      }
+      if ( !ignoreMissingPath ) {
+        for ( int i = 0; i < found.length; i++ ) {
+          if ( !found[ i ] ) {
+            throw new ReadException( new JsonInputException(
+              BaseMessages.getString( PKG, "JsonReader.Error.CanNotFindPath", paths[ i ] ) ) );
+          }
+        }
+      }
+      if ( elements == 0 ) {
+        return new Object[ fieldPaths.length ];
+      }
+      return culledRow;
+    }
+
+    /**
+     * @return the next element matched by the element path, {@link #MISSING} at the end of the document
+     */
+    private Object nextElement() throws IOException {
+      while ( true ) {
+        JsonToken token = parser.nextToken();
+        if ( token == null ) {
+          return MISSING;
+        }
+        Object element;
+        if ( stack.isEmpty() ) {
+          if ( started ) {
+            // only the first value of the document is read
+            return MISSING;
+          }
+          started = true;
+          element = matched( token, 0 );
+        } else if ( token == JsonToken.END_OBJECT || token == JsonToken.END_ARRAY ) {
+          stack.pop();
+          continue;
+        } else {
+          Frame frame = stack.peek();
+          Segment segment = elementPath[ frame.segment ];
+          boolean matches;
+          if ( frame.array ) {
+            matches = segment.matchesIndex( frame.index++ );
+          } else {
+            // on the field name
+            matches = segment.matchesProperty( parser.getCurrentName() );
+            token = parser.nextToken();
+          }
+          if ( matches ) {
+            element = matched( token, frame.segment + 1 );
+          } else {
+            parser.skipChildren();
+            continue;
+          }
+        }
+        if ( element != MISSING ) {
+          return element;
+        }
+      }
+    }
+
+    /**
+     * The value at the token matched the first segments of the element path.
+     *
+     * @return the value if it's an element, {@link #MISSING} otherwise
+     */
+    private Object matched( JsonToken token, int segments ) throws IOException {
+      if ( segments == elementPath.length ) {
+        return readValue( token );
+      }
+      Segment segment = elementPath[ segments ];
+      if ( token == JsonToken.START_OBJECT && ( segment.name != null || segment.wildcard ) ) {
+        stack.push( new Frame( segments, false ) );
+      } else if ( token == JsonToken.START_ARRAY && segment.name == null ) {
+        // an index or a wildcard
+        stack.push( new Frame( segments, true ) );
+      } else {
+        parser.skipChildren();
+      }
+      return MISSING;
+    }
+
+    /**
+     * Reads the value at the token into the types the tree reader uses.
+     */
+    private Object readValue( JsonToken token ) throws IOException {
+      switch ( token ) {
+        case START_OBJECT:
+          Map<String, Object> object = new LinkedHashMap<>();
+          while ( parser.nextToken() == JsonToken.FIELD_NAME ) {
+            String name = parser.getCurrentName();
+            object.put( name, readValue( parser.nextToken() ) );
+          }
+          return object;
+        case START_ARRAY:
+          JSONArray array = new JSONArray();
+          JsonToken next;
+          while ( ( next = parser.nextToken() ) != JsonToken.END_ARRAY ) {
+            array.add( readValue( next ) );
+          }
+          return array;
+        case VALUE_STRING:
+          return parser.getText();
+        case VALUE_NUMBER_INT:
+          return parser.getNumberValue();
+        case VALUE_NUMBER_FLOAT:
+          String text = parser.getText();
+          return text.length() > MAX_DOUBLE_LENGTH ? new BigDecimal( text ) : (Object) Double.valueOf( text );
+        case VALUE_TRUE:
+          return Boolean.TRUE;
+        case VALUE_FALSE:
+          return Boolean.FALSE;
+        case VALUE_NULL:
+          return null;
+        default:
+          throw new IOException( "Unexpected token " + token );
+      }
+    }
+
+    private Object evaluate( Object element, Segment[] path ) {
+      Object value = element;
+      for ( Segment segment : path ) {
+        if ( segment.name != null && value instanceof Map ) {
+          Map<?, ?> map = (Map<?, ?>) value;
+          if ( !map.containsKey( segment.name ) ) {
+            return MISSING;
+          }
+          value = map.get( segment.name );
+        } else if ( segment.name == null && value instanceof List && segment.index < ( (List<?>) value ).size() ) {
+          value = ( (List<?>) value ).get( segment.index );
+        } else {
+          return MISSING;
+        }
+      }
+      return value;
+    }
+
+    @Override
+    public int size() {
+      return done ? 0 : 1;
+    }
+
+    @Override
+    public boolean isDone() {
+      return done;
+    }
+
+    @Override
+    public void clear() {
+      close();
+    }
+
+    @Override
+    public void close() {
+      if ( !done ) {
+        done = true;
+        try {
+          parser.close();
+          in.close();
+        } catch ( IOException e ) {
+          log.logError( e.getLocalizedMessage(), e );
+        }
+      }
+    }
+  }
+}
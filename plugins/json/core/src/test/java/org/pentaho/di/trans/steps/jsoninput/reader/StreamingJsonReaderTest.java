@@ -0,0 +1,211 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.jsoninput.reader;
+
+import org.junit.Test;
+import org.pentaho.di.core.RowSet;
+import org.pentaho.di.core.logging.LogChannelInterface;
+import org.pentaho.di.trans.steps.jsoninput.exception.JsonInputException;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+
+public class StreamingJsonReaderTest {
+  private static final String BOOKS = "{ \"store\": { \"name\": \"main\", \"book\": ["
+    + "{ \"title\": \"Sayings\", \"price\": 8.95, \"tags\": [ \"a\", \"b\" ], \"stock\": { \"count\": 3 } },"
+    + "{ \"title\": \"Sword\", \"price\": 12, \"isbn\": null },"
+    + "{ \"price\": 22.99, \"stock\": { \"count\": 12345678901 } }"
+    + "], \"bicycle\": { \"color\": \"red\" } } }";
+
+  private final LogChannelInterface logMock = mock( LogChannelInterface.class );
+
+  private StreamingJsonReader reader( boolean ignoreMissingPath, boolean includeNulls, String... paths ) {
+    StreamingJsonReader reader = StreamingJsonReader.create( paths, ignoreMissingPath, includeNulls, logMock );
+    assertNotNull( reader );
+    return reader;
+  }
+
+  private static InputStream json( String json ) {
+    return new ByteArrayInputStream( json.getBytes( StandardCharsets.UTF_8 ) );
+  }
+
+  private static List<Object[]> readAll( RowSet rowSet ) {
+    List<Object[]> rows = new ArrayList<>();
+    Object[] row;
+    while ( ( row = rowSet.getRow() ) != null ) {
+      rows.add( row );
+    }
+    assertTrue( rowSet.isDone() );
+    return rows;
+  }
+
+  @Test
+  public void testSupportedPaths() {
+    assertNotNull( StreamingJsonReader.create( new String[] { "$.a[*].b", "$['a'][*]['c'][0]" }, true, false,
+      logMock ) );
+    assertNotNull( StreamingJsonReader.create( new String[] { "$[*]" }, true, false, logMock ) );
+    assertNotNull( StreamingJsonReader.create( new String[] { "$.a[*].b[*].c", "$.a[*].b[*]" }, true, false,
+      logMock ) );
+  }
+
+  @Test
+  public void testUnsupportedPaths() {
+    String[][] unsupported = {
+      {},
+      { "$.a.b" },
+      { "$..b[*]" },
+      { "$.a.*" },
+      { "$.a[?(@.b > 1)]" },
+      { "$.a[0,1]" },
+      { "$.a[1:3]" },
+      { "$.a.length()" },
+      { "a[*].b" },
+      { "$.a[*].b", "$.c[*].b" },
+      { "$.a[*].b", "$.a[*].b[*]" },
+    };
+    for ( String[] paths : unsupported ) {
+      assertNull( Arrays.toString( paths ), StreamingJsonReader.create( paths, true, false, logMock ) );
+    }
+  }
+
+  @Test
+  public void testRowPerElement() throws Exception {
+    RowSet rowSet = reader( true, false, "$.store.book[*].title", "$.store.book[*].price",
+      "$.store.book[*].stock.count", "$.store.book[*].tags[1]" ).parse( json( BOOKS ) );
+    List<Object[]> rows = readAll( rowSet );
+    assertEquals( 3, rows.size() );
+    assertArrayEquals( new Object[] { "Sayings", 8.95, 3, "b" }, rows.get( 0 ) );
+    assertArrayEquals( new Object[] { "Sword", 12, null, null }, rows.get( 1 ) );
+    assertArrayEquals( new Object[] { null, 22.99, 12345678901L, null }, rows.get( 2 ) );
+    assertNull( rowSet.getRow() );
+  }
+
+  @Test
+  public void testElementsReadAsTree() throws Exception {
+    List<Object[]> rows = readAll( reader( true, false, "$.store.book[*]" ).parse( json( BOOKS ) ) );
+    assertEquals( 3, rows.size() );
+    Map<?, ?> book = (Map<?, ?>) rows.get( 0 )[ 0 ];
+    assertEquals( Arrays.asList( "title", "price", "tags", "stock" ), new ArrayList<>( book.keySet() ) );
+    assertEquals( Arrays.asList( "a", "b" ), book.get( "tags" ) );
+    assertTrue( ( (Map<?, ?>) rows.get( 1 )[ 0 ] ).containsKey( "isbn" ) );
+  }
+
+  @Test
+  public void testWildcardOnObject() throws Exception {
+    List<Object[]> rows = readAll( reader( true, false, "$.store[*].color" ).parse( json( BOOKS ) ) );
+    assertEquals( 1, rows.size() );
+    assertEquals( "red", rows.get( 0 )[ 0 ] );
+  }
+
+  @Test
+  public void testNestedWildcards() throws Exception {
+    List<Object[]> rows = readAll( reader( true, false, "$[*].items[*].id" )
+      .parse( json( "[ { \"items\": [ { \"id\": 1 }, { \"id\": 2 } ] }, { \"items\": [] },"
+        + " { \"items\": [ { \"id\": 3 } ] } ]" ) ) );
+    assertEquals( 3, rows.size() );
+    assertEquals( 1, rows.get( 0 )[ 0 ] );
+    assertEquals( 2, rows.get( 1 )[ 0 ] );
+    assertEquals( 3, rows.get( 2 )[ 0 ] );
+  }
+
+  @Test
+  public void testNumbers() throws Exception {
+    List<Object[]> rows = readAll( reader( true, false, "$[*]" )
+      .parse( json( "[ 1, 12345678901, 123456789012345678901, 1.5, 0.12345678901234567890123 ]" ) ) );
+    assertEquals( 1, rows.get( 0 )[ 0 ] );
+    assertEquals( 12345678901L, rows.get( 1 )[ 0 ] );
+    assertEquals( "123456789012345678901", rows.get( 2 )[ 0 ].toString() );
+    assertEquals( 1.5, rows.get( 3 )[ 0 ] );
+    assertEquals( new BigDecimal( "0.12345678901234567890123" ), rows.get( 4 )[ 0 ] );
+  }
+
+  @Test
+  public void testNullRows() throws Exception {
+    String json = "{ \"a\": [ { \"b\": 1 }, { \"c\": 2 }, { \"b\": null }, { \"b\": 4 } ] }";
+    List<Object[]> rows = readAll( reader( true, false, "$.a[*].b" ).parse( json( json ) ) );
+    assertEquals( 2, rows.size() );
+    assertEquals( 4, rows.get( 1 )[ 0 ] );
+
+    rows = readAll( reader( true, true, "$.a[*].b" ).parse( json( json ) ) );
+    assertEquals( 4, rows.size() );
+    assertNull( rows.get( 1 )[ 0 ] );
+
+    // a single element is kept even if null
+    rows = readAll( reader( true, false, "$.a[*].b" ).parse( json( "{ \"a\": [ { \"c\": 2 } ] }" ) ) );
+    assertEquals( 1, rows.size() );
+    assertNull( rows.get( 0 )[ 0 ] );
+  }
+
+  @Test
+  public void testNoElements() throws Exception {
+    List<Object[]> rows = readAll( reader( true, false, "$.a[*].b", "$.a[*].c" ).parse( json( "{ \"a\": [] }" ) ) );
+    assertEquals( 1, rows.size() );
+    assertArrayEquals( new Object[ 2 ], rows.get( 0 ) );
+  }
+
+  @Test
+  public void testMissingPathAfterRows() throws Exception {
+    RowSet rowSet = reader( false, false, "$.a[*].b", "$.a[*].c" )
+      .parse( json( "{ \"a\": [ { \"b\": 1 }, { \"b\": 2 } ] }" ) );
+    assertNotNull( rowSet.getRow() );
+    assertNotNull( rowSet.getRow() );
+    try {
+      rowSet.getRow();
+      fail( "missing path not reported" );
+    } catch ( StreamingJsonReader.ReadException e ) {
+      assertTrue( e.getCause() instanceof JsonInputException );
+    }
+    assertTrue( rowSet.isDone() );
+    assertNull( rowSet.getRow() );
+  }
+
+  @Test
+  public void testMalformedDocument() throws Exception {
+    RowSet rowSet = reader( true, false, "$.a[*].b" ).parse( json( "{ \"a\": [ { \"b\": 1 }, { \"b\": " ) );
+    assertNotNull( rowSet.getRow() );
+    try {
+      rowSet.getRow();
+      fail( "malformed document not reported" );
+    } catch ( StreamingJsonReader.ReadException e ) {
+      assertTrue( e.getCause() instanceof JsonInputException );
+    }
+    assertTrue( rowSet.isDone() );
+  }
+
+  @Test
+  public void testCloseStopsReading() throws Exception {
+    RowSet rowSet = reader( true, false, "$.store.book[*].title" ).parse( json( BOOKS ) );
+    assertFalse( rowSet.isDone() );
+    assertEquals( "Sayings", rowSet.getRow()[ 0 ] );
+    ( (Closeable) rowSet ).close();
+    assertTrue( rowSet.isDone() );
+    assertNull( rowSet.getRow() );
+  }
+}
@@ -24,7 +24,6 @@ import org.pentaho.di.trans.step.StepInterface;
 import org.pentaho.di.trans.step.StepMeta;
 import org.pentaho.di.trans.step.StepMetaInterface;
 import org.pentaho.di.trans.streaming.common.BaseStreamStep;
-import org.pentaho.di.trans.streaming.common.FixedTimeStreamWindow;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -97,8 +96,7 @@ public class KafkaConsumerInput extends BaseStreamStep implements StepInterface
     consumer.subscribe( topics );
 
     source = new KafkaStreamSource( consumer, kafkaConsumerInputMeta, kafkaConsumerInputData, variables, this );
-    window = new FixedTimeStreamWindow<>( getSubtransExecutor(), kafkaConsumerInputData.outputRowMeta, getDuration(),
-            getBatchSize(), getParallelism(), kafkaConsumerInputMeta.isAutoCommit() ? p -> {
+    window = createWindow( kafkaConsumerInputData.outputRowMeta, kafkaConsumerInputMeta.isAutoCommit() ? p -> {
     } : this::commitOffsets );
   }
 
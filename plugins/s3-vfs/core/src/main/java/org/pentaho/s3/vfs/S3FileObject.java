@@ -80,6 +80,12 @@ public class S3FileObject extends S3CommonFileObject {
     }
   }
 
+  @Override
+  protected InputStream getRangedInputStream( String key, String bucket, long start, long end ) {
+    SimpleEntry<String, String> newPath = fixFilePath( key, bucket );
+    return super.getRangedInputStream( newPath.getKey(), newPath.getValue(), start, end );
+  }
+
   private boolean bucketExists( String bucket ) {
     boolean bucketExists = false;
     try {
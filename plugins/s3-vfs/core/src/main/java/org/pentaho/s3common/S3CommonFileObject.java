@@ -71,10 +71,33 @@ public abstract class S3CommonFileObject extends AbstractFileObject<S3CommonFile
   protected InputStream doGetInputStream() throws Exception {
     logger.debug( "Accessing content {}", getQualifiedName() );
     closeS3Object();
+    long size = s3ObjectMetadata == null ? -1 : s3ObjectMetadata.getContentLength();
+    if ( fileSystem.getParallelism() > 1 && size > fileSystem.getReadChunkSize() ) {
+      return getRangedInputStream( key, bucketName, 0, size );
+    }
     S3Object streamS3Object = getS3Object();
     return new S3CommonFileInputStream( streamS3Object.getObjectContent(), streamS3Object );
   }
 
+  /**
+   * Reads a byte range of this object only, with parallel ranged GET requests.
+   *
+   * @param start the first byte to read
+   * @param end   the position after the last byte to read, capped to the size of the object
+   * @return the content of the range
+   * @throws FileSystemException in case the size of the object can't be determined
+   */
+  public InputStream getInputStream( long start, long end ) throws FileSystemException {
+    long size = getContent().getSize();
+    return getRangedInputStream( key, bucketName, Math.min( start, size ), Math.min( end, size ) );
+  }
+
+  protected InputStream getRangedInputStream( String key, String bucket, long start, long end ) {
+    logger.debug( "Accessing content {} from {} to {}", getQualifiedName(), start, end );
+    return new S3CommonParallelInputStream( fileSystem.getS3Client(), bucket, key, start, end,
+      fileSystem.getReadChunkSize(), fileSystem.getParallelism() );
+  }
+
   @Override
   public Path getPath() {
     // default impl will only work for schemes registered with nio
@@ -72,6 +72,12 @@ public abstract class S3CommonFileSystem extends AbstractFileSystem {
   private static final long MIN_PART_SIZE_BYTES = STATIC_STORAGE_UNIT_CONVERTER.displaySizeToByteCount( MIN_PART_SIZE );
   private static final long MAX_PART_SIZE_BYTES = STATIC_STORAGE_UNIT_CONVERTER.displaySizeToByteCount( MAX_PART_SIZE );
 
+  // Parallel transfer constants
+  private static final int DEFAULT_PARALLELISM = 4;
+  private static final int DEFAULT_READ_CHUNK_SIZE = 8 * 1024 * 1024;
+  private static final int MIN_READ_CHUNK_SIZE = 64 * 1024;
+  private static final int MAX_READ_CHUNK_SIZE = 512 * 1024 * 1024;
+
   // S3 client and connection state
   private AmazonS3 client;
   private String awsAccessKeyCache;
@@ -282,6 +288,44 @@ public abstract class S3CommonFileSystem extends AbstractFileSystem {
     return parsePartSize( s3KettleProperty.getPartSize() );
   }
 
+  /**
+   * @return the number of ranged GET requests and part uploads in flight for one file, 1 to read and write with a
+   * single request at the time
+   */
+  public int getParallelism() {
+    String parallelism = s3KettleProperty.getParallelism();
+    if ( parallelism == null || parallelism.trim().isEmpty() ) {
+      return DEFAULT_PARALLELISM;
+    }
+    try {
+      return Math.max( 1, Integer.parseInt( parallelism.trim() ) );
+    } catch ( NumberFormatException e ) {
+      if ( logger.isWarnEnabled() ) {
+        logger.warn( BaseMessages.getString( PKG, "WARN.S3Common.InvalidParallelism", parallelism,
+          DEFAULT_PARALLELISM ) );
+      }
+      return DEFAULT_PARALLELISM;
+    }
+  }
+
+  /**
+   * @return the number of bytes fetched with one ranged GET request
+   */
+  public int getReadChunkSize() {
+    String chunkSize = s3KettleProperty.getReadChunkSize();
+    if ( chunkSize == null || chunkSize.trim().isEmpty() ) {
+      return DEFAULT_READ_CHUNK_SIZE;
+    }
+    long bytes = convertToLong( chunkSize );
+    if ( bytes < MIN_READ_CHUNK_SIZE ) {
+      if ( logger.isWarnEnabled() ) {
+        logger.warn( BaseMessages.getString( PKG, "WARN.S3Common.DefaultReadChunkSize", chunkSize ) );
+      }
+      return DEFAULT_READ_CHUNK_SIZE;
+    }
+    return (int) Long.min( MAX_READ_CHUNK_SIZE, bytes );
+  }
+
   protected long parsePartSize( String partSizeString ) {
     long parsePartSize = convertToLong( partSizeString );
     if ( parsePartSize < MIN_PART_SIZE_BYTES ) {
@@ -0,0 +1,239 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.s3common;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.S3Object;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * InputStream that reads a byte range of an S3 object with several ranged GET requests at the same time. The range is
+ * cut in chunks, up to <code>parallelism</code> chunks are fetched ahead of the reader. Chunk buffers are reused, so
+ * a stream never holds more than <code>parallelism + 1</code> chunks in memory.
+ */
+public class S3CommonParallelInputStream extends InputStream {
+
+  private static ExecutorService readers;
+  private static int nrReaders;
+
+  private final AmazonS3 client;
+  private final String bucket;
+  private final String key;
+  private final long end;
+  private final int chunkSize;
+  private final int parallelism;
+
+  private final Deque<Future<Chunk>> pending = new ArrayDeque<>();
+  private final Deque<byte[]> freeBuffers = new ArrayDeque<>();
+  private Chunk current;
+  private int currentPosition;
+  private long position;
+  private long nextFetch;
+  private boolean closed;
+
+  /**
+   * @param client      the client to send the requests with
+   * @param bucket      the bucket of the object
+   * @param key         the key of the object
+   * @param start       the first byte to read
+   * @param end         the position after the last byte to read, at most the size of the object
+   * @param chunkSize   the number of bytes to fetch with one request
+   * @param parallelism the number of requests in flight
+   */
+  public S3CommonParallelInputStream( AmazonS3 client, String bucket, String key, long start, long end, int chunkSize,
+                                      int parallelism ) {
+    this.client = client;
+    this.bucket = bucket;
+    this.key = key;
+    this.end = end;
+    this.chunkSize = chunkSize;
+    this.parallelism = Math.max( 1, parallelism );
+    this.position = start;
+    this.nextFetch = start;
+  }
+
+  private static synchronized ExecutorService getReaders( int threads ) {
+    if ( readers == null || nrReaders < threads ) {
+      if ( readers != null ) {
+        readers.shutdown();
+      }
+      AtomicInteger threadNr = new AtomicInteger();
+      readers = Executors.newFixedThreadPool( threads, runnable -> {
+        Thread thread = new Thread( runnable, "S3 ranged reader " + threadNr.incrementAndGet() );
+        thread.setDaemon( true );
+        return thread;
+      } );
+      nrReaders = threads;
+    }
+    return readers;
+  }
+
+  @Override
+  public int read() throws IOException {
+    if ( !ensureChunk() ) {
+      return -1;
+    }
+    position++;
+    return current.data[ currentPosition++ ] & 0xff;
+  }
+
+  @Override
+  public int read( byte[] b, int off, int len ) throws IOException {
+    if ( len == 0 ) {
+      return 0;
+    }
+    if ( !ensureChunk() ) {
+      return -1;
+    }
+    int n = Math.min( len, current.length - currentPosition );
+    System.arraycopy( current.data, currentPosition, b, off, n );
+    currentPosition += n;
+    position += n;
+    return n;
+  }
+
+  /**
+   * Skips within the current chunk without a request, further skips drop the chunks fetched so far and continue
+   * reading at the new position.
+   */
+  @Override
+  public long skip( long n ) throws IOException {
+    ensureOpen();
+    long skip = Math.min( Math.max( 0, n ), end - position );
+    if ( skip == 0 ) {
+      return 0;
+    }
+    if ( current != null && skip <= current.length - currentPosition ) {
+      currentPosition += (int) skip;
+    } else {
+      releaseCurrent();
+      cancelPending();
+      nextFetch = position + skip;
+    }
+    position += skip;
+    return skip;
+  }
+
+  @Override
+  public int available() {
+    return current == null ? 0 : current.length - currentPosition;
+  }
+
+  @Override
+  public void close() {
+    if ( !closed ) {
+      closed = true;
+      cancelPending();
+      current = null;
+      freeBuffers.clear();
+    }
+  }
+
+  public long getPosition() {
+    return position;
+  }
+
+  private boolean ensureChunk() throws IOException {
+    ensureOpen();
+    if ( current != null && currentPosition < current.length ) {
+      return true;
+    }
+    releaseCurrent();
+    if ( position >= end ) {
+      return false;
+    }
+    fillPending();
+    try {
+      current = pending.removeFirst().get();
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException( "Interrupted while reading s3://" + bucket + "/" + key );
+    } catch ( ExecutionException e ) {
+      if ( e.getCause() instanceof IOException ) {
+        throw (IOException) e.getCause();
+      }
+      throw new IOException( e.getCause() );
+    }
+    currentPosition = 0;
+    fillPending();
+    return current.length > 0;
+  }
+
+  private void fillPending() {
+    while ( pending.size() < parallelism && nextFetch < end ) {
+      final long from = nextFetch;
+      final int length = (int) Math.min( chunkSize, end - from );
+      final byte[] buffer = freeBuffers.isEmpty() ? new byte[ chunkSize ] : freeBuffers.removeFirst();
+      pending.add( getReaders( parallelism ).submit( () -> fetch( from, buffer, length ) ) );
+      nextFetch += length;
+    }
+  }
+
+  private Chunk fetch( long from, byte[] buffer, int length ) throws IOException {
+    GetObjectRequest request = new GetObjectRequest( bucket, key ).withRange( from, from + length - 1 );
+    try ( S3Object object = client.getObject( request ); InputStream in = object.getObjectContent() ) {
+      int read = 0;
+      while ( read < length ) {
+        int n = in.read( buffer, read, length - read );
+        if ( n < 0 ) {
+          throw new EOFException( "Unexpected end of s3://" + bucket + "/" + key + " at " + ( from + read ) );
+        }
+        read += n;
+      }
+      return new Chunk( buffer, length );
+    }
+  }
+
+  private void releaseCurrent() {
+    if ( current != null ) {
+      freeBuffers.add( current.data );
+      current = null;
+    }
+  }
+
+  private void cancelPending() {
+    for ( Future<Chunk> future : pending ) {
+      future.cancel( true );
+    }
+    pending.clear();
+  }
+
+  private void ensureOpen() throws IOException {
+    if ( closed ) {
+      throw new IOException( "Stream closed" );
+    }
+  }
+
+  private static class Chunk {
+    private final byte[] data;
+    private final int length;
+
+    Chunk( byte[] data, int length ) {
+      this.data = data;
+      this.length = length;
+    }
+  }
+}
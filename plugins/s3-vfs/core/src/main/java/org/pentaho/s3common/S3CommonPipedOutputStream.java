@@ -26,20 +26,21 @@ import org.pentaho.di.i18n.BaseMessages;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.PipedInputStream;
 import java.io.PipedOutputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.ThreadPoolExecutor;
 
 /**
- * Custom OutputStream that enables chunked uploads into S3
+ * Custom OutputStream that enables chunked uploads into S3. Parts are uploaded concurrently, up to the parallelism of
+ * the file system, as long as the parts being uploaded take at most parallelism times the initial part size of memory.
  */
 public class S3CommonPipedOutputStream extends PipedOutputStream {
 
@@ -51,6 +52,11 @@ public class S3CommonPipedOutputStream extends PipedOutputStream {
    * set to aws multipart minimum 5MB.
    */
   private static final int DEFAULT_PART_SIZE = 5 * 1024 * 1024;
+  /**
+   * number of parts uploaded before the part size doubles.
+   */
+  private static final int PARTS_PER_SIZE = 500;
+  private static final int MAX_ADAPTIVE_PART_SIZE = 1024 * 1024 * 1024;
   private ThreadPoolExecutor executor = (ThreadPoolExecutor) Executors.newFixedThreadPool( 1 );
   private boolean initialized = false;
   private boolean blockedUntilDone = true;
@@ -130,11 +136,21 @@ public class S3CommonPipedOutputStream extends PipedOutputStream {
     this.executor.shutdown();
   }
 
+  /**
+   * S3 allows 10,000 parts per upload: the part size doubles every 500 parts, up to 1GB, so that objects up to the
+   * maximum object size can be written starting from the minimum part size.
+   */
+  int getPartSize( int partNum ) {
+    long size = (long) partSize << Math.min( 20, ( partNum - 1 ) / PARTS_PER_SIZE );
+    return (int) Math.max( partSize, Math.min( MAX_ADAPTIVE_PART_SIZE, size ) );
+  }
+
   class S3AsyncTransferRunner implements Callable<Boolean> {
 
     public Boolean call() throws Exception {
       boolean returnVal = true;
-      List<PartETag> partETags = new ArrayList<>();
+      List<Future<PartETag>> uploads = new ArrayList<>();
+      ExecutorService uploaders = null;
 
       // Step 1: Initialize
       InitiateMultipartUploadRequest initRequest;
@@ -143,64 +159,66 @@ public class S3CommonPipedOutputStream extends PipedOutputStream {
       InitiateMultipartUploadResult initResponse = null;
 
       // NOTE: byte[] max size is ~2GB < 5GB = aws api max part size
-      try ( ByteArrayOutputStream baos = new ByteArrayOutputStream( partSize );
-            BufferedInputStream bis = new BufferedInputStream( pipedInputStream, partSize ) ) {
+      try {
         initResponse = fileSystem.getS3Client().initiateMultipartUpload( initRequest );
-        // Step 2: Upload parts.
-        byte[] tmpBuffer = new byte[ partSize ];
-        int read = 0;
+        final String uploadId = initResponse.getUploadId();
+        int parallelism = Math.max( 1, fileSystem.getParallelism() );
+        uploaders = Executors.newFixedThreadPool( parallelism, runnable -> {
+          Thread thread = new Thread( runnable, "S3 part upload " + bucketId + "/" + key );
+          thread.setDaemon( true );
+          return thread;
+        } );
+
+        // Step 2: Upload parts, up to parallelism parts and parallelism times the initial part size at the same time.
+        // The memory of a part larger than that is only taken once the other parts are uploaded.
+        long maxBytesInFlight = (long) parallelism * partSize;
+        long bytesInFlight = 0;
+        List<Integer> uploadSizes = new ArrayList<>();
         long offset = 0;
-        long totalRead = 0;
         int partNum = 1;
-
-        S3CommonWindowedSubstream s3is;
+        int done = 0;
+        int nextByte = -1;
+        boolean lastPart = false;
         logger.info( BaseMessages.getString( PKG, "INFO.S3MultiPart.Start" ) );
-        while ( ( read = bis.read( tmpBuffer ) ) >= 0 ) {
-
-          // if something was actually read
-          if ( read > 0 ) {
-            baos.write( tmpBuffer, 0, read );
-            totalRead += read;
+        while ( !lastPart ) {
+          int size = getPartSize( partNum );
+          while ( done < uploads.size()
+            && ( uploads.size() - done >= parallelism || bytesInFlight + size > maxBytesInFlight ) ) {
+            uploads.get( done ).get();
+            bytesInFlight -= uploadSizes.get( done++ );
           }
-
-          if ( totalRead > partSize ) {
-            s3is = new S3CommonWindowedSubstream( baos.toByteArray() );
-
-            UploadPartRequest uploadRequest = new UploadPartRequest()
-              .withBucketName( bucketId ).withKey( key )
-              .withUploadId( initResponse.getUploadId() ).withPartNumber( partNum++ )
-              .withFileOffset( offset )
-              .withPartSize( totalRead )
-              .withInputStream( s3is );
-
-            // Upload part and add response to our list.
-            logger.info( BaseMessages.getString( PKG, "INFO.S3MultiPart.Upload", partNum - 1, offset, Long.toString( totalRead ) ) );
-            partETags.add( fileSystem.getS3Client().uploadPart( uploadRequest ).getPartETag() );
-
-            offset += totalRead;
-            totalRead = 0; // reset part size counter
-            baos.reset(); // reset output stream to 0
+          byte[] part = new byte[ size ];
+          int read = 0;
+          if ( nextByte >= 0 ) {
+            part[ read++ ] = (byte) nextByte;
           }
+          read += readFully( part, read );
+          // Read one byte ahead of a full part, so that the last part is flagged even when it's full
+          if ( read < part.length ) {
+            lastPart = true;
+          } else {
+            nextByte = pipedInputStream.read();
+            lastPart = nextByte < 0;
+          }
+          final byte[] data = read < part.length ? Arrays.copyOf( part, read ) : part;
+          final int number = partNum++;
+          final long partOffset = offset;
+          final boolean last = lastPart;
+          uploads.add( uploaders.submit( () -> uploadPart( uploadId, number, partOffset, data, last ) ) );
+          uploadSizes.add( data.length );
+          bytesInFlight += data.length;
+          offset += read;
         }
 
-        // Step 2.1 upload last part
-        s3is = new S3CommonWindowedSubstream( baos.toByteArray() );
-
-        UploadPartRequest uploadRequest = new UploadPartRequest()
-          .withBucketName( bucketId ).withKey( key )
-          .withUploadId( initResponse.getUploadId() ).withPartNumber( partNum++ )
-          .withFileOffset( offset )
-          .withPartSize( totalRead )
-          .withInputStream( s3is )
-          .withLastPart( true );
-
-        logger.info( BaseMessages.getString( PKG, "INFO.S3MultiPart.Upload", partNum - 1, offset, totalRead ) );
-        partETags.add( fileSystem.getS3Client().uploadPart( uploadRequest ).getPartETag() );
+        List<PartETag> partETags = new ArrayList<>();
+        for ( Future<PartETag> upload : uploads ) {
+          partETags.add( upload.get() );
+        }
 
         // Step 3: Complete.
         logger.info( BaseMessages.getString( PKG, "INFO.S3MultiPart.Complete" ) );
         CompleteMultipartUploadRequest compRequest =
-          new CompleteMultipartUploadRequest( bucketId, key, initResponse.getUploadId(), partETags );
+          new CompleteMultipartUploadRequest( bucketId, key, uploadId, partETags );
 
         fileSystem.getS3Client().completeMultipartUpload( compRequest );
       } catch ( OutOfMemoryError oome ) {
@@ -210,6 +228,9 @@ public class S3CommonPipedOutputStream extends PipedOutputStream {
         returnVal = false;
       } catch ( Exception e ) {
         logger.error( BaseMessages.getString( PKG, "ERROR.S3MultiPart.ExceptionCaught" ), e );
+        for ( Future<PartETag> upload : uploads ) {
+          upload.cancel( true );
+        }
         if ( initResponse == null ) {
           close();
         } else {
@@ -218,9 +239,40 @@ public class S3CommonPipedOutputStream extends PipedOutputStream {
           logger.error( BaseMessages.getString( PKG, "ERROR.S3MultiPart.Aborted" ) );
         }
         returnVal = false;
+      } finally {
+        if ( uploaders != null ) {
+          uploaders.shutdown();
+        }
       }
 
       return returnVal;
     }
+
+    private int readFully( byte[] part, int offset ) throws IOException {
+      int read = offset;
+      while ( read < part.length ) {
+        int n = pipedInputStream.read( part, read, part.length - read );
+        if ( n < 0 ) {
+          break;
+        }
+        read += n;
+      }
+      return read - offset;
+    }
+
+    private PartETag uploadPart( String uploadId, int partNum, long offset, byte[] data, boolean lastPart ) {
+      UploadPartRequest uploadRequest = new UploadPartRequest()
+        .withBucketName( bucketId ).withKey( key )
+        .withUploadId( uploadId ).withPartNumber( partNum )
+        .withFileOffset( offset )
+        .withPartSize( data.length )
+        .withInputStream( new S3CommonWindowedSubstream( data ) )
+        .withLastPart( lastPart );
+
+      // Upload part and return the response for our list.
+      logger.info( BaseMessages.getString( PKG, "INFO.S3MultiPart.Upload", partNum, offset,
+        Long.toString( data.length ) ) );
+      return fileSystem.getS3Client().uploadPart( uploadRequest ).getPartETag();
+    }
   }
 }
@@ -30,11 +30,21 @@ public class S3KettleProperty {
   private static final Logger logger = LoggerFactory.getLogger( S3KettleProperty.class );
 
   public static final String S3VFS_PART_SIZE = "s3.vfs.partSize";
+  public static final String S3VFS_PARALLELISM = "s3.vfs.parallelism";
+  public static final String S3VFS_READ_CHUNK_SIZE = "s3.vfs.readChunkSize";
 
   public String getPartSize() {
     return getProperty( S3VFS_PART_SIZE );
   }
 
+  public String getParallelism() {
+    return getProperty( S3VFS_PARALLELISM );
+  }
+
+  public String getReadChunkSize() {
+    return getProperty( S3VFS_READ_CHUNK_SIZE );
+  }
+
   public String getProperty( String property ) {
     String filename =  Const.getKettlePropertiesFilename();
     Properties properties;
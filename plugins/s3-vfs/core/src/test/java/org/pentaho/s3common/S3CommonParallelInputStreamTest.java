@@ -0,0 +1,101 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+
+package org.pentaho.s3common;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.S3Object;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class S3CommonParallelInputStreamTest {
+
+  private static final int CHUNK = 1000;
+
+  private byte[] content;
+  private AmazonS3 client;
+
+  @Before
+  public void setUp() {
+    content = new byte[ 10500 ];
+    for ( int i = 0; i < content.length; i++ ) {
+      content[ i ] = (byte) ( i * 7 );
+    }
+    client = mock( AmazonS3.class );
+    when( client.getObject( any( GetObjectRequest.class ) ) ).thenAnswer( invocation -> {
+      long[] range = ( (GetObjectRequest) invocation.getArgument( 0 ) ).getRange();
+      S3Object object = new S3Object();
+      object.setObjectContent(
+        new ByteArrayInputStream( content, (int) range[ 0 ], (int) ( range[ 1 ] - range[ 0 ] + 1 ) ) );
+      return object;
+    } );
+  }
+
+  private byte[] readAll( InputStream in ) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    byte[] buffer = new byte[ 333 ];
+    int n;
+    while ( ( n = in.read( buffer ) ) >= 0 ) {
+      out.write( buffer, 0, n );
+    }
+    return out.toByteArray();
+  }
+
+  @Test
+  public void testReadsTheWholeObject() throws IOException {
+    try ( InputStream in = new S3CommonParallelInputStream( client, "bucket", "key", 0, content.length, CHUNK, 3 ) ) {
+      assertArrayEquals( content, readAll( in ) );
+    }
+    verify( client, atMost( 11 ) ).getObject( any( GetObjectRequest.class ) );
+  }
+
+  @Test
+  public void testReadsARangeOnly() throws IOException {
+    byte[] expected = new byte[ 2500 ];
+    System.arraycopy( content, 4200, expected, 0, expected.length );
+    try ( InputStream in = new S3CommonParallelInputStream( client, "bucket", "key", 4200, 6700, CHUNK, 4 ) ) {
+      assertArrayEquals( expected, readAll( in ) );
+    }
+    verify( client, atMost( 3 ) ).getObject( any( GetObjectRequest.class ) );
+  }
+
+  @Test
+  public void testSkip() throws IOException {
+    try ( S3CommonParallelInputStream in =
+            new S3CommonParallelInputStream( client, "bucket", "key", 0, content.length, CHUNK, 2 ) ) {
+      assertEquals( content[ 0 ] & 0xff, in.read() );
+      assertEquals( 10, in.skip( 10 ) );
+      assertEquals( content[ 11 ] & 0xff, in.read() );
+      assertEquals( 5000, in.skip( 5000 ) );
+      assertEquals( 5012, in.getPosition() );
+      assertEquals( content[ 5012 ] & 0xff, in.read() );
+      assertEquals( content.length - 5013, in.skip( Long.MAX_VALUE ) );
+      assertEquals( -1, in.read() );
+    }
+  }
+}
@@ -0,0 +1,140 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+
+package org.pentaho.s3common;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadResult;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.amazonaws.services.s3.model.UploadPartResult;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class S3CommonPipedOutputStreamTest {
+
+  private static final int PART_SIZE = 5 * 1024 * 1024;
+
+  private final Map<Integer, byte[]> parts = new TreeMap<>();
+  private final Map<Integer, Boolean> lastParts = new TreeMap<>();
+  private AmazonS3 client;
+  private S3CommonFileSystem fileSystem;
+
+  @Before
+  public void setUp() {
+    client = mock( AmazonS3.class );
+    InitiateMultipartUploadResult initResult = new InitiateMultipartUploadResult();
+    initResult.setUploadId( "upload" );
+    when( client.initiateMultipartUpload( any( InitiateMultipartUploadRequest.class ) ) ).thenReturn( initResult );
+    when( client.uploadPart( any( UploadPartRequest.class ) ) ).thenAnswer( invocation -> {
+      UploadPartRequest request = invocation.getArgument( 0 );
+      ByteArrayOutputStream part = new ByteArrayOutputStream();
+      try ( InputStream in = request.getInputStream() ) {
+        byte[] buffer = new byte[ 8192 ];
+        int n;
+        while ( ( n = in.read( buffer ) ) >= 0 ) {
+          part.write( buffer, 0, n );
+        }
+      }
+      synchronized ( parts ) {
+        parts.put( request.getPartNumber(), part.toByteArray() );
+        lastParts.put( request.getPartNumber(), request.isLastPart() );
+      }
+      UploadPartResult result = new UploadPartResult();
+      result.setPartNumber( request.getPartNumber() );
+      result.setETag( "etag" + request.getPartNumber() );
+      return result;
+    } );
+    fileSystem = mock( S3CommonFileSystem.class );
+    when( fileSystem.getS3Client() ).thenReturn( client );
+    when( fileSystem.getParallelism() ).thenReturn( 3 );
+  }
+
+  private byte[] upload( int length ) throws Exception {
+    byte[] content = new byte[ length ];
+    for ( int i = 0; i < content.length; i++ ) {
+      content[ i ] = (byte) ( i * 13 );
+    }
+    try ( S3CommonPipedOutputStream out = new S3CommonPipedOutputStream( fileSystem, "bucket", "key", PART_SIZE ) ) {
+      out.write( content, 0, content.length );
+    }
+    return content;
+  }
+
+  @Test
+  public void testPartsAreUploadedConcurrentlyAndCompletedInOrder() throws Exception {
+    byte[] content = upload( 3 * PART_SIZE + 12345 );
+
+    ArgumentCaptor<CompleteMultipartUploadRequest> complete =
+      ArgumentCaptor.forClass( CompleteMultipartUploadRequest.class );
+    verify( client ).completeMultipartUpload( complete.capture() );
+    List<PartETag> partETags = complete.getValue().getPartETags();
+    assertEquals( 4, partETags.size() );
+    for ( int i = 0; i < partETags.size(); i++ ) {
+      assertEquals( i + 1, partETags.get( i ).getPartNumber() );
+    }
+
+    ByteArrayOutputStream uploaded = new ByteArrayOutputStream();
+    for ( byte[] part : parts.values() ) {
+      uploaded.write( part );
+    }
+    assertArrayEquals( content, uploaded.toByteArray() );
+    assertEquals( Arrays.asList( false, false, false, true ), new ArrayList<>( lastParts.values() ) );
+  }
+
+  @Test
+  public void testFullLastPartIsFlagged() throws Exception {
+    upload( 2 * PART_SIZE );
+
+    assertEquals( 2, parts.size() );
+    assertEquals( PART_SIZE, parts.get( 2 ).length );
+    assertEquals( Arrays.asList( false, true ), new ArrayList<>( lastParts.values() ) );
+  }
+
+  @Test
+  public void testPartSizeGrowsToStayWithinThePartLimit() throws Exception {
+    S3CommonPipedOutputStream out =
+      new S3CommonPipedOutputStream( mock( S3CommonFileSystem.class ), "bucket", "key", PART_SIZE );
+    assertEquals( PART_SIZE, out.getPartSize( 1 ) );
+    assertEquals( PART_SIZE, out.getPartSize( 500 ) );
+    assertEquals( 2 * PART_SIZE, out.getPartSize( 501 ) );
+    assertEquals( 4 * PART_SIZE, out.getPartSize( 1001 ) );
+    assertEquals( 1024 * 1024 * 1024, out.getPartSize( 10000 ) );
+
+    long total = 0;
+    for ( int partNum = 1; partNum <= 10000; partNum++ ) {
+      total += out.getPartSize( partNum );
+    }
+    assertTrue( total > 5L * 1024 * 1024 * 1024 * 1024 );
+  }
+}
@@ -233,11 +233,14 @@ public class S3CsvInput extends BaseStep implements StepInterface {
       data.s3ObjectInputStream = null;
 
       // If we are running in parallel we only want to grab a part of the content, not everything.
+      // That is what is left of the block of this step copy, plus room for the row crossing the end of the block.
+      // In the next files we start reading at the beginning of the file.
       //
       if ( data.parallel ) {
+        long rangeStart = Math.max( 0L, data.bytesToSkipInFirstFile );
+        long rangeEnd = rangeStart + Math.max( 0L, data.blockToRead - data.totalBytesRead ) + data.maxLineSize * 2L;
         data.s3ObjectInputStream = new S3ObjectsProvider( data.s3Client )
-          .getS3Object( data.s3bucket, data.filenames[ data.filenr ], data.bytesToSkipInFirstFile,
-            data.bytesToSkipInFirstFile + data.blockToRead + data.maxLineSize * 2 ).getObjectContent();
+          .getS3Object( data.s3bucket, data.filenames[ data.filenr ], rangeStart, rangeEnd ).getObjectContent();
       } else {
         data.s3ObjectInputStream =
           new S3ObjectsProvider( data.s3Client ).getS3Object( data.s3bucket, data.filenames[ data.filenr ] )
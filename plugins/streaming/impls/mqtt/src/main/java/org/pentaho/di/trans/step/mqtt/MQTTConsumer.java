@@ -21,7 +21,6 @@ import org.pentaho.di.trans.step.StepInterface;
 import org.pentaho.di.trans.step.StepMeta;
 import org.pentaho.di.trans.step.StepMetaInterface;
 import org.pentaho.di.trans.streaming.common.BaseStreamStep;
-import org.pentaho.di.trans.streaming.common.FixedTimeStreamWindow;
 
 import static org.pentaho.di.i18n.BaseMessages.getString;
 
@@ -42,8 +41,7 @@ public class MQTTConsumer extends BaseStreamStep implements StepInterface {
 
     try {
       RowMeta rowMeta = mqttConsumerMeta.getRowMeta( getStepname(), this );
-      window =
-        new FixedTimeStreamWindow<>( getSubtransExecutor(), rowMeta, getDuration(), getBatchSize(), getParallelism() );
+      window = createWindow( rowMeta, p -> { } );
       source = new MQTTStreamSource( mqttConsumerMeta, this );
     } catch ( Exception e ) {
       getLogChannel().logError( getString( PKG, "MQTTInput.Error.FailureGettingFields" ), e );
@@ -593,18 +593,23 @@ public class GetXMLData extends BaseStep implements StepInterface {
           logDetailed( BaseMessages.getString( PKG, "GetXMLData.Log.OpeningFile", data.file.toString() ) );
         }
 
-        // Open the XML document
-        if ( !setDocument( null, data.file, false, false ) ) {
-          if ( data.stopPruning ) {
-            return false; // ignore error when stopped while pruning
+        if ( data.streamReader != null ) {
+          // the rows are read while parsing
+          openRecords( data.file );
+        } else {
+          // Open the XML document
+          if ( !setDocument( null, data.file, false, false ) ) {
+            if ( data.stopPruning ) {
+              return false; // ignore error when stopped while pruning
+            }
+            throw new KettleException( BaseMessages.getString( PKG, "GetXMLData.Log.UnableCreateDocument" ) );
           }
-          throw new KettleException( BaseMessages.getString( PKG, "GetXMLData.Log.UnableCreateDocument" ) );
-        }
 
-        // Apply XPath and set node list
-        if ( data.prunePath == null ) { // this was already done in processStreaming()
-          if ( !applyXPath() ) {
-            throw new KettleException( BaseMessages.getString( PKG, "GetXMLData.Log.UnableApplyXPath" ) );
+          // Apply XPath and set node list
+          if ( data.prunePath == null ) { // this was already done in processStreaming()
+            if ( !applyXPath() ) {
+              throw new KettleException( BaseMessages.getString( PKG, "GetXMLData.Log.UnableApplyXPath" ) );
+            }
           }
         }
 
@@ -612,8 +617,10 @@ public class GetXMLData extends BaseStep implements StepInterface {
 
         if ( log.isDetailed() ) {
           logDetailed( BaseMessages.getString( PKG, "GetXMLData.Log.FileOpened", data.file.toString() ) );
-          logDetailed( BaseMessages.getString( PKG, "GetXMLData.Log.LoopFileOccurences", "" + data.nodesize, data.file
-              .getName().getBaseName() ) );
+          if ( data.streamReader == null ) {
+            logDetailed( BaseMessages.getString( PKG, "GetXMLData.Log.LoopFileOccurences", "" + data.nodesize,
+                data.file.getName().getBaseName() ) );
+          }
         }
       }
     } catch ( Exception e ) {
@@ -626,6 +633,23 @@ public class GetXMLData extends BaseStep implements StepInterface {
     return true;
   }
 
+  private void openRecords( FileObject file ) throws KettleException {
+    closeRecords();
+    // get encoding. By default UTF-8
+    String encoding = "UTF-8";
+    if ( !Utils.isEmpty( meta.getEncoding() ) ) {
+      encoding = meta.getEncoding();
+    }
+    data.records = data.streamReader.read( KettleVFS.getInputStream( file ), encoding );
+  }
+
+  private void closeRecords() {
+    if ( data.records != null ) {
+      data.records.close();
+      data.records = null;
+    }
+  }
+
   public boolean processRow( StepMetaInterface smi, StepDataInterface sdi ) throws KettleException {
     if ( first && !meta.isInFields() ) {
       first = false;
@@ -682,6 +706,9 @@ public class GetXMLData extends BaseStep implements StepInterface {
 
   private Object[] getXMLRow() throws KettleException {
 
+    if ( data.streamReader != null ) {
+      return getStreamedXMLRow();
+    }
     if ( !meta.isInFields() ) {
       while ( ( data.nodenr >= data.nodesize || data.file == null ) ) {
         if ( !openNextFile() ) {
@@ -693,6 +720,24 @@ public class GetXMLData extends BaseStep implements StepInterface {
     return getXMLRowPutRowWithErrorhandling();
   }
 
+  private Object[] getStreamedXMLRow() throws KettleException {
+    data.errorInRowButContinue = false;
+    String[] values = null;
+    while ( values == null ) {
+      if ( data.records != null ) {
+        try {
+          values = data.records.next();
+        } catch ( KettleException e ) {
+          throw new KettleException( BaseMessages.getString( PKG, "GetXMLData.Error.UnableReadFile" ), e );
+        }
+      }
+      if ( values == null && !openNextFile() ) {
+        return null;
+      }
+    }
+    return processPutRow( null, values );
+  }
+
   private Object[] getXMLRowPutRowWithErrorhandling() throws KettleException {
     // Build an empty row based on the meta-data
     Object[] r;
@@ -718,6 +763,14 @@ public class GetXMLData extends BaseStep implements StepInterface {
   }
 
   private Object[] processPutRow( Node node ) throws KettleException {
+    return processPutRow( node, null );
+  }
+
+  /**
+   * @param node   the loop node to read the fields from
+   * @param values the values of the fields when streaming, the node is not used then
+   */
+  private Object[] processPutRow( Node node, String[] values ) throws KettleException {
     // Create new row...
     Object[] outputRowData = buildEmptyRow();
 
@@ -732,59 +785,17 @@ public class GetXMLData extends BaseStep implements StepInterface {
       for ( int i = 0; i < data.nrInputFields; i++ ) {
         // Get field
         GetXMLDataField xmlDataField = meta.getInputFields()[i];
-        // Get the Path to look for
-        String XPathValue = xmlDataField.getResolvedXPath();
-
-        if ( meta.isuseToken() ) {
-          // See if user use Token inside path field
-          // The syntax is : @_Fieldname-
-          // PDI will search for Fieldname value and replace it
-          // Fieldname must be defined before the current node
-          XPathValue = substituteToken( XPathValue, outputRowData );
-          if ( isDetailed() ) {
-            logDetailed( XPathValue );
-          }
-        }
 
         // Get node value
         String nodevalue;
-
-        Boolean xmlMissingTagYieldsNullValue = convertStringToBoolean(
-          Const.NVL( System.getProperty( Const.KETTLE_XML_MISSING_TAG_YIELDS_NULL_VALUE, "N" ), "N" ) );
-
-        // Handle namespaces
-        if ( meta.isNamespaceAware() ) {
-          XPath xpathField = node.createXPath( addNSPrefix( XPathValue, data.PathValue ) );
-          xpathField.setNamespaceURIs( data.NAMESPACE );
-          if ( xmlDataField.getResultType() == GetXMLDataField.RESULT_TYPE_VALUE_OF ) {
-            if ( xmlMissingTagYieldsNullValue ) {
-              nodevalue = xpathField.selectSingleNode( node ) != null ? xpathField.valueOf( node ) : null;
-            } else {
-              nodevalue = xpathField.valueOf( node );
-            }
-          } else {
-            Node n = xpathField.selectSingleNode( node );
-            if ( n != null ) {
-              nodevalue = n.asXML();
-            } else {
-              nodevalue = xmlMissingTagYieldsNullValue ? null : "";
-            }
+        if ( values != null ) {
+          nodevalue = values[i];
+          if ( nodevalue == null && !convertStringToBoolean(
+            Const.NVL( System.getProperty( Const.KETTLE_XML_MISSING_TAG_YIELDS_NULL_VALUE, "N" ), "N" ) ) ) {
+            nodevalue = "";
           }
         } else {
-          if ( xmlDataField.getResultType() == GetXMLDataField.RESULT_TYPE_VALUE_OF ) {
-            if ( xmlMissingTagYieldsNullValue ) {
-              nodevalue = node.selectSingleNode( XPathValue ) != null ? node.valueOf( XPathValue ) : null;
-            } else {
-              nodevalue = node.valueOf( XPathValue );
-            }
-          } else {
-            Node n = node.selectSingleNode( XPathValue );
-            if ( n != null ) {
-              nodevalue = n.asXML();
-            } else {
-              nodevalue = xmlMissingTagYieldsNullValue ? null : "";
-            }
-          }
+          nodevalue = readNodeValue( node, xmlDataField, outputRowData );
         }
 
         // Do trimming
@@ -884,6 +895,63 @@ public class GetXMLData extends BaseStep implements StepInterface {
     return outputRowData;
   }
 
+  private String readNodeValue( Node node, GetXMLDataField xmlDataField, Object[] outputRowData ) {
+    // Get the Path to look for
+    String XPathValue = xmlDataField.getResolvedXPath();
+
+    if ( meta.isuseToken() ) {
+      // See if user use Token inside path field
+      // The syntax is : @_Fieldname-
+      // PDI will search for Fieldname value and replace it
+      // Fieldname must be defined before the current node
+      XPathValue = substituteToken( XPathValue, outputRowData );
+      if ( isDetailed() ) {
+        logDetailed( XPathValue );
+      }
+    }
+
+    String nodevalue;
+
+    Boolean xmlMissingTagYieldsNullValue = convertStringToBoolean(
+      Const.NVL( System.getProperty( Const.KETTLE_XML_MISSING_TAG_YIELDS_NULL_VALUE, "N" ), "N" ) );
+
+    // Handle namespaces
+    if ( meta.isNamespaceAware() ) {
+      XPath xpathField = node.createXPath( addNSPrefix( XPathValue, data.PathValue ) );
+      xpathField.setNamespaceURIs( data.NAMESPACE );
+      if ( xmlDataField.getResultType() == GetXMLDataField.RESULT_TYPE_VALUE_OF ) {
+        if ( xmlMissingTagYieldsNullValue ) {
+          nodevalue = xpathField.selectSingleNode( node ) != null ? xpathField.valueOf( node ) : null;
+        } else {
+          nodevalue = xpathField.valueOf( node );
+        }
+      } else {
+        Node n = xpathField.selectSingleNode( node );
+        if ( n != null ) {
+          nodevalue = n.asXML();
+        } else {
+          nodevalue = xmlMissingTagYieldsNullValue ? null : "";
+        }
+      }
+    } else {
+      if ( xmlDataField.getResultType() == GetXMLDataField.RESULT_TYPE_VALUE_OF ) {
+        if ( xmlMissingTagYieldsNullValue ) {
+          nodevalue = node.selectSingleNode( XPathValue ) != null ? node.valueOf( XPathValue ) : null;
+        } else {
+          nodevalue = node.valueOf( XPathValue );
+        }
+      } else {
+        Node n = node.selectSingleNode( XPathValue );
+        if ( n != null ) {
+          nodevalue = n.asXML();
+        } else {
+          nodevalue = xmlMissingTagYieldsNullValue ? null : "";
+        }
+      }
+    }
+    return nodevalue;
+  }
+
   public String substituteToken( String aString, Object[] outputRowData ) {
     if ( aString == null ) {
       return null;
@@ -985,14 +1053,42 @@ public class GetXMLData extends BaseStep implements StepInterface {
         }
       }
 
+      data.streamReader = null;
+      if ( "Y".equalsIgnoreCase( getVariable( Const.KETTLE_GET_XML_DATA_STREAMING, "N" ) ) && !meta.isInFields()
+          && !meta.isValidating() && !meta.isNamespaceAware() && !meta.isuseToken() ) {
+        data.streamReader = createStreamReader();
+        if ( data.streamReader != null ) {
+          data.prunePath = null; // the whole file is streamed
+          if ( log.isDetailed() ) {
+            logDetailed( BaseMessages.getString( PKG, "GetXMLData.Log.StreamingMode.Activated" ) );
+          }
+        }
+      }
+
       return true;
     }
     return false;
   }
 
+  /**
+   * @return the reader streaming the loop and field paths, <code>null</code> if they need a document
+   */
+  private GetXMLDataStreamReader createStreamReader() {
+    String[] fieldPaths = new String[data.nrInputFields];
+    for ( int i = 0; i < data.nrInputFields; i++ ) {
+      GetXMLDataField xmlDataField = meta.getInputFields()[i];
+      if ( xmlDataField.getResultType() != GetXMLDataField.RESULT_TYPE_VALUE_OF ) {
+        return null;
+      }
+      fieldPaths[i] = xmlDataField.getResolvedXPath();
+    }
+    return GetXMLDataStreamReader.compile( data.PathValue, fieldPaths );
+  }
+
   public void dispose( StepMetaInterface smi, StepDataInterface sdi ) {
     meta = (GetXMLDataMeta) smi;
     data = (GetXMLDataData) sdi;
+    closeRecords();
     if ( data.file != null ) {
       try {
         data.file.close();
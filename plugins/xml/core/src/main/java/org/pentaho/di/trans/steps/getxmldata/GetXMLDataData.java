@@ -56,6 +56,8 @@ public class GetXMLDataData extends BaseStepData implements StepDataInterface {
   public String PathValue;
   public String prunePath; // identical to meta.getPrunePath() with some conditions set at init(), null when no pruning
   public boolean stopPruning; // used for a trick to stop the reader in pruning mode
+  public GetXMLDataStreamReader streamReader; // null when the files are read into documents
+  public GetXMLDataStreamReader.Records records; // the records of the current file when streaming
   public boolean errorInRowButContinue; // true when actual row has an error and error handling is active: means
                                         // continue (error handling in this step should be redesigned)
   public String tokenStart;
@@ -0,0 +1,334 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.getxmldata;
+
+import java.io.Closeable;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.regex.Pattern;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.xml.XMLParserFactoryProducer;
+
+/**
+ * Reads the values of the fields from an XML stream without building a document.<br>
+ * The loop path and the field paths are compiled into a matcher driven by StAX events. It supports the child and
+ * attribute steps of XPath: an absolute loop path like <code>/root/item</code> or <code>/root/*</code>, and field paths
+ * relative to the loop element like <code>.</code>, <code>name</code>, <code>child/name</code> or
+ * <code>child/@attribute</code>. The value of a field is the string value of its first match, as with
+ * <code>valueOf()</code>, or <code>null</code> when nothing matched. Use {@link #compile(String, String[])} to find out
+ * if the paths are supported.<br>
+ * The document is parsed by a thread of its own, which hands the records over to the step thread in batches.
+ */
+public class GetXMLDataStreamReader {
+
+  static final int BATCH_SIZE = 256;
+  static final int QUEUE_CAPACITY = 16;
+
+  private static final String ANY = "*";
+  private static final Pattern NAME = Pattern.compile( "[A-Za-z_][\\w.\\-]*|\\*" );
+
+  private static final Object END = new Object();
+
+  private final String[] loopPath;
+  private final String[][] fieldElements;
+  private final String[] fieldAttributes;
+
+  private GetXMLDataStreamReader( String[] loopPath, String[][] fieldElements, String[] fieldAttributes ) {
+    this.loopPath = loopPath;
+    this.fieldElements = fieldElements;
+    this.fieldAttributes = fieldAttributes;
+  }
+
+  /**
+   * @param loopXPath  the absolute path of the loop elements
+   * @param fieldPaths the paths of the fields, relative to the loop elements
+   * @return the reader, <code>null</code> if the paths use features that need a document
+   */
+  public static GetXMLDataStreamReader compile( String loopXPath, String[] fieldPaths ) {
+    if ( loopXPath == null || !loopXPath.startsWith( GetXMLDataMeta.N0DE_SEPARATOR ) ) {
+      return null;
+    }
+    String[] loopPath = loopXPath.substring( 1 ).split( GetXMLDataMeta.N0DE_SEPARATOR, -1 );
+    for ( String step : loopPath ) {
+      if ( !NAME.matcher( step ).matches() ) {
+        return null;
+      }
+    }
+    String[][] fieldElements = new String[ fieldPaths.length ][];
+    String[] fieldAttributes = new String[ fieldPaths.length ];
+    for ( int i = 0; i < fieldPaths.length; i++ ) {
+      String path = fieldPaths[ i ] == null ? "" : fieldPaths[ i ].trim();
+      if ( path.equals( "." ) ) {
+        fieldElements[ i ] = new String[ 0 ];
+        continue;
+      }
+      if ( path.startsWith( "./" ) ) {
+        path = path.substring( 2 );
+      }
+      String[] steps = path.split( GetXMLDataMeta.N0DE_SEPARATOR, -1 );
+      int elements = steps.length;
+      String last = steps[ steps.length - 1 ];
+      if ( last.startsWith( GetXMLDataMeta.AT ) ) {
+        fieldAttributes[ i ] = last.substring( GetXMLDataMeta.AT.length() );
+        if ( fieldAttributes[ i ].equals( ANY ) ) {
+          return null;
+        }
+        steps[ steps.length - 1 ] = fieldAttributes[ i ];
+        elements--;
+      }
+      for ( String step : steps ) {
+        if ( !NAME.matcher( step ).matches() ) {
+          return null;
+        }
+      }
+      String[] fieldPath = new String[ elements ];
+      System.arraycopy( steps, 0, fieldPath, 0, elements );
+      fieldElements[ i ] = fieldPath;
+    }
+    return new GetXMLDataStreamReader( loopPath, fieldElements, fieldAttributes );
+  }
+
+  /**
+   * Starts reading a document.
+   *
+   * @param in       the document, closed by the records
+   * @param encoding the encoding of the document
+   * @return the records of the document
+   */
+  public Records read( InputStream in, String encoding ) throws KettleException {
+    XMLStreamReader reader;
+    try {
+      reader = XMLParserFactoryProducer.createSecureXMLInputFactory().createXMLStreamReader( in, encoding );
+    } catch ( Exception e ) {
+      closeQuietly( in );
+      throw new KettleException( e );
+    }
+    return new Records( in, reader );
+  }
+
+  private static void closeQuietly( Closeable closeable ) {
+    try {
+      closeable.close();
+    } catch ( Exception e ) {
+      // Ignore close errors
+    }
+  }
+
+  private static boolean matches( String step, String name ) {
+    return step.equals( ANY ) || step.equals( name );
+  }
+
+  /**
+   * The values of the fields of every loop element of a document, in document order.
+   */
+  public class Records implements Closeable {
+    private final InputStream in;
+    private final XMLStreamReader reader;
+    private final BlockingQueue<Object> queue = new ArrayBlockingQueue<>( QUEUE_CAPACITY );
+    private final Thread parser;
+    private volatile boolean closed;
+
+    private List<String[]> batch;
+    private int position;
+    private boolean finished;
+
+    Records( InputStream in, XMLStreamReader reader ) {
+      this.in = in;
+      this.reader = reader;
+      parser = new Thread( this::parse, "GetXMLData stream reader" );
+      parser.setDaemon( true );
+      parser.start();
+    }
+
+    /**
+     * @return the values of the fields of the next loop element, <code>null</code> at the end of the document
+     */
+    @SuppressWarnings( "unchecked" )
+    public String[] next() throws KettleException {
+      while ( batch == null || position >= batch.size() ) {
+        if ( finished ) {
+          return null;
+        }
+        Object item;
+        try {
+          item = queue.take();
+        } catch ( InterruptedException e ) {
+          Thread.currentThread().interrupt();
+          throw new KettleException( e );
+        }
+        if ( item == END ) {
+          finished = true;
+          close();
+        } else if ( item instanceof Throwable ) {
+          finished = true;
+          close();
+          throw new KettleException( (Throwable) item );
+        } else {
+          batch = (List<String[]>) item;
+          position = 0;
+        }
+      }
+      return batch.get( position++ );
+    }
+
+    @Override
+    public void close() {
+      if ( !closed ) {
+        closed = true;
+        parser.interrupt();
+        closeQuietly( in );
+      }
+    }
+
+    private void parse() {
+      try {
+        List<String[]> records = new ArrayList<>( BATCH_SIZE );
+        int depth = 0;
+        int loopDepth = 0;
+        int recordDepth = -1;
+        String[] values = null;
+        boolean[] found = null;
+        int[] fieldDepths = new int[ fieldElements.length ];
+        int[] captureDepths = new int[ fieldElements.length ];
+        StringBuilder[] texts = new StringBuilder[ fieldElements.length ];
+
+        while ( reader.hasNext() && !closed ) {
+          int event = reader.next();
+          if ( event == XMLStreamConstants.START_ELEMENT ) {
+            depth++;
+            String name = reader.getLocalName();
+            if ( recordDepth < 0 ) {
+              if ( loopDepth == depth - 1 && depth <= loopPath.length && noNamespace()
+                && matches( loopPath[ depth - 1 ], name ) ) {
+                loopDepth = depth;
+                if ( loopDepth == loopPath.length ) {
+                  recordDepth = depth;
+                  values = new String[ fieldElements.length ];
+                  found = new boolean[ fieldElements.length ];
+                  for ( int i = 0; i < fieldElements.length; i++ ) {
+                    fieldDepths[ i ] = 0;
+                    captureDepths[ i ] = -1;
+                    if ( fieldElements[ i ].length == 0 ) {
+                      matched( i, depth, values, found, captureDepths, texts );
+                    }
+                  }
+                }
+              }
+            } else {
+              int relative = depth - recordDepth;
+              for ( int i = 0; i < fieldElements.length; i++ ) {
+                String[] steps = fieldElements[ i ];
+                if ( !found[ i ] && captureDepths[ i ] < 0 && fieldDepths[ i ] == relative - 1
+                  && relative <= steps.length && noNamespace() && matches( steps[ relative - 1 ], name ) ) {
+                  fieldDepths[ i ] = relative;
+                  if ( relative == steps.length ) {
+                    matched( i, depth, values, found, captureDepths, texts );
+                  }
+                }
+              }
+            }
+          } else if ( event == XMLStreamConstants.END_ELEMENT ) {
+            if ( recordDepth > 0 ) {
+              int relative = depth - recordDepth;
+              for ( int i = 0; i < fieldElements.length; i++ ) {
+                if ( captureDepths[ i ] == depth ) {
+                  values[ i ] = texts[ i ].toString();
+                  found[ i ] = true;
+                  captureDepths[ i ] = -1;
+                }
+                if ( fieldDepths[ i ] == relative && relative > 0 ) {
+                  fieldDepths[ i ]--;
+                }
+              }
+              if ( depth == recordDepth ) {
+                records.add( values );
+                if ( records.size() >= BATCH_SIZE ) {
+                  queue.put( records );
+                  records = new ArrayList<>( BATCH_SIZE );
+                }
+                recordDepth = -1;
+              }
+            }
+            if ( loopDepth == depth ) {
+              loopDepth--;
+            }
+            depth--;
+          } else if ( recordDepth > 0 && ( event == XMLStreamConstants.CHARACTERS
+            || event == XMLStreamConstants.CDATA || event == XMLStreamConstants.SPACE ) ) {
+            for ( int i = 0; i < fieldElements.length; i++ ) {
+              if ( captureDepths[ i ] > 0 ) {
+                texts[ i ].append( reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength() );
+              }
+            }
+          }
+        }
+        if ( !records.isEmpty() ) {
+          queue.put( records );
+        }
+        queue.put( END );
+      } catch ( InterruptedException e ) {
+        // closed by the step
+      } catch ( Exception e ) {
+        if ( !closed ) {
+          try {
+            queue.put( e );
+          } catch ( InterruptedException ie ) {
+            // closed by the step
+          }
+        }
+      } finally {
+        try {
+          reader.close();
+        } catch ( Exception e ) {
+          // Ignore close errors
+        }
+      }
+    }
+
+    /**
+     * Element names in the paths have no prefix, so like XPath they only match elements without a namespace.
+     */
+    private boolean noNamespace() {
+      String uri = reader.getNamespaceURI();
+      return uri == null || uri.isEmpty();
+    }
+
+    /**
+     * The element at the depth matched all element steps of a field.
+     */
+    private void matched( int field, int depth, String[] values, boolean[] found, int[] captureDepths,
+                          StringBuilder[] texts ) {
+      if ( fieldAttributes[ field ] != null ) {
+        String value = reader.getAttributeValue( null, fieldAttributes[ field ] );
+        if ( value != null ) {
+          values[ field ] = value;
+          found[ field ] = true;
+        }
+      } else {
+        if ( texts[ field ] == null ) {
+          texts[ field ] = new StringBuilder();
+        }
+        texts[ field ].setLength( 0 );
+        captureDepths[ field ] = depth;
+      }
+    }
+  }
+}
@@ -0,0 +1,153 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.getxmldata;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.junit.Test;
+import org.pentaho.di.core.exception.KettleException;
+
+public class GetXMLDataStreamReaderTest {
+
+  private static final String XML = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+    + "<root>\n"
+    + "  <items>\n"
+    + "    <item id=\"1\"><name>First</name><price currency=\"EUR\">1.50</price><!-- comment --></item>\n"
+    + "    <item id=\"2\"><name>Se<b>con</b>d</name><tag>a</tag><tag>b</tag></item>\n"
+    + "    <item><name><![CDATA[<third>]]></name><price>3</price></item>\n"
+    + "    <other id=\"4\"><name>Other</name></other>\n"
+    + "  </items>\n"
+    + "  <item id=\"5\"><name>Outside</name></item>\n"
+    + "</root>";
+
+  private static InputStream xml( String xml ) {
+    return new ByteArrayInputStream( xml.getBytes( StandardCharsets.UTF_8 ) );
+  }
+
+  private static List<String[]> readAll( GetXMLDataStreamReader reader, String xml ) throws KettleException {
+    List<String[]> records = new ArrayList<>();
+    try ( GetXMLDataStreamReader.Records data = reader.read( xml( xml ), "UTF-8" ) ) {
+      String[] record;
+      while ( ( record = data.next() ) != null ) {
+        records.add( record );
+      }
+    }
+    return records;
+  }
+
+  @Test
+  public void testSupportedPaths() {
+    assertNotNull( GetXMLDataStreamReader.compile( "/root/items/item",
+      new String[] { ".", "name", "./name", "@id", "price/@currency", "*/x" } ) );
+    assertNotNull( GetXMLDataStreamReader.compile( "/root/*", new String[0] ) );
+  }
+
+  @Test
+  public void testUnsupportedPaths() {
+    String[] loopPaths = { "root/item", "//item", "/root/item[1]", "/root/pre:item", "/root/item/text()" };
+    for ( String loopPath : loopPaths ) {
+      assertNull( loopPath, GetXMLDataStreamReader.compile( loopPath, new String[] { "name" } ) );
+    }
+    String[] fieldPaths = { "../name", "//name", "name[2]", "text()", "@*", "pre:name", "name | id", "" };
+    for ( String fieldPath : fieldPaths ) {
+      assertNull( fieldPath, GetXMLDataStreamReader.compile( "/root/item", new String[] { fieldPath } ) );
+    }
+  }
+
+  @Test
+  public void testValues() throws Exception {
+    GetXMLDataStreamReader reader = GetXMLDataStreamReader.compile( "/root/items/item",
+      new String[] { "@id", "name", "price", "price/@currency", "tag" } );
+    List<String[]> records = readAll( reader, XML );
+    assertEquals( 3, records.size() );
+    assertArrayEquals( new String[] { "1", "First", "1.50", "EUR", null }, records.get( 0 ) );
+    // string value of the whole element, first match only
+    assertArrayEquals( new String[] { "2", "Second", null, null, "a" }, records.get( 1 ) );
+    assertArrayEquals( new String[] { null, "<third>", "3", null, null }, records.get( 2 ) );
+  }
+
+  @Test
+  public void testWildcardsAndSelf() throws Exception {
+    GetXMLDataStreamReader reader = GetXMLDataStreamReader.compile( "/root/*/*", new String[] { ".", "@id" } );
+    List<String[]> records = readAll( reader, XML );
+    assertEquals( 5, records.size() );
+    assertArrayEquals( new String[] { "First1.50", "1" }, records.get( 0 ) );
+    assertArrayEquals( new String[] { "Other", "4" }, records.get( 3 ) );
+    // the name of the item outside of items
+    assertArrayEquals( new String[] { "Outside", null }, records.get( 4 ) );
+  }
+
+  @Test
+  public void testNamespacedElementsDoNotMatch() throws Exception {
+    GetXMLDataStreamReader reader = GetXMLDataStreamReader.compile( "/root/item", new String[] { "name" } );
+    List<String[]> records = readAll( reader, "<root><item><name>a</name></item>"
+      + "<item xmlns=\"urn:x\"><name>b</name></item><item><n:name xmlns:n=\"urn:n\">c</n:name></item></root>" );
+    assertEquals( 2, records.size() );
+    assertEquals( "a", records.get( 0 )[ 0 ] );
+    assertNull( records.get( 1 )[ 0 ] );
+  }
+
+  @Test
+  public void testManyRecords() throws Exception {
+    StringBuilder xml = new StringBuilder( "<rows>" );
+    int count = GetXMLDataStreamReader.BATCH_SIZE * ( GetXMLDataStreamReader.QUEUE_CAPACITY + 3 ) + 7;
+    for ( int i = 0; i < count; i++ ) {
+      xml.append( "<row n=\"" ).append( i ).append( "\"/>" );
+    }
+    xml.append( "</rows>" );
+    List<String[]> records = readAll( GetXMLDataStreamReader.compile( "/rows/row", new String[] { "@n" } ),
+      xml.toString() );
+    assertEquals( count, records.size() );
+    for ( int i = 0; i < count; i++ ) {
+      assertEquals( String.valueOf( i ), records.get( i )[ 0 ] );
+    }
+  }
+
+  @Test
+  public void testCloseBeforeTheEnd() throws Exception {
+    StringBuilder xml = new StringBuilder( "<rows>" );
+    for ( int i = 0; i < 100000; i++ ) {
+      xml.append( "<row>" ).append( i ).append( "</row>" );
+    }
+    xml.append( "</rows>" );
+    GetXMLDataStreamReader.Records records =
+      GetXMLDataStreamReader.compile( "/rows/row", new String[] { "." } ).read( xml( xml.toString() ), "UTF-8" );
+    assertEquals( "0", records.next()[ 0 ] );
+    records.close();
+  }
+
+  @Test
+  public void testMalformedDocument() throws Exception {
+    GetXMLDataStreamReader reader = GetXMLDataStreamReader.compile( "/root/item", new String[] { "." } );
+    try {
+      readAll( reader, "<root><item>a</item><item>b</root>" );
+    } catch ( KettleException e ) {
+      assertTrue( e.getCause() instanceof XMLStreamException );
+      return;
+    }
+    throw new AssertionError( "malformed document not reported" );
+  }
+}
@@ -51,6 +51,7 @@ import org.pentaho.di.ui.core.dialog.ErrorDialog;
 import org.pentaho.di.ui.core.gui.GUIResource;
 import org.pentaho.di.ui.core.widget.ColumnInfo;
 import org.pentaho.di.ui.core.widget.TableView;
+import org.pentaho.di.ui.core.widget.TextVar;
 import org.pentaho.di.ui.trans.step.BaseStepDialog;
 
 public class MergeJoinDialog extends BaseStepDialog implements StepDialogInterface {
@@ -70,6 +71,14 @@ public class MergeJoinDialog extends BaseStepDialog implements StepDialogInterfa
   private CCombo wType;
   private FormData fdlType, fdType;
 
+  private Label wlDirectory;
+  private TextVar wDirectory;
+  private FormData fdlDirectory, fdDirectory;
+
+  private Label wlPrefix;
+  private Text wPrefix;
+  private FormData fdlPrefix, fdPrefix;
+
   private Label wlKeys1;
   private TableView wKeys1;
   private Button wbKeys1;
@@ -201,13 +210,49 @@ public class MergeJoinDialog extends BaseStepDialog implements StepDialogInterfa
     fdType.right = new FormAttachment( 100, 0 );
     wType.setLayoutData( fdType );
 
+    // Temp directory for large groups of rows with the same key
+    wlDirectory = new Label( shell, SWT.RIGHT );
+    wlDirectory.setText( BaseMessages.getString( PKG, "MergeJoinDialog.Directory.Label" ) );
+    props.setLook( wlDirectory );
+    fdlDirectory = new FormData();
+    fdlDirectory.left = new FormAttachment( 0, 0 );
+    fdlDirectory.right = new FormAttachment( middle, -margin );
+    fdlDirectory.top = new FormAttachment( wType, margin );
+    wlDirectory.setLayoutData( fdlDirectory );
+    wDirectory = new TextVar( transMeta, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    props.setLook( wDirectory );
+    wDirectory.addModifyListener( lsMod );
+    fdDirectory = new FormData();
+    fdDirectory.top = new FormAttachment( wType, margin );
+    fdDirectory.left = new FormAttachment( middle, 0 );
+    fdDirectory.right = new FormAttachment( 100, 0 );
+    wDirectory.setLayoutData( fdDirectory );
+
+    // Prefix of the temporary file
+    wlPrefix = new Label( shell, SWT.RIGHT );
+    wlPrefix.setText( BaseMessages.getString( PKG, "MergeJoinDialog.Prefix.Label" ) );
+    props.setLook( wlPrefix );
+    fdlPrefix = new FormData();
+    fdlPrefix.left = new FormAttachment( 0, 0 );
+    fdlPrefix.right = new FormAttachment( middle, -margin );
+    fdlPrefix.top = new FormAttachment( wDirectory, margin );
+    wlPrefix.setLayoutData( fdlPrefix );
+    wPrefix = new Text( shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    props.setLook( wPrefix );
+    wPrefix.addModifyListener( lsMod );
+    fdPrefix = new FormData();
+    fdPrefix.top = new FormAttachment( wDirectory, margin );
+    fdPrefix.left = new FormAttachment( middle, 0 );
+    fdPrefix.right = new FormAttachment( 100, 0 );
+    wPrefix.setLayoutData( fdPrefix );
+
     // THE KEYS TO MATCH for first step...
     wlKeys1 = new Label( shell, SWT.NONE );
     wlKeys1.setText( BaseMessages.getString( PKG, "MergeJoinDialog.Keys1.Label" ) );
     props.setLook( wlKeys1 );
     fdlKeys1 = new FormData();
     fdlKeys1.left = new FormAttachment( 0, 0 );
-    fdlKeys1.top = new FormAttachment( wType, margin );
+    fdlKeys1.top = new FormAttachment( wPrefix, margin );
     wlKeys1.setLayoutData( fdlKeys1 );
 
     int nrKeyRows1 = ( input.getKeyFields1() != null ? input.getKeyFields1().length : 1 );
@@ -249,7 +294,7 @@ public class MergeJoinDialog extends BaseStepDialog implements StepDialogInterfa
     props.setLook( wlKeys2 );
     fdlKeys2 = new FormData();
     fdlKeys2.left = new FormAttachment( 50, 0 );
-    fdlKeys2.top = new FormAttachment( wType, margin );
+    fdlKeys2.top = new FormAttachment( wPrefix, margin );
     wlKeys2.setLayoutData( fdlKeys2 );
 
     int nrKeyRows2 = ( input.getKeyFields2() != null ? input.getKeyFields2().length : 1 );
@@ -352,6 +397,8 @@ public class MergeJoinDialog extends BaseStepDialog implements StepDialogInterfa
     } else {
       wType.setText( MergeJoinMeta.join_types[0] );
     }
+    wDirectory.setText( Const.NVL( input.getDirectory(), "" ) );
+    wPrefix.setText( Const.NVL( input.getPrefix(), "" ) );
 
     for ( int i = 0; i < input.getKeyFields1().length; i++ ) {
       TableItem item = wKeys1.table.getItem( i );
@@ -382,6 +429,8 @@ public class MergeJoinDialog extends BaseStepDialog implements StepDialogInterfa
     infoStreams.get( 0 ).setStepMeta( transMeta.findStep( wStep1.getText() ) );
     infoStreams.get( 1 ).setStepMeta( transMeta.findStep( wStep2.getText() ) );
     meta.setJoinType( wType.getText() );
+    meta.setDirectory( wDirectory.getText() );
+    meta.setPrefix( wPrefix.getText() );
 
     int nrKeys1 = wKeys1.nrNonEmpty();
     int nrKeys2 = wKeys2.nrNonEmpty();
@@ -85,6 +85,18 @@ public class TableInputDialog extends BaseStepDialog implements StepDialogInterf
   private TextVar wLimit;
   private FormData fdlLimit, fdLimit;
 
+  private Label wlSplitColumn;
+  private TextVar wSplitColumn;
+  private FormData fdlSplitColumn, fdSplitColumn;
+
+  private Label wlSplitLowerBound;
+  private TextVar wSplitLowerBound;
+  private FormData fdlSplitLowerBound, fdSplitLowerBound;
+
+  private Label wlSplitUpperBound;
+  private TextVar wSplitUpperBound;
+  private FormData fdlSplitUpperBound, fdSplitUpperBound;
+
   private Label wlEachRow;
   private Button wEachRow;
   private FormData fdlEachRow, fdEachRow;
@@ -179,6 +191,61 @@ public class TableInputDialog extends BaseStepDialog implements StepDialogInterf
 
     setButtonPositions( new Button[] { wOK, wPreview, wCancel }, margin, null );
 
+    // Split upper bound ...
+    wlSplitUpperBound = new Label( shell, SWT.RIGHT );
+    wlSplitUpperBound.setText( BaseMessages.getString( PKG, "TableInputDialog.SplitUpperBound" ) );
+    props.setLook( wlSplitUpperBound );
+    fdlSplitUpperBound = new FormData();
+    fdlSplitUpperBound.left = new FormAttachment( 0, 0 );
+    fdlSplitUpperBound.right = new FormAttachment( middle, -margin );
+    fdlSplitUpperBound.bottom = new FormAttachment( wOK, -2 * margin );
+    wlSplitUpperBound.setLayoutData( fdlSplitUpperBound );
+    wSplitUpperBound = new TextVar( transMeta, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    props.setLook( wSplitUpperBound );
+    wSplitUpperBound.addModifyListener( lsMod );
+    fdSplitUpperBound = new FormData();
+    fdSplitUpperBound.left = new FormAttachment( middle, 0 );
+    fdSplitUpperBound.right = new FormAttachment( 100, 0 );
+    fdSplitUpperBound.bottom = new FormAttachment( wOK, -2 * margin );
+    wSplitUpperBound.setLayoutData( fdSplitUpperBound );
+
+    // Split lower bound ...
+    wlSplitLowerBound = new Label( shell, SWT.RIGHT );
+    wlSplitLowerBound.setText( BaseMessages.getString( PKG, "TableInputDialog.SplitLowerBound" ) );
+    props.setLook( wlSplitLowerBound );
+    fdlSplitLowerBound = new FormData();
+    fdlSplitLowerBound.left = new FormAttachment( 0, 0 );
+    fdlSplitLowerBound.right = new FormAttachment( middle, -margin );
+    fdlSplitLowerBound.bottom = new FormAttachment( wSplitUpperBound, -margin );
+    wlSplitLowerBound.setLayoutData( fdlSplitLowerBound );
+    wSplitLowerBound = new TextVar( transMeta, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    props.setLook( wSplitLowerBound );
+    wSplitLowerBound.addModifyListener( lsMod );
+    fdSplitLowerBound = new FormData();
+    fdSplitLowerBound.left = new FormAttachment( middle, 0 );
+    fdSplitLowerBound.right = new FormAttachment( 100, 0 );
+    fdSplitLowerBound.bottom = new FormAttachment( wSplitUpperBound, -margin );
+    wSplitLowerBound.setLayoutData( fdSplitLowerBound );
+
+    // Split column: read a range of its values in each copy of the step
+    wlSplitColumn = new Label( shell, SWT.RIGHT );
+    wlSplitColumn.setText( BaseMessages.getString( PKG, "TableInputDialog.SplitColumn" ) );
+    props.setLook( wlSplitColumn );
+    fdlSplitColumn = new FormData();
+    fdlSplitColumn.left = new FormAttachment( 0, 0 );
+    fdlSplitColumn.right = new FormAttachment( middle, -margin );
+    fdlSplitColumn.bottom = new FormAttachment( wSplitLowerBound, -margin );
+    wlSplitColumn.setLayoutData( fdlSplitColumn );
+    wSplitColumn = new TextVar( transMeta, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wSplitColumn.setToolTipText( BaseMessages.getString( PKG, "TableInputDialog.SplitColumn.Tooltip" ) );
+    props.setLook( wSplitColumn );
+    wSplitColumn.addModifyListener( lsMod );
+    fdSplitColumn = new FormData();
+    fdSplitColumn.left = new FormAttachment( middle, 0 );
+    fdSplitColumn.right = new FormAttachment( 100, 0 );
+    fdSplitColumn.bottom = new FormAttachment( wSplitLowerBound, -margin );
+    wSplitColumn.setLayoutData( fdSplitColumn );
+
     // Limit input ...
     wlLimit = new Label( shell, SWT.RIGHT );
     wlLimit.setText( BaseMessages.getString( PKG, "TableInputDialog.LimitSize" ) );
@@ -186,7 +253,7 @@ public class TableInputDialog extends BaseStepDialog implements StepDialogInterf
     fdlLimit = new FormData();
     fdlLimit.left = new FormAttachment( 0, 0 );
     fdlLimit.right = new FormAttachment( middle, -margin );
-    fdlLimit.bottom = new FormAttachment( wOK, -2 * margin );
+    fdlLimit.bottom = new FormAttachment( wSplitColumn, -margin );
     wlLimit.setLayoutData( fdlLimit );
     wLimit = new TextVar( transMeta, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
     props.setLook( wLimit );
@@ -194,7 +261,7 @@ public class TableInputDialog extends BaseStepDialog implements StepDialogInterf
     fdLimit = new FormData();
     fdLimit.left = new FormAttachment( middle, 0 );
     fdLimit.right = new FormAttachment( 100, 0 );
-    fdLimit.bottom = new FormAttachment( wOK, -2 * margin );
+    fdLimit.bottom = new FormAttachment( wSplitColumn, -margin );
     wLimit.setLayoutData( fdLimit );
 
     // Execute for each row?
@@ -434,6 +501,9 @@ public class TableInputDialog extends BaseStepDialog implements StepDialogInterf
 
     wStepname.addSelectionListener( lsDef );
     wLimit.addSelectionListener( lsDef );
+    wSplitColumn.addSelectionListener( lsDef );
+    wSplitLowerBound.addSelectionListener( lsDef );
+    wSplitUpperBound.addSelectionListener( lsDef );
 
     // Detect X or ALT-F4 or something that kills this window...
     shell.addShellListener( new ShellAdapter() {
@@ -491,6 +561,9 @@ public class TableInputDialog extends BaseStepDialog implements StepDialogInterf
       wConnection.setText( input.getDatabaseMeta().getName() );
     }
     wLimit.setText( Const.NVL( input.getRowLimit(), "" ) );
+    wSplitColumn.setText( Const.NVL( input.getSplitColumn(), "" ) );
+    wSplitLowerBound.setText( Const.NVL( input.getSplitLowerBound(), "" ) );
+    wSplitUpperBound.setText( Const.NVL( input.getSplitUpperBound(), "" ) );
 
     StreamInterface infoStream = input.getStepIOMeta().getInfoStreams().get( 0 );
     if ( infoStream.getStepMeta() != null ) {
@@ -537,6 +610,9 @@ public class TableInputDialog extends BaseStepDialog implements StepDialogInterf
     meta.setSQL( preview && !Utils.isEmpty( wSQL.getSelectionText() ) ? wSQL.getSelectionText() : wSQL.getText() );
     meta.setDatabaseMeta( transMeta.findDatabase( wConnection.getText() ) );
     meta.setRowLimit( wLimit.getText() );
+    meta.setSplitColumn( wSplitColumn.getText() );
+    meta.setSplitLowerBound( wSplitLowerBound.getText() );
+    meta.setSplitUpperBound( wSplitUpperBound.getText() );
     StreamInterface infoStream = input.getStepIOMeta().getInfoStreams().get( 0 );
     infoStream.setStepMeta( transMeta.findStep( wDatefrom.getText() ) );
     meta.setExecuteEachInputRow( wEachRow.getSelection() );